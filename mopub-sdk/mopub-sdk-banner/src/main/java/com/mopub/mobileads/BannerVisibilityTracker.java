@@ -11,26 +11,20 @@ import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.view.View;
-import android.view.ViewTreeObserver;
 
 import com.mopub.common.Preconditions;
+import com.mopub.common.VisibilityEngine;
 import com.mopub.common.VisibleForTesting;
-import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.Dips;
-import com.mopub.common.util.Views;
-
-import java.lang.ref.WeakReference;
-
-import static android.view.ViewTreeObserver.OnPreDrawListener;
-import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 
 /**
  * Tracks banner views to determine when they become visible, where visibility is determined by
  * whether a minimum number of dips have been visible for a minimum duration, where both values are
- * configured by the AdServer via headers.
+ * configured by the AdServer via headers. Checks run in the shared {@link VisibilityEngine} pass of
+ * the window.
  */
 class BannerVisibilityTracker {
-    // Time interval to use for throttling visibility checks.
+    // Time interval to use for throttling visibility checks while there is no engine.
     private static final int VISIBILITY_THROTTLE_MILLIS = 100;
 
     /**
@@ -40,8 +34,12 @@ class BannerVisibilityTracker {
         void onVisibilityChanged();
     }
 
-    @NonNull @VisibleForTesting final OnPreDrawListener mOnPreDrawListener;
-    @NonNull @VisibleForTesting WeakReference<ViewTreeObserver> mWeakViewTreeObserver;
+    @NonNull private final VisibilityEngine.Subscriber mVisibilitySubscriber;
+
+    /**
+     * The engine of the window the banner is in, if one could be found.
+     */
+    @Nullable private VisibilityEngine mVisibilityEngine;
 
     /**
      * Banner view that is being tracked.
@@ -69,7 +67,7 @@ class BannerVisibilityTracker {
     @NonNull private final BannerVisibilityRunnable mVisibilityRunnable;
 
     /**
-     * Handler for visibility.
+     * Handler for visibility checks while there is no engine to run them.
      */
     @NonNull private final Handler mVisibilityHandler;
 
@@ -99,39 +97,17 @@ class BannerVisibilityTracker {
         mVisibilityHandler = new Handler();
         mVisibilityRunnable = new BannerVisibilityRunnable();
 
-        mOnPreDrawListener = new OnPreDrawListener() {
+        mVisibilitySubscriber = new VisibilityEngine.Subscriber() {
             @Override
-            public boolean onPreDraw() {
-                scheduleVisibilityCheck();
-                return true;
+            public void onVisibilityCheck() {
+                mVisibilityRunnable.run();
             }
         };
 
-        mWeakViewTreeObserver = new WeakReference<ViewTreeObserver>(null);
-        setViewTreeObserver(context, mTrackedView);
-    }
-
-    private void setViewTreeObserver(@Nullable final Context context, @Nullable final View view) {
-        final ViewTreeObserver originalViewTreeObserver = mWeakViewTreeObserver.get();
-        if (originalViewTreeObserver != null && originalViewTreeObserver.isAlive()) {
-            return;
-        }
-
-        final View rootView = Views.getTopmostView(context, view);
-        if (rootView == null) {
-            MoPubLog.log(CUSTOM, "Unable to set Visibility Tracker due to no available root view.");
-            return;
-        }
-
-        final ViewTreeObserver viewTreeObserver = rootView.getViewTreeObserver();
-        if (!viewTreeObserver.isAlive()) {
-            MoPubLog.log(CUSTOM, "Visibility Tracker was unable to track views because the"
-                    + " root view tree observer was not alive");
-            return;
+        mVisibilityEngine = VisibilityEngine.forView(context, mTrackedView);
+        if (mVisibilityEngine != null) {
+            mVisibilityEngine.subscribe(mVisibilitySubscriber);
         }
-
-        mWeakViewTreeObserver = new WeakReference<>(viewTreeObserver);
-        viewTreeObserver.addOnPreDrawListener(mOnPreDrawListener);
     }
 
     @Nullable
@@ -152,11 +128,10 @@ class BannerVisibilityTracker {
     void destroy() {
         mVisibilityHandler.removeMessages(0);
         mIsVisibilityScheduled = false;
-        final ViewTreeObserver viewTreeObserver = mWeakViewTreeObserver.get();
-        if (viewTreeObserver != null && viewTreeObserver.isAlive()) {
-            viewTreeObserver.removeOnPreDrawListener(mOnPreDrawListener);
+        if (mVisibilityEngine != null) {
+            mVisibilityEngine.unsubscribe(mVisibilitySubscriber);
+            mVisibilityEngine = null;
         }
-        mWeakViewTreeObserver.clear();
         mBannerVisibilityTrackerListener = null;
     }
 
@@ -168,7 +143,18 @@ class BannerVisibilityTracker {
         }
 
         mIsVisibilityScheduled = true;
-        mVisibilityHandler.postDelayed(mVisibilityRunnable, VISIBILITY_THROTTLE_MILLIS);
+        if (mVisibilityEngine != null) {
+            mVisibilityEngine.scheduleVisibilityCheck();
+        } else {
+            mVisibilityHandler.postDelayed(mVisibilityRunnable, VISIBILITY_THROTTLE_MILLIS);
+        }
+    }
+
+    @Nullable
+    @Deprecated
+    @VisibleForTesting
+    VisibilityEngine getVisibilityEngine() {
+        return mVisibilityEngine;
     }
 
     @NonNull
@@ -281,7 +267,7 @@ class BannerVisibilityTracker {
             }
 
             // View completely clipped by its parents
-            if (!view.getGlobalVisibleRect(mClipRect)) {
+            if (!VisibilityEngine.getGlobalVisibleRect(view, mClipRect)) {
                 return false;
             }
 
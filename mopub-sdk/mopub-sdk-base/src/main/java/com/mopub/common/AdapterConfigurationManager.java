@@ -6,18 +6,16 @@ package com.mopub.common;
 
 import android.content.Context;
 import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.text.TextUtils;
 
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.AsyncTasks;
 import com.mopub.common.util.Reflection;
 import com.mopub.mobileads.MoPubErrorCode;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -28,17 +26,17 @@ import java.util.Set;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
-import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR;
 
 /**
  * Gets Advanced Bidders through an Async Task and stores it in memory for retrieval.
  */
 public class AdapterConfigurationManager implements AdapterConfigurationsInitializationListener {
 
-    private static final String TOKEN_KEY = "token";
-
     @Nullable private volatile Map<String, AdapterConfiguration> mAdapterConfigurations;
+    @Nullable private volatile BiddingTokenCache mBiddingTokenCache;
+    @Nullable private Context mApplicationContext;
     @Nullable private SdkInitializationListener mSdkInitializationListener;
+    @NonNull private final Handler mHandler = new Handler(Looper.getMainLooper());
 
     AdapterConfigurationManager(
             @Nullable final SdkInitializationListener sdkInitializationListener) {
@@ -54,6 +52,7 @@ public class AdapterConfigurationManager implements AdapterConfigurationsInitial
         Preconditions.checkNotNull(networkMediationConfigurations);
         Preconditions.checkNotNull(moPubRequestOptions);
 
+        mApplicationContext = context.getApplicationContext();
         AsyncTasks.safeExecuteOnExecutor(
                 new AdapterConfigurationsInitializationAsyncTask(context.getApplicationContext(),
                         adapterConfigurationClasses, networkMediationConfigurations,
@@ -100,46 +99,20 @@ public class AdapterConfigurationManager implements AdapterConfigurationsInitial
         return abNames;
     }
 
+    /**
+     * Returns the bidding tokens collected in the background. Does not call the adapters.
+     *
+     * @return The tokens as json keyed by network name, or null if there are none.
+     */
     @Nullable
     String getTokensAsJsonString(@NonNull final Context context) {
         Preconditions.checkNotNull(context);
 
-        final JSONObject tokens = getTokensAsJsonObject(context);
-        if (tokens == null) {
+        final BiddingTokenCache biddingTokenCache = mBiddingTokenCache;
+        if (biddingTokenCache == null) {
             return null;
         }
-        return tokens.toString();
-    }
-
-    @Nullable
-    private JSONObject getTokensAsJsonObject(@NonNull final Context context) {
-        Preconditions.checkNotNull(context);
-
-        final Map<String, AdapterConfiguration>
-                adapterConfigurations = mAdapterConfigurations;
-        if (adapterConfigurations == null || adapterConfigurations.isEmpty()) {
-            return null;
-        }
-
-        JSONObject jsonObject = null;
-        for (final AdapterConfiguration adapterConfiguration : adapterConfigurations.values()) {
-            try {
-                final String token = adapterConfiguration.getBiddingToken(context);
-                if (TextUtils.isEmpty(token)) {
-                    continue;
-                }
-                final JSONObject bidderJsonObject = new JSONObject();
-                bidderJsonObject.put(TOKEN_KEY, token);
-                if (jsonObject == null) {
-                    jsonObject = new JSONObject();
-                }
-                jsonObject.put(adapterConfiguration.getMoPubNetworkName(), bidderJsonObject);
-            } catch (JSONException e) {
-                MoPubLog.log(ERROR, "JSON parsing failed for MoPub network name: " +
-                        adapterConfiguration.getMoPubNetworkName());
-            }
-        }
-        return jsonObject;
+        return biddingTokenCache.getTokensJson();
     }
 
     @VisibleForTesting
@@ -161,6 +134,31 @@ public class AdapterConfigurationManager implements AdapterConfigurationsInitial
 
         mAdapterConfigurations = adapterConfigurations;
 
+        final Context context = mApplicationContext;
+        if (context == null || adapterConfigurations.isEmpty()) {
+            notifyInitializationFinished();
+            return;
+        }
+
+        final BiddingTokenCache biddingTokenCache = new BiddingTokenCache(context,
+                adapterConfigurations.values());
+        mBiddingTokenCache = biddingTokenCache;
+        // Initialization finishes once the first tokens are collected, so ad requests made
+        // after it have them. This waits at most BiddingTokenCache.TOKEN_TIMEOUT_MS.
+        biddingTokenCache.refresh(new Runnable() {
+            @Override
+            public void run() {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyInitializationFinished();
+                    }
+                });
+            }
+        });
+    }
+
+    private void notifyInitializationFinished() {
         final SdkInitializationListener sdkInitializationListener = mSdkInitializationListener;
         if (sdkInitializationListener != null) {
             sdkInitializationListener.onInitializationFinished();
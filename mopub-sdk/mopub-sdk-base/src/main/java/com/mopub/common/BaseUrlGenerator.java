@@ -13,6 +13,7 @@ import android.text.TextUtils;
 import android.view.DisplayCutout;
 import android.view.WindowInsets;
 
+import com.mopub.network.MoPubRequestParams;
 import com.mopub.network.Networking;
 import com.mopub.network.PlayServicesUrlRewriter;
 
@@ -103,6 +104,8 @@ public abstract class BaseUrlGenerator {
 
     private StringBuilder mStringBuilder;
     private boolean mFirstParam;
+    private MoPubRequestParams.Builder mRequestParamsBuilder;
+    @Nullable private MoPubRequestParams mRequestParams;
     private static AppEngineInfo mAppEngineInfo = null;
 
     public abstract String generateUrlString(String serverHostname);
@@ -111,10 +114,24 @@ public abstract class BaseUrlGenerator {
         mStringBuilder = new StringBuilder(Networking.getScheme()).append("://")
                 .append(serverHostname).append(handlerType);
         mFirstParam = true;
+        mRequestParamsBuilder = new MoPubRequestParams.Builder();
     }
 
     protected String getFinalUrlString() {
-        return mStringBuilder.toString();
+        final String url = mStringBuilder.toString();
+        mRequestParams = mRequestParamsBuilder.build(url);
+        return url;
+    }
+
+    /**
+     * Gets the unencoded parameters of the most recently generated url. Requests to the ad server
+     * can use these to build their body without parsing the url again.
+     *
+     * @return The parameters, or null if no url has been generated yet.
+     */
+    @Nullable
+    public MoPubRequestParams getRequestParams() {
+        return mRequestParams;
     }
 
     protected void addParam(String key, String value) {
@@ -126,6 +143,7 @@ public abstract class BaseUrlGenerator {
         mStringBuilder.append(key);
         mStringBuilder.append("=");
         mStringBuilder.append(Uri.encode(value));
+        mRequestParamsBuilder.put(key, value);
     }
 
     protected void addParam(String key, Boolean value) {
@@ -137,6 +155,7 @@ public abstract class BaseUrlGenerator {
         mStringBuilder.append(key);
         mStringBuilder.append("=");
         mStringBuilder.append(value ? "1" : "0");
+        mRequestParamsBuilder.put(key, value);
     }
 
     private String getParamDelimiter() {
@@ -0,0 +1,293 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.mopub.common.logging.MoPubLog;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR;
+
+/**
+ * Collects the bidding tokens of all adapters in the background and keeps the resulting json in
+ * memory, so building an ad request only reads a string. Adapters are asked in parallel, and a
+ * refresh does not wait longer than {@link #TOKEN_TIMEOUT_MS} for any of them. Tokens that come
+ * back later are added when they arrive. The cache is warmed when the SDK initializes, and ad
+ * requests never wait for it. Each token expires on its own, so a token that is not renewed in
+ * time is dropped without dropping the others.
+ */
+class BiddingTokenCache {
+    private static final String TOKEN_KEY = "token";
+
+    @VisibleForTesting
+    static final long TOKEN_TIMEOUT_MS = 500;
+    @VisibleForTesting
+    static final long TOKEN_TTL_MS = 10 * 60 * 1000;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+    // Tokens are refreshed well before they expire, so requests keep finding fresh ones
+    @VisibleForTesting
+    static final long REFRESH_INTERVAL_MS = TOKEN_TTL_MS / 2;
+
+    private static class CachedToken {
+        @NonNull final String mToken;
+        final long mFetchedAtMs;
+
+        CachedToken(@NonNull final String token, final long fetchedAtMs) {
+            mToken = token;
+            mFetchedAtMs = fetchedAtMs;
+        }
+    }
+
+    private static class Snapshot {
+        @Nullable final String mTokensJson;
+        // When the oldest token in the json expires
+        final long mExpiresAtMs;
+
+        Snapshot(@Nullable final String tokensJson, final long expiresAtMs) {
+            mTokensJson = tokensJson;
+            mExpiresAtMs = expiresAtMs;
+        }
+    }
+
+    @NonNull private final Context mContext;
+    @NonNull private final Collection<AdapterConfiguration> mAdapterConfigurations;
+    @NonNull private final ExecutorService mExecutor;
+    @NonNull private final ConcurrentMap<AdapterConfiguration, CachedToken> mTokens =
+            new ConcurrentHashMap<AdapterConfiguration, CachedToken>();
+    // Adapters whose getBiddingToken has not returned yet. They are not asked again until it does.
+    @NonNull private final Set<AdapterConfiguration> mFetchingAdapters =
+            Collections.newSetFromMap(new ConcurrentHashMap<AdapterConfiguration, Boolean>());
+    @NonNull private final AtomicBoolean mRefreshing = new AtomicBoolean();
+    @Nullable private volatile Snapshot mSnapshot;
+    // When the adapters were last asked for their tokens
+    private volatile long mRefreshedAtMs;
+
+    BiddingTokenCache(@NonNull final Context context,
+            @NonNull final Collection<AdapterConfiguration> adapterConfigurations) {
+        this(context, adapterConfigurations, createExecutor(adapterConfigurations.size()));
+    }
+
+    @VisibleForTesting
+    BiddingTokenCache(@NonNull final Context context,
+            @NonNull final Collection<AdapterConfiguration> adapterConfigurations,
+            @NonNull final ExecutorService executor) {
+        Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(adapterConfigurations);
+        Preconditions.checkNotNull(executor);
+
+        final Context applicationContext = context.getApplicationContext();
+        mContext = applicationContext != null ? applicationContext : context;
+        mAdapterConfigurations = new ArrayList<AdapterConfiguration>(adapterConfigurations);
+        mExecutor = executor;
+    }
+
+    /**
+     * One thread runs the refresh and each network gets at most one more, since a network is not
+     * asked again while its previous call is still running. Idle threads are let go.
+     */
+    @NonNull
+    private static ExecutorService createExecutor(final int adapterCount) {
+        final int threadCount = adapterCount + 1;
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Returns the tokens collected so far, and starts a new refresh in the background if there
+     * are none yet or they are getting old. Tokens that have expired are left out. Never waits for
+     * the adapters.
+     *
+     * @return The tokens as json keyed by network name, or null if there are none.
+     */
+    @Nullable
+    String getTokensJson() {
+        Snapshot snapshot = mSnapshot;
+        if (snapshot == null) {
+            refresh();
+            // Tokens that have already arrived from the first refresh
+            return buildSnapshot().mTokensJson;
+        }
+
+        final long nowMs = now();
+        if (nowMs - mRefreshedAtMs >= REFRESH_INTERVAL_MS) {
+            refresh();
+        }
+        if (nowMs >= snapshot.mExpiresAtMs) {
+            // Only drops the expired tokens. The adapters are not asked.
+            snapshot = buildSnapshot();
+        }
+        return snapshot.mTokensJson;
+    }
+
+    /**
+     * Asks all adapters for their tokens in the background. Does nothing if a refresh is already
+     * running.
+     */
+    void refresh() {
+        refresh(null);
+    }
+
+    /**
+     * Asks all adapters for their tokens in the background, like {@link #refresh()}.
+     *
+     * @param onRefreshed Run on a background thread once the tokens that arrived within
+     *                    {@link #TOKEN_TIMEOUT_MS} are available, or right away if a refresh is
+     *                    already running.
+     */
+    void refresh(@Nullable final Runnable onRefreshed) {
+        if (!mRefreshing.compareAndSet(false, true)) {
+            notifyRefreshed(onRefreshed);
+            return;
+        }
+        try {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        collectTokens();
+                    } finally {
+                        mRefreshing.set(false);
+                        notifyRefreshed(onRefreshed);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            mRefreshing.set(false);
+            MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to refresh bidding tokens", e);
+            notifyRefreshed(onRefreshed);
+        }
+    }
+
+    private static void notifyRefreshed(@Nullable final Runnable onRefreshed) {
+        if (onRefreshed != null) {
+            onRefreshed.run();
+        }
+    }
+
+    private void collectTokens() {
+        mRefreshedAtMs = now();
+        final AtomicBoolean deadlinePassed = new AtomicBoolean();
+        final List<Future<?>> futures = new ArrayList<Future<?>>(mAdapterConfigurations.size());
+        for (final AdapterConfiguration adapterConfiguration : mAdapterConfigurations) {
+            final String networkName = adapterConfiguration.getMoPubNetworkName();
+            if (!mFetchingAdapters.add(adapterConfiguration)) {
+                MoPubLog.log(CUSTOM, "Still waiting for the bidding token of " + networkName);
+                continue;
+            }
+            futures.add(mExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        fetchToken(adapterConfiguration);
+                    } finally {
+                        mFetchingAdapters.remove(adapterConfiguration);
+                    }
+                    // Tokens that missed the deadline are added once they arrive
+                    if (deadlinePassed.get()) {
+                        buildSnapshot();
+                    }
+                }
+            }));
+        }
+
+        final long deadlineMs = now() + TOKEN_TIMEOUT_MS;
+        for (final Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadlineMs - now()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                MoPubLog.log(CUSTOM, "Bidding token not returned within " + TOKEN_TIMEOUT_MS
+                        + "ms. Using the cached token if there is one.");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to get bidding token", e);
+            }
+        }
+        deadlinePassed.set(true);
+        buildSnapshot();
+    }
+
+    private void fetchToken(@NonNull final AdapterConfiguration adapterConfiguration) {
+        final String networkName = adapterConfiguration.getMoPubNetworkName();
+        final String token;
+        try {
+            token = adapterConfiguration.getBiddingToken(mContext);
+        } catch (Exception e) {
+            MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to get bidding token for " + networkName, e);
+            return;
+        }
+
+        if (TextUtils.isEmpty(token)) {
+            mTokens.remove(adapterConfiguration);
+        } else {
+            mTokens.put(adapterConfiguration, new CachedToken(token, now()));
+        }
+    }
+
+    @NonNull
+    private synchronized Snapshot buildSnapshot() {
+        final long nowMs = now();
+        long expiresAtMs = Long.MAX_VALUE;
+        JSONObject jsonObject = null;
+        for (final AdapterConfiguration adapterConfiguration : mAdapterConfigurations) {
+            final String networkName = adapterConfiguration.getMoPubNetworkName();
+            final CachedToken cachedToken = mTokens.get(adapterConfiguration);
+            if (cachedToken == null) {
+                continue;
+            }
+            final long tokenExpiresAtMs = cachedToken.mFetchedAtMs + TOKEN_TTL_MS;
+            if (nowMs >= tokenExpiresAtMs) {
+                continue;
+            }
+            expiresAtMs = Math.min(expiresAtMs, tokenExpiresAtMs);
+            try {
+                final JSONObject bidderJsonObject = new JSONObject();
+                bidderJsonObject.put(TOKEN_KEY, cachedToken.mToken);
+                if (jsonObject == null) {
+                    jsonObject = new JSONObject();
+                }
+                jsonObject.put(networkName, bidderJsonObject);
+            } catch (JSONException e) {
+                MoPubLog.log(ERROR, "JSON parsing failed for MoPub network name: " + networkName);
+            }
+        }
+        final Snapshot snapshot = new Snapshot(jsonObject == null ? null : jsonObject.toString(),
+                expiresAtMs);
+        mSnapshot = snapshot;
+        return snapshot;
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+}
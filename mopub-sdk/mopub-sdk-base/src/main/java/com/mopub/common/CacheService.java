@@ -10,19 +10,19 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mopub.common.logging.MoPubLog;
-import com.mopub.common.util.DeviceUtils;
 import com.mopub.common.util.Streams;
 import com.mopub.common.util.Utils;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
-import static com.mopub.common.DiskLruCache.open;
+import static com.mopub.common.ConcurrentDiskLruCache.open;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 
 public class CacheService {
@@ -35,8 +35,13 @@ public class CacheService {
     // The number of values per cache entry. Must be positive.
     private static final int VALUE_COUNT = 1;
     private static final int DISK_CACHE_INDEX = 0;
+    // Downloads in progress are kept next to the entries they become, so they can be resumed
+    private static final String PARTIAL_FILE_SUFFIX = ".partial";
+    @VisibleForTesting
+    static final long PARTIAL_FILE_MAX_AGE_MS = 24 * 60 * 60 * 1000;
 
-    private static DiskLruCache sDiskLruCache;
+    // Concurrent so that committing a large video does not hold up reads of other entries
+    private static ConcurrentDiskLruCache sDiskLruCache;
 
     public static boolean initializeDiskCache(final Context context) {
         if (context == null) {
@@ -49,7 +54,8 @@ public class CacheService {
                 return false;
             }
 
-            final long diskCacheSizeBytes = DeviceUtils.diskCacheSizeBytes(cacheDirectory);
+            final DiskCacheBudget diskCacheBudget = DiskCacheBudget.getInstance();
+            final long diskCacheSizeBytes = diskCacheBudget.getInitialMaxSize(cacheDirectory);
             try {
                 sDiskLruCache = open(
                         cacheDirectory,
@@ -61,6 +67,25 @@ public class CacheService {
                 MoPubLog.log(CUSTOM, "Unable to create DiskLruCache", e);
                 return false;
             }
+            deleteStalePartialFiles(cacheDirectory);
+            final ConcurrentDiskLruCache diskLruCache = sDiskLruCache;
+            diskCacheBudget.register(DiskCacheBudget.CACHE_SERVICE, new DiskCacheBudget.Store() {
+                @Override
+                public long size() {
+                    return diskLruCache.size();
+                }
+
+                @Override
+                public void setMaxSize(final long maxSizeBytes) {
+                    diskLruCache.setMaxSize(maxSizeBytes);
+                    // The cache trims in the background, and flushing waits for it
+                    try {
+                        diskLruCache.flush();
+                    } catch (IOException e) {
+                        MoPubLog.log(CUSTOM, "Unable to trim disk cache", e);
+                    }
+                }
+            });
         }
         return true;
     }
@@ -90,8 +115,14 @@ public class CacheService {
         }
 
         try {
-            final DiskLruCache.Snapshot snapshot = sDiskLruCache.get(createValidDiskCacheKey(key));
-            return snapshot != null;
+            final ConcurrentDiskLruCache.Snapshot snapshot = sDiskLruCache.get(createValidDiskCacheKey(key));
+            if (snapshot == null) {
+                return false;
+            }
+            // Callers check for a cached file right before playing it
+            DiskCacheBudget.getInstance().recordHit(DiskCacheBudget.CACHE_SERVICE,
+                    snapshot.getLength(DISK_CACHE_INDEX));
+            return true;
         } catch (Exception e) {
             return false;
         }
@@ -104,7 +135,8 @@ public class CacheService {
 
         // This violates encapsulation but there is no convenience method to get a filename from
         // DiskLruCache. Filename was derived from private class method Entry#getCleanFile
-        // in DiskLruCache.java
+        // in DiskLruCache.java. Readers that open the path later should hold the entry open with
+        // openDiskCacheEntry so it is not evicted first.
         return sDiskLruCache.getDirectory()
                 + File.separator
                 + createValidDiskCacheKey(key)
@@ -112,29 +144,120 @@ public class CacheService {
                 + DISK_CACHE_INDEX;
     }
 
+    /**
+     * Opens a cached entry without copying it. Its file can be read through
+     * {@link ConcurrentDiskLruCache.Snapshot#map(int)},
+     * {@link ConcurrentDiskLruCache.Snapshot#getChannel(int)} or
+     * {@link ConcurrentDiskLruCache.Snapshot#getFileDescriptor(int)}, and it is not evicted until
+     * the snapshot is closed. Callers must close it.
+     *
+     * @return The pinned entry, or null if it is not cached.
+     */
+    @Nullable
+    public static ConcurrentDiskLruCache.Snapshot openDiskCacheEntry(final String key) {
+        if (sDiskLruCache == null) {
+            return null;
+        }
+
+        try {
+            final ConcurrentDiskLruCache.Snapshot snapshot =
+                    sDiskLruCache.pin(createValidDiskCacheKey(key));
+            if (snapshot != null) {
+                DiskCacheBudget.getInstance().recordHit(DiskCacheBudget.CACHE_SERVICE,
+                        snapshot.getLength(DISK_CACHE_INDEX));
+            }
+            return snapshot;
+        } catch (Exception e) {
+            MoPubLog.log(CUSTOM, "Unable to open DiskLruCache entry", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the file a download for this key can write to before it is put into the cache with
+     * {@link #putFileToDiskCache(String, File)}. The file is not part of the cache, and it may
+     * hold the start of an earlier download. Files left untouched for
+     * {@link #PARTIAL_FILE_MAX_AGE_MS} are deleted when the cache is initialized.
+     */
+    @Nullable
+    public static File getPartialFile(final String key) {
+        if (sDiskLruCache == null) {
+            return null;
+        }
+
+        return new File(sDiskLruCache.getDirectory(),
+                createValidDiskCacheKey(key) + PARTIAL_FILE_SUFFIX);
+    }
+
+    /**
+     * Puts the contents of a file into the cache by moving it, so large downloads are not copied.
+     */
+    public static boolean putFileToDiskCache(final String key, @NonNull final File file) {
+        if (sDiskLruCache == null) {
+            return false;
+        }
+
+        ConcurrentDiskLruCache.Editor editor = null;
+        try {
+            editor = sDiskLruCache.edit(createValidDiskCacheKey(key));
+
+            if (editor == null) {
+                // another edit is in progress
+                return false;
+            }
+
+            editor.setFile(DISK_CACHE_INDEX, file);
+            editor.commit();
+        } catch (Exception e) {
+            MoPubLog.log(CUSTOM, "Unable to put file to DiskLruCache", e);
+            if (editor != null) {
+                editor.abortUnlessCommitted();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static void deleteStalePartialFiles(@NonNull final File cacheDirectory) {
+        final File[] files = cacheDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        for (final File file : files) {
+            // Also matches the files that remember which version of the video was downloaded
+            if (file.getName().contains(PARTIAL_FILE_SUFFIX)
+                    && now - file.lastModified() > PARTIAL_FILE_MAX_AGE_MS) {
+                if (!file.delete()) {
+                    MoPubLog.log(CUSTOM, "Unable to delete " + file.getName());
+                }
+            }
+        }
+    }
+
     public static byte[] getFromDiskCache(final String key) {
         if (sDiskLruCache == null) {
             return null;
         }
 
         byte[] bytes = null;
-        DiskLruCache.Snapshot snapshot = null;
+        ConcurrentDiskLruCache.Snapshot snapshot = null;
         try {
             snapshot = sDiskLruCache.get(createValidDiskCacheKey(key));
             if (snapshot == null) {
                 return null;
             }
 
-            final InputStream in = snapshot.getInputStream(DISK_CACHE_INDEX);
-            if (in != null) {
-                bytes = new byte[(int) snapshot.getLength(0)];
-                final BufferedInputStream buffIn = new BufferedInputStream(in);
-                try {
-                    Streams.readStream(buffIn, bytes);
-                } finally {
-                    Streams.closeStream(buffIn);
-                }
+            // Read straight into the result, without the copy a buffered stream would add
+            bytes = new byte[(int) snapshot.getLength(DISK_CACHE_INDEX)];
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            final FileChannel channel = snapshot.getChannel(DISK_CACHE_INDEX);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Keep reading.
             }
+            DiskCacheBudget.getInstance().recordHit(DiskCacheBudget.CACHE_SERVICE,
+                    snapshot.getLength(DISK_CACHE_INDEX));
         } catch (Exception e) {
             MoPubLog.log(CUSTOM, "Unable to get from DiskLruCache", e);
         } finally {
@@ -159,7 +282,7 @@ public class CacheService {
             return false;
         }
 
-        DiskLruCache.Editor editor = null;
+        ConcurrentDiskLruCache.Editor editor = null;
         try {
             editor = sDiskLruCache.edit(createValidDiskCacheKey(key));
 
@@ -174,7 +297,6 @@ public class CacheService {
             outputStream.flush();
             outputStream.close();
 
-            sDiskLruCache.flush();
             editor.commit();
         } catch (Exception e) {
             MoPubLog.log(CUSTOM, "Unable to put to DiskLruCache", e);
@@ -249,6 +371,7 @@ public class CacheService {
     @VisibleForTesting
     public static void clearAndNullCaches() {
         if (sDiskLruCache != null) {
+            DiskCacheBudget.getInstance().unregister(DiskCacheBudget.CACHE_SERVICE);
             try {
                 sDiskLruCache.delete();
                 sDiskLruCache = null;
@@ -261,7 +384,7 @@ public class CacheService {
     // Testing
     @Deprecated
     @VisibleForTesting
-    public static DiskLruCache getDiskLruCache() {
+    public static ConcurrentDiskLruCache getDiskLruCache() {
         return sDiskLruCache;
     }
 }
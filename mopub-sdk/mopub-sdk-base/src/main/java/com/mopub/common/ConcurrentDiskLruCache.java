@@ -0,0 +1,1221 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.Streams;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+
+/**
+ * A {@link DiskLruCache} that lets operations on different keys run at the same time. It uses the
+ * same files and journal format, so either class can open a cache written by the other.
+ * <ul>
+ * <li>Edits, commits and removals lock one of {@link #LOCK_STRIPES} locks picked by key, so
+ * committing a large video only holds up keys that share its stripe.</li>
+ * <li>Reading a clean entry takes no lock. A commit marks the entry as changing while it moves
+ * files, and a read that overlaps a commit of the same key tries again.</li>
+ * <li>Journal lines are queued and written by one background thread, which flushes once per
+ * batch. The same thread evicts entries and compacts the journal.</li>
+ * </ul>
+ * Since the journal is written shortly after each operation, a crash can lose the last few
+ * operations. Cache files that the journal does not account for are deleted when the cache is
+ * opened, so nothing leaks.
+ */
+public final class ConcurrentDiskLruCache implements Closeable {
+    @VisibleForTesting
+    static final int LOCK_STRIPES = 32;
+    private static final long ANY_SEQUENCE_NUMBER = -1;
+    private static final String CLEAN = "CLEAN";
+    private static final String DIRTY = "DIRTY";
+    private static final String REMOVE = "REMOVE";
+    private static final String READ = "READ";
+    // Matches the value files of an entry, clean or dirty
+    private static final Pattern CACHE_FILE_PATTERN =
+            Pattern.compile("[a-z0-9_-]{1,64}\\.\\d+(\\.tmp)?");
+    // Reads give up on being lock free after losing to this many commits of the same key
+    private static final int MAX_OPTIMISTIC_READS = 4;
+    // Same thresholds as DiskLruCache
+    private static final int REDUNDANT_OP_COMPACT_THRESHOLD = 2000;
+
+    @NonNull private final File mDirectory;
+    @NonNull private final File mJournalFile;
+    @NonNull private final File mJournalFileTmp;
+    @NonNull private final File mJournalFileBackup;
+    private final int mAppVersion;
+    private final int mValueCount;
+    private volatile long mMaxSize;
+    @NonNull private final AtomicLong mSize = new AtomicLong();
+    @NonNull private final ConcurrentHashMap<String, Entry> mEntries =
+            new ConcurrentHashMap<String, Entry>();
+    @NonNull private final Object[] mLocks = new Object[LOCK_STRIPES];
+    @NonNull private final AtomicInteger mRedundantOpCount = new AtomicInteger();
+    // Orders entries for eviction, like the access order of DiskLruCache's LinkedHashMap
+    @NonNull private final AtomicLong mAccessClock = new AtomicLong();
+    @NonNull private final AtomicLong mNextSequenceNumber = new AtomicLong();
+    private volatile boolean mClosed;
+
+    /** Journal lines waiting to be written by the background thread. */
+    @NonNull private final ConcurrentLinkedQueue<String> mJournalQueue =
+            new ConcurrentLinkedQueue<String>();
+    @NonNull private final AtomicBoolean mJournalWriteScheduled = new AtomicBoolean();
+    @NonNull private final AtomicBoolean mCleanupScheduled = new AtomicBoolean();
+    // Only used on the background thread once the cache is open
+    @Nullable private Writer mJournalWriter;
+
+    /** Writes the journal, evicts entries and compacts the journal. */
+    @VisibleForTesting
+    final ThreadPoolExecutor mExecutor =
+            new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+    @NonNull private final Runnable mJournalWriteRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mJournalWriteScheduled.set(false);
+            writeJournalQueue();
+        }
+    };
+
+    @NonNull private final Runnable mCleanupRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mCleanupScheduled.set(false);
+            try {
+                writeJournalQueue();
+                if (mJournalWriter == null) {
+                    return; // Closed.
+                }
+                trimToSize();
+                if (journalRebuildRequired()) {
+                    rebuildJournal();
+                    mRedundantOpCount.set(0);
+                }
+            } catch (IOException e) {
+                MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to clean up disk cache", e);
+            }
+        }
+    };
+
+    private ConcurrentDiskLruCache(@NonNull final File directory, final int appVersion,
+            final int valueCount, final long maxSize) {
+        mDirectory = directory;
+        mAppVersion = appVersion;
+        mJournalFile = new File(directory, DiskLruCache.JOURNAL_FILE);
+        mJournalFileTmp = new File(directory, DiskLruCache.JOURNAL_FILE_TEMP);
+        mJournalFileBackup = new File(directory, DiskLruCache.JOURNAL_FILE_BACKUP);
+        mValueCount = valueCount;
+        mMaxSize = maxSize;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            mLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Opens the cache in {@code directory}, creating a cache if none exists there.
+     *
+     * @param directory  a writable directory
+     * @param valueCount the number of values per cache entry. Must be positive.
+     * @param maxSize    the maximum number of bytes this cache should use to store
+     * @throws IOException if reading or writing the cache directory fails
+     */
+    @NonNull
+    public static ConcurrentDiskLruCache open(@NonNull final File directory, final int appVersion,
+            final int valueCount, final long maxSize) throws IOException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        if (valueCount <= 0) {
+            throw new IllegalArgumentException("valueCount <= 0");
+        }
+
+        // If a bkp file exists, use it instead.
+        final File backupFile = new File(directory, DiskLruCache.JOURNAL_FILE_BACKUP);
+        if (backupFile.exists()) {
+            final File journalFile = new File(directory, DiskLruCache.JOURNAL_FILE);
+            // If journal file also exists just delete backup file.
+            if (journalFile.exists()) {
+                backupFile.delete();
+            } else {
+                renameTo(backupFile, journalFile, false);
+            }
+        }
+
+        // Prefer to pick up where we left off.
+        ConcurrentDiskLruCache cache =
+                new ConcurrentDiskLruCache(directory, appVersion, valueCount, maxSize);
+        if (cache.mJournalFile.exists()) {
+            try {
+                cache.readJournal();
+                cache.processJournal();
+                cache.mJournalWriter = newJournalWriter(cache.mJournalFile, true);
+                return cache;
+            } catch (IOException journalIsCorrupt) {
+                MoPubLog.log(CUSTOM_WITH_THROWABLE, "DiskLruCache " + directory
+                        + " is corrupt, removing", journalIsCorrupt);
+                cache.delete();
+            }
+        }
+
+        // Create a new empty cache.
+        directory.mkdirs();
+        cache = new ConcurrentDiskLruCache(directory, appVersion, valueCount, maxSize);
+        cache.rebuildJournal();
+        return cache;
+    }
+
+    private void readJournal() throws IOException {
+        final DiskLruCacheStrictLineReader reader = new DiskLruCacheStrictLineReader(
+                new FileInputStream(mJournalFile), DiskLruCacheUtil.US_ASCII);
+        try {
+            final String magic = reader.readLine();
+            final String version = reader.readLine();
+            final String appVersionString = reader.readLine();
+            final String valueCountString = reader.readLine();
+            final String blank = reader.readLine();
+            if (!DiskLruCache.MAGIC.equals(magic)
+                    || !DiskLruCache.VERSION_1.equals(version)
+                    || !Integer.toString(mAppVersion).equals(appVersionString)
+                    || !Integer.toString(mValueCount).equals(valueCountString)
+                    || !"".equals(blank)) {
+                throw new IOException("unexpected journal header: [" + magic + ", " + version
+                        + ", " + valueCountString + ", " + blank + "]");
+            }
+
+            int lineCount = 0;
+            while (true) {
+                try {
+                    readJournalLine(reader.readLine());
+                    lineCount++;
+                } catch (EOFException endOfJournal) {
+                    break;
+                }
+            }
+            mRedundantOpCount.set(lineCount - mEntries.size());
+        } finally {
+            DiskLruCacheUtil.closeQuietly(reader);
+        }
+    }
+
+    private void readJournalLine(@NonNull final String line) throws IOException {
+        final int firstSpace = line.indexOf(' ');
+        if (firstSpace == -1) {
+            throw new IOException("unexpected journal line: " + line);
+        }
+
+        final int keyBegin = firstSpace + 1;
+        final int secondSpace = line.indexOf(' ', keyBegin);
+        final String key;
+        if (secondSpace == -1) {
+            key = line.substring(keyBegin);
+            if (firstSpace == REMOVE.length() && line.startsWith(REMOVE)) {
+                mEntries.remove(key);
+                return;
+            }
+        } else {
+            key = line.substring(keyBegin, secondSpace);
+        }
+
+        Entry entry = mEntries.get(key);
+        if (entry == null) {
+            entry = new Entry(key);
+            mEntries.put(key, entry);
+        }
+        // Every line counts as an access, as in DiskLruCache's access ordered map
+        entry.mLastAccess = mAccessClock.incrementAndGet();
+
+        if (secondSpace != -1 && firstSpace == CLEAN.length() && line.startsWith(CLEAN)) {
+            final String[] parts = line.substring(secondSpace + 1).split(" ");
+            entry.mPublished = new Published(0, parseLengths(parts));
+            entry.mCurrentEditor = null;
+        } else if (secondSpace == -1 && firstSpace == DIRTY.length() && line.startsWith(DIRTY)) {
+            entry.mCurrentEditor = new Editor(entry);
+        } else if (secondSpace == -1 && firstSpace == READ.length() && line.startsWith(READ)) {
+            // The access was already recorded above.
+        } else {
+            throw new IOException("unexpected journal line: " + line);
+        }
+    }
+
+    /**
+     * Computes the initial size and collects garbage as a part of opening the cache. Dirty
+     * entries are assumed to be inconsistent and will be deleted, as are cache files that belong
+     * to no entry.
+     */
+    private void processJournal() throws IOException {
+        deleteIfExists(mJournalFileTmp);
+        final Set<String> liveFiles = new HashSet<String>();
+        for (final Iterator<Entry> i = mEntries.values().iterator(); i.hasNext(); ) {
+            final Entry entry = i.next();
+            final Published published = entry.mPublished;
+            if (entry.mCurrentEditor == null && published != null) {
+                for (int t = 0; t < mValueCount; t++) {
+                    mSize.addAndGet(published.mLengths[t]);
+                    liveFiles.add(entry.getCleanFile(t).getName());
+                }
+            } else {
+                entry.mCurrentEditor = null;
+                for (int t = 0; t < mValueCount; t++) {
+                    deleteIfExists(entry.getCleanFile(t));
+                    deleteIfExists(entry.getDirtyFile(t));
+                }
+                i.remove();
+            }
+        }
+
+        final File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            final String name = file.getName();
+            if (!liveFiles.contains(name) && CACHE_FILE_PATTERN.matcher(name).matches()) {
+                deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Creates a new journal that omits redundant information. This replaces the current journal
+     * if it exists. Runs on the background thread, except when the cache is created.
+     */
+    private void rebuildJournal() throws IOException {
+        if (mJournalWriter != null) {
+            mJournalWriter.close();
+        }
+
+        final Writer writer = newJournalWriter(mJournalFileTmp, false);
+        try {
+            writer.write(DiskLruCache.MAGIC);
+            writer.write("\n");
+            writer.write(DiskLruCache.VERSION_1);
+            writer.write("\n");
+            writer.write(Integer.toString(mAppVersion));
+            writer.write("\n");
+            writer.write(Integer.toString(mValueCount));
+            writer.write("\n");
+            writer.write("\n");
+
+            // Operations that race with this loop also queued their journal lines, which are
+            // written after it and bring the journal up to date.
+            for (final Entry entry : sortedByAccess()) {
+                final Published published = entry.mPublished;
+                if (entry.mCurrentEditor != null) {
+                    writer.write(DIRTY + ' ' + entry.mKey + '\n');
+                } else if (published != null) {
+                    writer.write(CLEAN + ' ' + entry.mKey + published.getLengths() + '\n');
+                }
+            }
+        } finally {
+            writer.close();
+        }
+
+        if (mJournalFile.exists()) {
+            renameTo(mJournalFile, mJournalFileBackup, true);
+        }
+        renameTo(mJournalFileTmp, mJournalFile, false);
+        mJournalFileBackup.delete();
+
+        mJournalWriter = newJournalWriter(mJournalFile, true);
+    }
+
+    @NonNull
+    private static Writer newJournalWriter(@NonNull final File file, final boolean append)
+            throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append),
+                DiskLruCacheUtil.US_ASCII));
+    }
+
+    private static void deleteIfExists(@NonNull final File file) throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException();
+        }
+    }
+
+    private static void renameTo(@NonNull final File from, @NonNull final File to,
+            final boolean deleteDestination) throws IOException {
+        if (deleteDestination) {
+            deleteIfExists(to);
+        }
+        if (!from.renameTo(to)) {
+            throw new IOException();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the entry named {@code key}, or null if it doesn't exist is not
+     * currently readable. If a value is returned, it is moved to the head of the LRU queue.
+     */
+    @Nullable
+    public Snapshot get(@NonNull final String key) throws IOException {
+        return get(key, false);
+    }
+
+    /**
+     * Returns a snapshot like {@link #get(String)} whose entry is not evicted until the snapshot is
+     * closed, so its files can be mapped or handed to another reader by path.
+     */
+    @Nullable
+    public Snapshot pin(@NonNull final String key) throws IOException {
+        return get(key, true);
+    }
+
+    @Nullable
+    private Snapshot get(@NonNull final String key, final boolean pin) throws IOException {
+        checkNotClosed();
+        validateKey(key);
+
+        // Pins are taken under the entry's lock, where eviction checks them
+        for (int attempt = 0; !pin && attempt < MAX_OPTIMISTIC_READS; attempt++) {
+            final Entry entry = mEntries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            final int version = entry.mVersion;
+            if ((version & 1) != 0) {
+                continue; // The entry's files are being changed.
+            }
+            final Published published = entry.mPublished;
+            if (published == null) {
+                return null;
+            }
+
+            final FileInputStream[] ins = openCleanFiles(entry);
+            // The streams belong to the published values only if nothing changed meanwhile.
+            // Open streams keep reading the same files even if those are replaced later.
+            if (entry.mVersion == version && mEntries.get(key) == entry) {
+                return ins == null ? null : newSnapshot(entry, published, ins, false);
+            }
+            closeQuietly(ins);
+        }
+
+        synchronized (lockFor(key)) {
+            final Entry entry = mEntries.get(key);
+            if (entry == null || entry.mPublished == null) {
+                return null;
+            }
+            final FileInputStream[] ins = openCleanFiles(entry);
+            return ins == null ? null : newSnapshot(entry, entry.mPublished, ins, pin);
+        }
+    }
+
+    /**
+     * Opens all streams eagerly to guarantee that we see a single published snapshot.
+     *
+     * @return The streams, or null if a file is missing.
+     */
+    @Nullable
+    private FileInputStream[] openCleanFiles(@NonNull final Entry entry) {
+        final FileInputStream[] ins = new FileInputStream[mValueCount];
+        try {
+            for (int i = 0; i < mValueCount; i++) {
+                ins[i] = new FileInputStream(entry.getCleanFile(i));
+            }
+            return ins;
+        } catch (FileNotFoundException e) {
+            // A file must have been deleted manually or by a removal!
+            closeQuietly(ins);
+            return null;
+        }
+    }
+
+    @NonNull
+    private Snapshot newSnapshot(@NonNull final Entry entry, @NonNull final Published published,
+            @NonNull final FileInputStream[] ins, final boolean pin) {
+        if (pin) {
+            entry.mPins.incrementAndGet();
+        }
+        entry.mLastAccess = mAccessClock.incrementAndGet();
+        mRedundantOpCount.incrementAndGet();
+        appendJournal(READ + ' ' + entry.mKey);
+        if (journalRebuildRequired()) {
+            scheduleCleanup();
+        }
+        return new Snapshot(entry.mKey, published.mSequenceNumber, ins, published.mLengths,
+                pin ? entry : null);
+    }
+
+    private static void closeQuietly(@Nullable final InputStream[] ins) {
+        if (ins == null) {
+            return;
+        }
+        for (final InputStream in : ins) {
+            DiskLruCacheUtil.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Returns an editor for the entry named {@code key}, or null if another edit is in progress.
+     */
+    @Nullable
+    public Editor edit(@NonNull final String key) throws IOException {
+        return edit(key, ANY_SEQUENCE_NUMBER);
+    }
+
+    @Nullable
+    private Editor edit(@NonNull final String key, final long expectedSequenceNumber)
+            throws IOException {
+        validateKey(key);
+        synchronized (lockFor(key)) {
+            checkNotClosed();
+            Entry entry = mEntries.get(key);
+            if (expectedSequenceNumber != ANY_SEQUENCE_NUMBER && (entry == null
+                    || entry.mPublished == null
+                    || entry.mPublished.mSequenceNumber != expectedSequenceNumber)) {
+                return null; // Snapshot is stale.
+            }
+            if (entry == null) {
+                entry = new Entry(key);
+                entry.mLastAccess = mAccessClock.incrementAndGet();
+                mEntries.put(key, entry);
+            } else if (entry.mCurrentEditor != null) {
+                return null; // Another edit is in progress.
+            }
+
+            final Editor editor = new Editor(entry);
+            entry.mCurrentEditor = editor;
+
+            // Unlike DiskLruCache this is not flushed before the files are created. Files of
+            // edits that did not reach the journal are deleted when the cache is opened.
+            appendJournal(DIRTY + ' ' + key);
+            return editor;
+        }
+    }
+
+    /** Returns the directory where this cache stores its data. */
+    @NonNull
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    /**
+     * Returns the maximum number of bytes that this cache should use to store its data.
+     */
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Changes the maximum number of bytes the cache can store and queues a job to trim the
+     * existing store, if necessary.
+     */
+    public void setMaxSize(final long maxSize) {
+        mMaxSize = maxSize;
+        scheduleCleanup();
+    }
+
+    /**
+     * Returns the number of bytes currently being used to store the values in this cache. This
+     * may be greater than the max size if a background deletion is pending.
+     */
+    public long size() {
+        return mSize.get();
+    }
+
+    private void completeEdit(@NonNull final Editor editor, final boolean success)
+            throws IOException {
+        final Entry entry = editor.mEntry;
+        synchronized (lockFor(entry.mKey)) {
+            if (entry.mCurrentEditor != editor) {
+                throw new IllegalStateException();
+            }
+
+            final Published published = entry.mPublished;
+            // If this edit is creating the entry for the first time, every index must have a
+            // value.
+            if (success && published == null) {
+                for (int i = 0; i < mValueCount; i++) {
+                    if (!editor.mWritten[i]) {
+                        editor.abort();
+                        throw new IllegalStateException(
+                                "Newly created entry didn't create value for index " + i);
+                    }
+                    if (!entry.getDirtyFile(i).exists()) {
+                        editor.abort();
+                        return;
+                    }
+                }
+            }
+
+            final long[] lengths =
+                    published == null ? new long[mValueCount] : published.mLengths.clone();
+            // Readers retry while the version is odd
+            entry.mVersion++;
+            try {
+                for (int i = 0; i < mValueCount; i++) {
+                    final File dirty = entry.getDirtyFile(i);
+                    if (success) {
+                        if (dirty.exists()) {
+                            final File clean = entry.getCleanFile(i);
+                            dirty.renameTo(clean);
+                            final long newLength = clean.length();
+                            mSize.addAndGet(newLength - lengths[i]);
+                            lengths[i] = newLength;
+                        }
+                    } else {
+                        deleteIfExists(dirty);
+                    }
+                }
+
+                mRedundantOpCount.incrementAndGet();
+                entry.mCurrentEditor = null;
+                if (published != null || success) {
+                    if (success) {
+                        entry.mPublished = new Published(
+                                mNextSequenceNumber.getAndIncrement(), lengths);
+                    }
+                    appendJournal(CLEAN + ' ' + entry.mKey + entry.mPublished.getLengths());
+                } else {
+                    mEntries.remove(entry.mKey, entry);
+                    appendJournal(REMOVE + ' ' + entry.mKey);
+                }
+            } finally {
+                entry.mVersion++;
+            }
+        }
+
+        if (mSize.get() > mMaxSize || journalRebuildRequired()) {
+            scheduleCleanup();
+        }
+    }
+
+    /**
+     * We only rebuild the journal when it will halve the size of the journal and eliminate at
+     * least 2000 ops.
+     */
+    private boolean journalRebuildRequired() {
+        final int redundantOpCount = mRedundantOpCount.get();
+        return redundantOpCount >= REDUNDANT_OP_COMPACT_THRESHOLD
+                && redundantOpCount >= mEntries.size();
+    }
+
+    /**
+     * Drops the entry for {@code key} if it exists and can be removed. Entries actively being
+     * edited cannot be removed.
+     *
+     * @return true if an entry was removed.
+     */
+    public boolean remove(@NonNull final String key) throws IOException {
+        return remove(key, false);
+    }
+
+    /**
+     * Drops the entry for {@code key} like {@link #remove(String)}, unless it is pinned.
+     */
+    private boolean evict(@NonNull final String key) throws IOException {
+        return remove(key, true);
+    }
+
+    private boolean remove(@NonNull final String key, final boolean unlessPinned)
+            throws IOException {
+        validateKey(key);
+        synchronized (lockFor(key)) {
+            checkNotClosed();
+            final Entry entry = mEntries.get(key);
+            if (entry == null || entry.mCurrentEditor != null) {
+                return false;
+            }
+            // Pinned entries are being read by path or through a mapping
+            if (unlessPinned && entry.mPins.get() > 0) {
+                return false;
+            }
+
+            entry.mVersion++;
+            try {
+                final Published published = entry.mPublished;
+                for (int i = 0; i < mValueCount; i++) {
+                    final File file = entry.getCleanFile(i);
+                    if (file.exists() && !file.delete()) {
+                        throw new IOException("failed to delete " + file);
+                    }
+                    if (published != null) {
+                        mSize.addAndGet(-published.mLengths[i]);
+                    }
+                }
+                entry.mPublished = null;
+                mEntries.remove(key, entry);
+            } finally {
+                entry.mVersion++;
+            }
+
+            mRedundantOpCount.incrementAndGet();
+            appendJournal(REMOVE + ' ' + key);
+        }
+
+        if (journalRebuildRequired()) {
+            scheduleCleanup();
+        }
+        return true;
+    }
+
+    /** Returns true if this cache has been closed. */
+    public boolean isClosed() {
+        return mClosed;
+    }
+
+    private void checkNotClosed() {
+        if (mClosed) {
+            throw new IllegalStateException("cache is closed");
+        }
+    }
+
+    /** Force buffered operations to the filesystem. */
+    public void flush() throws IOException {
+        checkNotClosed();
+        runOnExecutor(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                trimToSize();
+                writeJournalQueue();
+                return null;
+            }
+        });
+    }
+
+    /** Closes this cache. Stored values will remain on the filesystem. */
+    public synchronized void close() throws IOException {
+        if (mClosed) {
+            return; // Already closed.
+        }
+        for (final Entry entry : new ArrayList<Entry>(mEntries.values())) {
+            final Editor editor = entry.mCurrentEditor;
+            if (editor != null) {
+                editor.abortUnlessCommitted();
+            }
+        }
+        runOnExecutor(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                trimToSize();
+                writeJournalQueue();
+                if (mJournalWriter != null) {
+                    mJournalWriter.close();
+                    mJournalWriter = null;
+                }
+                return null;
+            }
+        });
+        mClosed = true;
+    }
+
+    /**
+     * Closes the cache and deletes all of its stored values. This will delete all files in the
+     * cache directory including files that weren't created by the cache.
+     */
+    public void delete() throws IOException {
+        close();
+        DiskLruCacheUtil.deleteContents(mDirectory);
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits. Runs on the background thread.
+     */
+    private void trimToSize() throws IOException {
+        while (mSize.get() > mMaxSize) {
+            boolean removedAny = false;
+            for (final Entry entry : sortedByAccess()) {
+                if (mSize.get() <= mMaxSize) {
+                    return;
+                }
+                if (mEntries.get(entry.mKey) == entry && evict(entry.mKey)) {
+                    removedAny = true;
+                }
+            }
+            if (!removedAny) {
+                return; // Everything left is being edited or is pinned.
+            }
+        }
+    }
+
+    @NonNull
+    private List<Entry> sortedByAccess() {
+        final List<Entry> entries = new ArrayList<Entry>(mEntries.values());
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(final Entry lhs, final Entry rhs) {
+                final long lhsAccess = lhs.mLastAccess;
+                final long rhsAccess = rhs.mLastAccess;
+                return lhsAccess < rhsAccess ? -1 : (lhsAccess == rhsAccess ? 0 : 1);
+            }
+        });
+        return entries;
+    }
+
+    private void appendJournal(@NonNull final String line) {
+        mJournalQueue.add(line);
+        if (mJournalWriteScheduled.compareAndSet(false, true)) {
+            mExecutor.execute(mJournalWriteRunnable);
+        }
+    }
+
+    private void scheduleCleanup() {
+        if (mCleanupScheduled.compareAndSet(false, true)) {
+            mExecutor.execute(mCleanupRunnable);
+        }
+    }
+
+    /**
+     * Writes all queued journal lines and flushes once. Runs on the background thread.
+     */
+    private void writeJournalQueue() {
+        final Writer journalWriter = mJournalWriter;
+        if (journalWriter == null) {
+            mJournalQueue.clear();
+            return;
+        }
+
+        try {
+            boolean wroteLines = false;
+            String line;
+            while ((line = mJournalQueue.poll()) != null) {
+                journalWriter.write(line);
+                journalWriter.write('\n');
+                wroteLines = true;
+            }
+            if (wroteLines) {
+                journalWriter.flush();
+            }
+        } catch (IOException e) {
+            MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to write disk cache journal", e);
+        }
+    }
+
+    private void runOnExecutor(@NonNull final Callable<Void> callable) throws IOException {
+        try {
+            mExecutor.submit(callable).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @NonNull
+    private Object lockFor(@NonNull final String key) {
+        return mLocks[(key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private static void validateKey(@NonNull final String key) {
+        if (!DiskLruCache.LEGAL_KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException(
+                    "keys must match regex [a-z0-9_-]{1,64}: \"" + key + "\"");
+        }
+    }
+
+    @NonNull
+    private long[] parseLengths(@NonNull final String[] strings) throws IOException {
+        if (strings.length != mValueCount) {
+            throw new IOException("unexpected journal line: " + Arrays.toString(strings));
+        }
+
+        final long[] lengths = new long[mValueCount];
+        try {
+            for (int i = 0; i < strings.length; i++) {
+                lengths[i] = Long.parseLong(strings[i]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("unexpected journal line: " + Arrays.toString(strings));
+        }
+        return lengths;
+    }
+
+    @NonNull
+    private static String inputStreamToString(@NonNull final InputStream in) throws IOException {
+        return DiskLruCacheUtil.readFully(new InputStreamReader(in, DiskLruCacheUtil.UTF_8));
+    }
+
+    /** A snapshot of the values for an entry. */
+    public final class Snapshot implements Closeable {
+        @NonNull private final String mKey;
+        private final long mSequenceNumber;
+        @NonNull private final FileInputStream[] mIns;
+        @NonNull private final long[] mLengths;
+        // Set if this snapshot pins its entry
+        @Nullable private final Entry mPinnedEntry;
+        @NonNull private final AtomicBoolean mClosed = new AtomicBoolean();
+
+        private Snapshot(@NonNull final String key, final long sequenceNumber,
+                @NonNull final FileInputStream[] ins, @NonNull final long[] lengths,
+                @Nullable final Entry pinnedEntry) {
+            mKey = key;
+            mSequenceNumber = sequenceNumber;
+            mIns = ins;
+            mLengths = lengths;
+            mPinnedEntry = pinnedEntry;
+        }
+
+        /**
+         * Returns an editor for this snapshot's entry, or null if either the entry has changed
+         * since this snapshot was created or if another edit is in progress.
+         */
+        @Nullable
+        public Editor edit() throws IOException {
+            return ConcurrentDiskLruCache.this.edit(mKey, mSequenceNumber);
+        }
+
+        /** Returns the unbuffered stream with the value for {@code index}. */
+        @NonNull
+        public InputStream getInputStream(final int index) {
+            return mIns[index];
+        }
+
+        /** Returns the string value for {@code index}. */
+        @NonNull
+        public String getString(final int index) throws IOException {
+            return inputStreamToString(getInputStream(index));
+        }
+
+        /** Returns the byte length of the value for {@code index}. */
+        public long getLength(final int index) {
+            return mLengths[index];
+        }
+
+        /**
+         * Returns a read only channel on the value for {@code index}. It shares its position with
+         * the input stream and is closed with the snapshot.
+         */
+        @NonNull
+        public FileChannel getChannel(final int index) {
+            return mIns[index].getChannel();
+        }
+
+        /** Returns the descriptor of the file with the value for {@code index}. */
+        @NonNull
+        public FileDescriptor getFileDescriptor(final int index) throws IOException {
+            return mIns[index].getFD();
+        }
+
+        /**
+         * Maps the value for {@code index} into memory without copying it. The mapping stays
+         * valid after the snapshot is closed, but only a pinned snapshot keeps the entry from
+         * being evicted meanwhile.
+         */
+        @NonNull
+        public MappedByteBuffer map(final int index) throws IOException {
+            return getChannel(index).map(FileChannel.MapMode.READ_ONLY, 0, mLengths[index]);
+        }
+
+        @Override
+        public void close() {
+            if (!mClosed.compareAndSet(false, true)) {
+                return;
+            }
+            closeQuietly(mIns);
+            if (mPinnedEntry != null && mPinnedEntry.mPins.decrementAndGet() == 0
+                    && mSize.get() > mMaxSize) {
+                // Eviction may have skipped this entry
+                scheduleCleanup();
+            }
+        }
+    }
+
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(final int b) throws IOException {
+            // Eat all writes silently.
+        }
+    };
+
+    /** Edits the values for an entry. */
+    public final class Editor {
+        @NonNull private final Entry mEntry;
+        @Nullable private final boolean[] mWritten;
+        private volatile boolean mHasErrors;
+        private boolean mCommitted;
+
+        private Editor(@NonNull final Entry entry) {
+            mEntry = entry;
+            mWritten = (entry.mPublished != null) ? null : new boolean[mValueCount];
+        }
+
+        /**
+         * Returns an unbuffered input stream to read the last committed value, or null if no
+         * value has been committed.
+         */
+        @Nullable
+        public InputStream newInputStream(final int index) throws IOException {
+            synchronized (lockFor(mEntry.mKey)) {
+                if (mEntry.mCurrentEditor != this) {
+                    throw new IllegalStateException();
+                }
+                if (mEntry.mPublished == null) {
+                    return null;
+                }
+                try {
+                    return new FileInputStream(mEntry.getCleanFile(index));
+                } catch (FileNotFoundException e) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Returns the last committed value as a string, or null if no value has been committed.
+         */
+        @Nullable
+        public String getString(final int index) throws IOException {
+            final InputStream in = newInputStream(index);
+            return in != null ? inputStreamToString(in) : null;
+        }
+
+        /**
+         * Returns a new unbuffered output stream to write the value at {@code index}. If the
+         * underlying output stream encounters errors when writing to the filesystem, this edit
+         * will be aborted when {@link #commit} is called. The returned output stream does not
+         * throw IOExceptions.
+         */
+        @NonNull
+        public OutputStream newOutputStream(final int index) throws IOException {
+            synchronized (lockFor(mEntry.mKey)) {
+                if (mEntry.mCurrentEditor != this) {
+                    throw new IllegalStateException();
+                }
+                if (mWritten != null) {
+                    mWritten[index] = true;
+                }
+            }
+
+            // Only this editor writes the dirty file, so it is opened outside the lock.
+            final File dirtyFile = mEntry.getDirtyFile(index);
+            FileOutputStream outputStream;
+            try {
+                outputStream = new FileOutputStream(dirtyFile);
+            } catch (FileNotFoundException e) {
+                // Attempt to recreate the cache directory.
+                mDirectory.mkdirs();
+                try {
+                    outputStream = new FileOutputStream(dirtyFile);
+                } catch (FileNotFoundException e2) {
+                    // We are unable to recover. Silently eat the writes.
+                    return NULL_OUTPUT_STREAM;
+                }
+            }
+            return new FaultHidingOutputStream(outputStream);
+        }
+
+        /**
+         * Sets the value at {@code index} to the contents of {@code file}. The file is moved into
+         * the cache rather than copied, unless it is on another file system.
+         */
+        public void setFile(final int index, @NonNull final File file) throws IOException {
+            synchronized (lockFor(mEntry.mKey)) {
+                if (mEntry.mCurrentEditor != this) {
+                    throw new IllegalStateException();
+                }
+                if (mWritten != null) {
+                    mWritten[index] = true;
+                }
+            }
+
+            final File dirtyFile = mEntry.getDirtyFile(index);
+            deleteIfExists(dirtyFile);
+            if (file.renameTo(dirtyFile)) {
+                return;
+            }
+            InputStream in = null;
+            OutputStream out = null;
+            try {
+                in = new FileInputStream(file);
+                out = newOutputStream(index);
+                Streams.copyContent(in, out);
+            } finally {
+                DiskLruCacheUtil.closeQuietly(in);
+                DiskLruCacheUtil.closeQuietly(out);
+            }
+            deleteIfExists(file);
+        }
+
+        /** Sets the value at {@code index} to {@code value}. */
+        public void set(final int index, @NonNull final String value) throws IOException {
+            Writer writer = null;
+            try {
+                writer = new OutputStreamWriter(newOutputStream(index), DiskLruCacheUtil.UTF_8);
+                writer.write(value);
+            } finally {
+                DiskLruCacheUtil.closeQuietly(writer);
+            }
+        }
+
+        /**
+         * Commits this edit so it is visible to readers. This releases the edit lock so another
+         * edit may be started on the same key.
+         */
+        public void commit() throws IOException {
+            if (mHasErrors) {
+                completeEdit(this, false);
+                remove(mEntry.mKey); // The previous entry is stale.
+            } else {
+                completeEdit(this, true);
+            }
+            mCommitted = true;
+        }
+
+        /**
+         * Aborts this edit. This releases the edit lock so another edit may be started on the
+         * same key.
+         */
+        public void abort() throws IOException {
+            completeEdit(this, false);
+        }
+
+        public void abortUnlessCommitted() {
+            if (!mCommitted) {
+                try {
+                    abort();
+                } catch (IOException ignored) {
+                } catch (IllegalStateException ignored) {
+                    // Already completed.
+                }
+            }
+        }
+
+        private class FaultHidingOutputStream extends FilterOutputStream {
+            private FaultHidingOutputStream(@NonNull final OutputStream out) {
+                super(out);
+            }
+
+            @Override
+            public void write(final int oneByte) {
+                try {
+                    out.write(oneByte);
+                } catch (IOException e) {
+                    mHasErrors = true;
+                }
+            }
+
+            @Override
+            public void write(@NonNull final byte[] buffer, final int offset, final int length) {
+                try {
+                    out.write(buffer, offset, length);
+                } catch (IOException e) {
+                    mHasErrors = true;
+                }
+            }
+
+            @Override
+            public void close() {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    mHasErrors = true;
+                }
+            }
+
+            @Override
+            public void flush() {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    mHasErrors = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * The committed state of an entry. Replaced on each commit and never changed, so a reader
+     * always sees lengths and sequence number from the same commit.
+     */
+    private static final class Published {
+        final long mSequenceNumber;
+        @NonNull final long[] mLengths;
+
+        Published(final long sequenceNumber, @NonNull final long[] lengths) {
+            mSequenceNumber = sequenceNumber;
+            mLengths = lengths;
+        }
+
+        @NonNull
+        String getLengths() {
+            final StringBuilder result = new StringBuilder();
+            for (final long size : mLengths) {
+                result.append(' ').append(size);
+            }
+            return result.toString();
+        }
+    }
+
+    private final class Entry {
+        @NonNull private final String mKey;
+
+        /** Null until the entry is first committed. */
+        @Nullable private volatile Published mPublished;
+
+        /** The ongoing edit or null if this entry is not being edited. */
+        @Nullable private volatile Editor mCurrentEditor;
+
+        /**
+         * Changed only while holding the entry's lock. Odd while a commit or removal is changing
+         * the entry's files.
+         */
+        private volatile int mVersion;
+
+        private volatile long mLastAccess;
+
+        /**
+         * The number of open pinned snapshots. Pinned entries are not evicted. Only incremented
+         * while holding the entry's lock.
+         */
+        @NonNull private final AtomicInteger mPins = new AtomicInteger();
+
+        private Entry(@NonNull final String key) {
+            mKey = key;
+        }
+
+        @NonNull
+        File getCleanFile(final int i) {
+            return new File(mDirectory, mKey + "." + i);
+        }
+
+        @NonNull
+        File getDirtyFile(final int i) {
+            return new File(mDirectory, mKey + "." + i + ".tmp");
+        }
+    }
+}
@@ -0,0 +1,328 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.DeviceUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+
+/**
+ * Owns one disk budget for all of the SDK's on-disk caches, instead of letting each of them take
+ * {@link DeviceUtils#diskCacheSizeBytes(File)} for itself. Every store gets a small guaranteed
+ * share, and the rest of the budget goes to the stores in proportion to the bytes they have served
+ * recently. A store whose share shrinks evicts its least recently used entries, so the stores
+ * together never use more than the budget.
+ */
+public final class DiskCacheBudget {
+    public static final String CACHE_SERVICE = "mopub-cache";
+    public static final String VOLLEY = "mopub-volley-cache";
+    public static final String NATIVE_VIDEO = "mopub-native-cache";
+
+    /**
+     * A cache whose size the budget controls. Both methods are called often and must be cheap.
+     */
+    public interface Store {
+        /**
+         * @return The number of bytes the store currently uses on disk.
+         */
+        long size();
+
+        /**
+         * Changes how many bytes the store may use. If it uses more, it evicts entries before
+         * returning.
+         */
+        void setMaxSize(long maxSizeBytes);
+    }
+
+    // Part of the budget every store keeps however little it is used
+    @VisibleForTesting
+    static final double MIN_SHARE = 0.1;
+    @VisibleForTesting
+    static final long REBALANCE_INTERVAL_MS = 60 * 1000;
+    // Weight of the hits before the last rebalance, so shares follow how the app uses ads now
+    @VisibleForTesting
+    static final double HIT_DECAY = 0.5;
+
+    private static class StoreState {
+        @NonNull final Store mStore;
+        @NonNull final AtomicLong mRecentHitBytes = new AtomicLong();
+        // Only used on the executor
+        double mHitValue;
+        volatile long mMaxSize;
+
+        StoreState(@NonNull final Store store) {
+            mStore = store;
+        }
+    }
+
+    private static class Helper {
+        @NonNull
+        private static final DiskCacheBudget sInstance = new DiskCacheBudget(new ThreadPoolExecutor(
+                0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>()));
+    }
+
+    @NonNull private final Executor mExecutor;
+    // Keeps registration order so that shares are stable
+    @NonNull private final Map<String, StoreState> mStores =
+            new ConcurrentHashMap<String, StoreState>();
+    @NonNull private final List<String> mStoreNames = new ArrayList<String>();
+    @NonNull private final AtomicBoolean mRebalanceScheduled = new AtomicBoolean();
+    private volatile long mMaxSize;
+    private volatile long mLastRebalanceMs;
+
+    @NonNull private final Runnable mRebalanceRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mRebalanceScheduled.set(false);
+            rebalance();
+        }
+    };
+
+    @VisibleForTesting
+    DiskCacheBudget(@NonNull final Executor executor) {
+        Preconditions.checkNotNull(executor);
+
+        mExecutor = executor;
+    }
+
+    @NonNull
+    public static DiskCacheBudget getInstance() {
+        return Helper.sInstance;
+    }
+
+    /**
+     * Sets the number of bytes all of the SDK's disk caches may use together. Apps can lower it
+     * when the device runs low on storage. Caches that are over their new share evict entries in
+     * the background.
+     *
+     * @param maxSizeBytes The new budget. Must be positive, since the caches cannot be opened
+     *                     without any space.
+     */
+    public void setMaxSize(final long maxSizeBytes) {
+        Preconditions.checkArgument(maxSizeBytes > 0, "maxSizeBytes must be positive");
+
+        MoPubLog.log(CUSTOM, "Setting the disk cache budget to " + maxSizeBytes + " bytes");
+        mMaxSize = maxSizeBytes;
+        scheduleRebalance();
+    }
+
+    /**
+     * @return The number of bytes all of the SDK's disk caches may use together, or 0 before any
+     * cache has been created.
+     */
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * @return The number of bytes all of the SDK's disk caches use together.
+     */
+    public long getTotalSize() {
+        long totalSize = 0;
+        for (final StoreState state : mStores.values()) {
+            totalSize += state.mStore.size();
+        }
+        return totalSize;
+    }
+
+    /**
+     * Returns the number of bytes a new store should start with. The first call picks the default
+     * budget, unless the app has already set one.
+     *
+     * @param cacheDirectory The directory the store keeps its files in. It does not have to exist
+     *                       yet.
+     */
+    public long getInitialMaxSize(@NonNull final File cacheDirectory) {
+        Preconditions.checkNotNull(cacheDirectory);
+
+        synchronized (this) {
+            if (mMaxSize == 0) {
+                mMaxSize = DeviceUtils.diskCacheSizeBytes(getExistingDirectory(cacheDirectory));
+            }
+        }
+        return mMaxSize;
+    }
+
+    /**
+     * Stores create their directories lazily, and the disk space of a directory that does not
+     * exist cannot be measured. Its closest existing parent is on the same file system.
+     */
+    @NonNull
+    private static File getExistingDirectory(@NonNull final File directory) {
+        File existing = directory;
+        while (!existing.exists() && existing.getParentFile() != null) {
+            existing = existing.getParentFile();
+        }
+        return existing;
+    }
+
+    /**
+     * Adds a store to the budget. Registering a name again replaces the previous store.
+     */
+    public void register(@NonNull final String name, @NonNull final Store store) {
+        Preconditions.checkNotNull(name);
+        Preconditions.checkNotNull(store);
+
+        synchronized (mStoreNames) {
+            if (!mStoreNames.contains(name)) {
+                mStoreNames.add(name);
+            }
+            mStores.put(name, new StoreState(store));
+        }
+        scheduleRebalance();
+    }
+
+    public void unregister(@NonNull final String name) {
+        Preconditions.checkNotNull(name);
+
+        synchronized (mStoreNames) {
+            mStoreNames.remove(name);
+            mStores.remove(name);
+        }
+        scheduleRebalance();
+    }
+
+    /**
+     * Records that a store served a request from disk. Shares are recomputed at most once every
+     * {@link #REBALANCE_INTERVAL_MS}.
+     */
+    public void recordHit(@NonNull final String name, final long bytes) {
+        final StoreState state = mStores.get(name);
+        if (state == null || bytes <= 0) {
+            return;
+        }
+        state.mRecentHitBytes.addAndGet(bytes);
+        if (SystemClock.elapsedRealtime() - mLastRebalanceMs >= REBALANCE_INTERVAL_MS) {
+            scheduleRebalance();
+        }
+    }
+
+    /**
+     * @return The number of bytes the store may use, or 0 if it is not registered.
+     */
+    @VisibleForTesting
+    long getMaxSize(@NonNull final String name) {
+        final StoreState state = mStores.get(name);
+        return state == null ? 0 : state.mMaxSize;
+    }
+
+    private void scheduleRebalance() {
+        if (mRebalanceScheduled.compareAndSet(false, true)) {
+            try {
+                mExecutor.execute(mRebalanceRunnable);
+            } catch (RuntimeException e) {
+                mRebalanceScheduled.set(false);
+                MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to rebalance the disk cache budget", e);
+            }
+        }
+    }
+
+    private void rebalance() {
+        mLastRebalanceMs = SystemClock.elapsedRealtime();
+
+        final List<StoreState> states = new ArrayList<StoreState>();
+        synchronized (mStoreNames) {
+            for (final String name : mStoreNames) {
+                states.add(mStores.get(name));
+            }
+        }
+        // 0 means that no budget has been picked yet
+        if (states.isEmpty() || mMaxSize == 0) {
+            return;
+        }
+
+        final double[] hitValues = new double[states.size()];
+        for (int i = 0; i < hitValues.length; i++) {
+            final StoreState state = states.get(i);
+            state.mHitValue = state.mHitValue * HIT_DECAY + state.mRecentHitBytes.getAndSet(0);
+            hitValues[i] = state.mHitValue;
+        }
+
+        final long[] maxSizes = allocate(mMaxSize, hitValues);
+        // Shrink first. Stores evict before setMaxSize returns, so the stores never use more than
+        // the budget while it moves between them.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < maxSizes.length; i++) {
+                final StoreState state = states.get(i);
+                final boolean shrinking = maxSizes[i] < state.mMaxSize;
+                if (shrinking == (pass == 0) && maxSizes[i] != state.mMaxSize) {
+                    state.mMaxSize = maxSizes[i];
+                    setMaxSize(state.mStore, maxSizes[i]);
+                }
+            }
+        }
+    }
+
+    private static void setMaxSize(@NonNull final Store store, final long maxSizeBytes) {
+        try {
+            store.setMaxSize(maxSizeBytes);
+        } catch (RuntimeException e) {
+            MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to resize disk cache", e);
+        }
+    }
+
+    /**
+     * Splits the budget between stores. Each store gets {@link #MIN_SHARE} of the budget, or an
+     * equal part if there are too many stores for that, and the rest is split in proportion to the
+     * hit values. The shares add up to the budget.
+     */
+    @VisibleForTesting
+    @NonNull
+    static long[] allocate(final long budget, @NonNull final double[] hitValues) {
+        Preconditions.checkNotNull(hitValues);
+
+        final int count = hitValues.length;
+        final long[] shares = new long[count];
+        if (count == 0) {
+            return shares;
+        }
+
+        final long minShare = Math.min((long) (budget * MIN_SHARE), budget / count);
+        double totalHitValue = 0;
+        for (final double hitValue : hitValues) {
+            totalHitValue += Math.max(0, hitValue);
+        }
+
+        final long remaining = budget - minShare * count;
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            final double weight = totalHitValue > 0
+                    ? Math.max(0, hitValues[i]) / totalHitValue
+                    : 1.0 / count;
+            shares[i] = minShare + (long) (remaining * weight);
+            allocated += shares[i];
+        }
+        // Rounding leftovers go to the most valuable store
+        shares[indexOfMax(hitValues)] += budget - allocated;
+        return shares;
+    }
+
+    private static int indexOfMax(@NonNull final double[] values) {
+        int index = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[index]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+}
@@ -51,6 +51,7 @@ public abstract class MoPubHttpUrlConnection extends HttpURLConnection {
         urlConnection.setRequestProperty("user-agent", Networking.getCachedUserAgent());
         urlConnection.setConnectTimeout(CONNECT_TIMEOUT);
         urlConnection.setReadTimeout(READ_TIMEOUT);
+        Networking.useSharedSslSocketFactory(urlConnection);
 
         return urlConnection;
     }
@@ -11,6 +11,7 @@ import android.support.annotation.Nullable;
 
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.AsyncTasks;
+import com.mopub.network.Networking;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -96,6 +97,7 @@ public class UrlResolutionTask extends AsyncTask<String, Void, String> {
         try {
             httpUrlConnection = (HttpURLConnection) url.openConnection();
             httpUrlConnection.setInstanceFollowRedirects(false);
+            Networking.useSharedSslSocketFactory(httpUrlConnection);
 
             return resolveRedirectLocation(urlString, httpUrlConnection);
         } finally {
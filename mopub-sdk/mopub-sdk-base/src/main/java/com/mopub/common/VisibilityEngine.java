@@ -0,0 +1,280 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.Views;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static android.view.ViewTreeObserver.OnPreDrawListener;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Runs the visibility checks of every tracker in a window together. There is one engine per
+ * window: it registers a single {@link OnPreDrawListener} on the window's root view, throttles
+ * passes to one per {@link #VISIBILITY_THROTTLE_MILLIS}, and calls each {@link Subscriber} in the
+ * same pass. Views checked by several subscribers during a pass, or checked against both a visible
+ * and an invisible threshold, are only measured once (see
+ * {@link #getGlobalVisibleRect(View, Rect)}).
+ *
+ * All methods must be called on the main thread.
+ */
+public class VisibilityEngine {
+    // Time interval to use for throttling visibility checks.
+    @VisibleForTesting static final int VISIBILITY_THROTTLE_MILLIS = 100;
+
+    /**
+     * Receives a callback once per visibility pass of the window it subscribed to.
+     */
+    public interface Subscriber {
+        void onVisibilityCheck();
+    }
+
+    // Engines by the root view of their window. Engines are held by their subscribers and their
+    // ViewTreeObserver, so this only refers to them weakly.
+    @NonNull private static final Map<View, WeakReference<VisibilityEngine>> sEngines =
+            new WeakHashMap<View, WeakReference<VisibilityEngine>>();
+
+    // The engine running a pass, whose measurements can be shared
+    @Nullable private static VisibilityEngine sRunningEngine;
+
+    @NonNull @VisibleForTesting final OnPreDrawListener mOnPreDrawListener;
+    @NonNull private WeakReference<ViewTreeObserver> mWeakViewTreeObserver;
+
+    @NonNull private final ArrayList<Subscriber> mSubscribers;
+    // Copy of the subscribers for the running pass, so subscribers may come and go during it
+    @NonNull private final ArrayList<Subscriber> mPassSubscribers;
+
+    @NonNull private final Handler mVisibilityHandler;
+    @NonNull private final Runnable mVisibilityPassRunnable;
+    private boolean mIsVisibilityScheduled;
+
+    // Visible rects measured in the running pass. Views that are not visible map to null.
+    @NonNull private final IdentityHashMap<View, Rect> mMeasuredRects;
+    @NonNull private final ArrayList<Rect> mRectPool;
+    private int mRectsInUse;
+    private long mMeasurementCount;
+
+    @VisibleForTesting
+    VisibilityEngine(@NonNull final Handler visibilityHandler) {
+        Preconditions.checkNotNull(visibilityHandler);
+
+        mVisibilityHandler = visibilityHandler;
+        mSubscribers = new ArrayList<Subscriber>();
+        mPassSubscribers = new ArrayList<Subscriber>();
+        mMeasuredRects = new IdentityHashMap<View, Rect>();
+        mRectPool = new ArrayList<Rect>();
+        mWeakViewTreeObserver = new WeakReference<ViewTreeObserver>(null);
+
+        mOnPreDrawListener = new OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                scheduleVisibilityCheck();
+                return true;
+            }
+        };
+        mVisibilityPassRunnable = new Runnable() {
+            @Override
+            public void run() {
+                runVisibilityPass();
+            }
+        };
+    }
+
+    /**
+     * Gets the engine for the window of an Activity or a view, creating it if needed.
+     *
+     * @param context The context. If this is an Activity, its content view is used as the root.
+     * @param view    A view in the window, used when the context is not an Activity.
+     * @return The engine, or null if there is no root view with a live ViewTreeObserver.
+     */
+    @Nullable
+    public static VisibilityEngine forView(@Nullable final Context context,
+            @Nullable final View view) {
+        final View rootView = Views.getTopmostView(context, view);
+        if (rootView == null) {
+            MoPubLog.log(CUSTOM, "Unable to set Visibility Tracker due to no available root view.");
+            return null;
+        }
+
+        final WeakReference<VisibilityEngine> weakEngine = sEngines.get(rootView);
+        VisibilityEngine engine = weakEngine == null ? null : weakEngine.get();
+        if (engine != null && engine.isAttached()) {
+            return engine;
+        }
+
+        final ViewTreeObserver viewTreeObserver = rootView.getViewTreeObserver();
+        if (!viewTreeObserver.isAlive()) {
+            MoPubLog.log(CUSTOM, "Visibility Tracker was unable to track views because the"
+                    + " root view tree observer was not alive");
+            return null;
+        }
+
+        if (engine == null) {
+            engine = new VisibilityEngine(new Handler());
+            sEngines.put(rootView, new WeakReference<VisibilityEngine>(engine));
+        }
+        engine.attach(viewTreeObserver);
+        return engine;
+    }
+
+    /**
+     * Same as {@link View#getGlobalVisibleRect(Rect)}, except that during a visibility pass each
+     * view is measured at most once and later calls get the same result.
+     */
+    public static boolean getGlobalVisibleRect(@NonNull final View view,
+            @NonNull final Rect outRect) {
+        final VisibilityEngine engine = sRunningEngine;
+        if (engine == null || Looper.myLooper() != Looper.getMainLooper()) {
+            return view.getGlobalVisibleRect(outRect);
+        }
+        return engine.measure(view, outRect);
+    }
+
+    /**
+     * Adds a subscriber to every pass from now on. Does nothing if it is already subscribed.
+     */
+    public void subscribe(@NonNull final Subscriber subscriber) {
+        Preconditions.checkNotNull(subscriber);
+
+        if (mSubscribers.contains(subscriber)) {
+            return;
+        }
+        mSubscribers.add(subscriber);
+
+        final ViewTreeObserver viewTreeObserver = mWeakViewTreeObserver.get();
+        // The listener is only registered while somebody is subscribed
+        if (mSubscribers.size() == 1 && viewTreeObserver != null && viewTreeObserver.isAlive()) {
+            viewTreeObserver.addOnPreDrawListener(mOnPreDrawListener);
+        }
+    }
+
+    /**
+     * Removes a subscriber. The engine stops listening for draws once nobody is subscribed.
+     */
+    public void unsubscribe(@NonNull final Subscriber subscriber) {
+        Preconditions.checkNotNull(subscriber);
+
+        if (!mSubscribers.remove(subscriber) || !mSubscribers.isEmpty()) {
+            return;
+        }
+
+        mVisibilityHandler.removeCallbacks(mVisibilityPassRunnable);
+        mIsVisibilityScheduled = false;
+        final ViewTreeObserver viewTreeObserver = mWeakViewTreeObserver.get();
+        if (viewTreeObserver != null && viewTreeObserver.isAlive()) {
+            viewTreeObserver.removeOnPreDrawListener(mOnPreDrawListener);
+        }
+    }
+
+    /**
+     * Schedules a pass for every subscriber, unless one is already scheduled.
+     */
+    public void scheduleVisibilityCheck() {
+        if (mIsVisibilityScheduled) {
+            return;
+        }
+
+        mIsVisibilityScheduled = true;
+        mVisibilityHandler.postDelayed(mVisibilityPassRunnable, VISIBILITY_THROTTLE_MILLIS);
+    }
+
+    @VisibleForTesting
+    void runVisibilityPass() {
+        mIsVisibilityScheduled = false;
+        mPassSubscribers.addAll(mSubscribers);
+
+        final VisibilityEngine previousEngine = sRunningEngine;
+        sRunningEngine = this;
+        try {
+            for (final Subscriber subscriber : mPassSubscribers) {
+                subscriber.onVisibilityCheck();
+            }
+        } finally {
+            sRunningEngine = previousEngine;
+            mPassSubscribers.clear();
+            mMeasuredRects.clear();
+            mRectsInUse = 0;
+        }
+    }
+
+    private boolean measure(@NonNull final View view, @NonNull final Rect outRect) {
+        Rect measuredRect = mMeasuredRects.get(view);
+        if (measuredRect == null && !mMeasuredRects.containsKey(view)) {
+            final Rect rect = obtainRect();
+            mMeasurementCount++;
+            if (view.getGlobalVisibleRect(rect)) {
+                measuredRect = rect;
+            } else {
+                mRectsInUse--;
+            }
+            mMeasuredRects.put(view, measuredRect);
+        }
+
+        if (measuredRect == null) {
+            return false;
+        }
+        outRect.set(measuredRect);
+        return true;
+    }
+
+    @NonNull
+    private Rect obtainRect() {
+        if (mRectsInUse == mRectPool.size()) {
+            mRectPool.add(new Rect());
+        }
+        return mRectPool.get(mRectsInUse++);
+    }
+
+    @VisibleForTesting
+    void attach(@NonNull final ViewTreeObserver viewTreeObserver) {
+        mWeakViewTreeObserver = new WeakReference<ViewTreeObserver>(viewTreeObserver);
+        if (!mSubscribers.isEmpty()) {
+            viewTreeObserver.addOnPreDrawListener(mOnPreDrawListener);
+        }
+    }
+
+    /**
+     * Whether the engine is listening to a live ViewTreeObserver. The root view gets a new one
+     * when it is attached to a window.
+     */
+    boolean isAttached() {
+        final ViewTreeObserver viewTreeObserver = mWeakViewTreeObserver.get();
+        return viewTreeObserver != null && viewTreeObserver.isAlive();
+    }
+
+    @Nullable
+    @VisibleForTesting
+    ViewTreeObserver getViewTreeObserver() {
+        return mWeakViewTreeObserver.get();
+    }
+
+    @VisibleForTesting
+    int getSubscriberCount() {
+        return mSubscribers.size();
+    }
+
+    /**
+     * Number of views measured since this engine was created.
+     */
+    @VisibleForTesting
+    long getMeasurementCount() {
+        return mMeasurementCount;
+    }
+}
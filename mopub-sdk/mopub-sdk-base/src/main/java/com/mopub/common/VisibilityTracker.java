@@ -11,28 +11,18 @@ import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.view.View;
-import android.view.ViewTreeObserver;
 
-import com.mopub.common.logging.MoPubLog;
-import com.mopub.common.util.Views;
-
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 
-import static android.view.ViewTreeObserver.OnPreDrawListener;
-import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
-
 /**
  * Tracks views to determine when they become visible or invisible, where visibility is defined as
- * having been at least X% on the screen.
+ * having been at least X% on the screen. Checks run in the shared {@link VisibilityEngine} pass of
+ * the window, together with every other tracker in it.
  */
 public class VisibilityTracker {
-    // Time interval to use for throttling visibility checks.
-    private static final int VISIBILITY_THROTTLE_MILLIS = 100;
-
     // Trim the tracked views after this many accesses. This protects us against tracking
     // too many views if the developer uses the adapter for multiple ListViews. It also
     // limits the memory leak if a developer forgets to call destroy().
@@ -49,8 +39,9 @@ public class VisibilityTracker {
         void onVisibilityChanged(List<View> visibleViews, List<View> invisibleViews);
     }
 
-    @NonNull @VisibleForTesting final OnPreDrawListener mOnPreDrawListener;
-    @NonNull @VisibleForTesting WeakReference<ViewTreeObserver> mWeakViewTreeObserver;
+    @NonNull private final VisibilityEngine.Subscriber mVisibilitySubscriber;
+    // The engine of the window the views are in, if one could be found
+    @Nullable private VisibilityEngine mVisibilityEngine;
 
     static class TrackingInfo {
         int mMinViewablePercent;
@@ -78,7 +69,7 @@ public class VisibilityTracker {
     // Runnable to run on each visibility loop
     @NonNull private final VisibilityRunnable mVisibilityRunnable;
 
-    // Handler for visibility
+    // Handler for visibility checks while there is no engine to run them
     @NonNull private final Handler mVisibilityHandler;
 
     // Whether the visibility runnable is scheduled
@@ -102,39 +93,33 @@ public class VisibilityTracker {
         mVisibilityRunnable = new VisibilityRunnable();
         mTrimmedViews = new ArrayList<View>(NUM_ACCESSES_BEFORE_TRIMMING);
 
-        mOnPreDrawListener = new OnPreDrawListener() {
+        mVisibilitySubscriber = new VisibilityEngine.Subscriber() {
             @Override
-            public boolean onPreDraw() {
-                scheduleVisibilityCheck();
-                return true;
+            public void onVisibilityCheck() {
+                mVisibilityRunnable.run();
             }
         };
 
-        mWeakViewTreeObserver = new WeakReference<ViewTreeObserver>(null);
-        setViewTreeObserver(context, null);
+        setVisibilityEngine(context, null);
     }
 
-    private void setViewTreeObserver(@Nullable final Context context, @Nullable final View view) {
-        final ViewTreeObserver originalViewTreeObserver = mWeakViewTreeObserver.get();
-        if (originalViewTreeObserver != null && originalViewTreeObserver.isAlive()) {
+    private void setVisibilityEngine(@Nullable final Context context, @Nullable final View view) {
+        if (mVisibilityEngine != null && mVisibilityEngine.isAttached()) {
             return;
         }
 
-        final View rootView = Views.getTopmostView(context, view);
-        if (rootView == null) {
-            MoPubLog.log(CUSTOM, "Unable to set Visibility Tracker due to no available root view.");
+        final VisibilityEngine visibilityEngine = VisibilityEngine.forView(context, view);
+        if (visibilityEngine == null || visibilityEngine == mVisibilityEngine) {
             return;
         }
 
-        final ViewTreeObserver viewTreeObserver = rootView.getViewTreeObserver();
-        if (!viewTreeObserver.isAlive()) {
-            MoPubLog.log(CUSTOM, "Visibility Tracker was unable to track views because the"
-                    + " root view tree observer was not alive");
-            return;
+        if (mVisibilityEngine != null) {
+            // A check scheduled with the previous engine will not run
+            mVisibilityEngine.unsubscribe(mVisibilitySubscriber);
+            mIsVisibilityScheduled = false;
         }
-
-        mWeakViewTreeObserver = new WeakReference<ViewTreeObserver>(viewTreeObserver);
-        viewTreeObserver.addOnPreDrawListener(mOnPreDrawListener);
+        mVisibilityEngine = visibilityEngine;
+        mVisibilityEngine.subscribe(mVisibilitySubscriber);
     }
 
     public void setVisibilityTrackerListener(
@@ -158,7 +143,7 @@ public class VisibilityTracker {
     public void addView(@NonNull View rootView, @NonNull final View view,
             final int minVisiblePercentageViewed, final int maxInvisiblePercentageViewed,
             @Nullable final Integer minVisiblePx) {
-        setViewTreeObserver(view.getContext(), view);
+        setVisibilityEngine(view.getContext(), view);
 
         // Find the view if already tracked
         TrackingInfo trackingInfo = mTrackedViews.get(view);
@@ -218,11 +203,10 @@ public class VisibilityTracker {
      */
     public void destroy() {
         clear();
-        final ViewTreeObserver viewTreeObserver = mWeakViewTreeObserver.get();
-        if (viewTreeObserver != null && viewTreeObserver.isAlive()) {
-            viewTreeObserver.removeOnPreDrawListener(mOnPreDrawListener);
+        if (mVisibilityEngine != null) {
+            mVisibilityEngine.unsubscribe(mVisibilitySubscriber);
+            mVisibilityEngine = null;
         }
-        mWeakViewTreeObserver.clear();
         mVisibilityTrackerListener = null;
     }
 
@@ -234,7 +218,18 @@ public class VisibilityTracker {
         }
 
         mIsVisibilityScheduled = true;
-        mVisibilityHandler.postDelayed(mVisibilityRunnable, VISIBILITY_THROTTLE_MILLIS);
+        if (mVisibilityEngine != null) {
+            mVisibilityEngine.scheduleVisibilityCheck();
+        } else {
+            mVisibilityHandler.postDelayed(mVisibilityRunnable,
+                    VisibilityEngine.VISIBILITY_THROTTLE_MILLIS);
+        }
+    }
+
+    @Nullable
+    @VisibleForTesting
+    VisibilityEngine getVisibilityEngine() {
+        return mVisibilityEngine;
     }
 
     class VisibilityRunnable implements Runnable {
@@ -304,7 +299,7 @@ public class VisibilityTracker {
                 return false;
             }
 
-            if (!view.getGlobalVisibleRect(mClipRect)) {
+            if (!VisibilityEngine.getGlobalVisibleRect(view, mClipRect)) {
                 // Not visible
                 return false;
             }
@@ -25,10 +25,10 @@ public class MoPubLog {
     public static final String LOGTAG = "MoPub";
 
     /**
-     * STACK_TRACE_LEVEL is a magic number used to determine the offset on the call stack of the
-     * calling class and method so the names can be used in log messages.
+     * Used to find the first frame on the call stack outside of this class so the calling class
+     * and method names can be used in log messages.
      */
-    private static final int STACK_TRACE_LEVEL = 4;
+    private static final String MOPUB_LOG_CLASS_NAME = MoPubLog.class.getName();
 
     /**
      * LogLevelInt values set for parity with iOS
@@ -85,9 +85,16 @@ public class MoPubLog {
 
     @NonNull private static final MoPubLog sInstance = new MoPubLog();
     @NonNull private LogLevel sLogLevel = LogLevel.INFO;
-    @NonNull private Map<MoPubLogger, LogLevel> mLoggers = new HashMap<>();
+    // Copied on write so logging can iterate it without holding a lock
+    @NonNull private volatile Map<MoPubLogger, LogLevel> mLoggers = new HashMap<>();
     @NonNull private MoPubLogger mDefaultLogger = new MoPubDefaultLogger();
 
+    /**
+     * The lowest level any registered logger accepts. Events below this level are dropped with a
+     * single comparison before any caller lookup or message formatting is done.
+     */
+    private static volatile int sMinLoggerLevel = Integer.MAX_VALUE;
+
     private MoPubLog() {
     }
 
@@ -97,7 +104,11 @@ public class MoPubLog {
     }
 
     private static void removeLogger(@Nullable MoPubLogger logger) {
-        sInstance.mLoggers.remove(logger);
+        synchronized (sInstance) {
+            final Map<MoPubLogger, LogLevel> loggers = new HashMap<>(sInstance.mLoggers);
+            loggers.remove(logger);
+            setLoggers(loggers);
+        }
     }
 
     public static void addLogger(@Nullable MoPubLogger logger) {
@@ -105,7 +116,34 @@ public class MoPubLog {
     }
 
     public static void addLogger(@Nullable MoPubLogger logger, @Nullable LogLevel logLevel) {
-        sInstance.mLoggers.put(logger, logLevel);
+        synchronized (sInstance) {
+            final Map<MoPubLogger, LogLevel> loggers = new HashMap<>(sInstance.mLoggers);
+            loggers.put(logger, logLevel);
+            setLoggers(loggers);
+        }
+    }
+
+    private static void setLoggers(@NonNull final Map<MoPubLogger, LogLevel> loggers) {
+        int minLevel = Integer.MAX_VALUE;
+        for (final LogLevel logLevel : loggers.values()) {
+            if (logLevel != null) {
+                minLevel = Math.min(minLevel, logLevel.intValue());
+            }
+        }
+        sInstance.mLoggers = loggers;
+        sMinLoggerLevel = minLevel;
+    }
+
+    /**
+     * Checks whether any registered logger will log an event. Call sites that build expensive
+     * arguments, such as concatenated strings, can use this to skip building them.
+     *
+     * @param logEventType The event that would be logged.
+     * @return true if at least one logger accepts events of this level.
+     */
+    public static boolean isLoggable(@Nullable final MPLogEventType logEventType) {
+        return logEventType != null
+                && logEventType.getLogLevel().intValue() >= sMinLoggerLevel;
     }
 
     public static void setLogLevel(@NonNull LogLevel logLevel) {
@@ -120,38 +158,83 @@ public class MoPubLog {
         return sInstance.sLogLevel;
     }
 
+    // The fixed arity overloads keep disabled events free of the varargs array allocation.
+
+    public static void log(@Nullable final MPLogEventType logEventType) {
+        if (!isLoggable(logEventType)) {
+            return;
+        }
+        logInternal(null, logEventType, new Object[0]);
+    }
+
+    public static void log(@Nullable final MPLogEventType logEventType, @Nullable final Object arg) {
+        if (!isLoggable(logEventType)) {
+            return;
+        }
+        logInternal(null, logEventType, new Object[]{arg});
+    }
+
+    public static void log(@Nullable final MPLogEventType logEventType, @Nullable final Object arg1,
+                           @Nullable final Object arg2) {
+        if (!isLoggable(logEventType)) {
+            return;
+        }
+        logInternal(null, logEventType, new Object[]{arg1, arg2});
+    }
+
     public static void log(@Nullable final MPLogEventType logEventType, @Nullable final Object... args) {
-        Pair<String, String> classAndMethodNames = getClassAndMethod();
-        log(classAndMethodNames, null, logEventType, args);  // null identifiers are omitted
+        if (!isLoggable(logEventType)) {
+            return;
+        }
+        logInternal(null, logEventType, args);  // null identifiers are omitted
     }
 
     public static void log(@Nullable final String identifier, @Nullable final MPLogEventType logEventType,
                            @Nullable final Object... args) {
-        Pair<String, String> classAndMethodNames = getClassAndMethod();
-        log(classAndMethodNames, identifier, logEventType, args);  // null identifiers are omitted
+        if (!isLoggable(logEventType)) {
+            return;
+        }
+        logInternal(identifier, logEventType, args);  // null identifiers are omitted
     }
 
-    private static void log(@NonNull Pair<String, String> classAndMethodNames, @Nullable String identifier,
-                            @Nullable  MPLogEventType logEventType, @Nullable Object... args) {
-        Preconditions.checkNotNull(classAndMethodNames);
+    private static void logInternal(@Nullable String identifier,
+                                    @NonNull MPLogEventType logEventType, @Nullable Object... args) {
+        Preconditions.checkNotNull(logEventType);
 
-        if (logEventType == null) {
-            return;
-        }
+        final int eventLevel = logEventType.getLogLevel().intValue();
+        Pair<String, String> classAndMethodNames = null;
+        String message = null;
+
+        for (final Map.Entry<MoPubLogger, LogLevel> entry : sInstance.mLoggers.entrySet()) {
+            final LogLevel loggerLevel = entry.getValue();
+            if (loggerLevel == null || loggerLevel.intValue() > eventLevel) {
+                continue;
+            }
 
-        for (MoPubLogger logger : sInstance.mLoggers.keySet()) {
-            if (sInstance.mLoggers.get(logger) != null
-                    && sInstance.mLoggers.get(logger).intValue() <= logEventType.getLogLevel().intValue()) {
-                logger.log(classAndMethodNames.first, classAndMethodNames.second, identifier,
-                        logEventType.getMessage(args));
+            // Only look up the caller and format the message once a logger wants the event
+            if (classAndMethodNames == null) {
+                classAndMethodNames = getClassAndMethod();
+                message = logEventType.getMessage(args);
             }
+            entry.getKey().log(classAndMethodNames.first, classAndMethodNames.second,
+                    identifier, message);
         }
     }
 
+    @NonNull
     private static Pair<String, String> getClassAndMethod() {
         final StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
-        return new Pair<>(stackTraceElements[STACK_TRACE_LEVEL].getClassName(),
-                stackTraceElements[STACK_TRACE_LEVEL].getMethodName());
+
+        // Skip the frames of the stack trace call itself and of this class
+        boolean inMoPubLog = false;
+        for (final StackTraceElement element : stackTraceElements) {
+            if (MOPUB_LOG_CLASS_NAME.equals(element.getClassName())) {
+                inMoPubLog = true;
+            } else if (inMoPubLog) {
+                return new Pair<>(element.getClassName(), element.getMethodName());
+            }
+        }
+        return new Pair<>(MOPUB_LOG_CLASS_NAME, "log");
     }
 
     @Deprecated
@@ -31,8 +31,10 @@ import com.mopub.common.util.Dips;
 import com.mopub.common.util.Utils;
 import com.mopub.mraid.MraidNativeCommandHandler;
 import com.mopub.network.AdLoader;
+import com.mopub.network.AdmissionController;
 import com.mopub.network.AdResponse;
 import com.mopub.network.MoPubNetworkError;
+import com.mopub.network.MoPubRequestParams;
 import com.mopub.network.SingleImpression;
 import com.mopub.network.TrackingRequest;
 import com.mopub.volley.NetworkResponse;
@@ -528,7 +530,8 @@ public class AdViewController {
             if (requestId != null) {
                 mLastTrackedRequestId = requestId;
             }
-            TrackingRequest.makeTrackingHttpRequest(mAdResponse.getImpressionTrackingUrls(), mContext);
+            TrackingRequest.makeTrackingHttpRequestWithPriority(
+                    mAdResponse.getImpressionTrackingUrls(), mContext, Request.Priority.HIGH);
 
             new SingleImpression(mAdResponse.getAdUnitId(), mAdResponse.getImpressionData()).sendImpression();
         }
@@ -552,7 +555,11 @@ public class AdViewController {
 
         synchronized (this) {
             if (mAdLoader == null || !mAdLoader.hasMoreAds()) {
-                mAdLoader = new AdLoader(url, moPubView.getAdFormat(), mAdUnitId, mContext, mAdListener);
+                final MoPubRequestParams requestParams = mUrlGenerator == null
+                        ? null
+                        : mUrlGenerator.getRequestParams();
+                mAdLoader = new AdLoader(url, requestParams, moPubView.getAdFormat(), mAdUnitId,
+                        mContext, mAdListener);
             }
         }
         mActiveRequest = mAdLoader.loadNextAd(moPubError);
@@ -602,12 +609,30 @@ public class AdViewController {
         cancelRefreshTimer();
         if (mCurrentAutoRefreshStatus && mRefreshTimeMillis != null && mRefreshTimeMillis > 0) {
 
-            mHandler.postDelayed(mRefreshRunnable,
-                    Math.min(MAX_REFRESH_TIME_MILLISECONDS,
-                            mRefreshTimeMillis * (long) Math.pow(BACKOFF_FACTOR, mBackoffPower)));
+            mHandler.postDelayed(mRefreshRunnable, getRefreshDelayMillis());
         }
     }
 
+    /**
+     * The refresh time, multiplied by 1x, 2x, 3x, 5x, ... after consecutive server errors. Only
+     * refreshes after errors are spread out with jitter, so placements that failed together do
+     * not refresh together.
+     */
+    @VisibleForTesting
+    long getRefreshDelayMillis() {
+        if (mRefreshTimeMillis == null) {
+            return 0;
+        }
+
+        final long delayMillis = Math.min(MAX_REFRESH_TIME_MILLISECONDS,
+                mRefreshTimeMillis * (long) Math.pow(BACKOFF_FACTOR, mBackoffPower));
+        // mBackoffPower is 1 until a server error
+        if (mBackoffPower <= 1) {
+            return delayMillis;
+        }
+        return AdmissionController.addJitter(delayMillis, MAX_REFRESH_TIME_MILLISECONDS);
+    }
+
     void setLocalExtras(Map<String, Object> localExtras) {
         mLocalExtras = (localExtras != null)
                 ? new TreeMap<>(localExtras)
@@ -7,9 +7,6 @@ package com.mopub.mobileads;
 import android.support.annotation.NonNull;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import java.util.HashSet;
 import java.util.List;
@@ -24,9 +21,9 @@ class AvidBuyerTagXmlManager {
     private static final String VERIFICATION = "Verification";
     private static final String JAVA_SCRIPT_RESOURCE = "JavaScriptResource";
 
-    private final Node mAvidNode;
+    private final VastXmlElement mAvidNode;
 
-    AvidBuyerTagXmlManager(@NonNull final Node avidNode) {
+    AvidBuyerTagXmlManager(@NonNull final VastXmlElement avidNode) {
         Preconditions.checkNotNull(avidNode);
 
         mAvidNode = avidNode;
@@ -57,21 +54,17 @@ class AvidBuyerTagXmlManager {
     Set<String> getJavaScriptResources() {
         final Set<String> avidJavaScriptResources = new HashSet<String>();
 
-        final Node adVerification = XmlUtils.getFirstMatchingChildNode(mAvidNode, AD_VERIFICATIONS);
+        final VastXmlElement adVerification = mAvidNode.getFirstChild(AD_VERIFICATIONS);
         if (adVerification == null) {
             return avidJavaScriptResources;
         }
 
-        final List<Node> verifications = XmlUtils.getMatchingChildNodes(adVerification, VERIFICATION);
-        if (verifications == null) {
-            return avidJavaScriptResources;
-        }
-
-        for (final Node verification : verifications) {
-            final Node javaScriptResource = XmlUtils.getFirstMatchingChildNode(verification,
-                    JAVA_SCRIPT_RESOURCE);
+        final List<VastXmlElement> verifications = adVerification.getChildren(VERIFICATION);
+        for (final VastXmlElement verification : verifications) {
+            final VastXmlElement javaScriptResource =
+                    verification.getFirstChild(JAVA_SCRIPT_RESOURCE);
             if (javaScriptResource != null) {
-                avidJavaScriptResources.add(XmlUtils.getNodeValue(javaScriptResource));
+                avidJavaScriptResources.add(javaScriptResource.getValue());
             }
         }
 
@@ -19,7 +19,6 @@ import static android.content.Intent.FLAG_ACTIVITY_NEW_TASK;
 import static com.mopub.common.DataKeys.BROADCAST_IDENTIFIER_KEY;
 import static com.mopub.common.DataKeys.CREATIVE_ORIENTATION_KEY;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
-import static com.mopub.mobileads.VastVideoViewController.VAST_VIDEO_CONFIG;
 
 public class BaseVideoPlayerActivity extends Activity {
     public static final String VIDEO_CLASS_EXTRAS_KEY = "video_view_class_name";
@@ -63,7 +62,9 @@ public class BaseVideoPlayerActivity extends Activity {
         final Intent intentVideoPlayerActivity = new Intent(context, MraidVideoPlayerActivity.class);
         intentVideoPlayerActivity.setFlags(FLAG_ACTIVITY_NEW_TASK);
         intentVideoPlayerActivity.putExtra(VIDEO_CLASS_EXTRAS_KEY, "vast");
-        intentVideoPlayerActivity.putExtra(VAST_VIDEO_CONFIG, vastVideoConfig);
+        // The player gets its own copy so its trackers are not shared with the caller's
+        intentVideoPlayerActivity.putExtra(VastVideoConfigRegistry.HANDLE_KEY,
+                VastVideoConfigRegistry.register(vastVideoConfig.copy()));
         intentVideoPlayerActivity.putExtra(BROADCAST_IDENTIFIER_KEY, broadcastIdentifier);
         intentVideoPlayerActivity.putExtra(CREATIVE_ORIENTATION_KEY, orientation);
         return intentVideoPlayerActivity;
@@ -83,7 +84,9 @@ public class BaseVideoPlayerActivity extends Activity {
         intentVideoPlayerActivity.setFlags(FLAG_ACTIVITY_NEW_TASK);
         intentVideoPlayerActivity.putExtra(VIDEO_CLASS_EXTRAS_KEY, "native");
         intentVideoPlayerActivity.putExtra(Constants.NATIVE_VIDEO_ID, nativeVideoId);
-        intentVideoPlayerActivity.putExtra(Constants.NATIVE_VAST_VIDEO_CONFIG, vastVideoConfig);
+        // The player gets its own copy so its trackers are not shared with the caller's
+        intentVideoPlayerActivity.putExtra(VastVideoConfigRegistry.HANDLE_KEY,
+                VastVideoConfigRegistry.register(vastVideoConfig.copy()));
         return intentVideoPlayerActivity;
     }
 
@@ -8,9 +8,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import java.util.HashSet;
 import java.util.List;
@@ -27,9 +24,9 @@ class MoatBuyerTagXmlManager {
     // Attributes
     private static final String ID = "id";
 
-    private final List<Node> mMoatVerificationNodes;
+    private final List<VastXmlElement> mMoatVerificationNodes;
 
-    MoatBuyerTagXmlManager(@NonNull final List<Node> moatVerificationNodes) {
+    MoatBuyerTagXmlManager(@NonNull final List<VastXmlElement> moatVerificationNodes) {
         Preconditions.checkNotNull(moatVerificationNodes);
 
         mMoatVerificationNodes = moatVerificationNodes;
@@ -60,13 +57,13 @@ class MoatBuyerTagXmlManager {
     Set<String> getImpressionPixelsXml() {
         final Set<String> impressionPixelsXml = new HashSet<String>();
 
-        for (final Node verification : mMoatVerificationNodes) {
+        for (final VastXmlElement verification : mMoatVerificationNodes) {
             if (verification == null) {
                 continue;
             }
 
-            final Node viewableImpression = XmlUtils.getFirstMatchingChildNode(verification,
-                    VIEWABLE_IMPRESSION);
+            final VastXmlElement viewableImpression =
+                    verification.getFirstChild(VIEWABLE_IMPRESSION);
 
             final String viewableImpressionXml = getViewableImpressionXml(viewableImpression);
             if (viewableImpressionXml != null) {
@@ -78,13 +75,13 @@ class MoatBuyerTagXmlManager {
     }
 
     @Nullable
-    private String getViewableImpressionXml(@Nullable final Node viewableImpression) {
+    private String getViewableImpressionXml(@Nullable final VastXmlElement viewableImpression) {
         if (viewableImpression == null || !viewableImpression.hasAttributes()) {
             return null;
         }
 
-        final String idAttribute = XmlUtils.getAttributeValue(viewableImpression, ID);
-        final String content = XmlUtils.getNodeValue(viewableImpression);
+        final String idAttribute = viewableImpression.getAttribute(ID);
+        final String content = viewableImpression.getValue();
         return String.format(Locale.US,
                 "<ViewableImpression id=\"%s\"><![CDATA[%s]]</ViewableImpression>",
                 idAttribute, content);
@@ -90,6 +90,11 @@ public class MraidVideoPlayerActivity extends BaseVideoPlayerActivity implements
         if (mBaseVideoController != null) {
             mBaseVideoController.onDestroy();
         }
+        if (isFinishing()) {
+            // A recreated activity reads its config from the same Intent, so keep it until then
+            VastVideoConfigRegistry.release(getIntent().getLongExtra(
+                    VastVideoConfigRegistry.HANDLE_KEY, VastVideoConfigRegistry.NO_HANDLE));
+        }
         super.onDestroy();
     }
 
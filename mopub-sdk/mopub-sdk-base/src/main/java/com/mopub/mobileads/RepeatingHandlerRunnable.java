@@ -28,12 +28,20 @@ public abstract class RepeatingHandlerRunnable implements Runnable {
     public void run() {
         if (mIsRunning) {
             doWork();
-            mHandler.postDelayed(this, mUpdateIntervalMillis);
+            mHandler.postDelayed(this, getNextDelayMillis());
         }
     }
 
     public abstract void doWork();
 
+    /**
+     * Gets the delay before the next run. Subclasses may return less than the update interval
+     * when they know work will be due sooner.
+     */
+    protected long getNextDelayMillis() {
+        return mUpdateIntervalMillis;
+    }
+
     /**
      * Start this runnable immediately, repeating at the provided interval.
      */
@@ -32,6 +32,17 @@ public class VastAbsoluteProgressTracker extends VastTracker
         this(MessageType.TRACKING_URL, trackingUrl, trackingMilliseconds);
     }
 
+    private VastAbsoluteProgressTracker(@NonNull final VastAbsoluteProgressTracker other) {
+        super(other);
+        mTrackingMilliseconds = other.mTrackingMilliseconds;
+    }
+
+    @NonNull
+    @Override
+    VastAbsoluteProgressTracker copy() {
+        return new VastAbsoluteProgressTracker(this);
+    }
+
     public int getTrackingMilliseconds() {
         return mTrackingMilliseconds;
     }
@@ -8,9 +8,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 /**
  * This XML manager handles the initial Ad node.
@@ -28,9 +25,9 @@ class VastAdXmlManager {
     // Attribute names
     private static final String SEQUENCE = "sequence";
 
-    @NonNull private final Node mAdNode;
+    @NonNull private final VastXmlElement mAdNode;
 
-    VastAdXmlManager(@NonNull final Node adNode) {
+    VastAdXmlManager(@NonNull final VastXmlElement adNode) {
         Preconditions.checkNotNull(adNode);
         mAdNode = adNode;
     }
@@ -42,7 +39,7 @@ class VastAdXmlManager {
      */
     @Nullable
     VastInLineXmlManager getInLineXmlManager() {
-        Node inLineNode = XmlUtils.getFirstMatchingChildNode(mAdNode, INLINE);
+        VastXmlElement inLineNode = mAdNode.getFirstChild(INLINE);
         VastInLineXmlManager vastInLineXmlManager = null;
         if (inLineNode != null) {
             vastInLineXmlManager = new VastInLineXmlManager(inLineNode);
@@ -57,7 +54,7 @@ class VastAdXmlManager {
      */
     @Nullable
     VastWrapperXmlManager getWrapperXmlManager() {
-        Node wrapperNode = XmlUtils.getFirstMatchingChildNode(mAdNode, WRAPPER);
+        VastXmlElement wrapperNode = mAdNode.getFirstChild(WRAPPER);
         VastWrapperXmlManager vastWrapperXmlManager = null;
         if (wrapperNode != null) {
             vastWrapperXmlManager = new VastWrapperXmlManager(wrapperNode);
@@ -72,6 +69,6 @@ class VastAdXmlManager {
      */
     @Nullable
     String getSequence() {
-        return XmlUtils.getAttributeValue(mAdNode, SEQUENCE);
+        return mAdNode.getAttribute(SEQUENCE);
     }
 }
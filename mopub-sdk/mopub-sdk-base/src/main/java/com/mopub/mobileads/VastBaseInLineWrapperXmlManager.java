@@ -9,9 +9,6 @@ import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,9 +25,9 @@ abstract class VastBaseInLineWrapperXmlManager {
     private static final String ERROR = "Error";
     private static final String EXTENSIONS = "Extensions";
 
-    @NonNull protected final Node mNode;
+    @NonNull protected final VastXmlElement mNode;
 
-    VastBaseInLineWrapperXmlManager(@NonNull Node node) {
+    VastBaseInLineWrapperXmlManager(@NonNull VastXmlElement node) {
         Preconditions.checkNotNull(node);
         mNode = node;
     }
@@ -43,11 +40,11 @@ abstract class VastBaseInLineWrapperXmlManager {
      */
     @NonNull
     List<VastTracker> getImpressionTrackers() {
-        final List<Node> impressionNodes = XmlUtils.getMatchingChildNodes(mNode, IMPRESSION_TRACKER);
+        final List<VastXmlElement> impressionNodes = mNode.getChildren(IMPRESSION_TRACKER);
 
         List<VastTracker> impressionTrackers = new ArrayList<VastTracker>();
-        for (Node impressionNode : impressionNodes) {
-            String uri = XmlUtils.getNodeValue(impressionNode);
+        for (VastXmlElement impressionNode : impressionNodes) {
+            String uri = impressionNode.getValue();
             if (!TextUtils.isEmpty(uri)) {
                 impressionTrackers.add(new VastTracker(uri));
             }
@@ -64,13 +61,9 @@ abstract class VastBaseInLineWrapperXmlManager {
     @NonNull
     List<VastTracker> getErrorTrackers() {
         final List<VastTracker> errorTrackers = new ArrayList<VastTracker>();
-        final List<Node> errorNodes = XmlUtils.getMatchingChildNodes(mNode, ERROR);
-        if (errorNodes == null) {
-            return errorTrackers;
-        }
-
-        for (Node error : errorNodes) {
-            final String tracker = XmlUtils.getNodeValue(error);
+        final List<VastXmlElement> errorNodes = mNode.getChildren(ERROR);
+        for (VastXmlElement error : errorNodes) {
+            final String tracker = error.getValue();
             if (!TextUtils.isEmpty(tracker)) {
                 errorTrackers.add(new VastTracker(tracker, true));
             }
@@ -86,7 +79,7 @@ abstract class VastBaseInLineWrapperXmlManager {
     @NonNull
     List<VastLinearXmlManager> getLinearXmlManagers() {
         final List<VastLinearXmlManager> linearXmlManagers = new ArrayList<VastLinearXmlManager>();
-        final Node creativesNode = XmlUtils.getFirstMatchingChildNode(mNode, CREATIVES);
+        final VastXmlElement creativesNode = mNode.getFirstChild(CREATIVES);
         if (creativesNode == null) {
             return linearXmlManagers;
         }
@@ -94,13 +87,9 @@ abstract class VastBaseInLineWrapperXmlManager {
         // NOTE: there can only be one <Linear>, <CompanionAds>, OR <NonLinearAds> element
         // per creative node
 
-        final List<Node> creativeNodes = XmlUtils.getMatchingChildNodes(creativesNode, CREATIVE);
-        if (creativeNodes == null) {
-            return linearXmlManagers;
-        }
-
-        for (Node creativeNode : creativeNodes) {
-            Node linearNode = XmlUtils.getFirstMatchingChildNode(creativeNode, LINEAR);
+        final List<VastXmlElement> creativeNodes = creativesNode.getChildren(CREATIVE);
+        for (VastXmlElement creativeNode : creativeNodes) {
+            VastXmlElement linearNode = creativeNode.getFirstChild(LINEAR);
             if (linearNode != null) {
                 linearXmlManagers.add(new VastLinearXmlManager(linearNode));
             }
@@ -118,28 +107,20 @@ abstract class VastBaseInLineWrapperXmlManager {
     List<VastCompanionAdXmlManager> getCompanionAdXmlManagers() {
         final List<VastCompanionAdXmlManager> companionAdXmlManagers = new
                 ArrayList<VastCompanionAdXmlManager>();
-        final Node creativesNode = XmlUtils.getFirstMatchingChildNode(mNode, CREATIVES);
+        final VastXmlElement creativesNode = mNode.getFirstChild(CREATIVES);
         if (creativesNode == null) {
             return companionAdXmlManagers;
         }
 
-        final List<Node> creativeNodes = XmlUtils.getMatchingChildNodes(creativesNode, CREATIVE);
-        if (creativeNodes == null) {
-            return companionAdXmlManagers;
-        }
-
-        for (Node creativeNode : creativeNodes) {
-            final Node companionAds = XmlUtils.getFirstMatchingChildNode(creativeNode, COMPANION_ADS);
+        final List<VastXmlElement> creativeNodes = creativesNode.getChildren(CREATIVE);
+        for (VastXmlElement creativeNode : creativeNodes) {
+            final VastXmlElement companionAds = creativeNode.getFirstChild(COMPANION_ADS);
             if (companionAds == null) {
                 continue;
             }
 
-            List<Node> companionAdsNodes = XmlUtils.getMatchingChildNodes(companionAds, COMPANION);
-            if (companionAdsNodes == null) {
-                continue;
-            }
-
-            for (Node companionNode : companionAdsNodes) {
+            List<VastXmlElement> companionAdsNodes = companionAds.getChildren(COMPANION);
+            for (VastXmlElement companionNode : companionAdsNodes) {
                 companionAdXmlManagers.add(new VastCompanionAdXmlManager(companionNode));
             }
         }
@@ -155,7 +136,7 @@ abstract class VastBaseInLineWrapperXmlManager {
      */
     @Nullable
     VastExtensionParentXmlManager getVastExtensionParentXmlManager() {
-        Node vastExtensionsNode = XmlUtils.getFirstMatchingChildNode(mNode, EXTENSIONS);
+        VastXmlElement vastExtensionsNode = mNode.getFirstChild(EXTENSIONS);
         if (vastExtensionsNode == null) {
             return null;
         }
@@ -9,12 +9,8 @@ import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -37,10 +33,10 @@ class VastCompanionAdXmlManager {
     // Attribute values
     private static final String CREATIVE_VIEW = "creativeView";
 
-    @NonNull private final Node mCompanionNode;
+    @NonNull private final VastXmlElement mCompanionNode;
     @NonNull private final VastResourceXmlManager mResourceXmlManager;
 
-    VastCompanionAdXmlManager(@NonNull final Node companionNode) {
+    VastCompanionAdXmlManager(@NonNull final VastXmlElement companionNode) {
         Preconditions.checkNotNull(companionNode, "companionNode cannot be null");
         mCompanionNode = companionNode;
         mResourceXmlManager = new VastResourceXmlManager(companionNode);
@@ -54,7 +50,7 @@ class VastCompanionAdXmlManager {
      */
     @Nullable
     Integer getWidth() {
-        return XmlUtils.getAttributeValueAsInt(mCompanionNode, WIDTH);
+        return mCompanionNode.getAttributeAsInt(WIDTH);
     }
 
     /**
@@ -65,7 +61,7 @@ class VastCompanionAdXmlManager {
      */
     @Nullable
     Integer getHeight() {
-        return XmlUtils.getAttributeValueAsInt(mCompanionNode, HEIGHT);
+        return mCompanionNode.getAttributeAsInt(HEIGHT);
     }
 
     /**
@@ -75,7 +71,7 @@ class VastCompanionAdXmlManager {
      */
     @Nullable
     String getAdSlotId() {
-        return XmlUtils.getAttributeValue(mCompanionNode, AD_SLOT_ID);
+        return mCompanionNode.getAttribute(AD_SLOT_ID);
     }
 
     @NonNull
@@ -90,11 +86,8 @@ class VastCompanionAdXmlManager {
      */
     @Nullable
     String getClickThroughUrl() {
-        final Node node = XmlUtils.getFirstMatchingChildNode(
-                mCompanionNode,
-                COMPANION_CLICK_THROUGH
-        );
-        return XmlUtils.getNodeValue(node);
+        final VastXmlElement node = mCompanionNode.getFirstChild(COMPANION_CLICK_THROUGH);
+        return node == null ? null : node.getValue();
     }
 
     /**
@@ -106,12 +99,9 @@ class VastCompanionAdXmlManager {
     @NonNull
     List<VastTracker> getClickTrackers() {
         final List<VastTracker> companionAdClickTrackers = new ArrayList<VastTracker>();
-        final List<Node> trackerNodes = XmlUtils.getMatchingChildNodes(mCompanionNode, COMPANION_CLICK_TRACKING);
-        if (trackerNodes == null) {
-            return companionAdClickTrackers;
-        }
-        for (final Node trackerNode : trackerNodes) {
-            String uri = XmlUtils.getNodeValue(trackerNode);
+        final List<VastXmlElement> trackerNodes = mCompanionNode.getChildren(COMPANION_CLICK_TRACKING);
+        for (final VastXmlElement trackerNode : trackerNodes) {
+            String uri = trackerNode.getValue();
             if (!TextUtils.isEmpty(uri)) {
                 companionAdClickTrackers.add(new VastTracker(uri));
             }
@@ -129,24 +119,20 @@ class VastCompanionAdXmlManager {
     @NonNull
     List<VastTracker> getCompanionCreativeViewTrackers() {
         final List<VastTracker> companionCreativeViewTrackers = new ArrayList<VastTracker>();
-        final Node node = XmlUtils.getFirstMatchingChildNode(
-                mCompanionNode,
-                TRACKING_EVENTS
-        );
+        final VastXmlElement node = mCompanionNode.getFirstChild(TRACKING_EVENTS);
 
         if (node == null) {
             return companionCreativeViewTrackers;
         }
 
-        final List<Node> trackerNodes = XmlUtils.getMatchingChildNodes(
-                node,
+        final List<VastXmlElement> trackerNodes = node.getChildren(
                 VIDEO_TRACKER,
                 EVENT,
-                Collections.singletonList(CREATIVE_VIEW)
+                CREATIVE_VIEW
         );
 
-        for (final Node trackerNode : trackerNodes) {
-            final String trackerUrl = XmlUtils.getNodeValue(trackerNode);
+        for (final VastXmlElement trackerNode : trackerNodes) {
+            final String trackerUrl = trackerNode.getValue();
             if (trackerUrl != null) {
                 companionCreativeViewTrackers.add(new VastTracker(trackerUrl));
             }
@@ -7,9 +7,6 @@ package com.mopub.mobileads;
 import android.support.annotation.NonNull;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,9 +17,9 @@ import java.util.List;
 public class VastExtensionParentXmlManager {
 
     private static final String EXTENSION = "Extension";
-    @NonNull private final Node mVastExtensionParentNode;
+    @NonNull private final VastXmlElement mVastExtensionParentNode;
 
-    VastExtensionParentXmlManager(@NonNull Node vastExtensionParentNode) {
+    VastExtensionParentXmlManager(@NonNull VastXmlElement vastExtensionParentNode) {
         Preconditions.checkNotNull(vastExtensionParentNode);
 
         mVastExtensionParentNode = vastExtensionParentNode;
@@ -39,13 +36,9 @@ public class VastExtensionParentXmlManager {
         final List<VastExtensionXmlManager> vastExtensionXmlManagers = new
                 ArrayList<VastExtensionXmlManager>();
 
-        final List<Node> vastExtensionNodes =
-                XmlUtils.getMatchingChildNodes(mVastExtensionParentNode, EXTENSION);
-        if (vastExtensionNodes == null) {
-            return vastExtensionXmlManagers;
-        }
-
-        for (Node vastExtensionNode : vastExtensionNodes) {
+        final List<VastXmlElement> vastExtensionNodes =
+                mVastExtensionParentNode.getChildren(EXTENSION);
+        for (VastXmlElement vastExtensionNode : vastExtensionNodes) {
             vastExtensionXmlManagers.add(new VastExtensionXmlManager(vastExtensionNode));
         }
 
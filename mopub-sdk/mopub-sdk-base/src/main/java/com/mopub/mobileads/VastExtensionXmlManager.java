@@ -9,11 +9,7 @@ import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
 
-import org.w3c.dom.Node;
-
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -33,9 +29,9 @@ public class VastExtensionXmlManager {
     public static final String ID = "id";
     public static final String MOAT = "Moat";
 
-    private final Node mExtensionNode;
+    private final VastXmlElement mExtensionNode;
 
-    public VastExtensionXmlManager(@NonNull Node extensionNode) {
+    public VastExtensionXmlManager(@NonNull VastXmlElement extensionNode) {
         Preconditions.checkNotNull(extensionNode);
 
         this.mExtensionNode = extensionNode;
@@ -49,8 +45,8 @@ public class VastExtensionXmlManager {
      */
     @Nullable
     VideoViewabilityTracker getVideoViewabilityTracker() {
-        Node videoViewabilityTrackerNode =
-                XmlUtils.getFirstMatchingChildNode(mExtensionNode, VIDEO_VIEWABILITY_TRACKER);
+        VastXmlElement videoViewabilityTrackerNode =
+                mExtensionNode.getFirstChild(VIDEO_VIEWABILITY_TRACKER);
         if (videoViewabilityTrackerNode == null) {
             return null;
         }
@@ -79,7 +75,7 @@ public class VastExtensionXmlManager {
      */
     @Nullable
     Set<String> getAvidJavaScriptResources() {
-        final Node avidNode = XmlUtils.getFirstMatchingChildNode(mExtensionNode, AVID);
+        final VastXmlElement avidNode = mExtensionNode.getFirstChild(AVID);
         if (avidNode == null) {
             return null;
         }
@@ -96,14 +92,14 @@ public class VastExtensionXmlManager {
      */
     @Nullable
     Set<String> getMoatImpressionPixels() {
-        final Node adVerification = XmlUtils.getFirstMatchingChildNode(mExtensionNode, AD_VERIFICATIONS);
+        final VastXmlElement adVerification = mExtensionNode.getFirstChild(AD_VERIFICATIONS);
         if (adVerification == null) {
             return null;
         }
 
-        final List<Node> moatNodes = XmlUtils.getMatchingChildNodes(adVerification, VERIFICATION,
-                VENDOR, Collections.singletonList(MOAT));
-        if (moatNodes == null || moatNodes.isEmpty()) {
+        final List<VastXmlElement> moatNodes = adVerification.getChildren(VERIFICATION, VENDOR,
+                MOAT);
+        if (moatNodes.isEmpty()) {
             return null;
         }
 
@@ -117,6 +113,6 @@ public class VastExtensionXmlManager {
      */
     @Nullable
     String getType() {
-        return XmlUtils.getAttributeValue(mExtensionNode, TYPE);
+        return mExtensionNode.getAttribute(TYPE);
     }
 }
@@ -30,6 +30,17 @@ public class VastFractionalProgressTracker extends VastTracker implements Compar
         this(MessageType.TRACKING_URL, trackingUrl, trackingFraction);
     }
 
+    private VastFractionalProgressTracker(@NonNull final VastFractionalProgressTracker other) {
+        super(other);
+        mFraction = other.mFraction;
+    }
+
+    @NonNull
+    @Override
+    VastFractionalProgressTracker copy() {
+        return new VastFractionalProgressTracker(this);
+    }
+
     public float trackingFraction() {
         return mFraction;
     }
@@ -10,9 +10,6 @@ import android.support.annotation.Nullable;
 import com.mopub.common.Preconditions;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.Strings;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,10 +33,10 @@ public class VastIconXmlManager {
     public static final String OFFSET = "offset";
     public static final String DURATION = "duration";
 
-    @NonNull private final Node mIconNode;
+    @NonNull private final VastXmlElement mIconNode;
     @NonNull private final VastResourceXmlManager mResourceXmlManager;
 
-    VastIconXmlManager(@NonNull final Node iconNode) {
+    VastIconXmlManager(@NonNull final VastXmlElement iconNode) {
         Preconditions.checkNotNull(iconNode);
         mIconNode = iconNode;
         mResourceXmlManager = new VastResourceXmlManager(iconNode);
@@ -53,7 +50,7 @@ public class VastIconXmlManager {
      */
     @Nullable
     Integer getWidth() {
-        return XmlUtils.getAttributeValueAsInt(mIconNode, WIDTH);
+        return mIconNode.getAttributeAsInt(WIDTH);
     }
 
     /**
@@ -64,7 +61,7 @@ public class VastIconXmlManager {
      */
     @Nullable
     Integer getHeight() {
-        return XmlUtils.getAttributeValueAsInt(mIconNode, HEIGHT);
+        return mIconNode.getAttributeAsInt(HEIGHT);
     }
 
     /**
@@ -77,7 +74,7 @@ public class VastIconXmlManager {
      */
     @Nullable
     Integer getOffsetMS() {
-        String iconOffsetStr = XmlUtils.getAttributeValue(mIconNode, OFFSET);
+        String iconOffsetStr = mIconNode.getAttribute(OFFSET);
         Integer iconOffset = null;
         try {
             iconOffset = Strings.parseAbsoluteOffset(iconOffsetStr);
@@ -97,7 +94,7 @@ public class VastIconXmlManager {
      */
     @Nullable
     Integer getDurationMS() {
-        String iconDurationStr = XmlUtils.getAttributeValue(mIconNode, DURATION);
+        String iconDurationStr = mIconNode.getAttribute(DURATION);
         Integer iconDuration = null;
         try {
             iconDuration = Strings.parseAbsoluteOffset(iconDurationStr);
@@ -114,16 +111,16 @@ public class VastIconXmlManager {
 
     @NonNull
     List<VastTracker> getClickTrackingUris() {
-        Node iconClicksNode = XmlUtils.getFirstMatchingChildNode(mIconNode, ICON_CLICKS);
+        VastXmlElement iconClicksNode = mIconNode.getFirstChild(ICON_CLICKS);
         List<VastTracker> iconClickTrackingUris = new ArrayList<VastTracker>();
         if (iconClicksNode == null) {
             return iconClickTrackingUris;
         }
 
-        List<Node> iconClickTrackingNodes =
-                XmlUtils.getMatchingChildNodes(iconClicksNode, ICON_CLICK_TRACKING);
-        for (Node iconClickTrackingNode : iconClickTrackingNodes) {
-            String uri = XmlUtils.getNodeValue(iconClickTrackingNode);
+        List<VastXmlElement> iconClickTrackingNodes =
+                iconClicksNode.getChildren(ICON_CLICK_TRACKING);
+        for (VastXmlElement iconClickTrackingNode : iconClickTrackingNodes) {
+            String uri = iconClickTrackingNode.getValue();
             if (uri != null) {
                 iconClickTrackingUris.add(new VastTracker(uri));
             }
@@ -133,24 +130,22 @@ public class VastIconXmlManager {
 
     @Nullable
     String getClickThroughUri() {
-        Node iconClicksNode = XmlUtils.getFirstMatchingChildNode(mIconNode, ICON_CLICKS);
+        VastXmlElement iconClicksNode = mIconNode.getFirstChild(ICON_CLICKS);
         if (iconClicksNode == null) {
             return null;
         }
 
-        Node iconClickThroughNode =
-                XmlUtils.getFirstMatchingChildNode(iconClicksNode, ICON_CLICK_THROUGH);
-        return XmlUtils.getNodeValue(iconClickThroughNode);
+        VastXmlElement iconClickThroughNode = iconClicksNode.getFirstChild(ICON_CLICK_THROUGH);
+        return iconClickThroughNode == null ? null : iconClickThroughNode.getValue();
     }
 
     @NonNull
     List<VastTracker> getViewTrackingUris() {
-        List<Node> iconViewTrackingNodes =
-                XmlUtils.getMatchingChildNodes(mIconNode, ICON_VIEW_TRACKING);
+        List<VastXmlElement> iconViewTrackingNodes = mIconNode.getChildren(ICON_VIEW_TRACKING);
         List<VastTracker> iconViewTrackingUris = new ArrayList<VastTracker>();
 
-        for (Node iconViewTrackingNode : iconViewTrackingNodes) {
-            String uri = XmlUtils.getNodeValue(iconViewTrackingNode);
+        for (VastXmlElement iconViewTrackingNode : iconViewTrackingNodes) {
+            String uri = iconViewTrackingNode.getValue();
             if (uri != null) {
                 iconViewTrackingUris.add(new VastTracker(uri));
             }
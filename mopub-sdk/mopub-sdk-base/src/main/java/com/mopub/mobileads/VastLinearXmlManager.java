@@ -10,9 +10,6 @@ import android.support.annotation.Nullable;
 import com.mopub.common.Preconditions;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.Strings;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -62,9 +59,9 @@ class VastLinearXmlManager {
     private static final float MID_POINT_MARKER = 0.50f;
     private static final float THIRD_QUARTER_MARKER = 0.75f;
 
-    @NonNull private final Node mLinearNode;
+    @NonNull private final VastXmlElement mLinearNode;
 
-    VastLinearXmlManager(@NonNull final Node linearNode) {
+    VastLinearXmlManager(@NonNull final VastXmlElement linearNode) {
         Preconditions.checkNotNull(linearNode);
         mLinearNode = linearNode;
     }
@@ -96,20 +93,20 @@ class VastLinearXmlManager {
         addQuartileTrackerWithFraction(percentTrackers, getVideoTrackersByAttribute(MIDPOINT), MID_POINT_MARKER);
         addQuartileTrackerWithFraction(percentTrackers, getVideoTrackersByAttribute(THIRD_QUARTILE), THIRD_QUARTER_MARKER);
 
-        final Node trackingEvents = XmlUtils.getFirstMatchingChildNode(mLinearNode, TRACKING_EVENTS);
+        final VastXmlElement trackingEvents = mLinearNode.getFirstChild(TRACKING_EVENTS);
         if (trackingEvents != null) {
             // Get any other trackers with event="progress" offset="n%"
-            final List<Node> progressNodes = XmlUtils.getMatchingChildNodes(trackingEvents,
-                    VIDEO_TRACKER, EVENT, Collections.singletonList(PROGRESS));
+            final List<VastXmlElement> progressNodes = trackingEvents.getChildren(VIDEO_TRACKER,
+                    EVENT, PROGRESS);
 
-            for (Node progressNode : progressNodes) {
-                String offsetString = XmlUtils.getAttributeValue(progressNode, OFFSET);
+            for (VastXmlElement progressNode : progressNodes) {
+                String offsetString = progressNode.getAttribute(OFFSET);
                 if (offsetString == null) {
                     continue;
                 }
                 offsetString = offsetString.trim();
                 if (Strings.isPercentageTracker(offsetString)) {
-                    String trackingUrl = XmlUtils.getNodeValue(progressNode);
+                    String trackingUrl = progressNode.getValue();
                     try {
                         final float trackingFraction =
                                 Float.parseFloat(offsetString.replace("%", "")) / 100f;
@@ -157,20 +154,20 @@ class VastLinearXmlManager {
             trackers.add(new VastAbsoluteProgressTracker(url, START_TRACKER_THRESHOLD));
         }
 
-        final Node trackingEvents = XmlUtils.getFirstMatchingChildNode(mLinearNode, TRACKING_EVENTS);
+        final VastXmlElement trackingEvents = mLinearNode.getFirstChild(TRACKING_EVENTS);
         if (trackingEvents != null) {
             // Parse progress trackers and extract the absolute offsets of the form "HH:MM:SS[.mmm]"
 
-            final List<Node> progressNodes = XmlUtils.getMatchingChildNodes(trackingEvents,
-                    VIDEO_TRACKER, EVENT, Collections.singletonList(PROGRESS));
-            for (Node progressNode : progressNodes) {
-                String offsetString = XmlUtils.getAttributeValue(progressNode, OFFSET);
+            final List<VastXmlElement> progressNodes = trackingEvents.getChildren(VIDEO_TRACKER,
+                    EVENT, PROGRESS);
+            for (VastXmlElement progressNode : progressNodes) {
+                String offsetString = progressNode.getAttribute(OFFSET);
                 if (offsetString == null) {
                     continue;
                 }
                 offsetString = offsetString.trim();
                 if (Strings.isAbsoluteTracker(offsetString)) {
-                    String trackingUrl = XmlUtils.getNodeValue(progressNode);
+                    String trackingUrl = progressNode.getValue();
                     try {
                         Integer trackingMilliseconds = Strings.parseAbsoluteOffset(offsetString);
                         if (trackingMilliseconds != null && trackingMilliseconds >= 0) {
@@ -184,10 +181,10 @@ class VastLinearXmlManager {
             }
 
             // Parse creativeView trackers
-            final List<Node> creativeViewNodes = XmlUtils.getMatchingChildNodes(trackingEvents,
-                    VIDEO_TRACKER, EVENT, Collections.singletonList(CREATIVE_VIEW));
-            for (Node creativeViewNode : creativeViewNodes) {
-                final String creativeNodeValue = XmlUtils.getNodeValue(creativeViewNode);
+            final List<VastXmlElement> creativeViewNodes = trackingEvents.getChildren(
+                    VIDEO_TRACKER, EVENT, CREATIVE_VIEW);
+            for (VastXmlElement creativeViewNode : creativeViewNodes) {
+                final String creativeNodeValue = creativeViewNode.getValue();
                 if (creativeNodeValue != null) {
                     trackers.add(
                             new VastAbsoluteProgressTracker(creativeNodeValue,
@@ -270,11 +267,12 @@ class VastLinearXmlManager {
      */
     @Nullable
     String getClickThroughUrl() {
-        final Node videoClicks = XmlUtils.getFirstMatchingChildNode(mLinearNode, VIDEO_CLICKS);
+        final VastXmlElement videoClicks = mLinearNode.getFirstChild(VIDEO_CLICKS);
         if (videoClicks == null) {
             return null;
         }
-        return XmlUtils.getNodeValue(XmlUtils.getFirstMatchingChildNode(videoClicks, CLICK_THROUGH));
+        final VastXmlElement clickThrough = videoClicks.getFirstChild(CLICK_THROUGH);
+        return clickThrough == null ? null : clickThrough.getValue();
     }
 
     /**
@@ -286,18 +284,15 @@ class VastLinearXmlManager {
     List<VastTracker> getClickTrackers() {
         List<VastTracker> clickTrackers = new ArrayList<VastTracker>();
 
-        final Node videoClicks = XmlUtils.getFirstMatchingChildNode(mLinearNode, VIDEO_CLICKS);
+        final VastXmlElement videoClicks = mLinearNode.getFirstChild(VIDEO_CLICKS);
         if (videoClicks == null) {
             return clickTrackers;
         }
 
-        final List<Node> clickTrackerNodes = XmlUtils.getMatchingChildNodes(
-                videoClicks,
-                CLICK_TRACKER
-        );
+        final List<VastXmlElement> clickTrackerNodes = videoClicks.getChildren(CLICK_TRACKER);
 
-        for (Node clickTrackerNode : clickTrackerNodes) {
-            String tracker = XmlUtils.getNodeValue(clickTrackerNode);
+        for (VastXmlElement clickTrackerNode : clickTrackerNodes) {
+            String tracker = clickTrackerNode.getValue();
             if (tracker != null) {
                 clickTrackers.add(new VastTracker(tracker));
             }
@@ -314,7 +309,7 @@ class VastLinearXmlManager {
      */
     @Nullable
     String getSkipOffset() {
-        final String skipOffsetString = XmlUtils.getAttributeValue(mLinearNode, SKIP_OFFSET);
+        final String skipOffsetString = mLinearNode.getAttribute(SKIP_OFFSET);
         if (skipOffsetString == null) {
             return null;
         }
@@ -336,13 +331,13 @@ class VastLinearXmlManager {
     List<VastMediaXmlManager> getMediaXmlManagers() {
         final List<VastMediaXmlManager> mediaXmlManagers = new ArrayList<VastMediaXmlManager>();
 
-        final Node mediaFiles = XmlUtils.getFirstMatchingChildNode(mLinearNode, MEDIA_FILES);
+        final VastXmlElement mediaFiles = mLinearNode.getFirstChild(MEDIA_FILES);
         if (mediaFiles == null) {
             return mediaXmlManagers;
         }
 
-        List<Node> mediaNodes = XmlUtils.getMatchingChildNodes(mediaFiles, MEDIA_FILE);
-        for (Node mediaNode : mediaNodes) {
+        List<VastXmlElement> mediaNodes = mediaFiles.getChildren(MEDIA_FILE);
+        for (VastXmlElement mediaNode : mediaNodes) {
             mediaXmlManagers.add(new VastMediaXmlManager(mediaNode));
         }
 
@@ -353,13 +348,13 @@ class VastLinearXmlManager {
     List<VastIconXmlManager> getIconXmlManagers() {
         final List<VastIconXmlManager> iconXmlManagers = new ArrayList<VastIconXmlManager>();
 
-        final Node icons= XmlUtils.getFirstMatchingChildNode(mLinearNode, ICONS);
+        final VastXmlElement icons = mLinearNode.getFirstChild(ICONS);
         if (icons == null) {
             return iconXmlManagers;
         }
 
-        List<Node> iconNodes = XmlUtils.getMatchingChildNodes(icons, ICON);
-        for (Node iconNode : iconNodes) {
+        List<VastXmlElement> iconNodes = icons.getChildren(ICON);
+        for (VastXmlElement iconNode : iconNodes) {
             iconXmlManagers.add(new VastIconXmlManager(iconNode));
         }
 
@@ -389,20 +384,19 @@ class VastLinearXmlManager {
         Preconditions.checkNotNull(attributeValue);
         List<String> videoTrackers = new ArrayList<String>();
 
-        final Node trackingEvents = XmlUtils.getFirstMatchingChildNode(mLinearNode, TRACKING_EVENTS);
+        final VastXmlElement trackingEvents = mLinearNode.getFirstChild(TRACKING_EVENTS);
         if (trackingEvents == null) {
             return videoTrackers;
         }
 
-        final List<Node> videoTrackerNodes = XmlUtils.getMatchingChildNodes(
-                trackingEvents,
+        final List<VastXmlElement> videoTrackerNodes = trackingEvents.getChildren(
                 VIDEO_TRACKER,
                 EVENT,
-                Collections.singletonList(attributeValue)
+                attributeValue
         );
 
-        for (Node videoTrackerNode : videoTrackerNodes) {
-            String tracker = XmlUtils.getNodeValue(videoTrackerNode);
+        for (VastXmlElement videoTrackerNode : videoTrackerNodes) {
+            String tracker = videoTrackerNode.getValue();
             if (tracker != null) {
                 videoTrackers.add(tracker);
             }
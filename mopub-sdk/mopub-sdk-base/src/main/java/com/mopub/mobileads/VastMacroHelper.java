@@ -14,10 +14,8 @@ import com.mopub.common.logging.MoPubLog;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR;
@@ -27,36 +25,57 @@ import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR;
  */
 public class VastMacroHelper {
 
-    @NonNull private final List<String> mOriginalUris;
-    @NonNull private final Map<VastMacro, String> mMacroDataMap;
+    private static final VastMacro[] MACROS = VastMacro.values();
+
+    @NonNull private final List<VastUrlTemplate> mUrlTemplates;
+    // Macro values indexed by ordinal
+    @NonNull private final String[] mMacroValues;
 
     public VastMacroHelper(@NonNull final List<String> uris) {
         Preconditions.checkNotNull(uris, "uris cannot be null");
-        mOriginalUris = uris;
-        mMacroDataMap = new HashMap<VastMacro, String>();
-        mMacroDataMap.put(VastMacro.CACHEBUSTING, getCachebustingString());
+        mUrlTemplates = new ArrayList<VastUrlTemplate>(uris.size());
+        for (final String uri : uris) {
+            if (!TextUtils.isEmpty(uri)) {
+                mUrlTemplates.add(VastUrlTemplate.compile(uri));
+            }
+        }
+        mMacroValues = createMacroValues();
     }
 
-    @NonNull
-    public List<String> getUris() {
-        List<String> modifiedUris = new ArrayList<String>();
+    private VastMacroHelper(@NonNull final List<VastUrlTemplate> urlTemplates,
+            @NonNull final String[] macroValues) {
+        mUrlTemplates = urlTemplates;
+        mMacroValues = macroValues;
+    }
 
-        for(final String originalUri : mOriginalUris) {
-            String modifiedUri = originalUri;
-            if (TextUtils.isEmpty(modifiedUri)) {
-                continue;
-            }
-            for (final VastMacro vastMacro : VastMacro.values()) {
-                String value = mMacroDataMap.get(vastMacro);
-                if (value == null) {
-                    value = "";
-                }
-
-                modifiedUri = modifiedUri.replaceAll("\\[" + vastMacro.name() + "\\]",
-                        value);
+    /**
+     * Creates a helper for the urls of the given trackers. Each tracker's url template is reused,
+     * so the urls are not scanned for macros again.
+     *
+     * @param trackers The trackers. Null trackers and trackers with empty urls are skipped.
+     * @return The helper.
+     */
+    @NonNull
+    public static VastMacroHelper fromTrackers(@NonNull final List<? extends VastTracker> trackers) {
+        Preconditions.checkNotNull(trackers, "trackers cannot be null");
+
+        final List<VastUrlTemplate> urlTemplates =
+                new ArrayList<VastUrlTemplate>(trackers.size());
+        for (final VastTracker tracker : trackers) {
+            if (tracker != null && !TextUtils.isEmpty(tracker.getContent())) {
+                urlTemplates.add(tracker.getUrlTemplate());
             }
+        }
+        return new VastMacroHelper(urlTemplates, createMacroValues());
+    }
+
+    @NonNull
+    public List<String> getUris() {
+        final List<String> modifiedUris = new ArrayList<String>(mUrlTemplates.size());
+        final StringBuilder builder = new StringBuilder();
 
-            modifiedUris.add(modifiedUri);
+        for (final VastUrlTemplate urlTemplate : mUrlTemplates) {
+            modifiedUris.add(urlTemplate.render(mMacroValues, builder));
         }
 
         return modifiedUris;
@@ -65,7 +84,7 @@ public class VastMacroHelper {
     @NonNull
     public VastMacroHelper withErrorCode(@Nullable final VastErrorCode errorCode) {
         if (errorCode != null) {
-            mMacroDataMap.put(VastMacro.ERRORCODE, errorCode.getErrorCode());
+            mMacroValues[VastMacro.ERRORCODE.ordinal()] = errorCode.getErrorCode();
         }
         return this;
     }
@@ -75,7 +94,7 @@ public class VastMacroHelper {
         if (contentPlayHeadMS != null) {
             String contentPlayHeadMSStr = formatContentPlayHead(contentPlayHeadMS);
             if (!TextUtils.isEmpty(contentPlayHeadMSStr)) {
-                mMacroDataMap.put(VastMacro.CONTENTPLAYHEAD, contentPlayHeadMSStr);
+                mMacroValues[VastMacro.CONTENTPLAYHEAD.ordinal()] = contentPlayHeadMSStr;
             }
         }
         return this;
@@ -90,13 +109,20 @@ public class VastMacroHelper {
             } catch (UnsupportedEncodingException e) {
                 MoPubLog.log(ERROR, "Failed to encode url", e);
             }
-            mMacroDataMap.put(VastMacro.ASSETURI, assetUri);
+            mMacroValues[VastMacro.ASSETURI.ordinal()] = assetUri;
         }
         return this;
     }
 
     @NonNull
-    private String getCachebustingString() {
+    private static String[] createMacroValues() {
+        final String[] macroValues = new String[MACROS.length];
+        macroValues[VastMacro.CACHEBUSTING.ordinal()] = getCachebustingString();
+        return macroValues;
+    }
+
+    @NonNull
+    private static String getCachebustingString() {
         return String.format(Locale.US, "%08d", Math.round(Math.random() * 100000000));
     }
 
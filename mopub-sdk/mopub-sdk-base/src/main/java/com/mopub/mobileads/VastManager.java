@@ -122,6 +122,12 @@ public class VastManager implements VastXmlManagerAggregator.VastXmlManagerAggre
         }
 
         final VideoDownloaderListener videoDownloaderListener = new VideoDownloaderListener() {
+            @Override
+            public void onPlayable() {
+                // Only a finished download prepares the config, so a download that fails after
+                // this point still fails the load
+            }
+
             @Override
             public void onComplete(boolean success) {
                 if (success && updateDiskMediaFileUrl(vastVideoConfig)) {
@@ -0,0 +1,394 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.content.Context;
+import android.graphics.Point;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Display;
+import android.view.WindowManager;
+
+import com.mopub.common.ClientMetadata.MoPubNetworkType;
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.util.Dips;
+import com.mopub.mobileads.VastXmlManagerAggregator.CompanionOrientation;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Picks the media file and the companion ads that best fit the device for one VAST aggregation.
+ * Everything that only depends on the device (the screen aspect ratio and width and the bitrate
+ * range for the current connection) is worked out once when the selector is created, and each
+ * list of candidates is ranked in a single pass.
+ */
+class VastMediaSelector {
+    private static final String MIME_TYPE_MP4 = "video/mp4";
+    private static final String MIME_TYPE_3GPP = "video/3gpp";
+
+    @VisibleForTesting
+    static final int MINIMUM_COMPANION_AD_WIDTH = 300;
+    @VisibleForTesting
+    static final int MINIMUM_COMPANION_AD_HEIGHT = 250;
+
+    // Preferred bitrate ranges, in kbps. Slower connections prefer smaller files so the video
+    // starts sooner.
+    @VisibleForTesting
+    static final int BITRATE_THRESHOLD_HIGH = 1500;
+    @VisibleForTesting
+    static final int BITRATE_THRESHOLD_LOW = 700;
+    @VisibleForTesting
+    static final int BITRATE_THRESHOLD_HIGH_3G = 700;
+    @VisibleForTesting
+    static final int BITRATE_THRESHOLD_LOW_3G = 400;
+    @VisibleForTesting
+    static final int BITRATE_THRESHOLD_HIGH_2G = 400;
+    @VisibleForTesting
+    static final int BITRATE_THRESHOLD_LOW_2G = 150;
+
+    private static final VastResource.Type[] RESOURCE_TYPES = VastResource.Type.values();
+
+    /**
+     * A selected candidate and its fitness score. Higher scores are better.
+     */
+    static class Choice<T> {
+        @NonNull private final T mValue;
+        private final double mScore;
+
+        Choice(@NonNull final T value, final double score) {
+            Preconditions.checkNotNull(value);
+
+            mValue = value;
+            mScore = score;
+        }
+
+        @NonNull
+        T getValue() {
+            return mValue;
+        }
+
+        double getScore() {
+            return mScore;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s (score %.4f)", mValue, mScore);
+        }
+    }
+
+    @NonNull private final Context mContext;
+    private final double mScreenAspectRatio;
+    private final int mScreenWidthDp;
+    private final int mBitrateThresholdLow;
+    private final int mBitrateThresholdHigh;
+    // Companions are compared against the screen in the orientation they will be shown in
+    private final boolean mSwapLandscapeCompanionDimensions;
+    private final boolean mSwapPortraitCompanionDimensions;
+
+    VastMediaSelector(@NonNull final Context context, final double screenAspectRatio,
+            final int screenWidthDp, @NonNull final MoPubNetworkType networkType) {
+        Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(networkType);
+
+        mContext = context.getApplicationContext();
+        mScreenAspectRatio = screenAspectRatio;
+        mScreenWidthDp = screenWidthDp;
+        mSwapLandscapeCompanionDimensions = screenAspectRatio < 1;
+        mSwapPortraitCompanionDimensions = screenAspectRatio > 1;
+
+        switch (networkType) {
+            case GG:
+                mBitrateThresholdLow = BITRATE_THRESHOLD_LOW_2G;
+                mBitrateThresholdHigh = BITRATE_THRESHOLD_HIGH_2G;
+                break;
+            case GGG:
+                mBitrateThresholdLow = BITRATE_THRESHOLD_LOW_3G;
+                mBitrateThresholdHigh = BITRATE_THRESHOLD_HIGH_3G;
+                break;
+            default:
+                mBitrateThresholdLow = BITRATE_THRESHOLD_LOW;
+                mBitrateThresholdHigh = BITRATE_THRESHOLD_HIGH;
+                break;
+        }
+    }
+
+    /**
+     * Finds the playable media file that best fits the screen, bitrate range and format.
+     *
+     * @param managers The MediaFile elements of a Linear element.
+     * @return The url of the best media file and its score, or {@code null} if none can be played.
+     */
+    @Nullable
+    Choice<String> selectMediaFile(@NonNull final List<VastMediaXmlManager> managers) {
+        Preconditions.checkNotNull(managers, "managers cannot be null");
+
+        double bestMediaFitness = Double.NEGATIVE_INFINITY;
+        String bestMediaFileUrl = null;
+        for (final VastMediaXmlManager mediaXmlManager : managers) {
+            final double formatFitness = calculateFormatFitnessFactor(mediaXmlManager.getType());
+            final String mediaUrl = mediaXmlManager.getMediaUrl();
+            if (formatFitness == 0 || mediaUrl == null) {
+                continue;
+            }
+
+            final Integer mediaWidth = mediaXmlManager.getWidth();
+            final Integer mediaHeight = mediaXmlManager.getHeight();
+            if (mediaWidth == null || mediaWidth <= 0 || mediaHeight == null || mediaHeight <= 0) {
+                continue;
+            }
+
+            final double mediaFitness = formatFitness / (1.0
+                    + calculateScreenFitnessFactor(mediaWidth, mediaHeight)
+                    + calculateBitrateFitnessFactor(mediaXmlManager.getBitrate()));
+            if (mediaFitness > bestMediaFitness) {
+                bestMediaFitness = mediaFitness;
+                bestMediaFileUrl = mediaUrl;
+            }
+        }
+
+        return bestMediaFileUrl == null
+                ? null
+                : new Choice<String>(bestMediaFileUrl, bestMediaFitness);
+    }
+
+    /**
+     * Finds the best landscape and portrait companion ads in one pass over the companions.
+     * Resource types are preferred in the order of {@link VastResource.Type}, and the best fitting
+     * companion of the preferred type is chosen for each orientation.
+     *
+     * @param managers The Companion elements of an InLine or Wrapper element.
+     * @return The chosen companion ad for each orientation that has one.
+     */
+    @NonNull
+    Map<CompanionOrientation, Choice<VastCompanionAdConfig>> selectCompanionAds(
+            @NonNull final List<VastCompanionAdXmlManager> managers) {
+        Preconditions.checkNotNull(managers, "managers cannot be null");
+
+        final Map<CompanionOrientation, Choice<VastCompanionAdConfig>> companionAds =
+                new EnumMap<CompanionOrientation, Choice<VastCompanionAdConfig>>(
+                        CompanionOrientation.class);
+        if (managers.isEmpty()) {
+            return companionAds;
+        }
+
+        final Display display = ((WindowManager) mContext.getSystemService(
+                Context.WINDOW_SERVICE)).getDefaultDisplay();
+        final int displayWidthPx = display.getWidth();
+        final int displayHeightPx = display.getHeight();
+
+        for (final CompanionOrientation orientation : CompanionOrientation.values()) {
+            final boolean swapDimensions = (CompanionOrientation.LANDSCAPE == orientation)
+                    ? mSwapLandscapeCompanionDimensions
+                    : mSwapPortraitCompanionDimensions;
+
+            int bestTypeIndex = RESOURCE_TYPES.length;
+            double bestCompanionFitness = Double.NEGATIVE_INFINITY;
+            VastCompanionAdXmlManager bestCompanionXmlManager = null;
+            VastResource bestVastResource = null;
+            Point bestVastScaledDimensions = null;
+
+            for (final VastCompanionAdXmlManager companionXmlManager : managers) {
+                final Integer width = companionXmlManager.getWidth();
+                final Integer height = companionXmlManager.getHeight();
+                if (width == null || width < MINIMUM_COMPANION_AD_WIDTH ||
+                        height == null || height < MINIMUM_COMPANION_AD_HEIGHT) {
+                    continue;
+                }
+
+                final double companionFitness = swapDimensions
+                        ? calculateScreenFitness(height, width)
+                        : calculateScreenFitness(width, height);
+
+                // Only resource types at least as preferred as the current best can win
+                for (int typeIndex = 0; typeIndex <= bestTypeIndex
+                        && typeIndex < RESOURCE_TYPES.length; typeIndex++) {
+                    if (typeIndex == bestTypeIndex && companionFitness <= bestCompanionFitness) {
+                        break;
+                    }
+
+                    final VastResource.Type type = RESOURCE_TYPES[typeIndex];
+                    final Point vastScaledDimensions = getScaledDimensions(width, height, type,
+                            orientation, displayWidthPx, displayHeightPx);
+                    final VastResource vastResource = VastResource.fromVastResourceXmlManager(
+                            companionXmlManager.getResourceXmlManager(), type,
+                            vastScaledDimensions.x, vastScaledDimensions.y);
+                    if (vastResource == null) {
+                        continue;
+                    }
+
+                    bestTypeIndex = typeIndex;
+                    bestCompanionFitness = companionFitness;
+                    bestCompanionXmlManager = companionXmlManager;
+                    bestVastResource = vastResource;
+                    bestVastScaledDimensions = vastScaledDimensions;
+                    break;
+                }
+            }
+
+            if (bestCompanionXmlManager != null) {
+                companionAds.put(orientation, new Choice<VastCompanionAdConfig>(
+                        new VastCompanionAdConfig(
+                                bestVastScaledDimensions.x,
+                                bestVastScaledDimensions.y,
+                                bestVastResource,
+                                bestCompanionXmlManager.getClickThroughUrl(),
+                                bestCompanionXmlManager.getClickTrackers(),
+                                bestCompanionXmlManager.getCompanionCreativeViewTrackers()),
+                        bestCompanionFitness));
+            }
+        }
+
+        return companionAds;
+    }
+
+    /**
+     * Given a width and height for a resource, if the dimensions are larger than the screen size
+     * then scale them down to fit in the screen. This maintains the aspect ratio if the resource is
+     * not an HTMLResource. Since HTML can freely fill any space, the maximum size of an
+     * HTMLResource is the screen size. Scaling takes into account the default Android WebView
+     * padding.
+     *
+     * @param widthDp         width of the resource in dips
+     * @param heightDp        height of the resource in dips
+     * @param type            The type of the resource. HTMLResource uses special scaling.
+     * @param orientation     Expected orientation of the resource
+     * @param displayWidthPx  Width of the display in pixels
+     * @param displayHeightPx Height of the display in pixels
+     * @return the new scaled dimensions that honor the aspect ratio
+     */
+    @NonNull
+    Point getScaledDimensions(final int widthDp, final int heightDp,
+            final VastResource.Type type, final CompanionOrientation orientation,
+            final int displayWidthPx, final int displayHeightPx) {
+        final Point defaultPoint = new Point(widthDp, heightDp);
+
+        final int widthPx = Dips.dipsToIntPixels(widthDp, mContext);
+        final int heightPx = Dips.dipsToIntPixels(heightDp, mContext);
+
+        final int screenWidthPx, screenHeightPx;
+        if (CompanionOrientation.LANDSCAPE == orientation) {
+            screenWidthPx = Math.max(displayWidthPx, displayHeightPx);
+            screenHeightPx = Math.min(displayWidthPx, displayHeightPx);
+        } else {
+            screenWidthPx = Math.min(displayWidthPx, displayHeightPx);
+            screenHeightPx = Math.max(displayWidthPx, displayHeightPx);
+        }
+
+        // Return if the width and height already fit in the screen
+        if (widthPx <= (screenWidthPx - VastVideoViewController.WEBVIEW_PADDING) &&
+                heightPx <= (screenHeightPx - VastVideoViewController.WEBVIEW_PADDING)) {
+            return defaultPoint;
+        }
+
+        final Point point = new Point();
+        if (VastResource.Type.HTML_RESOURCE == type) {
+            point.x = Math.min(screenWidthPx, widthPx);
+            point.y = Math.min(screenHeightPx, heightPx);
+        } else {
+            float widthRatio = (float) widthPx / screenWidthPx;
+            float heightRatio = (float) heightPx / screenHeightPx;
+
+            if (widthRatio >= heightRatio) {
+                point.x = screenWidthPx;
+                point.y = (int) (heightPx / widthRatio);
+            } else {
+                point.x = (int) (widthPx / heightRatio);
+                point.y = screenHeightPx;
+            }
+        }
+
+        point.x -= VastVideoViewController.WEBVIEW_PADDING;
+        point.y -= VastVideoViewController.WEBVIEW_PADDING;
+
+        if (point.x < 0 || point.y < 0) {
+            return defaultPoint;
+        }
+
+        point.x = Dips.pixelsToIntDips(point.x, mContext);
+        point.y = Dips.pixelsToIntDips(point.y, mContext);
+
+        return point;
+    }
+
+    int getBitrateThresholdLow() {
+        return mBitrateThresholdLow;
+    }
+
+    int getBitrateThresholdHigh() {
+        return mBitrateThresholdHigh;
+    }
+
+    /**
+     * Fitness of a companion ad, which has no bitrate or format. Higher scores are better.
+     */
+    private double calculateScreenFitness(final int widthDp, final int heightDp) {
+        return 1.0 / (1.0 + calculateScreenFitnessFactor(widthDp, heightDp));
+    }
+
+    /**
+     * Calculates the fitness value of the media file's bitrate against the preferred range for
+     * the connection. The closer to 0 the score, the better.
+     *
+     * @param bitrate the bitrate of the media file - null if none provided
+     * @return the fitness factor based on the bitrate. The closer to 0, the better.
+     */
+    private double calculateBitrateFitnessFactor(@Nullable final Integer bitrate) {
+        // Default bitrate to 0 if one was not provided for the MediaFile.
+        final int usableBitrate = (bitrate == null || bitrate < 0) ? 0 : bitrate;
+
+        if (mBitrateThresholdLow <= usableBitrate && usableBitrate <= mBitrateThresholdHigh) {
+            return 0;
+        }
+        final double lowDistance = Math.abs(mBitrateThresholdLow - usableBitrate)
+                / (float) mBitrateThresholdLow;
+        final double highDistance = Math.abs(mBitrateThresholdHigh - usableBitrate)
+                / (float) mBitrateThresholdHigh;
+        return Math.min(lowDistance, highDistance);
+    }
+
+    /**
+     * Calculates the fitness of the media file or companion by comparing its aspect ratio and
+     * width to those of the device. The width only counts in whole screen widths, so media within
+     * a screen width of the device all score the same on width. Scores cannot be negative and the
+     * closer the score is to 0, the better.
+     *
+     * @param widthDp  the width of the media file or companion ad
+     * @param heightDp the height of the media file or companion ad
+     * @return the fitness factor based on the screen size. The closer to 0, the better.
+     */
+    private double calculateScreenFitnessFactor(final int widthDp, final int heightDp) {
+        // mScreenAspectRatio calculated as `(double) screenWidth / screenHeight`, so we'll do the
+        // same here.
+        final double mediaAspectRatio = (double) widthDp / heightDp;
+        final double aspectRatioScore = Math.abs(mScreenAspectRatio - mediaAspectRatio);
+        final int widthBucket = mScreenWidthDp == 0
+                ? 0
+                : Math.abs((mScreenWidthDp - widthDp) / mScreenWidthDp);
+
+        return aspectRatioScore + widthBucket;
+    }
+
+    /**
+     * Calculates the fitness of the media file based on the MIME type. This currently gives
+     * preference to MP4 files.
+     *
+     * @param format the MIME format of the media file
+     * @return the factor to multiply the fitness score by, or 0 if the format can't be played.
+     */
+    private static double calculateFormatFitnessFactor(@Nullable final String format) {
+        if (MIME_TYPE_MP4.equals(format)) {
+            return 1.5f;
+        }
+        if (MIME_TYPE_3GPP.equals(format)) {
+            return 1.0f;
+        }
+        return 0;
+    }
+}
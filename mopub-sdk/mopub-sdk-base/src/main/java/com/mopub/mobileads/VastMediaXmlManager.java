@@ -8,9 +8,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 /**
  * This XML manager handles the actual video.
@@ -26,9 +23,9 @@ class VastMediaXmlManager {
     private static final String BITRATE_MIN = "minBitrate";
     private static final String BITRATE_MAX = "maxBitrate";
 
-    @NonNull private final Node mMediaNode;
+    @NonNull private final VastXmlElement mMediaNode;
 
-    VastMediaXmlManager(@NonNull final Node mediaNode) {
+    VastMediaXmlManager(@NonNull final VastXmlElement mediaNode) {
         Preconditions.checkNotNull(mediaNode, "mediaNode cannot be null");
         mMediaNode = mediaNode;
     }
@@ -42,7 +39,7 @@ class VastMediaXmlManager {
      */
     @Nullable
     String getDelivery() {
-        return XmlUtils.getAttributeValue(mMediaNode, DELIVERY);
+        return mMediaNode.getAttribute(DELIVERY);
     }
 
     /**
@@ -53,7 +50,7 @@ class VastMediaXmlManager {
      */
     @Nullable
     Integer getWidth() {
-        return XmlUtils.getAttributeValueAsInt(mMediaNode, WIDTH);
+        return mMediaNode.getAttributeAsInt(WIDTH);
     }
 
     /**
@@ -64,7 +61,7 @@ class VastMediaXmlManager {
      */
     @Nullable
     Integer getHeight() {
-        return XmlUtils.getAttributeValueAsInt(mMediaNode, HEIGHT);
+        return mMediaNode.getAttributeAsInt(HEIGHT);
     }
 
     /**
@@ -75,7 +72,7 @@ class VastMediaXmlManager {
      */
     @Nullable
     String getType() {
-        return XmlUtils.getAttributeValue(mMediaNode, VIDEO_TYPE);
+        return mMediaNode.getAttribute(VIDEO_TYPE);
     }
 
     /**
@@ -85,7 +82,7 @@ class VastMediaXmlManager {
      */
     @Nullable
     String getMediaUrl() {
-        return XmlUtils.getNodeValue(mMediaNode);
+        return mMediaNode.getValue();
     }
 
     /**
@@ -96,15 +93,15 @@ class VastMediaXmlManager {
     @Nullable
     Integer getBitrate() {
         // the "bitrate" attribute is the average across the entire video:
-        final Integer bitrate = XmlUtils.getAttributeValueAsInt(mMediaNode, BITRATE);
+        final Integer bitrate = mMediaNode.getAttributeAsInt(BITRATE);
 
         if (bitrate != null) {
             return bitrate;
         }
 
         // If an average bitrate isn't provided:
-        final Integer minBitrate = XmlUtils.getAttributeValueAsInt(mMediaNode, BITRATE_MIN);
-        final Integer maxBitrate = XmlUtils.getAttributeValueAsInt(mMediaNode, BITRATE_MAX);
+        final Integer minBitrate = mMediaNode.getAttributeAsInt(BITRATE_MIN);
+        final Integer maxBitrate = mMediaNode.getAttributeAsInt(BITRATE_MAX);
 
         // Use the min and max to calculate the average, if both are non-null:
         if (minBitrate != null && maxBitrate != null) {
@@ -0,0 +1,131 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.support.annotation.NonNull;
+
+import com.mopub.common.Preconditions;
+
+import java.util.List;
+
+/**
+ * The progress trackers of a {@link VastVideoConfig} in the order they fire. Trigger points are
+ * kept in primitive arrays with a cursor per kind of tracker, so checking for due trackers on each
+ * progress tick only looks at the trackers that fire and allocates nothing.
+ *
+ * This is not thread safe. It is meant to be driven by a single progress runnable.
+ */
+class VastProgressTrackerSchedule {
+    static final int NO_TRIGGER = -1;
+
+    @NonNull private final int[] mAbsoluteTriggerMillis;
+    @NonNull private final VastAbsoluteProgressTracker[] mAbsoluteTrackers;
+    @NonNull private final float[] mFractionalTriggers;
+    @NonNull private final VastFractionalProgressTracker[] mFractionalTrackers;
+    private int mAbsoluteCursor;
+    private int mFractionalCursor;
+
+    /**
+     * @param absoluteTrackers   Absolute trackers, sorted by time.
+     * @param fractionalTrackers Fractional trackers, sorted by fraction.
+     */
+    VastProgressTrackerSchedule(@NonNull final List<VastAbsoluteProgressTracker> absoluteTrackers,
+            @NonNull final List<VastFractionalProgressTracker> fractionalTrackers) {
+        Preconditions.checkNotNull(absoluteTrackers);
+        Preconditions.checkNotNull(fractionalTrackers);
+
+        mAbsoluteTrackers = absoluteTrackers.toArray(
+                new VastAbsoluteProgressTracker[absoluteTrackers.size()]);
+        mAbsoluteTriggerMillis = new int[mAbsoluteTrackers.length];
+        for (int i = 0; i < mAbsoluteTrackers.length; i++) {
+            mAbsoluteTriggerMillis[i] = mAbsoluteTrackers[i].getTrackingMilliseconds();
+        }
+
+        mFractionalTrackers = fractionalTrackers.toArray(
+                new VastFractionalProgressTracker[fractionalTrackers.size()]);
+        mFractionalTriggers = new float[mFractionalTrackers.length];
+        for (int i = 0; i < mFractionalTrackers.length; i++) {
+            mFractionalTriggers[i] = mFractionalTrackers[i].trackingFraction();
+        }
+    }
+
+    /**
+     * Moves past every tracker that is due at the given position. Trackers that have not been
+     * tracked yet are marked as tracked and added to {@code dueTrackers}, absolute trackers first.
+     *
+     * @param currentPositionMillis The current video position.
+     * @param videoLengthMillis     The video length. Nothing is due unless this is positive.
+     * @param dueTrackers           The list to add due trackers to.
+     * @return The number of trackers added.
+     */
+    int collectDueTrackers(final int currentPositionMillis, final int videoLengthMillis,
+            @NonNull final List<VastTracker> dueTrackers) {
+        if (videoLengthMillis <= 0 || currentPositionMillis < 0) {
+            return 0;
+        }
+
+        int added = 0;
+        while (mAbsoluteCursor < mAbsoluteTrackers.length
+                && mAbsoluteTriggerMillis[mAbsoluteCursor] <= currentPositionMillis) {
+            added += take(mAbsoluteTrackers[mAbsoluteCursor++], dueTrackers);
+        }
+
+        final float progressFraction = currentPositionMillis / (float) videoLengthMillis;
+        while (mFractionalCursor < mFractionalTrackers.length
+                && mFractionalTriggers[mFractionalCursor] <= progressFraction) {
+            added += take(mFractionalTrackers[mFractionalCursor++], dueTrackers);
+        }
+        return added;
+    }
+
+    /**
+     * Gets the earliest video position at which another tracker becomes due.
+     *
+     * @param videoLengthMillis The video length, used for fractional trackers.
+     * @return The position in milliseconds, or {@link #NO_TRIGGER} if every tracker has fired.
+     */
+    int getNextTriggerMillis(final int videoLengthMillis) {
+        int next = NO_TRIGGER;
+        if (mAbsoluteCursor < mAbsoluteTrackers.length) {
+            next = mAbsoluteTriggerMillis[mAbsoluteCursor];
+        }
+        if (videoLengthMillis > 0 && mFractionalCursor < mFractionalTrackers.length) {
+            final int fractionalMillis = (int) Math.ceil(
+                    mFractionalTriggers[mFractionalCursor] * videoLengthMillis);
+            if (next == NO_TRIGGER || fractionalMillis < next) {
+                next = fractionalMillis;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Counts the trackers that have not fired and have not been tracked elsewhere.
+     */
+    int getRemainingCount() {
+        int remaining = 0;
+        for (int i = mAbsoluteCursor; i < mAbsoluteTrackers.length; i++) {
+            if (!mAbsoluteTrackers[i].isTracked()) {
+                remaining++;
+            }
+        }
+        for (int i = mFractionalCursor; i < mFractionalTrackers.length; i++) {
+            if (!mFractionalTrackers[i].isTracked()) {
+                remaining++;
+            }
+        }
+        return remaining;
+    }
+
+    private static int take(@NonNull final VastTracker tracker,
+            @NonNull final List<VastTracker> dueTrackers) {
+        if (tracker.isTracked()) {
+            return 0;
+        }
+        tracker.setTracked();
+        dueTrackers.add(tracker);
+        return 1;
+    }
+}
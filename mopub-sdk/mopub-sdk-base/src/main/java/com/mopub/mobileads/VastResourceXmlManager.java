@@ -8,9 +8,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 public class VastResourceXmlManager {
 
@@ -22,9 +19,9 @@ public class VastResourceXmlManager {
     // Attribute names
     public static final String CREATIVE_TYPE = "creativeType";
 
-    @NonNull private final Node mResourceNode;
+    @NonNull private final VastXmlElement mResourceNode;
 
-    VastResourceXmlManager(@NonNull final Node resourceNode) {
+    VastResourceXmlManager(@NonNull final VastXmlElement resourceNode) {
         Preconditions.checkNotNull(resourceNode);
         mResourceNode = resourceNode;
     }
@@ -37,7 +34,7 @@ public class VastResourceXmlManager {
      */
     @Nullable
     String getStaticResource() {
-        return XmlUtils.getNodeValue(XmlUtils.getFirstMatchingChildNode(mResourceNode, STATIC_RESOURCE));
+        return getChildValue(STATIC_RESOURCE);
     }
 
     /**
@@ -48,8 +45,10 @@ public class VastResourceXmlManager {
      */
     @Nullable
     String getStaticResourceType() {
-        Node staticResource = XmlUtils.getFirstMatchingChildNode(mResourceNode, STATIC_RESOURCE);
-        String attribute = XmlUtils.getAttributeValue(staticResource, CREATIVE_TYPE);
+        VastXmlElement staticResource = mResourceNode.getFirstChild(STATIC_RESOURCE);
+        String attribute = staticResource == null
+                ? null
+                : staticResource.getAttribute(CREATIVE_TYPE);
         if (attribute != null) {
             return attribute.toLowerCase();
         }
@@ -64,7 +63,7 @@ public class VastResourceXmlManager {
      */
     @Nullable
     String getIFrameResource() {
-        return XmlUtils.getNodeValue(XmlUtils.getFirstMatchingChildNode(mResourceNode, IFRAME_RESOURCE));
+        return getChildValue(IFRAME_RESOURCE);
     }
 
     /**
@@ -75,6 +74,12 @@ public class VastResourceXmlManager {
      */
     @Nullable
     String getHTMLResource() {
-        return XmlUtils.getNodeValue(XmlUtils.getFirstMatchingChildNode(mResourceNode, HTML_RESOURCE));
+        return getChildValue(HTML_RESOURCE);
+    }
+
+    @Nullable
+    private String getChildValue(@NonNull final String name) {
+        final VastXmlElement child = mResourceNode.getFirstChild(name);
+        return child == null ? null : child.getValue();
     }
 }
@@ -5,6 +5,7 @@
 package com.mopub.mobileads;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.mopub.common.Preconditions;
 
@@ -21,6 +22,8 @@ public class VastTracker implements Serializable {
     @NonNull private final String mContent;
     private boolean mCalled;
     private boolean mIsRepeatable;
+    // Macro positions in the url, found once when the tracker is parsed
+    @Nullable private VastUrlTemplate mUrlTemplate;
 
     enum MessageType { TRACKING_URL, QUARTILE_EVENT }
 
@@ -30,6 +33,9 @@ public class VastTracker implements Serializable {
 
         mMessageType = messageType;
         mContent = content;
+        if (messageType == MessageType.TRACKING_URL) {
+            mUrlTemplate = VastUrlTemplate.compile(content);
+        }
     }
 
     // Legacy implementation implied URL tracking
@@ -42,6 +48,25 @@ public class VastTracker implements Serializable {
         mIsRepeatable = isRepeatable;
     }
 
+    protected VastTracker(@NonNull final VastTracker other) {
+        Preconditions.checkNotNull(other);
+
+        mMessageType = other.mMessageType;
+        mContent = other.mContent;
+        mCalled = other.mCalled;
+        mIsRepeatable = other.mIsRepeatable;
+        mUrlTemplate = other.mUrlTemplate;
+    }
+
+    /**
+     * Copies this tracker, including whether it has been tracked. Tracking the copy does not
+     * affect this tracker.
+     */
+    @NonNull
+    VastTracker copy() {
+        return new VastTracker(this);
+    }
+
     @NonNull
     public MessageType getMessageType() {
         return mMessageType;
@@ -52,6 +77,17 @@ public class VastTracker implements Serializable {
         return mContent;
     }
 
+    /**
+     * Gets the content of this tracker as a url template.
+     */
+    @NonNull
+    VastUrlTemplate getUrlTemplate() {
+        if (mUrlTemplate == null) {
+            mUrlTemplate = VastUrlTemplate.compile(mContent);
+        }
+        return mUrlTemplate;
+    }
+
     public void setTracked() {
         mCalled = true;
     }
@@ -0,0 +1,145 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+
+import java.io.Serializable;
+
+/**
+ * A tracking url with the positions of its {@link VastMacro}s found ahead of time, so filling in
+ * the macros is a single copy of the url without any regular expressions.
+ */
+class VastUrlTemplate implements Serializable {
+    private static final long serialVersionUID = 0L;
+
+    private static final VastMacro[] MACROS = VastMacro.values();
+
+    @NonNull private final String mUrl;
+    // Where each macro starts and ends in the url, brackets included. Null if there are none.
+    @Nullable private final int[] mMacroBounds;
+    @Nullable private final VastMacro[] mMacros;
+
+    private VastUrlTemplate(@NonNull final String url, @Nullable final int[] macroBounds,
+            @Nullable final VastMacro[] macros) {
+        mUrl = url;
+        mMacroBounds = macroBounds;
+        mMacros = macros;
+    }
+
+    /**
+     * Finds the macros in a url. Anything in square brackets that is not a {@link VastMacro} is
+     * left as it is.
+     *
+     * @param url The tracking url.
+     * @return The template for the url.
+     */
+    @NonNull
+    static VastUrlTemplate compile(@NonNull final String url) {
+        Preconditions.checkNotNull(url);
+
+        int count = 0;
+        int[] bounds = null;
+        VastMacro[] macros = null;
+
+        int open = url.indexOf('[');
+        while (open >= 0) {
+            final int close = url.indexOf(']', open + 1);
+            if (close < 0) {
+                break;
+            }
+
+            final VastMacro macro = findMacro(url, open + 1, close);
+            if (macro == null) {
+                // The bracket may be text in front of a macro, as in "[[ERRORCODE]"
+                open = url.indexOf('[', open + 1);
+                continue;
+            }
+
+            if (macros == null) {
+                bounds = new int[4];
+                macros = new VastMacro[2];
+            } else if (count == macros.length) {
+                final int[] newBounds = new int[bounds.length * 2];
+                System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+                bounds = newBounds;
+                final VastMacro[] newMacros = new VastMacro[macros.length * 2];
+                System.arraycopy(macros, 0, newMacros, 0, macros.length);
+                macros = newMacros;
+            }
+            bounds[count * 2] = open;
+            bounds[count * 2 + 1] = close + 1;
+            macros[count] = macro;
+            count++;
+
+            open = url.indexOf('[', close + 1);
+        }
+
+        if (count == 0) {
+            return new VastUrlTemplate(url, null, null);
+        }
+        if (count < macros.length) {
+            final int[] trimmedBounds = new int[count * 2];
+            System.arraycopy(bounds, 0, trimmedBounds, 0, trimmedBounds.length);
+            bounds = trimmedBounds;
+            final VastMacro[] trimmedMacros = new VastMacro[count];
+            System.arraycopy(macros, 0, trimmedMacros, 0, count);
+            macros = trimmedMacros;
+        }
+        return new VastUrlTemplate(url, bounds, macros);
+    }
+
+    @NonNull
+    String getUrl() {
+        return mUrl;
+    }
+
+    boolean hasMacros() {
+        return mMacros != null;
+    }
+
+    /**
+     * Fills in the macros.
+     *
+     * @param values  Macro values indexed by {@link VastMacro#ordinal()}. Missing values are
+     *                replaced with an empty string.
+     * @param builder Used to build the url. It is cleared first.
+     * @return The url with its macros filled in.
+     */
+    @NonNull
+    String render(@NonNull final String[] values, @NonNull final StringBuilder builder) {
+        if (mMacros == null || mMacroBounds == null) {
+            return mUrl;
+        }
+
+        builder.setLength(0);
+        int copied = 0;
+        for (int i = 0; i < mMacros.length; i++) {
+            builder.append(mUrl, copied, mMacroBounds[i * 2]);
+            final String value = values[mMacros[i].ordinal()];
+            if (value != null) {
+                builder.append(value);
+            }
+            copied = mMacroBounds[i * 2 + 1];
+        }
+        builder.append(mUrl, copied, mUrl.length());
+        return builder.toString();
+    }
+
+    @Nullable
+    private static VastMacro findMacro(@NonNull final String url, final int start, final int end) {
+        final int length = end - start;
+        for (final VastMacro macro : MACROS) {
+            final String name = macro.name();
+            if (name.length() == length && url.regionMatches(start, name, 0, length)) {
+                return macro;
+            }
+        }
+        return null;
+    }
+}
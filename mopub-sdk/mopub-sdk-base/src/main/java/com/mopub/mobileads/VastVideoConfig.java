@@ -24,6 +24,7 @@ import com.mopub.common.util.DeviceUtils;
 import com.mopub.common.util.Intents;
 import com.mopub.common.util.Strings;
 import com.mopub.exceptions.IntentNotResolvableException;
+import com.mopub.volley.Request;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -79,6 +80,9 @@ public class VastVideoConfig implements Serializable {
     private String mPrivacyInformationIconImageUrl;
     private String mPrivacyInformationIconClickthroughUrl;
 
+    // Built from the progress trackers on first use and rebuilt when more are added
+    @Nullable private transient VastProgressTrackerSchedule mProgressTrackerSchedule;
+
     public VastVideoConfig() {
         mImpressionTrackers = new ArrayList<VastTracker>();
         mFractionalTrackers = new ArrayList<VastFractionalProgressTracker>();
@@ -98,6 +102,54 @@ public class VastVideoConfig implements Serializable {
         mMoatImpressionPixels = new HashSet<String>();
     }
 
+    /**
+     * Copies this config for another player. Trackers are copied, so each player tracks events
+     * and steps through progress trackers on its own. Trackers that had been tracked when the
+     * config was copied stay tracked in the copy. Companion ads and the icon are only tracked by
+     * the full-screen player and are shared.
+     *
+     * @return A config with the same ad and its own tracker state.
+     */
+    @NonNull
+    public VastVideoConfig copy() {
+        final VastVideoConfig copy = new VastVideoConfig();
+        copyTrackers(mImpressionTrackers, copy.mImpressionTrackers);
+        copyTrackers(mFractionalTrackers, copy.mFractionalTrackers);
+        copyTrackers(mAbsoluteTrackers, copy.mAbsoluteTrackers);
+        copyTrackers(mPauseTrackers, copy.mPauseTrackers);
+        copyTrackers(mResumeTrackers, copy.mResumeTrackers);
+        copyTrackers(mCompleteTrackers, copy.mCompleteTrackers);
+        copyTrackers(mCloseTrackers, copy.mCloseTrackers);
+        copyTrackers(mSkipTrackers, copy.mSkipTrackers);
+        copyTrackers(mClickTrackers, copy.mClickTrackers);
+        copyTrackers(mErrorTrackers, copy.mErrorTrackers);
+
+        copy.mClickThroughUrl = mClickThroughUrl;
+        copy.mNetworkMediaFileUrl = mNetworkMediaFileUrl;
+        copy.mDiskMediaFileUrl = mDiskMediaFileUrl;
+        copy.mSkipOffset = mSkipOffset;
+        copy.mLandscapeVastCompanionAdConfig = mLandscapeVastCompanionAdConfig;
+        copy.mPortraitVastCompanionAdConfig = mPortraitVastCompanionAdConfig;
+        copy.mSocialActionsCompanionAds.putAll(mSocialActionsCompanionAds);
+        copy.mVastIconConfig = mVastIconConfig;
+        copy.mIsRewardedVideo = mIsRewardedVideo;
+
+        copy.mCustomCtaText = mCustomCtaText;
+        copy.mCustomSkipText = mCustomSkipText;
+        copy.mCustomCloseIconUrl = mCustomCloseIconUrl;
+        if (mVideoViewabilityTracker != null) {
+            copy.mVideoViewabilityTracker = mVideoViewabilityTracker.copy();
+        }
+        copy.mExternalViewabilityTrackers.putAll(mExternalViewabilityTrackers);
+        copy.mAvidJavascriptResources.addAll(mAvidJavascriptResources);
+        copy.mMoatImpressionPixels.addAll(mMoatImpressionPixels);
+
+        copy.mDspCreativeId = mDspCreativeId;
+        copy.mPrivacyInformationIconImageUrl = mPrivacyInformationIconImageUrl;
+        copy.mPrivacyInformationIconClickthroughUrl = mPrivacyInformationIconClickthroughUrl;
+        return copy;
+    }
+
     /**
      * Setters
      */
@@ -123,6 +175,7 @@ public class VastVideoConfig implements Serializable {
         Preconditions.checkNotNull(fractionalTrackers, "fractionalTrackers cannot be null");
         mFractionalTrackers.addAll(fractionalTrackers);
         Collections.sort(mFractionalTrackers);
+        mProgressTrackerSchedule = null;
     }
 
     /**
@@ -132,6 +185,7 @@ public class VastVideoConfig implements Serializable {
         Preconditions.checkNotNull(absoluteTrackers, "absoluteTrackers cannot be null");
         mAbsoluteTrackers.addAll(absoluteTrackers);
         Collections.sort(mAbsoluteTrackers);
+        mProgressTrackerSchedule = null;
     }
 
     public void addCompleteTrackers(@NonNull final List<VastTracker> completeTrackers) {
@@ -525,7 +579,8 @@ public class VastVideoConfig implements Serializable {
                 null,
                 contentPlayHead,
                 mNetworkMediaFileUrl,
-                context
+                context,
+                Request.Priority.HIGH
         );
     }
 
@@ -776,7 +831,20 @@ public class VastVideoConfig implements Serializable {
      * @return Integer count >= 0 of the remaining progress trackers.
      */
     public int getRemainingProgressTrackerCount() {
-        return getUntriggeredTrackersBefore(Integer.MAX_VALUE, Integer.MAX_VALUE).size();
+        return getProgressTrackerSchedule().getRemainingCount();
+    }
+
+    /**
+     * Gets the progress trackers in the order they fire, for the progress runnable to step
+     * through as the video plays.
+     */
+    @NonNull
+    VastProgressTrackerSchedule getProgressTrackerSchedule() {
+        if (mProgressTrackerSchedule == null) {
+            mProgressTrackerSchedule = new VastProgressTrackerSchedule(mAbsoluteTrackers,
+                    mFractionalTrackers);
+        }
+        return mProgressTrackerSchedule;
     }
 
     /**
@@ -835,6 +903,15 @@ public class VastVideoConfig implements Serializable {
         return hydratedUrls;
     }
 
+    private static <T extends VastTracker> void copyTrackers(@NonNull final List<T> trackers,
+            @NonNull final List<T> copies) {
+        for (final T tracker : trackers) {
+            @SuppressWarnings("unchecked")
+            final T copy = (T) tracker.copy();
+            copies.add(copy);
+        }
+    }
+
     private List<VastTracker> createVastTrackersForUrls(@NonNull final List<String> urls) {
         Preconditions.checkNotNull(urls);
 
@@ -0,0 +1,127 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Holds {@link VastVideoConfig}s in memory while a video player activity starts, so only a handle
+ * has to be put in the Intent. Serializing the whole config into the Intent is slow for configs
+ * with many trackers and companion ads, and large ones can exceed the Binder transaction limit.
+ */
+public class VastVideoConfigRegistry {
+    /**
+     * Intent extra with the handle of the registered config.
+     */
+    public static final String HANDLE_KEY = "vast_video_config_handle";
+
+    /**
+     * Never returned by {@link #register(VastVideoConfig)}.
+     */
+    public static final long NO_HANDLE = 0;
+
+    /**
+     * Maximum number of configs held. Configs are released when their activity finishes, so this
+     * only limits what is held for activities that never started.
+     */
+    @VisibleForTesting
+    static final int MAX_SIZE = 10;
+
+    @NonNull
+    private static final Map<Long, VastVideoConfig> sConfigs =
+            new LinkedHashMap<Long, VastVideoConfig>(MAX_SIZE, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<Long, VastVideoConfig> eldest) {
+                    if (size() > MAX_SIZE) {
+                        MoPubLog.log(CUSTOM, "Releasing VastVideoConfig " + eldest.getKey()
+                                + " that was never shown.");
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    private static long sNextHandle = NO_HANDLE + 1;
+
+    private VastVideoConfigRegistry() {
+    }
+
+    /**
+     * Holds the config until it is released.
+     *
+     * @param vastVideoConfig The config.
+     * @return The handle to put in the Intent.
+     */
+    public static synchronized long register(@NonNull final VastVideoConfig vastVideoConfig) {
+        Preconditions.checkNotNull(vastVideoConfig);
+
+        final long handle = sNextHandle++;
+        sConfigs.put(handle, vastVideoConfig);
+        return handle;
+    }
+
+    @Nullable
+    public static synchronized VastVideoConfig get(final long handle) {
+        return sConfigs.get(handle);
+    }
+
+    public static synchronized void release(final long handle) {
+        sConfigs.remove(handle);
+    }
+
+    /**
+     * Gets the config for an activity's Intent extras. Falls back to a config serialized in the
+     * extras under {@code serializedKey}, as in Intents built before configs were registered.
+     *
+     * @param extras        The Intent extras.
+     * @param serializedKey The key of a serialized config.
+     * @return The config, or null if the extras have neither a known handle nor a config.
+     */
+    @Nullable
+    public static VastVideoConfig getFromExtras(@Nullable final Bundle extras,
+            @NonNull final String serializedKey) {
+        Preconditions.checkNotNull(serializedKey);
+
+        if (extras == null) {
+            return null;
+        }
+
+        final VastVideoConfig registered = get(extras.getLong(HANDLE_KEY, NO_HANDLE));
+        if (registered != null) {
+            return registered;
+        }
+
+        final Serializable serializable = extras.getSerializable(serializedKey);
+        if (serializable instanceof VastVideoConfig) {
+            return (VastVideoConfig) serializable;
+        }
+        return null;
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static synchronized void clearAll() {
+        sConfigs.clear();
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static synchronized int size() {
+        return sConfigs.size();
+    }
+}
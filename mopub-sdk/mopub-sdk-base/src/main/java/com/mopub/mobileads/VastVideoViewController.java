@@ -27,11 +27,14 @@ import android.widget.ImageView;
 import android.widget.RelativeLayout;
 import android.widget.VideoView;
 
+import com.mopub.common.CacheService;
+import com.mopub.common.ConcurrentDiskLruCache;
 import com.mopub.common.ExternalViewabilitySession.VideoEvent;
 import com.mopub.common.ExternalViewabilitySessionManager;
 import com.mopub.common.IntentActions;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.Dips;
 import com.mopub.common.util.Utils;
 import com.mopub.mobileads.resource.DrawableConstants;
@@ -42,6 +45,7 @@ import java.util.Map;
 import static android.content.pm.ActivityInfo.SCREEN_ORIENTATION_PORTRAIT;
 import static android.content.pm.ActivityInfo.SCREEN_ORIENTATION_SENSOR_LANDSCAPE;
 import static com.mopub.common.MoPubBrowser.MOPUB_BROWSER_REQUEST_CODE;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.mobileads.VastXmlManagerAggregator.ADS_BY_AD_SLOT_ID;
 import static com.mopub.mobileads.VastXmlManagerAggregator.SOCIAL_ACTIONS_AD_SLOT_ID;
 import static com.mopub.network.TrackingRequest.makeVastTrackingHttpRequest;
@@ -81,6 +85,10 @@ public class VastVideoViewController extends BaseVideoViewController {
 
     @Nullable private VastCompanionAdConfig mVastCompanionAdConfig;
     @Nullable private final VastIconConfig mVastIconConfig;
+    // Keeps the video from being evicted from the cache while it plays
+    @Nullable private ConcurrentDiskLruCache.Snapshot mPinnedVideo;
+    // Set while the video is still downloading
+    @Nullable private VideoDownloader.VideoDownloaderListener mVideoDownloaderListener;
     @NonNull private final View mLandscapeCompanionAdView;
     @NonNull private final View mPortraitCompanionAdView;
     @NonNull private final Map<String, VastCompanionAdConfig> mSocialActionsCompanionAds;
@@ -106,6 +114,7 @@ public class VastVideoViewController extends BaseVideoViewController {
      * For when the video is closing.
      */
     private boolean mIsClosing = false;
+    private boolean mIsDestroyed = false;
 
     VastVideoViewController(final Activity activity,
             final Bundle intentExtras,
@@ -121,14 +130,15 @@ public class VastVideoViewController extends BaseVideoViewController {
             resumedVastConfiguration =
                     savedInstanceState.getSerializable(RESUMED_VAST_CONFIG);
         }
-        Serializable serializable = intentExtras.getSerializable(VAST_VIDEO_CONFIG);
+        final VastVideoConfig intentVastConfiguration =
+                VastVideoConfigRegistry.getFromExtras(intentExtras, VAST_VIDEO_CONFIG);
         if (resumedVastConfiguration != null
                 && resumedVastConfiguration instanceof VastVideoConfig) {
             mVastVideoConfig = (VastVideoConfig) resumedVastConfiguration;
             mSeekerPositionOnPause =
                     savedInstanceState.getInt(CURRENT_POSITION, SEEKER_POSITION_NOT_INITIALIZED);
-        } else if (serializable != null && serializable instanceof VastVideoConfig) {
-            mVastVideoConfig = (VastVideoConfig) serializable;
+        } else if (intentVastConfiguration != null) {
+            mVastVideoConfig = intentVastConfiguration;
         } else {
             throw new IllegalStateException("VastVideoConfig is invalid");
         }
@@ -298,12 +308,22 @@ public class VastVideoViewController extends BaseVideoViewController {
 
     @Override
     protected void onDestroy() {
+        mIsDestroyed = true;
+        if (mVideoDownloaderListener != null) {
+            VideoDownloader.removeListener(mVastVideoConfig.getNetworkMediaFileUrl(),
+                    mVideoDownloaderListener);
+            mVideoDownloaderListener = null;
+        }
         stopRunnables();
         mExternalViewabilitySessionManager.recordVideoEvent(VideoEvent.AD_STOPPED, getCurrentPosition());
         mExternalViewabilitySessionManager.endVideoSession();
         broadcastAction(IntentActions.ACTION_INTERSTITIAL_DISMISS);
 
         mVideoView.onDestroy();
+        if (mPinnedVideo != null) {
+            mPinnedVideo.close();
+            mPinnedVideo = null;
+        }
     }
 
     @Override
@@ -458,6 +478,9 @@ public class VastVideoViewController extends BaseVideoViewController {
         videoView.setOnErrorListener(new MediaPlayer.OnErrorListener() {
             @Override
             public boolean onError(final MediaPlayer mediaPlayer, final int what, final int extra) {
+                if (mIsDestroyed) {
+                    return false;
+                }
                 mExternalViewabilitySessionManager.recordVideoEvent(VideoEvent.RECORD_AD_ERROR,
                         getCurrentPosition());
                 stopRunnables();
@@ -472,12 +495,55 @@ public class VastVideoViewController extends BaseVideoViewController {
             }
         });
 
-        videoView.setVideoPath(mVastVideoConfig.getDiskMediaFileUrl());
+        // The video file may be downloading again, for instance for another ad after an eviction
+        final VideoDownloader.VideoDownloaderListener videoDownloaderListener =
+                new VideoDownloader.VideoDownloaderListener() {
+                    @Override
+                    public void onPlayable() {
+                    }
+
+                    @Override
+                    public void onComplete(final boolean success) {
+                        mVideoDownloaderListener = null;
+                        if (mIsDestroyed) {
+                            return;
+                        }
+                        if (success) {
+                            setVideoPath(videoView);
+                            return;
+                        }
+                        MoPubLog.log(CUSTOM, "Unable to play video that failed to download.");
+                        stopRunnables();
+                        makeVideoInteractable();
+                        videoError(false);
+                        mVideoError = true;
+                        mVastVideoConfig.handleError(getContext(),
+                                VastErrorCode.GENERAL_LINEAR_AD_ERROR, 0);
+                    }
+                };
+        if (VideoDownloader.addListenerIfDownloading(mVastVideoConfig.getNetworkMediaFileUrl(),
+                videoDownloaderListener)) {
+            mVideoDownloaderListener = videoDownloaderListener;
+        } else {
+            setVideoPath(videoView);
+        }
         videoView.setVisibility(initialVisibility);
 
         return videoView;
     }
 
+    private void setVideoPath(@NonNull final VastVideoView videoView) {
+        // The pin would never be closed
+        if (mIsDestroyed) {
+            return;
+        }
+        if (mPinnedVideo == null) {
+            mPinnedVideo = CacheService.openDiskCacheEntry(
+                    mVastVideoConfig.getNetworkMediaFileUrl());
+        }
+        videoView.setVideoPath(mVastVideoConfig.getDiskMediaFileUrl());
+    }
+
     private void addTopGradientStripWidget(@NonNull final Context context) {
         boolean hasCompanionAd = (mVastCompanionAdConfig != null);
 
@@ -11,6 +11,7 @@ import com.mopub.common.ExternalViewabilitySession.VideoEvent;
 import com.mopub.common.Preconditions;
 import com.mopub.mobileads.VastTracker.MessageType;
 import com.mopub.network.TrackingRequest;
+import com.mopub.volley.Request;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +24,9 @@ public class VastVideoViewProgressRunnable extends RepeatingHandlerRunnable {
 
     @NonNull private final VastVideoViewController mVideoViewController;
     @NonNull private final VastVideoConfig mVastVideoConfig;
+    // Reused for the trackers that fire on a tick, so ticks without trackers don't allocate
+    @NonNull private final List<VastTracker> mDueTrackers = new ArrayList<VastTracker>();
+    private long mNextDelayMillis;
 
     public VastVideoViewProgressRunnable(@NonNull VastVideoViewController videoViewController,
             @NonNull final VastVideoConfig vastVideoConfig,
@@ -57,28 +61,42 @@ public class VastVideoViewProgressRunnable extends RepeatingHandlerRunnable {
 
         mVideoViewController.updateProgressBar();
 
+        mNextDelayMillis = mUpdateIntervalMillis;
         if (videoLength > 0) {
-            final List<VastTracker> trackersToTrack =
-                    mVastVideoConfig.getUntriggeredTrackersBefore(currentPosition, videoLength);
-            if (!trackersToTrack.isEmpty()) {
-                final List<String> trackUrls = new ArrayList<String>();
-                for (VastTracker tracker : trackersToTrack) {
+            final VastProgressTrackerSchedule schedule =
+                    mVastVideoConfig.getProgressTrackerSchedule();
+            if (schedule.collectDueTrackers(currentPosition, videoLength, mDueTrackers) > 0) {
+                final List<VastTracker> urlTrackers = new ArrayList<VastTracker>(mDueTrackers.size());
+                for (VastTracker tracker : mDueTrackers) {
                     if (tracker.getMessageType() == MessageType.TRACKING_URL) {
-                        trackUrls.add(tracker.getContent());
+                        urlTrackers.add(tracker);
                     } else if (tracker.getMessageType() == MessageType.QUARTILE_EVENT) {
                         mVideoViewController.handleViewabilityQuartileEvent(tracker.getContent());
                     }
-                    tracker.setTracked();
                 }
-                TrackingRequest.makeTrackingHttpRequest(
-                        new VastMacroHelper(trackUrls)
+                mDueTrackers.clear();
+                TrackingRequest.makeTrackingHttpRequestWithPriority(
+                        VastMacroHelper.fromTrackers(urlTrackers)
                                 .withAssetUri(mVideoViewController.getNetworkMediaFileUrl())
                                 .withContentPlayHead(currentPosition)
                                 .getUris(),
-                        mVideoViewController.getContext());
+                        mVideoViewController.getContext(),
+                        Request.Priority.LOW);
+            }
+
+            // Wake up in time for the next tracker rather than up to an interval late
+            final int nextTriggerMillis = schedule.getNextTriggerMillis(videoLength);
+            if (nextTriggerMillis != VastProgressTrackerSchedule.NO_TRIGGER) {
+                mNextDelayMillis = Math.max(1,
+                        Math.min(mUpdateIntervalMillis, nextTriggerMillis - currentPosition));
             }
 
             mVideoViewController.handleIconDisplay(currentPosition);
         }
     }
+
+    @Override
+    protected long getNextDelayMillis() {
+        return mNextDelayMillis > 0 ? mNextDelayMillis : mUpdateIntervalMillis;
+    }
 }
@@ -0,0 +1,293 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.mopub.common.MoPubHttpUrlConnection;
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.Streams;
+import com.mopub.common.util.Strings;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Follows VAST Wrapper redirects for one {@link VastXmlManagerAggregator}. Redirects are fetched
+ * on a shared background pool, so the wrappers of sibling Ad elements can be prefetched while the
+ * aggregator still evaluates them in document order. Only redirects the aggregator follows count
+ * against {@link VastXmlManagerAggregator#MAX_TIMES_TO_FOLLOW_VAST_REDIRECT}. Prefetches that are
+ * never followed have their own limit of {@link #MAX_PREFETCHED_REDIRECTS}. Wrapper xml is kept
+ * for {@link #CACHE_TTL_MS} by url, so ads that share a wrapper tag do not fetch it again.
+ */
+class VastWrapperResolver {
+    @VisibleForTesting
+    static final int MAX_PARALLEL_REDIRECTS = 4;
+    @VisibleForTesting
+    static final int MAX_PREFETCHED_REDIRECTS = 2 * MAX_PARALLEL_REDIRECTS;
+    @VisibleForTesting
+    static final int CACHE_MAX_ENTRIES = 16;
+    @VisibleForTesting
+    static final long CACHE_TTL_MS = 2 * 60 * 1000;
+
+    private static class CachedXml {
+        @NonNull final String mXml;
+        final long mFetchedAtMs;
+
+        CachedXml(@NonNull final String xml, final long fetchedAtMs) {
+            mXml = xml;
+            mFetchedAtMs = fetchedAtMs;
+        }
+    }
+
+    private static class Helper {
+        private static final ExecutorService sExecutor;
+
+        static {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLEL_REDIRECTS,
+                    MAX_PARALLEL_REDIRECTS, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>());
+            executor.allowCoreThreadTimeOut(true);
+            sExecutor = executor;
+        }
+    }
+
+    // Keyed by redirect url, in access order. Guarded by itself.
+    @NonNull private static final LinkedHashMap<String, CachedXml> sCache =
+            new LinkedHashMap<String, CachedXml>(CACHE_MAX_ENTRIES, 0.75f, true);
+
+    @NonNull private final ExecutorService mExecutor;
+    @NonNull private final AtomicInteger mTimesFollowedVastRedirect = new AtomicInteger();
+    // Urls this resolver has already fetched. Only accessed on the aggregator's thread.
+    @NonNull private final Set<String> mFollowedUrls = new HashSet<String>();
+    // Prefetches that have not been followed. Only accessed on the aggregator's thread.
+    private int mTimesPrefetched;
+
+    VastWrapperResolver() {
+        this(Helper.sExecutor);
+    }
+
+    @VisibleForTesting
+    VastWrapperResolver(@NonNull final ExecutorService executor) {
+        Preconditions.checkNotNull(executor);
+
+        mExecutor = executor;
+    }
+
+    /**
+     * Starts fetching the VAST xml of a Wrapper that may be followed later. Does not count against
+     * the redirect budget until it is passed to {@link #resolve(String, Future)}.
+     *
+     * @param redirectUrl The VASTAdTagURI of a Wrapper element.
+     * @return A future with the xml, or {@code null} if no more redirects can be prefetched.
+     */
+    @Nullable
+    Future<String> prefetch(@NonNull final String redirectUrl) {
+        Preconditions.checkNotNull(redirectUrl);
+
+        if (mTimesPrefetched >= MAX_PREFETCHED_REDIRECTS || mTimesFollowedVastRedirect.get()
+                >= VastXmlManagerAggregator.MAX_TIMES_TO_FOLLOW_VAST_REDIRECT) {
+            return null;
+        }
+        mTimesPrefetched++;
+        return fetch(redirectUrl);
+    }
+
+    /**
+     * Follows a redirect, fetching the VAST xml at the given url in the background.
+     *
+     * @param redirectUrl The VASTAdTagURI of a Wrapper element.
+     * @return A future with the xml, or {@code null} if the redirect budget has been used up.
+     */
+    @Nullable
+    Future<String> resolve(@NonNull final String redirectUrl) {
+        return resolve(redirectUrl, null);
+    }
+
+    /**
+     * Follows a redirect, and counts it against the redirect budget.
+     *
+     * @param redirectUrl The VASTAdTagURI of a Wrapper element.
+     * @param prefetched  The future returned by {@link #prefetch(String)} for this url, if any.
+     * @return A future with the xml, or {@code null} if the redirect budget has been used up.
+     */
+    @Nullable
+    Future<String> resolve(@NonNull final String redirectUrl,
+            @Nullable final Future<String> prefetched) {
+        Preconditions.checkNotNull(redirectUrl);
+
+        if (!reserveRedirect()) {
+            if (prefetched != null) {
+                prefetched.cancel(true);
+            }
+            return null;
+        }
+        if (prefetched != null) {
+            // It is paid for by the budget now
+            mTimesPrefetched--;
+            return prefetched;
+        }
+        return fetch(redirectUrl);
+    }
+
+    int getTimesFollowedVastRedirect() {
+        return mTimesFollowedVastRedirect.get();
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    void setTimesFollowedVastRedirect(final int timesFollowedVastRedirect) {
+        mTimesFollowedVastRedirect.set(timesFollowedVastRedirect);
+    }
+
+    @VisibleForTesting
+    static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    @NonNull
+    private Future<String> fetch(@NonNull final String redirectUrl) {
+        // A url that this resolver already followed is fetched again rather than taken from the
+        // cache. Serving the same document twice would only repeat the same wrapper chain.
+        if (mFollowedUrls.add(redirectUrl)) {
+            final String cachedXml = getCachedXml(redirectUrl);
+            if (cachedXml != null) {
+                MoPubLog.log(CUSTOM, "Using cached VAST redirect for " + redirectUrl);
+                return new ImmediateFuture(cachedXml);
+            }
+        }
+
+        return mExecutor.submit(new Callable<String>() {
+            @Override
+            @Nullable
+            public String call() throws Exception {
+                final String xml = download(redirectUrl);
+                if (!TextUtils.isEmpty(xml)) {
+                    putCachedXml(redirectUrl, xml);
+                }
+                return xml;
+            }
+        });
+    }
+
+    private boolean reserveRedirect() {
+        while (true) {
+            final int timesFollowed = mTimesFollowedVastRedirect.get();
+            if (timesFollowed >= VastXmlManagerAggregator.MAX_TIMES_TO_FOLLOW_VAST_REDIRECT) {
+                return false;
+            }
+            if (mTimesFollowedVastRedirect.compareAndSet(timesFollowed, timesFollowed + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Nullable
+    private static String download(@NonNull final String redirectUrl) throws Exception {
+        HttpURLConnection urlConnection = null;
+        InputStream inputStream = null;
+        try {
+            urlConnection = MoPubHttpUrlConnection.getHttpUrlConnection(redirectUrl);
+            inputStream = new BufferedInputStream(urlConnection.getInputStream());
+
+            return Strings.fromStream(inputStream);
+        } finally {
+            Streams.closeStream(inputStream);
+            if (urlConnection != null) {
+                urlConnection.disconnect();
+            }
+        }
+    }
+
+    @Nullable
+    private static String getCachedXml(@NonNull final String redirectUrl) {
+        synchronized (sCache) {
+            final CachedXml cachedXml = sCache.get(redirectUrl);
+            if (cachedXml == null) {
+                return null;
+            }
+            if (now() - cachedXml.mFetchedAtMs >= CACHE_TTL_MS) {
+                sCache.remove(redirectUrl);
+                return null;
+            }
+            return cachedXml.mXml;
+        }
+    }
+
+    private static void putCachedXml(@NonNull final String redirectUrl, @NonNull final String xml) {
+        synchronized (sCache) {
+            sCache.put(redirectUrl, new CachedXml(xml, now()));
+            final Iterator<Map.Entry<String, CachedXml>> iterator = sCache.entrySet().iterator();
+            while (sCache.size() > CACHE_MAX_ENTRIES && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * A future for xml that was already in the cache.
+     */
+    private static class ImmediateFuture implements Future<String> {
+        @NonNull private final String mXml;
+
+        ImmediateFuture(@NonNull final String xml) {
+            mXml = xml;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        @NonNull
+        public String get() {
+            return mXml;
+        }
+
+        @Override
+        @NonNull
+        public String get(final long timeout, @NonNull final TimeUnit unit) {
+            return mXml;
+        }
+    }
+}
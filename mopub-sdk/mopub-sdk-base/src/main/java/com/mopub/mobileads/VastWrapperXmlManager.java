@@ -8,9 +8,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mopub.common.Preconditions;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 /**
  * This XML manager handles Wrapper nodes. Wrappers redirect to other VAST documents (which may
@@ -22,7 +19,7 @@ class VastWrapperXmlManager extends VastBaseInLineWrapperXmlManager {
     // Element names
     private static final String VAST_AD_TAG = "VASTAdTagURI";
 
-    VastWrapperXmlManager(@NonNull final Node wrapperNode) {
+    VastWrapperXmlManager(@NonNull final VastXmlElement wrapperNode) {
         super(wrapperNode);
         Preconditions.checkNotNull(wrapperNode);
     }
@@ -34,7 +31,7 @@ class VastWrapperXmlManager extends VastBaseInLineWrapperXmlManager {
      */
     @Nullable
     String getVastAdTagURI() {
-        Node vastAdTagURINode = XmlUtils.getFirstMatchingChildNode(mNode, VAST_AD_TAG);
-        return XmlUtils.getNodeValue(vastAdTagURINode);
+        VastXmlElement vastAdTagURINode = mNode.getFirstChild(VAST_AD_TAG);
+        return vastAdTagURINode == null ? null : vastAdTagURINode.getValue();
     }
 }
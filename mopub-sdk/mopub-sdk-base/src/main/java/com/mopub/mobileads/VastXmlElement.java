@@ -0,0 +1,151 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An element of a VAST document as read by {@link VastXmlPullParser}. It only keeps what the VAST
+ * xml managers read: the element name, its attributes, its child elements and its value.
+ */
+public class VastXmlElement {
+    @NonNull private final String mName;
+    // Attribute names and values, one after the other
+    @NonNull private final String[] mAttributes;
+    @NonNull private List<VastXmlElement> mChildren = Collections.emptyList();
+    @Nullable private String mValue;
+
+    VastXmlElement(@NonNull final String name, @NonNull final String[] attributes) {
+        Preconditions.checkNotNull(name);
+        Preconditions.checkNotNull(attributes);
+
+        mName = name;
+        mAttributes = attributes;
+    }
+
+    @NonNull
+    String getName() {
+        return mName;
+    }
+
+    /**
+     * Gets the trimmed text that comes before the first child element, or {@code null} if the
+     * element does not start with text.
+     *
+     * @return The value of this element or {@code null}
+     */
+    @Nullable
+    String getValue() {
+        return mValue;
+    }
+
+    @Nullable
+    String getAttribute(@NonNull final String attributeName) {
+        for (int i = 0; i < mAttributes.length; i += 2) {
+            if (mAttributes[i].equals(attributeName)) {
+                return mAttributes[i + 1];
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    Integer getAttributeAsInt(@NonNull final String attributeName) {
+        final String attribute = getAttribute(attributeName);
+        if (attribute == null) {
+            return null;
+        }
+
+        try {
+            return Integer.parseInt(attribute);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    boolean hasAttributes() {
+        return mAttributes.length > 0;
+    }
+
+    /**
+     * Gets the first direct child element with the given name.
+     *
+     * @return The child element or {@code null} if there is none.
+     */
+    @Nullable
+    VastXmlElement getFirstChild(@NonNull final String name) {
+        for (final VastXmlElement child : mChildren) {
+            if (child.mName.equals(name)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets all direct child elements, in document order.
+     *
+     * @return The child elements or an empty list if there are none.
+     */
+    @NonNull
+    List<VastXmlElement> getChildren() {
+        return Collections.unmodifiableList(mChildren);
+    }
+
+    /**
+     * Gets all direct child elements with the given name, in document order.
+     *
+     * @return The child elements or an empty list if there are none.
+     */
+    @NonNull
+    List<VastXmlElement> getChildren(@NonNull final String name) {
+        return getChildren(name, null, null);
+    }
+
+    /**
+     * Gets all direct child elements with the given name and attribute value, in document order.
+     * Pass null for both the attribute name and value to match on the name only.
+     *
+     * @return The child elements or an empty list if there are none.
+     */
+    @NonNull
+    List<VastXmlElement> getChildren(@NonNull final String name,
+            @Nullable final String attributeName, @Nullable final String attributeValue) {
+        final List<VastXmlElement> children = new ArrayList<VastXmlElement>();
+        for (final VastXmlElement child : mChildren) {
+            if (!child.mName.equals(name)) {
+                continue;
+            }
+            if (attributeName != null && attributeValue != null
+                    && !attributeValue.equals(child.getAttribute(attributeName))) {
+                continue;
+            }
+            children.add(child);
+        }
+        return children;
+    }
+
+    void addChild(@NonNull final VastXmlElement child) {
+        if (mChildren.isEmpty()) {
+            mChildren = new ArrayList<VastXmlElement>(4);
+        }
+        mChildren.add(child);
+    }
+
+    boolean hasChildren() {
+        return !mChildren.isEmpty();
+    }
+
+    void setValue(@Nullable final String value) {
+        mValue = value;
+    }
+}
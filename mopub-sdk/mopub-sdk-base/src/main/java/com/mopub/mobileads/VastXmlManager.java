@@ -10,21 +10,15 @@ import android.text.TextUtils;
 
 import com.mopub.common.Preconditions;
 import com.mopub.common.util.DeviceUtils.ForceOrientation;
-import com.mopub.mobileads.util.XmlUtils;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
+import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.Map;
 
 /**
  * Parses the VAST XML to spec. See www.iab.net for details.
@@ -50,32 +44,31 @@ class VastXmlManager {
     private static final int MAX_CTA_TEXT_LENGTH = 15;
     private static final int MAX_SKIP_TEXT_LENGTH = 8;
 
-    @Nullable private Document mVastDoc;
+    // Elements looked up anywhere in the document, keyed by element name
+    @NonNull private Map<String, List<VastXmlElement>> mElementsByName =
+            new HashMap<String, List<VastXmlElement>>();
 
     /**
-     * Helper function that builds a document and tries to parse the XML.
+     * Parses the XML in a single pass with {@link VastXmlPullParser}.
      *
      * @param xmlString The XML to parse
-     * @throws ParserConfigurationException If the parser is poorly configured
-     * @throws IOException                  If we can't read the document for any reason
-     * @throws SAXException                 If the XML is poorly formatted
+     * @throws IOException            If we can't read the document for any reason
+     * @throws XmlPullParserException If the XML is poorly formatted
      */
-    void parseVastXml(@NonNull String xmlString) throws ParserConfigurationException,
-            IOException, SAXException {
+    void parseVastXml(@NonNull String xmlString) throws IOException, XmlPullParserException {
         Preconditions.checkNotNull(xmlString, "xmlString cannot be null");
 
-        // if the xml string starts with <?xml?>, this tag can break parsing if it isn't formatted exactly right
-        // or if it's not the first line of the document...we're just going to strip it
-        xmlString = xmlString.replaceFirst("<\\?.*\\?>", "");
+        final Map<String, List<VastXmlElement>> elementsByName =
+                new HashMap<String, List<VastXmlElement>>();
+        for (final String name : new String[]{AD, ERROR, MP_IMPRESSION_TRACKER, CUSTOM_CTA_TEXT,
+                CUSTOM_SKIP_TEXT, CUSTOM_CLOSE_ICON}) {
+            elementsByName.put(name, new ArrayList<VastXmlElement>());
+        }
 
         // adserver may embed additional impression trackers as a sibling node of <VAST>
         // wrap entire document in root node for this case.
-        String documentString = ROOT_TAG_OPEN + xmlString + ROOT_TAG_CLOSE;
-
-        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-        documentBuilderFactory.setCoalescing(true);
-        DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-        mVastDoc = documentBuilder.parse(new InputSource(new StringReader(documentString)));
+        VastXmlPullParser.parse(new RootedReader(xmlString), elementsByName);
+        mElementsByName = elementsByName;
     }
 
     /**
@@ -91,12 +84,8 @@ class VastXmlManager {
     @NonNull
     List<VastAdXmlManager> getAdXmlManagers() {
         List<VastAdXmlManager> vastAdXmlManagers = new ArrayList<VastAdXmlManager>();
-        if (mVastDoc == null) {
-            return vastAdXmlManagers;
-        }
-        NodeList nodes = mVastDoc.getElementsByTagName(AD);
-        for (int i = 0; i < nodes.getLength(); ++i) {
-            vastAdXmlManagers.add(new VastAdXmlManager(nodes.item(i)));
+        for (VastXmlElement adNode : getElements(AD)) {
+            vastAdXmlManagers.add(new VastAdXmlManager(adNode));
         }
         return vastAdXmlManagers;
     }
@@ -109,10 +98,7 @@ class VastXmlManager {
      */
     @Nullable
     VastTracker getErrorTracker() {
-        if (mVastDoc == null) {
-            return null;
-        }
-        String errorTracker = XmlUtils.getFirstMatchingStringData(mVastDoc, ERROR);
+        String errorTracker = getFirstValue(ERROR);
         if (TextUtils.isEmpty(errorTracker)) {
             return null;
         }
@@ -126,10 +112,12 @@ class VastXmlManager {
      */
     @NonNull
     List<VastTracker> getMoPubImpressionTrackers() {
-        List<String> trackers = XmlUtils.getStringDataAsList(mVastDoc, MP_IMPRESSION_TRACKER);
-        List<VastTracker> vastTrackers = new ArrayList<VastTracker>(trackers.size());
-        for (String tracker : trackers) {
-            vastTrackers.add(new VastTracker(tracker));
+        List<VastTracker> vastTrackers = new ArrayList<VastTracker>();
+        for (VastXmlElement trackerNode : getElements(MP_IMPRESSION_TRACKER)) {
+            String tracker = trackerNode.getValue();
+            if (tracker != null) {
+                vastTrackers.add(new VastTracker(tracker));
+            }
         }
         return vastTrackers;
     }
@@ -141,7 +129,7 @@ class VastXmlManager {
      */
     @Nullable
     String getCustomCtaText() {
-        String customCtaText = XmlUtils.getFirstMatchingStringData(mVastDoc, CUSTOM_CTA_TEXT);
+        String customCtaText = getFirstValue(CUSTOM_CTA_TEXT);
         if (customCtaText != null && customCtaText.length() <= MAX_CTA_TEXT_LENGTH) {
             return customCtaText;
         }
@@ -156,7 +144,7 @@ class VastXmlManager {
      */
     @Nullable
     String getCustomSkipText() {
-        String customSkipText = XmlUtils.getFirstMatchingStringData(mVastDoc, CUSTOM_SKIP_TEXT);
+        String customSkipText = getFirstValue(CUSTOM_SKIP_TEXT);
         if (customSkipText != null && customSkipText.length() <= MAX_SKIP_TEXT_LENGTH) {
             return customSkipText;
         }
@@ -171,6 +159,83 @@ class VastXmlManager {
      */
     @Nullable
     String getCustomCloseIconUrl() {
-        return XmlUtils.getFirstMatchingStringData(mVastDoc, CUSTOM_CLOSE_ICON);
+        return getFirstValue(CUSTOM_CLOSE_ICON);
+    }
+
+    @NonNull
+    private List<VastXmlElement> getElements(@NonNull final String name) {
+        final List<VastXmlElement> elements = mElementsByName.get(name);
+        if (elements == null) {
+            return new ArrayList<VastXmlElement>();
+        }
+        return elements;
+    }
+
+    /**
+     * Gets the first non-null value of the elements with the given name, anywhere in the document.
+     */
+    @Nullable
+    private String getFirstValue(@NonNull final String name) {
+        for (final VastXmlElement element : getElements(name)) {
+            final String value = element.getValue();
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the VAST xml inside a synthetic root element, without copying it into a new string.
+     * A leading processing instruction such as {@code <?xml?>} is skipped, since it can't appear
+     * inside the root element.
+     */
+    private static class RootedReader extends Reader {
+        @NonNull private final String[] mParts;
+        // Where reading starts in each part
+        @NonNull private final int[] mStarts;
+        private int mPart;
+        private int mPosition;
+
+        RootedReader(@NonNull final String xmlString) {
+            mParts = new String[]{ROOT_TAG_OPEN, xmlString, ROOT_TAG_CLOSE};
+            mStarts = new int[]{0, getXmlStart(xmlString), 0};
+        }
+
+        private static int getXmlStart(@NonNull final String xmlString) {
+            int start = 0;
+            while (start < xmlString.length() && Character.isWhitespace(xmlString.charAt(start))) {
+                start++;
+            }
+            if (!xmlString.startsWith("<?", start)) {
+                return 0;
+            }
+            final int end = xmlString.indexOf("?>", start);
+            return end < 0 ? 0 : end + 2;
+        }
+
+        @Override
+        public int read(@NonNull final char[] buffer, final int offset, final int length) {
+            while (mPart < mParts.length && mPosition >= mParts[mPart].length()) {
+                mPart++;
+                mPosition = mPart < mParts.length ? mStarts[mPart] : 0;
+            }
+            if (mPart >= mParts.length) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+
+            final String part = mParts[mPart];
+            final int count = Math.min(length, part.length() - mPosition);
+            part.getChars(mPosition, mPosition + count, buffer, offset);
+            mPosition += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
     }
 }
@@ -14,29 +14,23 @@ import android.text.TextUtils;
 import android.view.Display;
 import android.view.WindowManager;
 
-import com.mopub.common.MoPubHttpUrlConnection;
+import com.mopub.common.ClientMetadata;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
 import com.mopub.common.logging.MoPubLog;
-import com.mopub.common.util.Dips;
-import com.mopub.common.util.Streams;
-import com.mopub.common.util.Strings;
 import com.mopub.network.Networking;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.lang.ref.WeakReference;
-import java.net.HttpURLConnection;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR;
 import static com.mopub.network.TrackingRequest.makeVastTrackingHttpRequest;
 
@@ -76,39 +70,52 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
 
     // More than reasonable number of nested VAST urls to follow
     static final int MAX_TIMES_TO_FOLLOW_VAST_REDIRECT = 10;
-    private static final String MIME_TYPE_MP4 = "video/mp4";
-    private static final String MIME_TYPE_3GPP = "video/3gpp";
-    private static final List<String> VIDEO_MIME_TYPES =
-            Arrays.asList(MIME_TYPE_MP4, MIME_TYPE_3GPP);
-    private static final int MINIMUM_COMPANION_AD_WIDTH = 300;
-    private static final int MINIMUM_COMPANION_AD_HEIGHT = 250;
-    private static final int BITRATE_THRESHOLD_HIGH = 1500;
-    private static final int BITRATE_THRESHOLD_LOW = 700;
 
     @NonNull private final WeakReference<VastXmlManagerAggregatorListener> mVastXmlManagerAggregatorListener;
-    private final double mScreenAspectRatio;
     @NonNull private final Context mContext;
-    private final int mScreenWidthDp;
 
     /**
-     * Number of times this has followed a redirect. This value is only
-     * accessed and set on the background thread.
+     * Ranks media files and companion ads for this device and connection.
      */
-    private int mTimesFollowedVastRedirect;
+    @NonNull private final VastMediaSelector mVastMediaSelector;
+
+    /**
+     * Follows the Wrapper redirects and counts them against
+     * {@link #MAX_TIMES_TO_FOLLOW_VAST_REDIRECT}.
+     */
+    @NonNull private final VastWrapperResolver mVastWrapperResolver;
 
     VastXmlManagerAggregator(@NonNull final VastXmlManagerAggregatorListener vastXmlManagerAggregatorListener,
                              final double screenAspectRatio,
                              final int screenWidthDp,
                              @NonNull final Context context) {
+        this(vastXmlManagerAggregatorListener, screenAspectRatio, screenWidthDp, context,
+                new VastWrapperResolver());
+    }
+
+    @VisibleForTesting
+    VastXmlManagerAggregator(@NonNull final VastXmlManagerAggregatorListener vastXmlManagerAggregatorListener,
+                             final double screenAspectRatio,
+                             final int screenWidthDp,
+                             @NonNull final Context context,
+                             @NonNull final VastWrapperResolver vastWrapperResolver) {
         super();
 
         Preconditions.checkNotNull(vastXmlManagerAggregatorListener);
         Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(vastWrapperResolver);
         mVastXmlManagerAggregatorListener =
                 new WeakReference<VastXmlManagerAggregatorListener>(vastXmlManagerAggregatorListener);
-        mScreenAspectRatio = screenAspectRatio;
-        mScreenWidthDp = screenWidthDp;
         mContext = context.getApplicationContext();
+        mVastWrapperResolver = vastWrapperResolver;
+
+        // The connection is only looked at once, so every media file in this aggregation is
+        // ranked against the same bitrate range
+        final ClientMetadata clientMetadata = ClientMetadata.getInstance();
+        mVastMediaSelector = new VastMediaSelector(mContext, screenAspectRatio, screenWidthDp,
+                clientMetadata == null
+                        ? ClientMetadata.MoPubNetworkType.UNKNOWN
+                        : clientMetadata.getActiveNetworkType());
     }
 
     @Override
@@ -156,6 +163,9 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
      * resolve the Wrapper element which should redirect to more VAST xml documents with more InLine
      * elements.
      * <p/>
+     * The redirects of all Wrapper elements in a document start loading together, but they are
+     * still evaluated in document order, so the result is the same as following them one by one.
+     * <p/>
      * The list of error trackers are propagated through each wrapper redirect. If at the end of the
      * wrapper chain, there's no ad, then the error trackers for the entire wrapper chain are fired.
      * If a valid video is found, the error trackers are stored in the video configuration for
@@ -191,6 +201,24 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
             return null;
         }
 
+        final Map<VastAdXmlManager, Future<String>> wrapperRedirects =
+                resolveWrapperRedirects(vastAdXmlManagers);
+        try {
+            return evaluateVastAdXmlManagers(xmlManager, vastAdXmlManagers, wrapperRedirects,
+                    errorTrackers);
+        } finally {
+            // Redirects of Ad elements after the one that was used are not needed anymore
+            for (final Future<String> wrapperRedirect : wrapperRedirects.values()) {
+                wrapperRedirect.cancel(true);
+            }
+        }
+    }
+
+    @Nullable
+    private VastVideoConfig evaluateVastAdXmlManagers(@NonNull final VastXmlManager xmlManager,
+            @NonNull final List<VastAdXmlManager> vastAdXmlManagers,
+            @NonNull final Map<VastAdXmlManager, Future<String>> wrapperRedirects,
+            @NonNull final List<VastTracker> errorTrackers) {
         for (VastAdXmlManager vastAdXmlManager : vastAdXmlManagers) {
             if (!isValidSequenceNumber(vastAdXmlManager.getSequence())) {
                 continue;
@@ -215,7 +243,12 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
             if (vastWrapperXmlManager != null) {
                 final List<VastTracker> wrapperErrorTrackers = new ArrayList<VastTracker>(errorTrackers);
                 wrapperErrorTrackers.addAll(vastWrapperXmlManager.getErrorTrackers());
-                final String vastRedirectXml = evaluateWrapperRedirect(vastWrapperXmlManager,
+                final String vastAdTagUri = vastWrapperXmlManager.getVastAdTagURI();
+                final Future<String> wrapperRedirect = vastAdTagUri == null
+                        ? null
+                        : mVastWrapperResolver.resolve(vastAdTagUri,
+                                wrapperRedirects.get(vastAdXmlManager));
+                final String vastRedirectXml = evaluateWrapperRedirect(wrapperRedirect,
                         wrapperErrorTrackers);
                 if (vastRedirectXml == null) {
                     continue;
@@ -249,11 +282,7 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
                 // Only populate a companion ad if we don't already have one from one of the
                 // redirects
                 if (!vastVideoConfig.hasCompanionAd()) {
-                    vastVideoConfig.setVastCompanionAd(
-                            getBestCompanionAd(companionAdXmlManagers,
-                                    CompanionOrientation.LANDSCAPE),
-                            getBestCompanionAd(companionAdXmlManagers,
-                                    CompanionOrientation.PORTRAIT));
+                    setBestCompanionAds(companionAdXmlManagers, vastVideoConfig);
                 } else {
                     // Otherwise append the companion trackers if it doesn't have resources
                     final VastCompanionAdConfig landscapeCompanionAd = vastVideoConfig.getVastCompanionAd(
@@ -327,11 +356,7 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
 
                 final List<VastCompanionAdXmlManager> companionAdXmlManagers =
                         vastInLineXmlManager.getCompanionAdXmlManagers();
-                vastVideoConfig.setVastCompanionAd(
-                        getBestCompanionAd(companionAdXmlManagers,
-                                CompanionOrientation.LANDSCAPE),
-                        getBestCompanionAd(companionAdXmlManagers,
-                                CompanionOrientation.PORTRAIT));
+                setBestCompanionAds(companionAdXmlManagers, vastVideoConfig);
                 vastVideoConfig.setSocialActionsCompanionAds(
                         getSocialActionsCompanionAds(companionAdXmlManagers));
                 errorTrackers.addAll(vastInLineXmlManager.getErrorTrackers());
@@ -392,23 +417,59 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
     }
 
     /**
-     * Retrieves the Wrapper's redirect uri and follows it to return the next VAST xml String.
+     * Starts prefetching the redirect uri of every Wrapper element that could be used. Only the
+     * redirects that are followed count against {@link #MAX_TIMES_TO_FOLLOW_VAST_REDIRECT}.
+     *
+     * @param vastAdXmlManagers The Ad elements of one VAST document
+     * @return The pending redirect xml of each prefetched Wrapper's Ad element
+     */
+    @NonNull
+    private Map<VastAdXmlManager, Future<String>> resolveWrapperRedirects(
+            @NonNull final List<VastAdXmlManager> vastAdXmlManagers) {
+        final Map<VastAdXmlManager, Future<String>> wrapperRedirects =
+                new HashMap<VastAdXmlManager, Future<String>>();
+        for (final VastAdXmlManager vastAdXmlManager : vastAdXmlManagers) {
+            if (!isValidSequenceNumber(vastAdXmlManager.getSequence())) {
+                continue;
+            }
+            final VastWrapperXmlManager vastWrapperXmlManager =
+                    vastAdXmlManager.getWrapperXmlManager();
+            if (vastWrapperXmlManager == null) {
+                continue;
+            }
+            final String vastAdTagUri = vastWrapperXmlManager.getVastAdTagURI();
+            if (vastAdTagUri == null) {
+                continue;
+            }
+            final Future<String> wrapperRedirect = mVastWrapperResolver.prefetch(vastAdTagUri);
+            if (wrapperRedirect == null) {
+                break;
+            }
+            wrapperRedirects.put(vastAdXmlManager, wrapperRedirect);
+        }
+        return wrapperRedirects;
+    }
+
+    /**
+     * Waits for a Wrapper's redirect to return the next VAST xml String.
      *
-     * @param vastWrapperXmlManager used to get the redirect uri
+     * @param wrapperRedirect       The pending redirect, or null if it was never followed
      * @param wrapperErrorTrackers  Error trackers to hit if something goes wrong
      * @return the next VAST xml String or {@code null} if it could not be resolved
      */
     @Nullable
-    private String evaluateWrapperRedirect(@NonNull VastWrapperXmlManager vastWrapperXmlManager,
+    private String evaluateWrapperRedirect(@Nullable final Future<String> wrapperRedirect,
             @NonNull List<VastTracker> wrapperErrorTrackers) {
-        final String vastAdTagUri = vastWrapperXmlManager.getVastAdTagURI();
-        if (vastAdTagUri == null) {
+        if (wrapperRedirect == null) {
             return null;
         }
 
         String vastRedirectXml = null;
         try {
-            vastRedirectXml = followVastRedirect(vastAdTagUri);
+            vastRedirectXml = wrapperRedirect.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            MoPubLog.log(ERROR, "Interrupted while following VAST redirect", e);
         } catch (Exception e) {
             MoPubLog.log(ERROR, "Failed to follow VAST redirect", e);
             if (!wrapperErrorTrackers.isEmpty()) {
@@ -502,7 +563,7 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
             // Only use NO_ADS_VAST_RESPONSE if we've followed one or more wrappers
             makeVastTrackingHttpRequest(
                     Collections.singletonList(xmlManager.getErrorTracker()),
-                    mTimesFollowedVastRedirect > 0
+                    mVastWrapperResolver.getTimesFollowedVastRedirect() > 0
                             ? VastErrorCode.NO_ADS_VAST_RESPONSE
                             : VastErrorCode.UNDEFINED_ERROR,
                     null, null, context);
@@ -515,39 +576,13 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
     @Nullable
     String getBestMediaFileUrl(@NonNull final List<VastMediaXmlManager> managers) {
         Preconditions.checkNotNull(managers, "managers cannot be null");
-        final List<VastMediaXmlManager> mediaXmlManagers = new ArrayList<VastMediaXmlManager>(managers);
-        double bestMediaFitness = Double.NEGATIVE_INFINITY;
-        String bestMediaFileUrl = null;
-
-        final Iterator<VastMediaXmlManager> xmlManagerIterator = mediaXmlManagers.iterator();
-        while (xmlManagerIterator.hasNext()) {
-            final VastMediaXmlManager mediaXmlManager = xmlManagerIterator.next();
-
-            final String mediaType = mediaXmlManager.getType();
-            final String mediaUrl = mediaXmlManager.getMediaUrl();
-            if (!VIDEO_MIME_TYPES.contains(mediaType) || mediaUrl == null) {
-                xmlManagerIterator.remove();
-                continue;
-            }
-
-            final Integer mediaWidth = mediaXmlManager.getWidth();
-            final Integer mediaHeight = mediaXmlManager.getHeight();
-            final Integer mediaBitrate = mediaXmlManager.getBitrate();
-            if (mediaWidth == null || mediaWidth <= 0 || mediaHeight == null || mediaHeight <= 0) {
-                continue;
-            }
 
-            final double mediaFitness = calculateFitness(mediaWidth,
-                    mediaHeight,
-                    mediaBitrate,
-                    mediaType);
-            if (mediaFitness > bestMediaFitness) {
-                bestMediaFitness = mediaFitness;
-                bestMediaFileUrl = mediaUrl;
-            }
+        final VastMediaSelector.Choice<String> choice = mVastMediaSelector.selectMediaFile(managers);
+        if (choice == null) {
+            return null;
         }
-
-        return bestMediaFileUrl;
+        MoPubLog.log(CUSTOM, "Selected VAST media file " + choice);
+        return choice.getValue();
     }
 
     @VisibleForTesting
@@ -558,66 +593,26 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
         Preconditions.checkNotNull(managers, "managers cannot be null");
         Preconditions.checkNotNull(orientation, "orientation cannot be null");
 
-        final List<VastCompanionAdXmlManager> companionXmlManagers =
-                new ArrayList<VastCompanionAdXmlManager>(managers);
-        double bestCompanionFitness = Double.NEGATIVE_INFINITY;
-        VastCompanionAdXmlManager bestCompanionXmlManager = null;
-        VastResource bestVastResource = null;
-        Point bestVastScaledDimensions = null;
-
-        // Look for the best companion ad in order of prioritized resource types
-        for (VastResource.Type type : VastResource.Type.values()) {
-            final Iterator<VastCompanionAdXmlManager> xmlManagerIterator =
-                    companionXmlManagers.iterator();
-            while (xmlManagerIterator.hasNext()) {
-                final VastCompanionAdXmlManager companionXmlManager = xmlManagerIterator.next();
-
-                final Integer width = companionXmlManager.getWidth();
-                final Integer height = companionXmlManager.getHeight();
-                if (width == null || width < MINIMUM_COMPANION_AD_WIDTH ||
-                        height == null || height < MINIMUM_COMPANION_AD_HEIGHT) {
-                    continue;
-                }
-
-                Point vastScaledDimensions = getScaledDimensions(width, height, type, orientation);
-                VastResource vastResource = VastResource.fromVastResourceXmlManager(
-                        companionXmlManager.getResourceXmlManager(), type,
-                        vastScaledDimensions.x, vastScaledDimensions.y);
-                if (vastResource == null) {
-                    continue;
-                }
-
-                final double companionFitness;
-                // pass null for companion fitness because images don't have bitrates.
-                if ((CompanionOrientation.LANDSCAPE == orientation) && (mScreenAspectRatio < 1)
-                        || (CompanionOrientation.PORTRAIT == orientation) && (mScreenAspectRatio > 1)) {
-                    companionFitness = calculateFitness(height, width, null, null);
-                } else {
-                    companionFitness = calculateFitness(width, height, null, null);
-                }
-                if (companionFitness > bestCompanionFitness) {
-                    bestCompanionFitness = companionFitness;
-                    bestCompanionXmlManager = companionXmlManager;
-                    bestVastResource = vastResource;
-                    bestVastScaledDimensions = vastScaledDimensions;
-                }
-            }
-            if (bestCompanionXmlManager != null) {
-                break;
-            }
-        }
+        final VastMediaSelector.Choice<VastCompanionAdConfig> choice =
+                mVastMediaSelector.selectCompanionAds(managers).get(orientation);
+        return choice == null ? null : choice.getValue();
+    }
 
-        if (bestCompanionXmlManager != null) {
-            return new VastCompanionAdConfig(
-                    bestVastScaledDimensions.x,
-                    bestVastScaledDimensions.y,
-                    bestVastResource,
-                    bestCompanionXmlManager.getClickThroughUrl(),
-                    bestCompanionXmlManager.getClickTrackers(),
-                    bestCompanionXmlManager.getCompanionCreativeViewTrackers()
-            );
-        }
-        return null;
+    /**
+     * Sets the best landscape and portrait companion ads, ranking the companions once for both
+     * orientations.
+     */
+    private void setBestCompanionAds(@NonNull final List<VastCompanionAdXmlManager> managers,
+            @NonNull final VastVideoConfig vastVideoConfig) {
+        final Map<CompanionOrientation, VastMediaSelector.Choice<VastCompanionAdConfig>> choices =
+                mVastMediaSelector.selectCompanionAds(managers);
+        final VastMediaSelector.Choice<VastCompanionAdConfig> landscapeChoice =
+                choices.get(CompanionOrientation.LANDSCAPE);
+        final VastMediaSelector.Choice<VastCompanionAdConfig> portraitChoice =
+                choices.get(CompanionOrientation.PORTRAIT);
+        vastVideoConfig.setVastCompanionAd(
+                landscapeChoice == null ? null : landscapeChoice.getValue(),
+                portraitChoice == null ? null : portraitChoice.getValue());
     }
 
     @VisibleForTesting
@@ -689,58 +684,10 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
     @NonNull
     Point getScaledDimensions(int widthDp, int heightDp, final VastResource.Type type,
             final CompanionOrientation orientation) {
-        final Point defaultPoint = new Point(widthDp, heightDp);
         final Display display = ((WindowManager) mContext.getSystemService(
                 Context.WINDOW_SERVICE)).getDefaultDisplay();
-        int x = display.getWidth();
-        int y = display.getHeight();
-
-        int widthPx = Dips.dipsToIntPixels(widthDp, mContext);
-        int heightPx = Dips.dipsToIntPixels(heightDp, mContext);
-
-        final int screenWidthPx, screenHeightPx;
-        if (CompanionOrientation.LANDSCAPE == orientation) {
-            screenWidthPx = Math.max(x, y);
-            screenHeightPx = Math.min(x, y);
-        } else {
-            screenWidthPx = Math.min(x, y);
-            screenHeightPx = Math.max(x, y);
-        }
-
-        // Return if the width and height already fit in the screen
-        if (widthPx <= (screenWidthPx - VastVideoViewController.WEBVIEW_PADDING) &&
-                heightPx <= (screenHeightPx - VastVideoViewController.WEBVIEW_PADDING)) {
-            return defaultPoint;
-        }
-
-        final Point point = new Point();
-        if (VastResource.Type.HTML_RESOURCE == type) {
-            point.x = Math.min(screenWidthPx, widthPx);
-            point.y = Math.min(screenHeightPx, heightPx);
-        } else {
-            float widthRatio = (float) widthPx / screenWidthPx;
-            float heightRatio = (float) heightPx / screenHeightPx;
-
-            if (widthRatio >= heightRatio) {
-                point.x = screenWidthPx;
-                point.y = (int) (heightPx / widthRatio);
-            } else {
-                point.x = (int) (widthPx / heightRatio);
-                point.y = screenHeightPx;
-            }
-        }
-
-        point.x -= VastVideoViewController.WEBVIEW_PADDING;
-        point.y -= VastVideoViewController.WEBVIEW_PADDING;
-
-        if (point.x < 0 || point.y < 0) {
-            return defaultPoint;
-        }
-
-        point.x = Dips.pixelsToIntDips(point.x, mContext);
-        point.y = Dips.pixelsToIntDips(point.y, mContext);
-
-        return point;
+        return mVastMediaSelector.getScaledDimensions(widthDp, heightDp, type, orientation,
+                display.getWidth(), display.getHeight());
     }
 
     @VisibleForTesting
@@ -786,89 +733,6 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
         return null;
     }
 
-    /**
-     * Calculates the fitness of the media file or companion using the aspect ratio, width, and
-     * bitrate and of the device. The closer to 0 the score, the better.
-     *
-     * @param widthDp  the width of the media file or companion ad
-     * @param heightDp the height of the media file or companion ad
-     * @param bitrate  the bitrate of the media file - null if none provided or needed
-     * @param format   the MIME format fo the media file - null if none provided or needed
-     * @return the overall fitness score. The closer to 0, the better.
-     */
-    private double calculateFitness(final int widthDp,
-                                    final int heightDp,
-                                    @Nullable final Integer bitrate,
-                                    @Nullable final String format) {
-
-        final double screenFitness = calculateScreenFitnessFactor(widthDp, heightDp);
-        final double bitrateFitness = calculateBitrateFitnessFactor(bitrate);
-        final double formatFitness = calculateFormatFitnessFactor(format);
-
-        return formatFitness * (1.0 / (1.0 + screenFitness + bitrateFitness));
-    }
-
-    /**
-     * Calculates the fitness value of the media file's bitrate (by determining whether it is low,
-     * medium, or high). The closer to 0 the score, the better. This is used by the overall fitness
-     * function to choose an appropriate MediaFile.
-     *
-     * @param bitrate the bitrate of the media file - null if none provided or needed
-     * @return the fitness factor based on the bitrate. The closer to 0, the better.
-     */
-    private double calculateBitrateFitnessFactor(@Nullable final Integer bitrate) {
-        // Default bitrate to 0 if one was not provided for the MediaFile.
-        final int usableBitrate = (bitrate == null || bitrate < 0) ? 0 : bitrate;
-
-        if (BITRATE_THRESHOLD_LOW <= usableBitrate && usableBitrate <= BITRATE_THRESHOLD_HIGH) {
-            return 0;
-        } else {
-            final double lowDistance = Math.abs(BITRATE_THRESHOLD_LOW - usableBitrate)
-                    / (float) BITRATE_THRESHOLD_LOW;
-            final double highDistance = Math.abs(BITRATE_THRESHOLD_HIGH - usableBitrate)
-                    / (float) BITRATE_THRESHOLD_HIGH;
-            return Math.min(lowDistance, highDistance);
-        }
-    }
-
-    /**
-     * Calculates the fitness of the media file or companion by comparing its aspect ratio and
-     * width to those of the device. Scores cannot be negative and the closer the score is to 0, the
-     * better. This is used by the overall fitness function to choose an appropriate MediaFile.
-     *
-     * @param widthDp  the width of the media file or companion ad
-     * @param heightDp the height of the media file or companion ad
-     * @return the fitness factor based on the screen size. The closer to 0, the better.
-     */
-    private double calculateScreenFitnessFactor(final int widthDp, final int heightDp) {
-        // mScreenAspectRatio calculated as `(double) screenWidth / screenHeight`, so we'll do the
-        // same here.
-        final double mediaAspectRatio = (double) widthDp / heightDp;
-        final double aspectRatioScore = Math.abs(mScreenAspectRatio - mediaAspectRatio);
-        final double widthScore = Math.abs((mScreenWidthDp - widthDp) / mScreenWidthDp);
-
-        return aspectRatioScore + widthScore;
-    }
-
-    /**
-     * Calculates the fitness of the media file or companion based on the MIME type. This currently
-     * gives preference to MP4 files.
-     *
-     * @param format the MIME format fo the media file - null if none provided or needed
-     * @return the factor to be using in calculating the fitness score. Higher scores are better.
-     */
-    private double calculateFormatFitnessFactor(final String format) {
-        final String safeFormat = (format == null) ? "" : format;
-
-        switch (safeFormat) {
-            case MIME_TYPE_MP4:
-                return 1.5f;
-            case MIME_TYPE_3GPP:
-            default:
-                return 1.0f;
-        }
-    }
-
     /**
      * Since MoPub does not support ad pods, do not accept any positive integers greater than 1.
      * MoPub will use the first ad in an ad pod (sequence = 1), but it will ignore all other ads in
@@ -893,34 +757,9 @@ public class VastXmlManagerAggregator extends AsyncTask<String, Void, VastVideoC
         }
     }
 
-    @Nullable
-    private String followVastRedirect(@NonNull final String redirectUrl) throws IOException {
-        Preconditions.checkNotNull(redirectUrl);
-
-        if (mTimesFollowedVastRedirect < MAX_TIMES_TO_FOLLOW_VAST_REDIRECT) {
-            mTimesFollowedVastRedirect++;
-
-            HttpURLConnection urlConnection = null;
-            InputStream inputStream = null;
-            try {
-                urlConnection = MoPubHttpUrlConnection.getHttpUrlConnection(redirectUrl);
-                inputStream = new BufferedInputStream(urlConnection.getInputStream());
-
-                return Strings.fromStream(inputStream);
-            } finally {
-                Streams.closeStream(inputStream);
-                if (urlConnection != null) {
-                    urlConnection.disconnect();
-                }
-            }
-        }
-
-        return null;
-    }
-
     @VisibleForTesting
     @Deprecated
     void setTimesFollowedVastRedirect(final int timesFollowedVastRedirect) {
-        mTimesFollowedVastRedirect = timesFollowedVastRedirect;
+        mVastWrapperResolver.setTimesFollowedVastRedirect(timesFollowedVastRedirect);
     }
 }
@@ -0,0 +1,133 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Xml;
+
+import com.mopub.common.Preconditions;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads VAST xml into {@link VastXmlElement}s in a single pass over the document. Element values
+ * follow the DOM reading the xml managers used before: the text before the first child element,
+ * with CDATA sections joined to it, trimmed.
+ */
+public class VastXmlPullParser {
+    private VastXmlPullParser() {}
+
+    /**
+     * Parses a single xml element and everything in it.
+     *
+     * @param xml The xml to parse
+     * @return The root element
+     * @throws XmlPullParserException If the xml is poorly formatted
+     * @throws IOException            If the xml can't be read
+     */
+    @NonNull
+    public static VastXmlElement parse(@NonNull final String xml)
+            throws XmlPullParserException, IOException {
+        Preconditions.checkNotNull(xml);
+
+        return parse(new StringReader(xml), null);
+    }
+
+    /**
+     * Parses a single xml element and everything in it.
+     *
+     * @param reader         The xml to parse
+     * @param elementsByName Lists to add elements to, keyed by the element names to collect. Every
+     *                       element with one of these names is added, at any depth and in document
+     *                       order. May be null.
+     * @return The root element
+     * @throws XmlPullParserException If the xml is poorly formatted
+     * @throws IOException            If the xml can't be read
+     */
+    @NonNull
+    static VastXmlElement parse(@NonNull final Reader reader,
+            @Nullable final Map<String, List<VastXmlElement>> elementsByName)
+            throws XmlPullParserException, IOException {
+        Preconditions.checkNotNull(reader);
+
+        final XmlPullParser parser = Xml.newPullParser();
+        parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+        parser.setInput(reader);
+
+        final List<VastXmlElement> openElements = new ArrayList<VastXmlElement>();
+        VastXmlElement root = null;
+        for (int eventType = parser.getEventType();
+                eventType != XmlPullParser.END_DOCUMENT;
+                eventType = parser.next()) {
+            switch (eventType) {
+                case XmlPullParser.START_TAG: {
+                    final String[] attributes = new String[parser.getAttributeCount() * 2];
+                    for (int i = 0; i < parser.getAttributeCount(); i++) {
+                        attributes[i * 2] = parser.getAttributeName(i);
+                        attributes[i * 2 + 1] = parser.getAttributeValue(i);
+                    }
+                    final VastXmlElement element = new VastXmlElement(parser.getName(),
+                            attributes);
+
+                    if (openElements.isEmpty()) {
+                        if (root != null) {
+                            throw new XmlPullParserException("More than one root element",
+                                    parser, null);
+                        }
+                        root = element;
+                    } else {
+                        openElements.get(openElements.size() - 1).addChild(element);
+                    }
+                    if (elementsByName != null) {
+                        final List<VastXmlElement> elements = elementsByName.get(element.getName());
+                        if (elements != null) {
+                            elements.add(element);
+                        }
+                    }
+                    openElements.add(element);
+                    break;
+                }
+                case XmlPullParser.TEXT: {
+                    if (openElements.isEmpty()) {
+                        break;
+                    }
+                    final VastXmlElement element = openElements.get(openElements.size() - 1);
+                    // Only text before the first child element is the element's value
+                    if (!element.hasChildren()) {
+                        final String value = element.getValue();
+                        element.setValue(value == null
+                                ? parser.getText()
+                                : value + parser.getText());
+                    }
+                    break;
+                }
+                case XmlPullParser.END_TAG: {
+                    final VastXmlElement element = openElements.remove(openElements.size() - 1);
+                    final String value = element.getValue();
+                    if (value != null) {
+                        element.setValue(value.trim());
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+
+        if (root == null) {
+            throw new XmlPullParserException("No root element");
+        }
+        return root;
+    }
+}
@@ -16,22 +16,69 @@ import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.AsyncTasks;
 import com.mopub.common.util.Streams;
 
-import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR;
 
+/**
+ * Downloads videos into the {@link CacheService}. A download is written to a partial file in
+ * chunks, and listeners are told once {@link #PLAYABLE_BUFFER_BYTES} have arrived. The video is
+ * only in the cache once the download has completed. A download that is cancelled or fails keeps its partial file, and the next download of
+ * the same url asks the server for the rest with a range request.
+ */
 public class VideoDownloader {
     private static final int MAX_VIDEO_SIZE = 25 * 1024 * 1024; // 25 MiB
+    @VisibleForTesting
+    static final int CHUNK_SIZE = 64 * 1024;
+    // Enough for a few seconds of a typical VAST media file
+    @VisibleForTesting
+    static final int PLAYABLE_BUFFER_BYTES = 1024 * 1024;
+    private static final String VALIDATOR_FILE_SUFFIX = ".validator";
+    private static final String RANGE_HEADER = "Range";
+    private static final String IF_RANGE_HEADER = "If-Range";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final String CONTENT_RANGE_HEADER = "Content-Range";
+    private static final int HTTP_REQUESTED_RANGE_NOT_SATISFIABLE = 416;
+    // bytes <first>-<last>/<total>
+    private static final Pattern CONTENT_RANGE_PATTERN =
+            Pattern.compile("bytes (\\d+)-\\d+/(\\d+|\\*)");
+
     private static final Deque<WeakReference<VideoDownloaderTask>> sDownloaderTasks =
             new ArrayDeque<WeakReference<VideoDownloaderTask>>();
+    // Downloads in progress by url. Only used on the main thread.
+    private static final Map<String, VideoDownloaderTask> sActiveDownloads =
+            new HashMap<String, VideoDownloaderTask>();
 
     interface VideoDownloaderListener {
+        /**
+         * Called at most once, before {@link #onComplete(boolean)}, when enough of the video has
+         * arrived for playback to start. Only a hint: the download can still fail, and the video
+         * cannot be read from the cache until {@link #onComplete(boolean)} reports success. Not
+         * called for videos that arrive in one go.
+         */
+        void onPlayable();
+
         void onComplete(boolean success);
     }
 
@@ -47,14 +94,53 @@ public class VideoDownloader {
             return;
         }
 
+        // Two downloads must not write the same partial file
+        final VideoDownloaderTask activeDownload = sActiveDownloads.get(url);
+        if (activeDownload != null) {
+            activeDownload.addListener(listener);
+            return;
+        }
+
         final VideoDownloaderTask videoDownloaderTask = new VideoDownloaderTask(listener);
+        videoDownloaderTask.mUrl = url;
         try {
             AsyncTasks.safeExecuteOnExecutor(videoDownloaderTask, url);
+            sActiveDownloads.put(url, videoDownloaderTask);
         } catch (Exception e) {
             listener.onComplete(false);
         }
     }
 
+    /**
+     * Adds a listener to the download of this url, if there is one.
+     *
+     * @return {@code false} if the url is not being downloaded.
+     */
+    static boolean addListenerIfDownloading(@Nullable final String url,
+            @NonNull final VideoDownloaderListener listener) {
+        Preconditions.checkNotNull(listener);
+
+        final VideoDownloaderTask activeDownload = sActiveDownloads.get(url);
+        if (activeDownload == null) {
+            return false;
+        }
+        activeDownload.addListener(listener);
+        return true;
+    }
+
+    /**
+     * Stops notifying a listener added with {@link #addListenerIfDownloading}. Does nothing if the
+     * url is no longer being downloaded.
+     */
+    static void removeListener(@Nullable final String url,
+            @NonNull final VideoDownloaderListener listener) {
+        Preconditions.checkNotNull(listener);
+
+        final VideoDownloaderTask activeDownload = sActiveDownloads.get(url);
+        if (activeDownload != null) {
+            activeDownload.removeListener(listener);
+        }
+    }
 
     public static void cancelAllDownloaderTasks() {
         for (final WeakReference<VideoDownloaderTask> weakDownloaderTask : sDownloaderTasks) {
@@ -95,16 +181,31 @@ public class VideoDownloader {
 
     @VisibleForTesting
     static class VideoDownloaderTask extends AsyncTask<String, Void, Boolean> {
-        @NonNull private final VideoDownloaderListener mListener;
+        @NonNull private final List<VideoDownloaderListener> mListeners =
+                new ArrayList<VideoDownloaderListener>();
         @NonNull private final WeakReference<VideoDownloaderTask> mWeakSelf;
+        @Nullable private String mUrl;
+        // Only used on the main thread
+        private boolean mPlayable;
 
         @VisibleForTesting
         VideoDownloaderTask(@NonNull final VideoDownloaderListener listener) {
-            mListener = listener;
+            mListeners.add(listener);
             mWeakSelf = new WeakReference<VideoDownloaderTask>(this);
             sDownloaderTasks.add(mWeakSelf);
         }
 
+        void addListener(@NonNull final VideoDownloaderListener listener) {
+            mListeners.add(listener);
+            if (mPlayable) {
+                listener.onPlayable();
+            }
+        }
+
+        void removeListener(@NonNull final VideoDownloaderListener listener) {
+            mListeners.remove(listener);
+        }
+
         @Override
         protected Boolean doInBackground(final String... params) {
             if (params == null || params.length == 0 || params[0] == null) {
@@ -113,11 +214,26 @@ public class VideoDownloader {
             }
 
             final String videoUrl = params[0];
+            final File partialFile = CacheService.getPartialFile(videoUrl);
+            if (partialFile == null) {
+                MoPubLog.log(CUSTOM, "VideoDownloader has no disk cache to download to.");
+                return false;
+            }
+            final File validatorFile = new File(partialFile.getPath() + VALIDATOR_FILE_SUFFIX);
+
             HttpURLConnection urlConnection = null;
             InputStream inputStream = null;
+            OutputStream outputStream = null;
             try {
                 urlConnection = MoPubHttpUrlConnection.getHttpUrlConnection(videoUrl);
-                inputStream = new BufferedInputStream(urlConnection.getInputStream());
+
+                // Ask for the rest of an earlier download, unless the video has changed since
+                final String validator = readValidator(validatorFile);
+                long offset = partialFile.length();
+                if (offset > 0 && validator != null) {
+                    urlConnection.setRequestProperty(RANGE_HEADER, "bytes=" + offset + "-");
+                    urlConnection.setRequestProperty(IF_RANGE_HEADER, validator);
+                }
 
                 // Check status code range
                 int statusCode = urlConnection.getResponseCode();
@@ -125,27 +241,93 @@ public class VideoDownloader {
                         || statusCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
                     MoPubLog.log(CUSTOM, "VideoDownloader encountered unexpected statusCode: " +
                             statusCode);
+                    if (statusCode == HTTP_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                        deletePartialFiles(partialFile, validatorFile);
+                    }
                     return false;
                 }
 
+                long totalLength = urlConnection.getContentLength();
+                if (statusCode == HttpURLConnection.HTTP_PARTIAL) {
+                    final Matcher matcher = CONTENT_RANGE_PATTERN.matcher(
+                            String.valueOf(urlConnection.getHeaderField(CONTENT_RANGE_HEADER)));
+                    if (!matcher.matches() || Long.parseLong(matcher.group(1)) != offset) {
+                        MoPubLog.log(CUSTOM, "VideoDownloader received an unexpected range.");
+                        deletePartialFiles(partialFile, validatorFile);
+                        return false;
+                    }
+                    totalLength = "*".equals(matcher.group(2))
+                            ? -1
+                            : Long.parseLong(matcher.group(2));
+                    MoPubLog.log(CUSTOM, "VideoDownloader resuming download at " + offset
+                            + " bytes.");
+                } else {
+                    // The server sent the whole video
+                    offset = 0;
+                    writeValidator(validatorFile, urlConnection);
+                }
+
                 // Check video size below maximum
-                int contentLength = urlConnection.getContentLength();
-                if (contentLength > MAX_VIDEO_SIZE) {
+                if (totalLength > MAX_VIDEO_SIZE) {
                     MoPubLog.log(CUSTOM, String.format(
                             "VideoDownloader encountered video larger than disk cap. " +
                                     "(%d bytes / %d maximum).",
-                            contentLength,
+                            totalLength,
                             MAX_VIDEO_SIZE));
+                    deletePartialFiles(partialFile, validatorFile);
                     return false;
                 }
 
-                boolean diskPutResult = CacheService.putToDiskCache(videoUrl, inputStream);
+                inputStream = urlConnection.getInputStream();
+                outputStream = new FileOutputStream(partialFile, offset > 0);
+                final long playableBytes = totalLength > 0
+                        ? Math.min(totalLength, PLAYABLE_BUFFER_BYTES)
+                        : PLAYABLE_BUFFER_BYTES;
+                final byte[] chunk = new byte[CHUNK_SIZE];
+                long downloaded = offset;
+                boolean playablePublished = false;
+                int count;
+                while ((count = readChunk(inputStream, chunk)) > 0) {
+                    if (isCancelled()) {
+                        // The partial file is kept, so the next attempt can resume
+                        return false;
+                    }
+                    downloaded += count;
+                    if (downloaded > MAX_VIDEO_SIZE) {
+                        MoPubLog.log(CUSTOM, "VideoDownloader encountered video larger than "
+                                + "disk cap.");
+                        Streams.closeStream(outputStream);
+                        outputStream = null;
+                        deletePartialFiles(partialFile, validatorFile);
+                        return false;
+                    }
+                    outputStream.write(chunk, 0, count);
+                    if (!playablePublished && downloaded >= playableBytes
+                            && (totalLength < 0 || downloaded < totalLength)) {
+                        playablePublished = true;
+                        publishProgress();
+                    }
+                }
+                if (totalLength >= 0 && downloaded != totalLength) {
+                    MoPubLog.log(CUSTOM, "VideoDownloader download ended early. It can be "
+                            + "resumed.");
+                    return false;
+                }
+                outputStream.close();
+                outputStream = null;
+
+                final boolean diskPutResult = CacheService.putFileToDiskCache(videoUrl,
+                        partialFile);
+                if (diskPutResult) {
+                    deletePartialFiles(partialFile, validatorFile);
+                }
                 return diskPutResult;
             } catch (Exception e) {
                 MoPubLog.log(ERROR, "VideoDownloader task threw an internal exception.", e);
                 return false;
             } finally {
                 Streams.closeStream(inputStream);
+                Streams.closeStream(outputStream);
                 if (urlConnection != null) {
                     urlConnection.disconnect();
                 }
@@ -153,30 +335,116 @@ public class VideoDownloader {
         }
 
         @Override
-        protected void onPostExecute(final Boolean success) {
-            if (isCancelled()) {
-                onCancelled();
+        protected void onProgressUpdate(final Void... values) {
+            if (mPlayable) {
                 return;
             }
+            mPlayable = true;
+            // Listeners may remove themselves
+            for (final VideoDownloaderListener listener :
+                    new ArrayList<VideoDownloaderListener>(mListeners)) {
+                listener.onPlayable();
+            }
+        }
 
-            sDownloaderTasks.remove(mWeakSelf);
-
-            if (success == null) {
-                mListener.onComplete(false);
+        @Override
+        protected void onPostExecute(final Boolean success) {
+            if (isCancelled()) {
+                onCancelled();
                 return;
             }
 
-            mListener.onComplete(success);
+            finish(success != null && success);
         }
 
         @Override
         protected void onCancelled() {
             MoPubLog.log(CUSTOM, "VideoDownloader task was cancelled.");
+            finish(false);
+        }
+
+        private void finish(final boolean success) {
             sDownloaderTasks.remove(mWeakSelf);
-            mListener.onComplete(false);
+            if (mUrl != null && sActiveDownloads.get(mUrl) == this) {
+                sActiveDownloads.remove(mUrl);
+            }
+
+            for (final VideoDownloaderListener listener :
+                    new ArrayList<VideoDownloaderListener>(mListeners)) {
+                listener.onComplete(success);
+            }
         }
     }
 
+    /**
+     * Fills as much of the chunk as the stream allows, so the partial file is written in chunks.
+     *
+     * @return The number of bytes read, or 0 at the end of the stream.
+     */
+    private static int readChunk(@NonNull final InputStream inputStream,
+            @NonNull final byte[] chunk) throws IOException {
+        int total = 0;
+        int count;
+        while (total < chunk.length
+                && (count = inputStream.read(chunk, total, chunk.length - total)) != -1) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Remembers the version of the video being downloaded, so a resumed download only appends
+     * bytes of the same version.
+     */
+    private static void writeValidator(@NonNull final File validatorFile,
+            @NonNull final HttpURLConnection urlConnection) {
+        String validator = urlConnection.getHeaderField(ETAG_HEADER);
+        if (validator == null) {
+            validator = urlConnection.getHeaderField(LAST_MODIFIED_HEADER);
+        }
+        if (validator == null) {
+            //noinspection ResultOfMethodCallIgnored
+            validatorFile.delete();
+            return;
+        }
+
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(validatorFile), "UTF-8");
+            writer.write(validator);
+        } catch (IOException e) {
+            MoPubLog.log(CUSTOM, "VideoDownloader unable to save the video's validator.");
+        } finally {
+            Streams.closeStream(writer);
+        }
+    }
+
+    @Nullable
+    private static String readValidator(@NonNull final File validatorFile) {
+        if (!validatorFile.exists()) {
+            return null;
+        }
+
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(validatorFile),
+                    "UTF-8"));
+            return reader.readLine();
+        } catch (IOException e) {
+            return null;
+        } finally {
+            Streams.closeStream(reader);
+        }
+    }
+
+    private static void deletePartialFiles(@NonNull final File partialFile,
+            @NonNull final File validatorFile) {
+        //noinspection ResultOfMethodCallIgnored
+        partialFile.delete();
+        //noinspection ResultOfMethodCallIgnored
+        validatorFile.delete();
+    }
+
     @Deprecated
     @VisibleForTesting
     public static Deque<WeakReference<VideoDownloaderTask>> getDownloaderTasks() {
@@ -187,5 +455,6 @@ public class VideoDownloader {
     @VisibleForTesting
     public static void clearDownloaderTasks() {
         sDownloaderTasks.clear();
+        sActiveDownloads.clear();
     }
 }
@@ -17,6 +17,18 @@ public class VideoViewabilityTracker extends VastTracker {
         mPercentViewable = percentViewable;
     }
 
+    private VideoViewabilityTracker(@NonNull final VideoViewabilityTracker other) {
+        super(other);
+        mViewablePlaytimeMS = other.mViewablePlaytimeMS;
+        mPercentViewable = other.mPercentViewable;
+    }
+
+    @NonNull
+    @Override
+    VideoViewabilityTracker copy() {
+        return new VideoViewabilityTracker(this);
+    }
+
     public int getViewablePlaytimeMS() {
         return mViewablePlaytimeMS;
     }
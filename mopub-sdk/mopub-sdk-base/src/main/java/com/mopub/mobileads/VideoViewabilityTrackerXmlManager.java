@@ -10,9 +10,6 @@ import android.support.annotation.Nullable;
 import com.mopub.common.Preconditions;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.Strings;
-import com.mopub.mobileads.util.XmlUtils;
-
-import org.w3c.dom.Node;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 
@@ -24,9 +21,9 @@ public class VideoViewabilityTrackerXmlManager {
     public static final String VIEWABLE_PLAYTIME = "viewablePlaytime";
     public static final String PERCENT_VIEWABLE = "percentViewable";
 
-    private final Node mVideoViewabilityNode;
+    private final VastXmlElement mVideoViewabilityNode;
 
-    VideoViewabilityTrackerXmlManager(@NonNull final Node videoViewabilityNode) {
+    VideoViewabilityTrackerXmlManager(@NonNull final VastXmlElement videoViewabilityNode) {
         Preconditions.checkNotNull(videoViewabilityNode);
 
         mVideoViewabilityNode = videoViewabilityNode;
@@ -44,7 +41,7 @@ public class VideoViewabilityTrackerXmlManager {
     @Nullable
     Integer getViewablePlaytimeMS() {
         String viewablePlaytimeStr =
-                XmlUtils.getAttributeValue(mVideoViewabilityNode, VIEWABLE_PLAYTIME);
+                mVideoViewabilityNode.getAttribute(VIEWABLE_PLAYTIME);
         if (viewablePlaytimeStr == null) {
             return null;
         }
@@ -85,7 +82,7 @@ public class VideoViewabilityTrackerXmlManager {
     @Nullable
     Integer getPercentViewable() {
         String percentViewableStr =
-                XmlUtils.getAttributeValue(mVideoViewabilityNode, PERCENT_VIEWABLE);
+                mVideoViewabilityNode.getAttribute(PERCENT_VIEWABLE);
         if (percentViewableStr == null) {
             return null;
         }
@@ -113,6 +110,6 @@ public class VideoViewabilityTrackerXmlManager {
      */
     @Nullable
     String getVideoViewabilityTrackerUrl() {
-        return XmlUtils.getNodeValue(mVideoViewabilityNode);
+        return mVideoViewabilityNode.getValue();
     }
 }
@@ -13,6 +13,7 @@ import android.text.TextUtils;
 
 import com.mopub.common.AdFormat;
 import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.mobileads.MoPubError;
 import com.mopub.volley.Request;
@@ -21,6 +22,7 @@ import com.mopub.volley.Response;
 import com.mopub.volley.VolleyError;
 
 import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.mopub.common.logging.MoPubLog.AdLogEvent.REQUESTED;
 import static com.mopub.common.logging.MoPubLog.AdLogEvent.RESPONSE_RECEIVED;
@@ -37,6 +39,19 @@ public class AdLoader {
         void onSuccess(AdResponse response);
     }
 
+    // Loads that are not admitted are retried with a backoff from this base delay
+    private static final long ADMISSION_RETRY_BASE_MS = 500;
+    private static final double ADMISSION_RETRY_MULTIPLIER = 2;
+    private static final long ADMISSION_RETRY_MAX_MS = 30 * 1000;
+
+    // Identical ad requests that are in flight at the same time share one network call
+    private static final SingleFlight<MultiAdResponse> sAdRequests = new SingleFlight<>();
+
+    private static volatile boolean sSpeculativeFetchEnabled = false;
+    @NonNull private static final AtomicLong sSpeculativeFetchesStarted = new AtomicLong();
+    @NonNull private static final AtomicLong sSpeculativeFetchesUsed = new AtomicLong();
+    @NonNull private static final AtomicLong sSpeculativeFetchesDiscarded = new AtomicLong();
+
     private final MultiAdRequest.Listener mAdListener;
     private final WeakReference<Context> mContext;
     private final Listener mOriginalListener;
@@ -51,8 +66,13 @@ public class AdLoader {
     protected AdResponse mLastDeliveredResponse = null;
     @Nullable
     private ContentDownloadAnalytics mDownloadTracker;
+    // The next waterfall page, requested while the last preloaded ad is loading
+    @Nullable
+    private SpeculativeFetch mSpeculativeFetch;
 
     private volatile boolean mRunning;
+    // Consecutive times the current request was not admitted
+    private int mAdmissionAttempts;
     private volatile boolean mFailed;
     private boolean mContentDownloaded;
 
@@ -71,6 +91,24 @@ public class AdLoader {
                     @Nullable final String adUnitId,
                     @NonNull final Context context,
                     @NonNull final Listener listener) {
+        this(url, null, adFormat, adUnitId, context, listener);
+    }
+
+    /**
+     * @param url           initial URL to download ads from ads.mopub.com
+     * @param requestParams parameters used to generate the url, used to build the request body
+     *                      without parsing the url again. May be null.
+     * @param adFormat      banner, interstitial, etc.
+     * @param adUnitId      ad unit id will be sent to the server
+     * @param context       required by {@link Networking} class
+     * @param listener      callback to return results
+     */
+    public AdLoader(@NonNull final String url,
+                    @Nullable final MoPubRequestParams requestParams,
+                    @NonNull final AdFormat adFormat,
+                    @Nullable final String adUnitId,
+                    @NonNull final Context context,
+                    @NonNull final Listener listener) {
         Preconditions.checkArgument(!TextUtils.isEmpty(url));
         Preconditions.checkNotNull(adFormat);
         Preconditions.checkNotNull(context);
@@ -97,7 +135,9 @@ public class AdLoader {
                     mRunning = false;
                     mMultiAdResponse = response;
                     if (mMultiAdResponse.hasNext()) {
-                        deliverResponse(mMultiAdResponse.next());
+                        final AdResponse adResponse = mMultiAdResponse.next();
+                        startSpeculativeFetchIfLastAd();
+                        deliverResponse(adResponse);
                     }
                 }
             }
@@ -106,6 +146,7 @@ public class AdLoader {
         mRunning = false;
         mFailed = false;
         mMultiAdRequest = new MultiAdRequest(url,
+                requestParams,
                 adFormat,
                 adUnitId,
                 context,
@@ -183,6 +224,7 @@ public class AdLoader {
             if (mMultiAdResponse.hasNext()) {
                 // logic to return next preloaded AdResponse item
                 final AdResponse adResponse = mMultiAdResponse.next();
+                startSpeculativeFetchIfLastAd();
                 mHandler.post(new Runnable() {
                     @Override
                     public void run() {
@@ -192,6 +234,17 @@ public class AdLoader {
                 return mMultiAdRequest;
             }
 
+            // the next page was already requested while the last ad was loading
+            if (mSpeculativeFetch != null) {
+                final SpeculativeFetch speculativeFetch = mSpeculativeFetch;
+                mSpeculativeFetch = null;
+                sSpeculativeFetchesUsed.incrementAndGet();
+                mRunning = true;
+                mMultiAdRequest = speculativeFetch.mRequest;
+                speculativeFetch.use();
+                return mMultiAdRequest;
+            }
+
             // logic to request more waterfall ads from server
             if (!mMultiAdResponse.isWaterfallFinished()) {
                 // create new request with failURL
@@ -221,6 +274,7 @@ public class AdLoader {
      */
     public void creativeDownloadSuccess() {
         mContentDownloaded = true;
+        discardSpeculativeFetch();
 
         if (null == mDownloadTracker) {
             MoPubLog.log(CUSTOM, "Response analytics should not be null here");
@@ -271,19 +325,149 @@ public class AdLoader {
             return null;
         }
 
-        String bodyString = "<no body>";
-        if (request.getBody() != null) {
-            bodyString = new String(request.getBody());
+        // Only the first page of a waterfall is paced per ad unit. The rest of the waterfall
+        // belongs to a load that was already admitted.
+        final AdmissionController.Permit permit = Networking.getAdmissionController().tryAdmit(
+                mMultiAdResponse == null ? request.mAdUnitId : null);
+        if (permit == null) {
+            deferFetchAd(request);
+            return request;
+        }
+        mAdmissionAttempts = 0;
+
+        if (MoPubLog.isLoggable(REQUESTED)) {
+            String bodyString = "<no body>";
+            final byte[] body = request.getBody();
+            if (body != null) {
+                bodyString = new String(body);
+            }
+            MoPubLog.log(REQUESTED, request.getUrl(), bodyString);
         }
-        MoPubLog.log(REQUESTED, request.getUrl(), bodyString);
 
         mRunning = true;
-        RequestQueue requestQueue = Networking.getRequestQueue(context);
         mMultiAdRequest = request;
-        requestQueue.add(request);
+        sendAdRequest(request, permit, context);
         return request;
     }
 
+    /**
+     * Sends an admitted request, sharing the response with identical requests in flight.
+     *
+     * @param request The request.
+     * @param permit  Released once the request has finished or was cancelled.
+     * @param context Required by the networking library.
+     */
+    private void sendAdRequest(@NonNull final MultiAdRequest request,
+            @NonNull final AdmissionController.Permit permit, @NonNull final Context context) {
+        request.setAdmissionPermit(permit);
+        RequestQueue requestQueue = Networking.getRequestQueue(context);
+        request.setSingleFlightCall(sAdRequests.join(requestQueue, request,
+                new SingleFlight.RequestFactory<MultiAdResponse>() {
+                    @NonNull
+                    @Override
+                    public Request<?> createRequest(
+                            @NonNull final Response.Listener<MultiAdResponse> listener,
+                            @NonNull final Response.ErrorListener errorListener) {
+                        return request.copy(new MultiAdRequest.Listener() {
+                            @Override
+                            public void onSuccessResponse(final MultiAdResponse response) {
+                                listener.onResponse(response);
+                            }
+
+                            @Override
+                            public void onErrorResponse(final VolleyError volleyError) {
+                                errorListener.onErrorResponse(volleyError);
+                            }
+                        });
+                    }
+                },
+                new SingleFlight.Listener<MultiAdResponse>() {
+                    @Override
+                    public void onResponse(@NonNull final MultiAdResponse response) {
+                        permit.release();
+                        if (!request.isCanceled()) {
+                            // Each loader walks its own copy of a shared waterfall
+                            request.mListener.onSuccessResponse(response.copy());
+                        }
+                    }
+
+                    @Override
+                    public void onErrorResponse(final VolleyError volleyError) {
+                        permit.release();
+                        if (!request.isCanceled()) {
+                            request.mListener.onErrorResponse(volleyError);
+                        }
+                    }
+                }));
+    }
+
+    /**
+     * When the ad just taken is the last one of the current page, requests the next page right
+     * away instead of after the ad has failed. The page is used if the ad fails and discarded if
+     * it loads.
+     */
+    private void startSpeculativeFetchIfLastAd() {
+        final MultiAdResponse multiAdResponse = mMultiAdResponse;
+        final Context context = mContext.get();
+        if (!sSpeculativeFetchEnabled || mSpeculativeFetch != null || mContentDownloaded
+                || context == null || multiAdResponse == null || multiAdResponse.hasNext()
+                || multiAdResponse.isWaterfallFinished()) {
+            return;
+        }
+
+        // The page is an extra request for the ad unit, so it is paced like the first page. It is
+        // only worth sending if it can go out now, so it is skipped rather than deferred.
+        final AdmissionController.Permit permit = Networking.getAdmissionController().tryAdmit(
+                mMultiAdRequest.mAdUnitId);
+        if (permit == null) {
+            MoPubLog.log(CUSTOM, "Not requesting the next waterfall page for "
+                    + mMultiAdRequest.mAdUnitId + " ahead of time while it is backing off.");
+            return;
+        }
+
+        mSpeculativeFetch = new SpeculativeFetch(multiAdResponse.getFailURL(), context);
+        sSpeculativeFetchesStarted.incrementAndGet();
+        MoPubLog.log(CUSTOM, "Requesting the next waterfall page for "
+                + mMultiAdRequest.mAdUnitId + " ahead of time.");
+        sendAdRequest(mSpeculativeFetch.mRequest, permit, context);
+    }
+
+    private void discardSpeculativeFetch() {
+        synchronized (lock) {
+            if (mSpeculativeFetch == null) {
+                return;
+            }
+            mSpeculativeFetch.mRequest.cancel();
+            mSpeculativeFetch = null;
+            sSpeculativeFetchesDiscarded.incrementAndGet();
+        }
+    }
+
+    /**
+     * Tries the request again later because it was not admitted. The delay grows with each
+     * attempt and has jitter, so placements that were turned away together spread out.
+     *
+     * @param request Sent once it is admitted, unless it is cancelled first.
+     */
+    private void deferFetchAd(@NonNull final MultiAdRequest request) {
+        mRunning = true;
+        mMultiAdRequest = request;
+        mAdmissionAttempts++;
+
+        final long delayMs = AdmissionController.getBackoffMs(ADMISSION_RETRY_BASE_MS,
+                ADMISSION_RETRY_MULTIPLIER, mAdmissionAttempts, ADMISSION_RETRY_MAX_MS);
+        MoPubLog.log(CUSTOM, "Ad request for " + request.mAdUnitId + " deferred for "
+                + delayMs + "ms.");
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                if (request.isCanceled() || fetchAd(request, mContext.get()) == null) {
+                    mRunning = false;
+                }
+            }
+        }, delayMs);
+    }
+
     /**
      * Helper function to make callback
      *
@@ -322,6 +506,33 @@ public class AdLoader {
         }
     }
 
+    /**
+     * Requests the next page of a waterfall while the last ad of the current page is loading, so
+     * the next ad is available sooner if that ad fails. Pages that are not needed are discarded,
+     * so this trades extra ad requests for lower latency deep in waterfalls. Off by default.
+     *
+     * @param enabled Whether to request the next page ahead of time.
+     */
+    public static void setSpeculativeFetchEnabled(final boolean enabled) {
+        sSpeculativeFetchEnabled = enabled;
+    }
+
+    /**
+     * @return How many of the pages requested ahead of time were used and discarded.
+     */
+    @NonNull
+    public static SpeculativeFetchMetrics getSpeculativeFetchMetrics() {
+        return new SpeculativeFetchMetrics(sSpeculativeFetchesStarted.get(),
+                sSpeculativeFetchesUsed.get(), sSpeculativeFetchesDiscarded.get());
+    }
+
+    @VisibleForTesting
+    static void clearSpeculativeFetchMetrics() {
+        sSpeculativeFetchesStarted.set(0);
+        sSpeculativeFetchesUsed.set(0);
+        sSpeculativeFetchesDiscarded.set(0);
+    }
+
     public boolean isRunning() {
         return mRunning;
     }
@@ -329,4 +540,65 @@ public class AdLoader {
     public boolean isFailed() {
         return mFailed;
     }
+
+    /**
+     * A next page request made ahead of time. Its result is kept until the loader either uses it
+     * or discards it.
+     */
+    private class SpeculativeFetch implements MultiAdRequest.Listener {
+        @NonNull final MultiAdRequest mRequest;
+        private boolean mUsed;
+        @Nullable private MultiAdResponse mResponse;
+        @Nullable private VolleyError mError;
+
+        SpeculativeFetch(@NonNull final String url, @NonNull final Context context) {
+            mRequest = new MultiAdRequest(url, mMultiAdRequest.mAdFormat,
+                    mMultiAdRequest.mAdUnitId, context, this);
+        }
+
+        /**
+         * Hands the result to the loader, now or when it arrives. Must be called holding the
+         * loader's lock.
+         */
+        void use() {
+            mUsed = true;
+            if (mResponse != null || mError != null) {
+                // call back using handler to make sure it is always async.
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver();
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onSuccessResponse(final MultiAdResponse response) {
+            synchronized (lock) {
+                mResponse = response;
+                if (mUsed) {
+                    deliver();
+                }
+            }
+        }
+
+        @Override
+        public void onErrorResponse(final VolleyError volleyError) {
+            synchronized (lock) {
+                mError = volleyError;
+                if (mUsed) {
+                    deliver();
+                }
+            }
+        }
+
+        private void deliver() {
+            if (mResponse != null) {
+                mAdListener.onSuccessResponse(mResponse);
+            } else if (mError != null) {
+                mAdListener.onErrorResponse(mError);
+            }
+        }
+    }
 }
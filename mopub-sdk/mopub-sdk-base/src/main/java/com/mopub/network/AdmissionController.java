@@ -0,0 +1,203 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether an ad request may be sent now. Each ad unit has a token bucket, so a placement
+ * that reloads in a loop is slowed down, and a backoff sent by the server empties the ad unit's
+ * bucket until the backoff ends. The number of ad requests in flight across all ad units is also
+ * capped, so that many placements failing together, e.g. when the network comes back, do not all
+ * reload at once. Loads that are not admitted are retried after {@link #getBackoffMs}.
+ *
+ * Admission is checked on every ad load, so it only uses atomic variables and never blocks.
+ */
+public class AdmissionController {
+    // Sustained rate of one ad request per second per ad unit, with bursts of up to 6
+    @VisibleForTesting
+    static final long TOKEN_INTERVAL_MS = 1000;
+    @VisibleForTesting
+    static final int BUCKET_CAPACITY = 6;
+    @VisibleForTesting
+    static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    // Delays are spread by up to this fraction of the delay
+    @VisibleForTesting
+    static final double JITTER_FRACTION = 0.2;
+
+    @NonNull private static final Random sRandom = new Random();
+
+    /**
+     * An admitted ad request. Must be released once the request has finished or was cancelled.
+     */
+    public class Permit {
+        @NonNull private final AtomicBoolean mReleased = new AtomicBoolean();
+
+        /**
+         * Releases the request's slot. Does nothing if it was already released.
+         */
+        public void release() {
+            if (mReleased.compareAndSet(false, true)) {
+                mInFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // Per ad unit, the time at which the bucket would be full again (the theoretical arrival
+    // time of the generic cell rate algorithm). A single value per ad unit lets the check be one
+    // compare-and-set.
+    @NonNull private final ConcurrentMap<String, AtomicLong> mBuckets =
+            new ConcurrentHashMap<String, AtomicLong>();
+    @NonNull private final AtomicInteger mInFlight = new AtomicInteger();
+    private final int mMaxInFlight;
+
+    public AdmissionController() {
+        this(DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @VisibleForTesting
+    AdmissionController(final int maxInFlight) {
+        Preconditions.checkArgument(maxInFlight > 0);
+
+        mMaxInFlight = maxInFlight;
+    }
+
+    /**
+     * Admits an ad request if the ad unit has a token left and fewer than the maximum number of
+     * ad requests are in flight.
+     *
+     * @param adUnitId The ad unit of the request. Requests without an ad unit only count towards
+     *                 the global limit.
+     * @return A permit to release when the request is done, or null if the request should be
+     * retried later.
+     */
+    @Nullable
+    public Permit tryAdmit(@Nullable final String adUnitId) {
+        int inFlight;
+        do {
+            inFlight = mInFlight.get();
+            if (inFlight >= mMaxInFlight) {
+                return null;
+            }
+        } while (!mInFlight.compareAndSet(inFlight, inFlight + 1));
+
+        if (!TextUtils.isEmpty(adUnitId) && !tryTakeToken(adUnitId, now())) {
+            mInFlight.decrementAndGet();
+            return null;
+        }
+        return new Permit();
+    }
+
+    /**
+     * Empties the ad unit's bucket until the server's backoff has passed. Afterwards tokens come
+     * back at the normal rate.
+     *
+     * @param adUnitId  The ad unit the server asked to back off.
+     * @param backoffMs How long to send no ad requests for the ad unit.
+     */
+    public void onServerBackoff(@Nullable final String adUnitId, final long backoffMs) {
+        if (TextUtils.isEmpty(adUnitId) || backoffMs <= 0) {
+            return;
+        }
+
+        final AtomicLong bucket = getBucket(adUnitId);
+        // The first token becomes available when the backoff ends
+        final long fullAt = now() + backoffMs + (BUCKET_CAPACITY - 1) * TOKEN_INTERVAL_MS;
+        long current;
+        do {
+            current = bucket.get();
+            if (current >= fullAt) {
+                return;
+            }
+        } while (!bucket.compareAndSet(current, fullAt));
+    }
+
+    @VisibleForTesting
+    int getInFlightCount() {
+        return mInFlight.get();
+    }
+
+    private boolean tryTakeToken(@NonNull final String adUnitId, final long now) {
+        final AtomicLong bucket = getBucket(adUnitId);
+        long fullAt;
+        long newFullAt;
+        do {
+            fullAt = bucket.get();
+            newFullAt = Math.max(fullAt, now) + TOKEN_INTERVAL_MS;
+            if (newFullAt - now > BUCKET_CAPACITY * TOKEN_INTERVAL_MS) {
+                return false;
+            }
+        } while (!bucket.compareAndSet(fullAt, newFullAt));
+        return true;
+    }
+
+    @NonNull
+    private AtomicLong getBucket(@NonNull final String adUnitId) {
+        final AtomicLong bucket = mBuckets.get(adUnitId);
+        if (bucket != null) {
+            return bucket;
+        }
+        final AtomicLong newBucket = new AtomicLong();
+        final AtomicLong existing = mBuckets.putIfAbsent(adUnitId, newBucket);
+        return existing != null ? existing : newBucket;
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * The backoff shared by all ad formats: the base delay grows exponentially with each attempt,
+     * and retries are spread out with jitter so that placements that failed together do not
+     * retry together.
+     *
+     * @param baseMs     The delay without backoff.
+     * @param multiplier How much the delay grows with each attempt.
+     * @param attempt    The number of failures so far. No backoff or jitter is applied for 0.
+     * @param maxMs      The longest delay.
+     * @return The delay to wait before the next attempt.
+     */
+    public static long getBackoffMs(final long baseMs, final double multiplier, final int attempt,
+            final long maxMs) {
+        if (attempt <= 0) {
+            return Math.min(baseMs, maxMs);
+        }
+        final double delayMs = baseMs * Math.pow(multiplier, attempt);
+        return addJitter((long) Math.min(delayMs, maxMs), maxMs);
+    }
+
+    /**
+     * Adds up to {@link #JITTER_FRACTION} of the delay to it. Delays that would go past the
+     * maximum are spread below it instead, so retries that reached the maximum still spread out.
+     *
+     * @param delayMs The delay to spread out.
+     * @param maxMs   The longest delay to return.
+     * @return The delay with jitter.
+     */
+    public static long addJitter(final long delayMs, final long maxMs) {
+        if (delayMs <= 0) {
+            return 0;
+        }
+        final long jitterMs = (long) (sRandom.nextDouble() * delayMs * JITTER_FRACTION);
+        if (delayMs + jitterMs <= maxMs) {
+            return delayMs + jitterMs;
+        }
+        return Math.max(0, Math.min(delayMs, maxMs) - jitterMs);
+    }
+}
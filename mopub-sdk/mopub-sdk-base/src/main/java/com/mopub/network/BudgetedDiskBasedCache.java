@@ -0,0 +1,233 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.DiskCacheBudget;
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.util.Streams;
+import com.mopub.volley.Cache;
+import com.mopub.volley.toolbox.DiskBasedCache;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A Volley {@link DiskBasedCache} whose size is set by the {@link DiskCacheBudget}. Volley fixes
+ * the size of its cache when it is created, so this class keeps its own count of the bytes on disk
+ * and evicts the least recently used entries when the budget shrinks. Entries are always evicted
+ * through Volley, and the cache is kept below Volley's own limit so that Volley never prunes files
+ * this class does not know about.
+ */
+class BudgetedDiskBasedCache extends DiskBasedCache implements DiskCacheBudget.Store {
+    // Volley's cache files start with one of these magic numbers, followed by the key
+    private static final int CACHE_MAGIC = 0x20150306;
+    private static final int OLD_CACHE_MAGIC = 0x20140623;
+    // Volley prunes once its total size reaches its limit. The headroom covers the header of the
+    // entry being written, which is not part of the size Volley checks before writing.
+    private static final double VOLLEY_LIMIT_FACTOR = 0.9;
+
+    private static class CacheFile {
+        // Null if the file could not be read. Such files are left to Volley.
+        @Nullable final String mKey;
+        final long mLength;
+
+        CacheFile(@Nullable final String key, final long length) {
+            mKey = key;
+            mLength = length;
+        }
+    }
+
+    @NonNull private final File mRootDirectory;
+    @NonNull private final DiskCacheBudget mDiskCacheBudget;
+    // Keyed by file name, in access order
+    @NonNull private final LinkedHashMap<String, CacheFile> mFiles =
+            new LinkedHashMap<String, CacheFile>(16, 0.75f, true);
+    private final long mVolleyMaxSize;
+    private volatile long mSize;
+    private long mMaxSize;
+
+    BudgetedDiskBasedCache(@NonNull final File rootDirectory, final long maxSizeBytes) {
+        this(rootDirectory, maxSizeBytes, DiskCacheBudget.getInstance());
+    }
+
+    @VisibleForTesting
+    BudgetedDiskBasedCache(@NonNull final File rootDirectory, final long maxSizeBytes,
+            @NonNull final DiskCacheBudget diskCacheBudget) {
+        super(rootDirectory, (int) Math.min(maxSizeBytes, Integer.MAX_VALUE));
+        Preconditions.checkNotNull(diskCacheBudget);
+
+        mRootDirectory = rootDirectory;
+        mDiskCacheBudget = diskCacheBudget;
+        mVolleyMaxSize = Math.min(maxSizeBytes, Integer.MAX_VALUE);
+        mMaxSize = maxSizeBytes;
+    }
+
+    @Override
+    public synchronized void initialize() {
+        super.initialize();
+
+        mFiles.clear();
+        mSize = 0;
+        final File[] files = mRootDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        // Oldest first, so they are evicted first
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(final File lhs, final File rhs) {
+                final long lhsModified = lhs.lastModified();
+                final long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+        for (final File file : files) {
+            track(file.getName(), readKey(file), file.length());
+        }
+        trimToSize(0);
+    }
+
+    @Override
+    @Nullable
+    public synchronized Cache.Entry get(@NonNull final String key) {
+        final Cache.Entry entry = super.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        // Moves the file to the end of the access order
+        mFiles.get(getFileForKey(key).getName());
+        if (entry.data != null) {
+            mDiskCacheBudget.recordHit(DiskCacheBudget.VOLLEY, entry.data.length);
+        }
+        return entry;
+    }
+
+    @Override
+    public synchronized void put(@NonNull final String key, @NonNull final Cache.Entry entry) {
+        // The entry being replaced stays counted, like it does in Volley, until it is written
+        trimToSize(entry.data == null ? 0 : entry.data.length);
+
+        super.put(key, entry);
+
+        final File file = getFileForKey(key);
+        untrack(file.getName());
+        if (file.exists()) {
+            track(file.getName(), key, file.length());
+        }
+        trimToSize(0);
+    }
+
+    @Override
+    public synchronized void remove(@NonNull final String key) {
+        super.remove(key);
+
+        untrack(getFileForKey(key).getName());
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+
+        mFiles.clear();
+        mSize = 0;
+    }
+
+    @Override
+    public long size() {
+        return mSize;
+    }
+
+    @Override
+    public synchronized void setMaxSize(final long maxSizeBytes) {
+        mMaxSize = maxSizeBytes;
+        trimToSize(0);
+    }
+
+    private void track(@NonNull final String fileName, @Nullable final String key,
+            final long length) {
+        mFiles.put(fileName, new CacheFile(key, length));
+        mSize += length;
+    }
+
+    private void untrack(@NonNull final String fileName) {
+        final CacheFile cacheFile = mFiles.remove(fileName);
+        if (cacheFile != null) {
+            mSize -= cacheFile.mLength;
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache has room for the given number of
+     * bytes, both within its budget and below Volley's own limit.
+     */
+    private void trimToSize(final long neededBytes) {
+        final long maxSize = Math.min(mMaxSize, (long) (mVolleyMaxSize * VOLLEY_LIMIT_FACTOR));
+        final Iterator<Map.Entry<String, CacheFile>> iterator = mFiles.entrySet().iterator();
+        while (mSize + neededBytes > maxSize && iterator.hasNext()) {
+            final CacheFile cacheFile = iterator.next().getValue();
+            if (cacheFile.mKey == null) {
+                continue;
+            }
+            iterator.remove();
+            mSize -= cacheFile.mLength;
+            super.remove(cacheFile.mKey);
+        }
+    }
+
+    /**
+     * Reads the key from the header Volley writes at the start of each cache file.
+     *
+     * @return The key, or null if the file could not be read.
+     */
+    @Nullable
+    @VisibleForTesting
+    static String readKey(@NonNull final File file) {
+        InputStream inputStream = null;
+        try {
+            inputStream = new BufferedInputStream(new FileInputStream(file));
+            final long magic = readLittleEndian(inputStream, 4);
+            if (magic != CACHE_MAGIC && magic != OLD_CACHE_MAGIC) {
+                return null;
+            }
+            final long keyLength = readLittleEndian(inputStream, 8);
+            if (keyLength < 0 || keyLength > file.length()) {
+                return null;
+            }
+            final byte[] keyBytes = new byte[(int) keyLength];
+            Streams.readStream(inputStream, keyBytes);
+            return new String(keyBytes, "UTF-8");
+        } catch (IOException e) {
+            return null;
+        } finally {
+            Streams.closeStream(inputStream);
+        }
+    }
+
+    private static long readLittleEndian(@NonNull final InputStream inputStream,
+            final int byteCount) throws IOException {
+        long value = 0;
+        for (int i = 0; i < byteCount; i++) {
+            final int b = inputStream.read();
+            if (b == -1) {
+                throw new IOException("Unexpected end of cache file");
+            }
+            value |= ((long) b) << (8 * i);
+        }
+        return byteCount == 4 ? (int) value : value;
+    }
+}
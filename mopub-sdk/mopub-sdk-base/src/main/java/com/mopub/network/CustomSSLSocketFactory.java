@@ -5,6 +5,7 @@
 package com.mopub.network;
 
 import android.net.SSLCertificateSocketFactory;
+import android.net.SSLSessionCache;
 import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -40,8 +41,19 @@ public class CustomSSLSocketFactory extends SSLSocketFactory {
 
     @NonNull
     public static CustomSSLSocketFactory getDefault(final int handshakeTimeoutMillis) {
+        return getDefault(handshakeTimeoutMillis, null);
+    }
+
+    /**
+     * @param sessionCache Keeps TLS sessions across process restarts so connections to servers
+     *                     seen before can resume the session instead of doing a full handshake.
+     *                     May be null.
+     */
+    @NonNull
+    public static CustomSSLSocketFactory getDefault(final int handshakeTimeoutMillis,
+            @Nullable final SSLSessionCache sessionCache) {
         CustomSSLSocketFactory factory = new CustomSSLSocketFactory();
-        factory.mCertificateSocketFactory = SSLCertificateSocketFactory.getDefault(handshakeTimeoutMillis, null);
+        factory.mCertificateSocketFactory = SSLCertificateSocketFactory.getDefault(handshakeTimeoutMillis, sessionCache);
 
         return factory;
     }
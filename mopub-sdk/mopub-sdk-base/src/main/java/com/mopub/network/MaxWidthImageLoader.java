@@ -5,11 +5,17 @@
 package com.mopub.network;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Point;
 import android.view.Display;
 import android.view.WindowManager;
+import android.widget.ImageView;
 
+import com.mopub.volley.Request;
 import com.mopub.volley.RequestQueue;
+import com.mopub.volley.Response;
+import com.mopub.volley.VolleyError;
+import com.mopub.volley.toolbox.ImageRequest;
 
 public class MaxWidthImageLoader extends com.mopub.volley.toolbox.ImageLoader {
     private final int mMaxImageWidth;
@@ -32,4 +38,29 @@ public class MaxWidthImageLoader extends com.mopub.volley.toolbox.ImageLoader {
     public ImageContainer get(final String requestUrl, final ImageListener listener) {
         return super.get(requestUrl, listener, mMaxImageWidth, 0 /* no height limit */);
     }
+
+    /**
+     * Same as the Volley implementation, except that images are creative assets and use
+     * {@link Request.Priority#HIGH} instead of the {@link ImageRequest} default of LOW.
+     */
+    @Override
+    protected Request<Bitmap> makeImageRequest(final String requestUrl, final int maxWidth,
+            final int maxHeight, final ImageView.ScaleType scaleType, final String cacheKey) {
+        return new ImageRequest(requestUrl, new Response.Listener<Bitmap>() {
+            @Override
+            public void onResponse(final Bitmap response) {
+                onGetImageSuccess(cacheKey, response);
+            }
+        }, maxWidth, maxHeight, scaleType, Bitmap.Config.RGB_565, new Response.ErrorListener() {
+            @Override
+            public void onErrorResponse(final VolleyError error) {
+                onGetImageError(cacheKey, error);
+            }
+        }) {
+            @Override
+            public Priority getPriority() {
+                return Priority.HIGH;
+            }
+        };
+    }
 }
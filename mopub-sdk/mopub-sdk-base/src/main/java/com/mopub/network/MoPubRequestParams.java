@@ -0,0 +1,118 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.logging.MoPubLog;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Unencoded request parameters recorded alongside the url built by a
+ * {@link com.mopub.common.BaseUrlGenerator}. Requests to the ad server can build their json body
+ * directly from these values instead of re-parsing the query string of the url.
+ */
+public class MoPubRequestParams {
+
+    @NonNull private final String mUrl;
+    @NonNull private final Map<String, String> mParams;
+
+    private MoPubRequestParams(@NonNull final String url,
+            @NonNull final Map<String, String> params) {
+        mUrl = url;
+        mParams = Collections.unmodifiableMap(params);
+    }
+
+    /**
+     * @return The url that was generated together with these parameters.
+     */
+    @NonNull
+    public String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * @return Unencoded parameter values keyed by name, in the order they were added.
+     */
+    @NonNull
+    public Map<String, String> getParams() {
+        return mParams;
+    }
+
+    /**
+     * Creates the json body for these parameters. Values matching one of the
+     * {@link PlayServicesUrlRewriter} templates are replaced the same way the rewriter replaces
+     * them in the url.
+     *
+     * @param rewriter Used to resolve the advertising id templates. May be null.
+     * @return The json body, or null if there are no parameters.
+     */
+    @Nullable
+    public String toJsonBody(@Nullable final PlayServicesUrlRewriter rewriter) {
+        if (mParams.isEmpty()) {
+            return null;
+        }
+
+        final JSONObject jsonBody = new JSONObject();
+        for (final Map.Entry<String, String> entry : mParams.entrySet()) {
+            final String value = rewriter == null
+                    ? entry.getValue()
+                    : rewriter.rewriteValue(entry.getValue());
+            try {
+                jsonBody.put(entry.getKey(), value);
+            } catch (JSONException e) {
+                MoPubLog.log(CUSTOM, "Unable to add " + entry.getKey() + " to JSON body.");
+            }
+        }
+        return jsonBody.toString();
+    }
+
+    public static class Builder {
+        @NonNull private final Map<String, String> mParams = new LinkedHashMap<>();
+
+        /**
+         * Adds a parameter. Empty values are skipped, and repeated keys are joined with a comma
+         * to match {@link MoPubRequestUtils#getQueryParamMap}.
+         */
+        @NonNull
+        public Builder put(@NonNull final String key, @Nullable final String value) {
+            Preconditions.checkNotNull(key);
+
+            if (TextUtils.isEmpty(value)) {
+                return this;
+            }
+
+            final String existing = mParams.get(key);
+            mParams.put(key, existing == null ? value : existing + "," + value);
+            return this;
+        }
+
+        @NonNull
+        public Builder put(@NonNull final String key, @Nullable final Boolean value) {
+            if (value == null) {
+                return this;
+            }
+            return put(key, value ? "1" : "0");
+        }
+
+        @NonNull
+        public MoPubRequestParams build(@NonNull final String url) {
+            Preconditions.checkNotNull(url);
+
+            return new MoPubRequestParams(url, new LinkedHashMap<>(mParams));
+        }
+    }
+}
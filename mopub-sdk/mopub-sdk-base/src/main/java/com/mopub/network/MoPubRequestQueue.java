@@ -24,6 +24,10 @@ import java.util.Map;
  * This subclass provides convenience methods for adding a delayed request to run at a time in
  * the future. This is useful for our backoff policy architecture.
  *
+ * Requests are also passed through a {@link RequestScheduler}, which can cap how many requests
+ * of each {@link Request.Priority} are in flight so a burst of low priority requests cannot
+ * occupy every network thread. Without caps, requests go straight to Volley as before.
+ *
  * We've overridden certain implementation methods but have kept the contract of the
  * original method consistent.
  */
@@ -31,22 +35,92 @@ public class MoPubRequestQueue extends RequestQueue {
 
     private static final int CAPACITY = 10;
 
+    /**
+     * Same as Volley's default number of network threads.
+     */
+    static final int DEFAULT_NETWORK_THREAD_POOL_SIZE = 4;
+
     @NonNull
     private final Map<Request<?>, DelayedRequestHelper> mDelayedRequests;
+    @NonNull
+    private final RequestScheduler mRequestScheduler;
+    private final int mThreadPoolSize;
 
     MoPubRequestQueue(Cache cache, Network network, int threadPoolSize, ResponseDelivery delivery) {
         super(cache, network, threadPoolSize, delivery);
         mDelayedRequests = new HashMap<Request<?>, DelayedRequestHelper>(CAPACITY);
+        mRequestScheduler = new RequestScheduler();
+        mThreadPoolSize = threadPoolSize;
+        addSchedulerFinishedListener();
     }
 
     MoPubRequestQueue(Cache cache, Network network, int threadPoolSize) {
         super(cache, network, threadPoolSize);
         mDelayedRequests = new HashMap<Request<?>, DelayedRequestHelper>(CAPACITY);
+        mRequestScheduler = new RequestScheduler();
+        mThreadPoolSize = threadPoolSize;
+        addSchedulerFinishedListener();
     }
 
     MoPubRequestQueue(Cache cache, Network network) {
-        super(cache, network);
-        mDelayedRequests = new HashMap<Request<?>, DelayedRequestHelper>(CAPACITY);
+        this(cache, network, DEFAULT_NETWORK_THREAD_POOL_SIZE);
+    }
+
+    private void addSchedulerFinishedListener() {
+        addRequestFinishedListener(new RequestFinishedListener<Object>() {
+            @Override
+            public void onRequestFinished(final Request<Object> request) {
+                for (final Request<?> admitted : mRequestScheduler.onFinished(request)) {
+                    MoPubRequestQueue.super.add(admitted);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a request, or holds it back until another request finishes if its priority is at its
+     * concurrency cap.
+     */
+    @Override
+    public <T> Request<T> add(final Request<T> request) {
+        if (request != null && !mRequestScheduler.onAdded(request)) {
+            return request;
+        }
+        return super.add(request);
+    }
+
+    /**
+     * Limits how many requests of a priority are in flight at once. The rest wait in this queue
+     * until requests of the same priority finish.
+     *
+     * @param priority    The priority class.
+     * @param maxInFlight The cap. Must be positive.
+     */
+    public void setMaxInFlight(@NonNull final Request.Priority priority, final int maxInFlight) {
+        mRequestScheduler.setMaxInFlight(priority, maxInFlight);
+    }
+
+    /**
+     * Keeps network threads free for {@link Request.Priority#IMMEDIATE} requests by limiting how
+     * many lower priority requests are in flight at once.
+     *
+     * @param reservedThreads The number of network threads to keep free. At least one thread is
+     *                        always left for the other priorities.
+     */
+    public void setReservedImmediateThreads(final int reservedThreads) {
+        mRequestScheduler.setMaxBackgroundInFlight(
+                Math.max(1, mThreadPoolSize - Math.max(0, reservedThreads)));
+    }
+
+    /**
+     * @param priority The priority class.
+     * @return Queue depth and wait times of the requests with this priority.
+     */
+    @NonNull
+    public RequestQueueMetrics getMetrics(@NonNull final Request.Priority priority) {
+        Preconditions.checkNotNull(priority);
+
+        return mRequestScheduler.getMetrics(priority);
     }
 
     /**
@@ -80,6 +154,7 @@ public class MoPubRequestQueue extends RequestQueue {
         Preconditions.checkNotNull(filter);
 
         super.cancelAll(filter);
+        mRequestScheduler.cancelWaiting(filter);
 
         Iterator<Map.Entry<Request<?>, DelayedRequestHelper>> iterator = mDelayedRequests.entrySet().iterator();
         while (iterator.hasNext()) {
@@ -18,6 +18,7 @@ import com.mopub.volley.DefaultRetryPolicy;
 import com.mopub.volley.NetworkResponse;
 import com.mopub.volley.Response;
 import com.mopub.volley.toolbox.HttpHeaderParser;
+import com.mopub.volley.toolbox.HurlStack;
 
 import static com.mopub.common.logging.MoPubLog.AdLogEvent.CUSTOM;
 
@@ -34,6 +35,19 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
     final String mAdUnitId;
     @NonNull
     private final Context mContext;
+    @Nullable
+    private final MoPubRequestParams mRequestParams;
+
+    // The body is generated once and reused for logging and for sending the request.
+    @Nullable
+    private volatile byte[] mBody;
+    private volatile boolean mBodyGenerated;
+
+    // Set when this request waits on a shared request instead of going to the network itself.
+    @Nullable
+    private volatile SingleFlight<MultiAdResponse>.Call mSingleFlightCall;
+    @Nullable
+    private volatile AdmissionController.Permit mAdmissionPermit;
 
     private int hashCode = 0;
 
@@ -46,6 +60,20 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
                    @Nullable final String adUnitId,
                    @NonNull final Context context,
                    @NonNull final Listener listener) {
+        this(url, null, adFormat, adUnitId, context, listener);
+    }
+
+    /**
+     * @param requestParams The parameters that were used to generate the url. The body is built
+     *                      from these when they belong to the given url. Otherwise, the body is
+     *                      built by parsing the url.
+     */
+    MultiAdRequest(@NonNull final String url,
+                   @Nullable final MoPubRequestParams requestParams,
+                   @NonNull final AdFormat adFormat,
+                   @Nullable final String adUnitId,
+                   @NonNull final Context context,
+                   @NonNull final Listener listener) {
         super(context, clearUrlIfSdkNotInitialized(url), listener);
         Preconditions.checkNotNull(url);
         Preconditions.checkNotNull(adFormat);
@@ -56,6 +84,9 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
         mListener = listener;
         mAdFormat = adFormat;
         mContext = context.getApplicationContext();
+        mRequestParams = (requestParams != null && url.equals(requestParams.getUrl()))
+                ? requestParams
+                : null;
 
         DefaultRetryPolicy retryPolicy = new DefaultRetryPolicy(
                 DefaultRetryPolicy.DEFAULT_TIMEOUT_MS,
@@ -85,6 +116,41 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
         return url;
     }
 
+    @Nullable
+    @Override
+    public byte[] getBody() {
+        if (!mBodyGenerated) {
+            mBody = generateBody();
+            mBodyGenerated = true;
+        }
+        return mBody;
+    }
+
+    @Nullable
+    private byte[] generateBody() {
+        if (mRequestParams == null || !MoPubRequestUtils.isMoPubRequest(getUrl())) {
+            return super.getBody();
+        }
+
+        final HurlStack.UrlRewriter rewriter = Networking.getUrlRewriter(mContext);
+        final String body = mRequestParams.toJsonBody(rewriter instanceof PlayServicesUrlRewriter
+                ? (PlayServicesUrlRewriter) rewriter
+                : null);
+        if (body == null) {
+            return null;
+        }
+        return body.getBytes();
+    }
+
+    /**
+     * Ad requests are for ads the app is waiting on, so they go ahead of everything else on the
+     * request queue.
+     */
+    @Override
+    public Priority getPriority() {
+        return Priority.IMMEDIATE;
+    }
+
     /**
      * Callback from Volley to parse network response
      * @param networkResponse data to be parsed
@@ -118,9 +184,44 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
         }
     }
 
+    /**
+     * Creates a request for the same url, parameters and ad unit that reports to another listener.
+     * Used to start the shared network call when identical ad requests are coalesced.
+     *
+     * @param listener receives the result of the new request
+     * @return a new request equal to this one
+     */
+    @NonNull
+    MultiAdRequest copy(@NonNull final Listener listener) {
+        return new MultiAdRequest(getOriginalUrl(), mRequestParams, mAdFormat, mAdUnitId, mContext,
+                listener);
+    }
+
+    /**
+     * @param call the shared flight this request waits on, cancelled along with this request
+     */
+    void setSingleFlightCall(@Nullable final SingleFlight<MultiAdResponse>.Call call) {
+        mSingleFlightCall = call;
+    }
+
+    /**
+     * @param permit released when this request is cancelled
+     */
+    void setAdmissionPermit(@Nullable final AdmissionController.Permit permit) {
+        mAdmissionPermit = permit;
+    }
+
     @Override
     public void cancel() {
         super.cancel();
+        final SingleFlight<MultiAdResponse>.Call call = mSingleFlightCall;
+        if (call != null) {
+            call.cancel();
+        }
+        final AdmissionController.Permit permit = mAdmissionPermit;
+        if (permit != null) {
+            permit.release();
+        }
     }
 
     @Override
@@ -142,7 +243,7 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
 
         return res == 0
                 && mAdFormat == other.mAdFormat
-                && getUrl().compareTo(other.getUrl()) == 0;
+                && getOriginalUrl().compareTo(other.getOriginalUrl()) == 0;
     }
 
     @Override
@@ -23,13 +23,10 @@ import com.mopub.common.util.Json;
 import com.mopub.common.util.ResponseHeader;
 import com.mopub.mobileads.AdTypeTranslator;
 import com.mopub.volley.NetworkResponse;
-import com.mopub.volley.toolbox.HttpHeaderParser;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -58,6 +55,8 @@ public class MultiAdResponse implements Iterator<AdResponse> {
         void onRequestSuccess(@Nullable final String adUnitId);
     }
 
+    @NonNull
+    private final List<AdResponse> mAdResponses;
     @NonNull
     private final Iterator<AdResponse> mResponseIterator;
 
@@ -85,10 +84,10 @@ public class MultiAdResponse implements Iterator<AdResponse> {
                            @NonNull final AdFormat adFormat,
                            @Nullable final String adUnitId) throws JSONException, MoPubNetworkError {
 
-        // Response Body encoding / decoding
-        final String responseBody = parseStringBody(networkResponse);
+        // Stream the response body instead of building a json tree for all of it
+        final MultiAdResponseReader responseReader = MultiAdResponseReader.read(networkResponse);
 
-        JSONObject jsonObject = new JSONObject(responseBody);
+        final JSONObject jsonObject = responseReader.getHeaders();
         mFailUrl = jsonObject.optString(ResponseHeader.FAIL_URL.getKey());
         String requestId = jsonObject.optString(ResponseHeader.REQUEST_ID.getKey());
 
@@ -127,14 +126,22 @@ public class MultiAdResponse implements Iterator<AdResponse> {
             MoPubLog.setLogLevel(MoPubLog.LogLevel.DEBUG);
         }
 
-        JSONArray adResponses = jsonObject.getJSONArray(ResponseHeader.AD_RESPONSES.getKey());
+        final List<MultiAdResponseReader.Item> adResponses = responseReader.getItems();
         int ADS_PER_RESPONSE = 3;
         List<AdResponse> list = new ArrayList<>(ADS_PER_RESPONSE);
         AdResponse adResponseClear = null;
-        for (int i = 0; i < adResponses.length(); i++) {
+        for (final MultiAdResponseReader.Item item : adResponses) {
             try {
-                JSONObject item = adResponses.getJSONObject(i);
-                AdResponse singleAdResponse = parseSingleAdResponse(appContext, networkResponse, item, adUnitId, adFormat, requestId);
+                if (item == null) {
+                    throw new JSONException("Response item is not a JSONObject.");
+                }
+                if (!(item.mMetadata instanceof JSONObject)) {
+                    throw new JSONException("No JSONObject value for "
+                            + ResponseHeader.METADATA.getKey());
+                }
+                final JSONObject jsonHeaders = (JSONObject) item.mMetadata;
+                AdResponse singleAdResponse = parseSingleAdResponse(appContext, networkResponse,
+                        item.mContent, jsonHeaders, adUnitId, adFormat, requestId, item);
                 if (!AdType.CLEAR.equals(singleAdResponse.getAdType())) {
                     list.add(singleAdResponse);
                     continue;
@@ -143,7 +150,7 @@ public class MultiAdResponse implements Iterator<AdResponse> {
                 // received message 'clear'
                 mFailUrl = "";
                 adResponseClear = singleAdResponse;
-                if (extractWarmup(item)) {
+                if (extractWarmup(jsonHeaders)) {
                     throw new MoPubNetworkError("Server is preparing this Ad Unit.",
                             MoPubNetworkError.Reason.WARMING_UP,
                             adResponseClear.getRefreshTimeMillis());
@@ -152,7 +159,7 @@ public class MultiAdResponse implements Iterator<AdResponse> {
 
             } catch (JSONException ex) {
                 // don't break everything because of single item parsing error
-                MoPubLog.log(CUSTOM, "Invalid response item. Body: " + responseBody);
+                MoPubLog.log(CUSTOM, "Invalid response item. Error: " + ex.getMessage());
             } catch (MoPubNetworkError ex) {
                 if (ex.getReason() == MoPubNetworkError.Reason.WARMING_UP) {
                     throw ex;
@@ -162,6 +169,7 @@ public class MultiAdResponse implements Iterator<AdResponse> {
                 MoPubLog.log(CUSTOM, "Unexpected error parsing response item. " + ex.getMessage());
             }
         }
+        mAdResponses = list;
         mResponseIterator = list.iterator();
 
         // validate if there is any valid ad response
@@ -177,6 +185,23 @@ public class MultiAdResponse implements Iterator<AdResponse> {
         }
     }
 
+    private MultiAdResponse(@NonNull final MultiAdResponse other) {
+        mAdResponses = other.mAdResponses;
+        mResponseIterator = mAdResponses.iterator();
+        mFailUrl = other.mFailUrl;
+    }
+
+    /**
+     * Creates a response with the same ads and fail url that iterates from the first ad. Used to
+     * give every loader that shared one request its own waterfall position.
+     *
+     * @return a new response backed by the same ads
+     */
+    @NonNull
+    MultiAdResponse copy() {
+        return new MultiAdResponse(this);
+    }
+
     @Override
     public boolean hasNext() {
         return mResponseIterator.hasNext();
@@ -222,11 +247,48 @@ public class MultiAdResponse implements Iterator<AdResponse> {
         Preconditions.checkNotNull(jsonObject);
         Preconditions.checkNotNull(adFormat);
 
-        MoPubLog.log(RESPONSE_RECEIVED, jsonObject.toString());
+        final String content = jsonObject.optString(ResponseHeader.CONTENT.getKey());
+        final JSONObject jsonHeaders = jsonObject.optJSONObject(ResponseHeader.METADATA.getKey());
+        if (jsonHeaders == null) {
+            MoPubLog.log(RESPONSE_RECEIVED, jsonObject);
+            throw new JSONException("No JSONObject value for " + ResponseHeader.METADATA.getKey());
+        }
+
+        return parseSingleAdResponse(appContext, networkResponse, content, jsonHeaders, adUnitId,
+                adFormat, requestId, jsonObject);
+    }
+
+    /**
+     * Parse single object {@link AdResponse} from its already extracted content and metadata
+     *
+     * @param appContext      application context
+     * @param networkResponse original Volley network response
+     * @param content         creative content of the item
+     * @param jsonHeaders     metadata of the item
+     * @param adUnitId        request ad unit id
+     * @param adFormat        see {@link AdFormat}
+     * @param requestId       GUID assigned by server
+     * @param loggableItem    logged as the received response. Its toString() is only called
+     *                        when the log level requires it.
+     * @return valid {@link AdResponse} or throws exception
+     * @throws JSONException     when JSON format is broken or critical field is missing
+     * @throws MoPubNetworkError when high level validation failed
+     */
+    @NonNull
+    private static AdResponse parseSingleAdResponse(@NonNull final Context appContext,
+                                                    @NonNull final NetworkResponse networkResponse,
+                                                    @NonNull final String content,
+                                                    @NonNull final JSONObject jsonHeaders,
+                                                    @Nullable final String adUnitId,
+                                                    @NonNull final AdFormat adFormat,
+                                                    @Nullable final String requestId,
+                                                    @NonNull final Object loggableItem) throws JSONException, MoPubNetworkError {
+        Preconditions.checkNotNull(content);
+        Preconditions.checkNotNull(jsonHeaders);
+
+        MoPubLog.log(RESPONSE_RECEIVED, loggableItem);
 
         final AdResponse.Builder builder = new AdResponse.Builder();
-        final String content = jsonObject.optString(ResponseHeader.CONTENT.getKey());
-        final JSONObject jsonHeaders = jsonObject.getJSONObject(ResponseHeader.METADATA.getKey());
 
         builder.setAdUnitId(adUnitId);
 
@@ -240,7 +302,7 @@ public class MultiAdResponse implements Iterator<AdResponse> {
 
         // In the case of a CLEAR response, the REFRESH_TIME header must still be respected. Ensure
         // that it is parsed and passed along to the MoPubNetworkError.
-        final Integer refreshTimeMilliseconds = extractRefreshTimeMS(jsonObject);
+        final Integer refreshTimeMilliseconds = extractRefreshTimeMS(jsonHeaders);
         builder.setRefreshTimeMilliseconds(refreshTimeMilliseconds);
 
         if (AdType.CLEAR.equals(adTypeString)) {
@@ -445,41 +507,25 @@ public class MultiAdResponse implements Iterator<AdResponse> {
     }
 
     /**
-     * Extract parameter 'x-refreshtime' from ad JSON
+     * Extract parameter 'x-refreshtime' from ad metadata
      *
-     * @param item server data in JSON format
+     * @param jsonHeaders ad metadata in JSON format
      * @return refresh time in milliseconds
-     * @throws JSONException when JSON key is not found
      */
     @Nullable
-    private static Integer extractRefreshTimeMS(@NonNull final JSONObject item) throws JSONException {
-        Preconditions.checkNotNull(item);
+    private static Integer extractRefreshTimeMS(@NonNull final JSONObject jsonHeaders) {
+        Preconditions.checkNotNull(jsonHeaders);
 
-        final JSONObject jsonHeaders = item.getJSONObject(ResponseHeader.METADATA.getKey());
         final Integer refreshTimeSeconds = extractIntegerHeader(jsonHeaders, ResponseHeader.REFRESH_TIME);
         return refreshTimeSeconds == null ? null : refreshTimeSeconds * 1000;
     }
 
-    private static boolean extractWarmup(@NonNull final JSONObject item) {
-        Preconditions.checkNotNull(item);
+    private static boolean extractWarmup(@NonNull final JSONObject jsonHeaders) {
+        Preconditions.checkNotNull(jsonHeaders);
 
-        final JSONObject jsonHeaders = item.optJSONObject(ResponseHeader.METADATA.getKey());
         return extractBooleanHeader(jsonHeaders, ResponseHeader.WARMUP, false);
     }
 
-    // Based on Volley's StringResponse class.
-    private static String parseStringBody(@NonNull final NetworkResponse response) {
-        Preconditions.checkNotNull(response);
-
-        String parsed;
-        try {
-            parsed = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
-        } catch (UnsupportedEncodingException e) {
-            parsed = new String(response.data);
-        }
-        return parsed;
-    }
-
     private static boolean eventDataIsInResponseBody(@Nullable final String adType,
                                                      @Nullable final String fullAdType) {
         return AdType.MRAID.equals(adType) || AdType.HTML.equals(adType) ||
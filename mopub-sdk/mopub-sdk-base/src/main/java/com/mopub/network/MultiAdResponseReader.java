@@ -0,0 +1,238 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.util.ResponseHeader;
+import com.mopub.volley.NetworkResponse;
+import com.mopub.volley.toolbox.HttpHeaderParser;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull parser for the multi ad response. The top level headers and each item's metadata are
+ * small and are read into {@link JSONObject}s so the {@link HeaderUtils} helpers can be used on
+ * them. Each item's content, which holds the creative and can be very large, is read straight
+ * from the response bytes into a single String without building a json tree for the whole body.
+ */
+class MultiAdResponseReader {
+
+    /**
+     * A single element of the ad-responses array.
+     */
+    static class Item {
+        @NonNull final String mContent;
+        @Nullable final Object mMetadata;
+
+        Item(@NonNull final String content, @Nullable final Object metadata) {
+            mContent = content;
+            mMetadata = metadata;
+        }
+
+        /**
+         * Used to log the item. The json string is only built when a logger actually formats
+         * the message.
+         */
+        @Override
+        public String toString() {
+            final JSONObject jsonObject = new JSONObject();
+            try {
+                jsonObject.put(ResponseHeader.CONTENT.getKey(), mContent);
+                jsonObject.putOpt(ResponseHeader.METADATA.getKey(), mMetadata);
+            } catch (JSONException e) {
+                return mContent;
+            }
+            return jsonObject.toString();
+        }
+    }
+
+    @NonNull private final JSONObject mHeaders;
+    @NonNull private final List<Item> mItems;
+
+    private MultiAdResponseReader(@NonNull final JSONObject headers,
+            @NonNull final List<Item> items) {
+        mHeaders = headers;
+        mItems = items;
+    }
+
+    /**
+     * @return All top level values except the ad-responses array.
+     */
+    @NonNull
+    JSONObject getHeaders() {
+        return mHeaders;
+    }
+
+    /**
+     * @return The elements of the ad-responses array. Elements that are not json objects are null.
+     */
+    @NonNull
+    List<Item> getItems() {
+        return mItems;
+    }
+
+    /**
+     * Reads the multi ad response from the body of the network response.
+     *
+     * @param networkResponse Volley network response
+     * @return the parsed response
+     * @throws JSONException when the body is not a json object or has no ad-responses array
+     */
+    @NonNull
+    static MultiAdResponseReader read(@NonNull final NetworkResponse networkResponse)
+            throws JSONException {
+        Preconditions.checkNotNull(networkResponse);
+
+        final byte[] data = networkResponse.data == null ? new byte[0] : networkResponse.data;
+        final JsonReader reader = new JsonReader(createReader(new ByteArrayInputStream(data),
+                HttpHeaderParser.parseCharset(networkResponse.headers)));
+        try {
+            return read(reader);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new JSONException("Unable to parse multi ad response: " + e.getMessage());
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // Nothing to clean up for an in-memory stream
+            }
+        }
+    }
+
+    // Based on Volley's StringResponse class.
+    @NonNull
+    private static Reader createReader(@NonNull final InputStream inputStream,
+            @NonNull final String charset) {
+        try {
+            return new InputStreamReader(inputStream, charset);
+        } catch (UnsupportedEncodingException e) {
+            return new InputStreamReader(inputStream);
+        }
+    }
+
+    @NonNull
+    private static MultiAdResponseReader read(@NonNull final JsonReader reader)
+            throws IOException, JSONException {
+        final JSONObject headers = new JSONObject();
+        List<Item> items = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (ResponseHeader.AD_RESPONSES.getKey().equals(name)) {
+                if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    throw new JSONException(name + " is not a JSONArray.");
+                }
+                items = readItems(reader);
+            } else {
+                headers.put(name, readValue(reader));
+            }
+        }
+        reader.endObject();
+
+        if (items == null) {
+            throw new JSONException("No value for " + ResponseHeader.AD_RESPONSES.getKey());
+        }
+        return new MultiAdResponseReader(headers, items);
+    }
+
+    @NonNull
+    private static List<Item> readItems(@NonNull final JsonReader reader)
+            throws IOException, JSONException {
+        final List<Item> items = new ArrayList<>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                items.add(null);
+                continue;
+            }
+            items.add(readItem(reader));
+        }
+        reader.endArray();
+
+        return items;
+    }
+
+    @NonNull
+    private static Item readItem(@NonNull final JsonReader reader)
+            throws IOException, JSONException {
+        String content = "";
+        Object metadata = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (ResponseHeader.CONTENT.getKey().equals(name)) {
+                content = reader.peek() == JsonToken.STRING
+                        ? reader.nextString()
+                        : String.valueOf(readValue(reader));
+            } else if (ResponseHeader.METADATA.getKey().equals(name)) {
+                metadata = readValue(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Item(content, metadata);
+    }
+
+    /**
+     * Reads the next value into the same types {@link JSONObject} would have created.
+     */
+    @NonNull
+    private static Object readValue(@NonNull final JsonReader reader)
+            throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                final JSONObject jsonObject = new JSONObject();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    jsonObject.put(reader.nextName(), readValue(reader));
+                }
+                reader.endObject();
+                return jsonObject;
+            case BEGIN_ARRAY:
+                final JSONArray jsonArray = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    jsonArray.put(readValue(reader));
+                }
+                reader.endArray();
+                return jsonArray;
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                // Keep the numeric type identical to what JSONObject would produce
+                return new JSONTokener(reader.nextString()).nextValue();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                throw new JSONException("Unexpected token " + reader.peek());
+        }
+    }
+}
@@ -6,6 +6,7 @@ package com.mopub.network;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.net.SSLSessionCache;
 import android.os.Build;
 import android.os.Looper;
 import android.support.annotation.NonNull;
@@ -16,21 +17,24 @@ import android.webkit.WebSettings;
 import android.webkit.WebView;
 
 import com.mopub.common.Constants;
+import com.mopub.common.DiskCacheBudget;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.DeviceUtils;
-import com.mopub.volley.Cache;
 import com.mopub.volley.Network;
+import com.mopub.volley.Request;
 import com.mopub.volley.RequestQueue;
 import com.mopub.volley.toolbox.BaseHttpStack;
 import com.mopub.volley.toolbox.BasicNetwork;
-import com.mopub.volley.toolbox.DiskBasedCache;
 import com.mopub.volley.toolbox.HurlStack;
 import com.mopub.volley.toolbox.ImageLoader;
+import com.mopub.volley.toolbox.NoCache;
 
 import java.io.File;
+import java.net.URLConnection;
 
+import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLSocketFactory;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
@@ -38,6 +42,14 @@ import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 public class Networking {
     @VisibleForTesting
     static final String CACHE_DIRECTORY_NAME = "mopub-volley-cache";
+    // Tracking pixels get a small pool of their own so they never occupy the ad request threads
+    private static final int TRACKING_THREAD_POOL_SIZE = 2;
+    // Concurrency caps for the ad request queue. Ad requests use IMMEDIATE and are not capped,
+    // creative assets such as images use HIGH, and syncs, positioning and the rest use NORMAL.
+    private static final int MAX_HIGH_PRIORITY_IN_FLIGHT = 2;
+    private static final int MAX_NORMAL_PRIORITY_IN_FLIGHT = 2;
+    private static final int MAX_LOW_PRIORITY_IN_FLIGHT = 1;
+    private static final int RESERVED_IMMEDIATE_THREADS = 1;
     @NonNull private static final String DEFAULT_USER_AGENT;
 
     static {
@@ -54,8 +66,13 @@ public class Networking {
     // See https://en.wikipedia.org/wiki/Double-checked_locking#Usage_in_Java
     // for more information.
     private volatile static MoPubRequestQueue sRequestQueue;
+    private volatile static MoPubRequestQueue sTrackingRequestQueue;
+    private volatile static TrackingDispatcher sTrackingDispatcher;
     private volatile static String sUserAgent;
     private volatile static MaxWidthImageLoader sMaxWidthImageLoader;
+    private volatile static BaseHttpStack sHttpStack;
+    private volatile static SSLSocketFactory sSslSocketFactory;
+    private volatile static AdmissionController sAdmissionController;
     private static boolean sUseHttps = false;
     private static HurlStack.UrlRewriter sUrlRewriter;
 
@@ -84,19 +101,19 @@ public class Networking {
                 requestQueue = sRequestQueue;
                 if (requestQueue == null) {
 
-                    final SSLSocketFactory socketFactory = CustomSSLSocketFactory.getDefault(Constants.TEN_SECONDS_MILLIS);
-
-                    final String userAgent = Networking.getUserAgent(
-                            context.getApplicationContext());
-                    final BaseHttpStack httpStack = new RequestQueueHttpStack(userAgent,
-                            getUrlRewriter(context), socketFactory);
-
-                    final Network network = new BasicNetwork(httpStack);
+                    final Network network = createNetwork(context);
                     final File volleyCacheDir = new File(context.getCacheDir().getPath() +
                             File.separator + CACHE_DIRECTORY_NAME);
-                    final Cache cache = new DiskBasedCache(volleyCacheDir,
-                            (int) DeviceUtils.diskCacheSizeBytes(volleyCacheDir, Constants.TEN_MB));
+                    final DiskCacheBudget diskCacheBudget = DiskCacheBudget.getInstance();
+                    final BudgetedDiskBasedCache cache = new BudgetedDiskBasedCache(volleyCacheDir,
+                            diskCacheBudget.getInitialMaxSize(volleyCacheDir));
+                    diskCacheBudget.register(DiskCacheBudget.VOLLEY, cache);
                     requestQueue = new MoPubRequestQueue(cache, network);
+                    requestQueue.setMaxInFlight(Request.Priority.HIGH, MAX_HIGH_PRIORITY_IN_FLIGHT);
+                    requestQueue.setMaxInFlight(Request.Priority.NORMAL,
+                            MAX_NORMAL_PRIORITY_IN_FLIGHT);
+                    requestQueue.setMaxInFlight(Request.Priority.LOW, MAX_LOW_PRIORITY_IN_FLIGHT);
+                    requestQueue.setReservedImmediateThreads(RESERVED_IMMEDIATE_THREADS);
                     sRequestQueue = requestQueue;
                     requestQueue.start();
                 }
@@ -106,6 +123,148 @@ public class Networking {
         return requestQueue;
     }
 
+    /**
+     * The request queue for tracking pixels. Tracking responses are never cached, and the queue
+     * has its own dispatcher threads so pixels do not compete with ad requests.
+     */
+    @NonNull
+    static MoPubRequestQueue getTrackingRequestQueue(@NonNull final Context context) {
+        MoPubRequestQueue requestQueue = sTrackingRequestQueue;
+        // Double-check locking to initialize.
+        if (requestQueue == null) {
+            synchronized (Networking.class) {
+                requestQueue = sTrackingRequestQueue;
+                if (requestQueue == null) {
+                    requestQueue = new MoPubRequestQueue(new NoCache(), createNetwork(context),
+                            TRACKING_THREAD_POOL_SIZE);
+                    sTrackingRequestQueue = requestQueue;
+                    requestQueue.start();
+                }
+            }
+        }
+
+        return requestQueue;
+    }
+
+    @NonNull
+    static TrackingDispatcher getTrackingDispatcher(@NonNull final Context context) {
+        TrackingDispatcher trackingDispatcher = sTrackingDispatcher;
+        // Double-check locking to initialize.
+        if (trackingDispatcher == null) {
+            synchronized (Networking.class) {
+                trackingDispatcher = sTrackingDispatcher;
+                if (trackingDispatcher == null) {
+                    trackingDispatcher = new TrackingDispatcher(context,
+                            getTrackingRequestQueue(context));
+                    sTrackingDispatcher = trackingDispatcher;
+                }
+            }
+        }
+
+        return trackingDispatcher;
+    }
+
+    @NonNull
+    private static Network createNetwork(@NonNull final Context context) {
+        return new BasicNetwork(getHttpStack(context));
+    }
+
+    /**
+     * The http stack shared by all request queues, so they share pooled connections and TLS
+     * sessions.
+     */
+    @NonNull
+    static BaseHttpStack getHttpStack(@NonNull final Context context) {
+        BaseHttpStack httpStack = sHttpStack;
+        // Double-check locking to initialize.
+        if (httpStack == null) {
+            synchronized (Networking.class) {
+                httpStack = sHttpStack;
+                if (httpStack == null) {
+                    final String userAgent = Networking.getUserAgent(
+                            context.getApplicationContext());
+                    httpStack = new RequestQueueHttpStack(userAgent, getUrlRewriter(context),
+                            getSslSocketFactory(context));
+                    sHttpStack = httpStack;
+                }
+            }
+        }
+
+        return httpStack;
+    }
+
+    /**
+     * Replaces the http stack used by the SDK's request queues, for example with one that
+     * supports HTTP/2. This must be called before the SDK is initialized, since the queues keep
+     * the stack they were created with. The stack is responsible for setting the User-Agent from
+     * {@link #getUserAgent(Context)}.
+     *
+     * @param httpStack The stack to use, or null to use the default stack.
+     */
+    public static synchronized void setHttpStack(@Nullable final BaseHttpStack httpStack) {
+        sHttpStack = httpStack;
+    }
+
+    @NonNull
+    static SSLSocketFactory getSslSocketFactory(@NonNull final Context context) {
+        SSLSocketFactory socketFactory = sSslSocketFactory;
+        // Double-check locking to initialize.
+        if (socketFactory == null) {
+            synchronized (Networking.class) {
+                socketFactory = sSslSocketFactory;
+                if (socketFactory == null) {
+                    SSLSessionCache sessionCache = null;
+                    try {
+                        sessionCache = new SSLSessionCache(context.getApplicationContext());
+                    } catch (Exception e) {
+                        MoPubLog.log(CUSTOM, "Unable to create the TLS session cache.");
+                    }
+                    socketFactory = CustomSSLSocketFactory.getDefault(
+                            Constants.TEN_SECONDS_MILLIS, sessionCache);
+                    sSslSocketFactory = socketFactory;
+                }
+            }
+        }
+
+        return socketFactory;
+    }
+
+    /**
+     * Makes an https connection opened outside of the request queues use the request queues'
+     * TLS socket factory, so it can reuse their pooled connections and TLS sessions. Does nothing
+     * before the request queue has been created.
+     *
+     * @param urlConnection The connection to update before it connects.
+     */
+    public static void useSharedSslSocketFactory(@NonNull final URLConnection urlConnection) {
+        Preconditions.checkNotNull(urlConnection);
+
+        final SSLSocketFactory socketFactory = sSslSocketFactory;
+        if (socketFactory != null && urlConnection instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) urlConnection).setSSLSocketFactory(socketFactory);
+        }
+    }
+
+    /**
+     * The admission controller that all ad loads go through.
+     */
+    @NonNull
+    public static AdmissionController getAdmissionController() {
+        AdmissionController admissionController = sAdmissionController;
+        // Double-check locking to initialize.
+        if (admissionController == null) {
+            synchronized (Networking.class) {
+                admissionController = sAdmissionController;
+                if (admissionController == null) {
+                    admissionController = new AdmissionController();
+                    sAdmissionController = admissionController;
+                }
+            }
+        }
+
+        return admissionController;
+    }
+
     @NonNull
     public static ImageLoader getImageLoader(@NonNull Context context) {
         MaxWidthImageLoader imageLoader = sMaxWidthImageLoader;
@@ -202,13 +361,25 @@ public class Networking {
     @VisibleForTesting
     public static synchronized void clearForTesting() {
         sRequestQueue = null;
+        sTrackingRequestQueue = null;
+        sTrackingDispatcher = null;
         sMaxWidthImageLoader = null;
+        sHttpStack = null;
+        sSslSocketFactory = null;
+        sAdmissionController = null;
         sUserAgent = null;
     }
 
+    /**
+     * Tracking pixels are sent on the same queue in tests, so tests can verify them on it. Ad
+     * admission starts over with the new queue, since requests on the old one never finish.
+     */
     @VisibleForTesting
     public static synchronized void setRequestQueueForTesting(MoPubRequestQueue queue) {
         sRequestQueue = queue;
+        sTrackingRequestQueue = queue;
+        sTrackingDispatcher = null;
+        sAdmissionController = null;
     }
 
     @VisibleForTesting
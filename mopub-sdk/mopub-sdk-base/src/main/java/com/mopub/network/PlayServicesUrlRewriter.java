@@ -5,6 +5,7 @@
 package com.mopub.network;
 
 import android.net.Uri;
+import android.support.annotation.NonNull;
 
 import com.mopub.common.ClientMetadata;
 import com.mopub.common.MoPub;
@@ -42,4 +43,33 @@ public class PlayServicesUrlRewriter implements HurlStack.UrlRewriter {
         toReturn = toReturn.replace(MOPUB_ID_TEMPLATE,  Uri.encode(info.getIdentifier(false)));
         return toReturn;
     }
+
+    /**
+     * Replaces a single unencoded parameter value if it is one of the MoPub templates. Used when
+     * the request body is built directly from {@link MoPubRequestParams}.
+     *
+     * @param value The unencoded parameter value.
+     * @return The resolved value, or the original value if it is not a template.
+     */
+    @NonNull
+    public String rewriteValue(@NonNull final String value) {
+        if (!UDID_TEMPLATE.equals(value)
+                && !DO_NOT_TRACK_TEMPLATE.equals(value)
+                && !MOPUB_ID_TEMPLATE.equals(value)) {
+            return value;
+        }
+
+        ClientMetadata clientMetadata = ClientMetadata.getInstance();
+        if (clientMetadata == null) {
+            return value;
+        }
+        AdvertisingId info = clientMetadata.getMoPubIdentifier().getAdvertisingInfo();
+        if (UDID_TEMPLATE.equals(value)) {
+            return info.getIdWithPrefix(MoPub.canCollectPersonalInformation());
+        }
+        if (DO_NOT_TRACK_TEMPLATE.equals(value)) {
+            return info.isDoNotTrack() ? "1" : "0";
+        }
+        return info.getIdentifier(false);
+    }
 }
@@ -7,26 +7,59 @@ package com.mopub.network;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
 import com.mopub.common.util.ResponseHeader;
 import com.mopub.volley.AuthFailureError;
+import com.mopub.volley.Header;
+import com.mopub.volley.NetworkResponse;
 import com.mopub.volley.Request;
+import com.mopub.volley.Response;
+import com.mopub.volley.toolbox.BaseHttpStack;
 import com.mopub.volley.toolbox.HttpResponse;
 import com.mopub.volley.toolbox.HurlStack;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.net.ssl.SSLSocketFactory;
 
 /**
  * Modified Volley HurlStack with explicitly specified User-Agent.
  *
- * Used by Networking's singleton RequestQueue to ensure all network requests use WebView's
- * User-Agent.
+ * Used by Networking's RequestQueues to ensure all network requests use WebView's User-Agent.
+ * Responses are requested with gzip or deflate compression and decompressed here, and request
+ * bodies sent to the ad server can optionally be gzipped. Connections are kept alive in the
+ * platform's connection pool, and the request queues share them because they share this stack
+ * and its socket factory.
+ *
+ * This stack only speaks HTTP/1.1. Apps that want HTTP/2 can plug in their own
+ * {@link BaseHttpStack} with {@link Networking#setHttpStack(BaseHttpStack)}.
  */
 public class RequestQueueHttpStack extends HurlStack {
+    @VisibleForTesting
+    static final String CONTENT_ENCODING = "Content-Encoding";
+    @VisibleForTesting
+    static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+    private static final String ACCEPTED_ENCODINGS = GZIP + ", " + DEFLATE;
+
+    // Ad request bodies smaller than this do not shrink enough to be worth compressing
+    @VisibleForTesting
+    static final int MIN_COMPRESSED_BODY_BYTES = 1024;
+
     @NonNull private final String mUserAgent;
+    private volatile boolean mCompressRequestBodies;
 
     public RequestQueueHttpStack(@NonNull final String userAgent) {
         this(userAgent, null);
@@ -39,10 +72,19 @@ public class RequestQueueHttpStack extends HurlStack {
     public RequestQueueHttpStack(@NonNull final String userAgent, @Nullable final UrlRewriter urlRewriter,
                                  @Nullable final SSLSocketFactory sslSocketFactory) {
         super(urlRewriter, sslSocketFactory);
+        Preconditions.checkNotNull(userAgent);
 
         mUserAgent = userAgent;
     }
 
+    /**
+     * Gzips POST bodies of at least {@link #MIN_COMPRESSED_BODY_BYTES} sent to the ad server.
+     * Only enable this for servers that accept gzip encoded request bodies.
+     */
+    public void setCompressRequestBodies(final boolean compressRequestBodies) {
+        mCompressRequestBodies = compressRequestBodies;
+    }
+
     @Override
     public HttpResponse executeRequest(@NonNull final Request<?> request,
             @Nullable Map<String, String> additionalHeaders) throws IOException, AuthFailureError {
@@ -53,7 +95,164 @@ public class RequestQueueHttpStack extends HurlStack {
         }
 
         additionalHeaders.put(ResponseHeader.USER_AGENT.getKey(), mUserAgent);
+        // Asking explicitly also turns off the platform's transparent gzip, so the encoding is
+        // always handled here.
+        if (!containsHeader(request.getHeaders(), ACCEPT_ENCODING)
+                && !containsHeader(additionalHeaders, ACCEPT_ENCODING)) {
+            additionalHeaders.put(ACCEPT_ENCODING, ACCEPTED_ENCODINGS);
+        }
+
+        final HttpResponse response = super.executeRequest(
+                compressBodyIfNeeded(request), additionalHeaders);
+
+        final InputStream content = response.getContent();
+        final String contentEncoding = getContentEncoding(response.getHeaders());
+        if (content == null || response.getContentLength() == 0
+                || !(GZIP.equalsIgnoreCase(contentEncoding)
+                || DEFLATE.equalsIgnoreCase(contentEncoding))) {
+            return response;
+        }
+
+        final InputStream decoded;
+        try {
+            decoded = decode(content, contentEncoding);
+        } catch (IOException e) {
+            content.close();
+            throw e;
+        }
+        return new HttpResponse(response.getStatusCode(),
+                removeEncodingHeaders(response.getHeaders()), -1, decoded);
+    }
 
-        return super.executeRequest(request, additionalHeaders);
+    @NonNull
+    private Request<?> compressBodyIfNeeded(@NonNull final Request<?> request)
+            throws AuthFailureError, IOException {
+        if (!mCompressRequestBodies) {
+            return request;
+        }
+        final int method = request.getMethod();
+        if (method != Request.Method.POST && method != Request.Method.PUT
+                && method != Request.Method.PATCH) {
+            return request;
+        }
+        final byte[] body = request.getBody();
+        if (body == null || !shouldCompressBody(request.getUrl(), body)) {
+            return request;
+        }
+        return new GzipBodyRequest(request, gzip(body));
+    }
+
+    @VisibleForTesting
+    boolean shouldCompressBody(@NonNull final String url, @NonNull final byte[] body) {
+        return mCompressRequestBodies
+                && body.length >= MIN_COMPRESSED_BODY_BYTES
+                && MoPubRequestUtils.isMoPubRequest(url);
+    }
+
+    @NonNull
+    @VisibleForTesting
+    static byte[] gzip(@NonNull final byte[] body) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4);
+        final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+        try {
+            gzipOutputStream.write(body);
+        } finally {
+            gzipOutputStream.close();
+        }
+        return outputStream.toByteArray();
+    }
+
+    @NonNull
+    @VisibleForTesting
+    static InputStream decode(@NonNull final InputStream inputStream,
+            @Nullable final String contentEncoding) throws IOException {
+        if (GZIP.equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(inputStream);
+        }
+        if (DEFLATE.equalsIgnoreCase(contentEncoding)) {
+            return new InflaterInputStream(inputStream);
+        }
+        return inputStream;
+    }
+
+    private static boolean containsHeader(@NonNull final Map<String, String> headers,
+            @NonNull final String name) {
+        for (final String key : headers.keySet()) {
+            if (name.equalsIgnoreCase(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private static String getContentEncoding(@NonNull final List<Header> headers) {
+        for (final Header header : headers) {
+            if (CONTENT_ENCODING.equalsIgnoreCase(header.getName())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops the content encoding and length headers, which describe the compressed bytes rather
+     * than the decompressed body.
+     */
+    @NonNull
+    @VisibleForTesting
+    static List<Header> removeEncodingHeaders(@NonNull final List<Header> headers) {
+        final List<Header> headerList = new ArrayList<Header>(headers.size());
+        for (final Header header : headers) {
+            final String name = header.getName();
+            if (CONTENT_ENCODING.equalsIgnoreCase(name) || CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                continue;
+            }
+            headerList.add(header);
+        }
+        return headerList;
+    }
+
+    /**
+     * Sends another request with a gzipped body. HurlStack writes whatever body the request
+     * returns, so this is how a body is compressed without changing how it is sent.
+     */
+    private static class GzipBodyRequest extends Request<Void> {
+        @NonNull private final Request<?> mRequest;
+        @NonNull private final byte[] mBody;
+
+        GzipBodyRequest(@NonNull final Request<?> request, @NonNull final byte[] body) {
+            super(request.getMethod(), request.getUrl(), null);
+            mRequest = request;
+            mBody = body;
+            // Keeps the timeout of the original request
+            setRetryPolicy(request.getRetryPolicy());
+        }
+
+        @Override
+        public Map<String, String> getHeaders() throws AuthFailureError {
+            final Map<String, String> headers = new TreeMap<String, String>(mRequest.getHeaders());
+            headers.put(CONTENT_ENCODING, GZIP);
+            return headers;
+        }
+
+        @Override
+        public String getBodyContentType() {
+            return mRequest.getBodyContentType();
+        }
+
+        @Override
+        public byte[] getBody() {
+            return mBody;
+        }
+
+        @Override
+        protected Response<Void> parseNetworkResponse(final NetworkResponse response) {
+            return null;
+        }
+
+        @Override
+        protected void deliverResponse(final Void response) {
+        }
     }
 }
@@ -0,0 +1,86 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.support.annotation.NonNull;
+
+import com.mopub.volley.Request;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of the scheduling state of one priority class of a {@link MoPubRequestQueue}.
+ */
+public class RequestQueueMetrics {
+    @NonNull private final Request.Priority mPriority;
+    private final int mInFlightCount;
+    private final int mWaitingCount;
+    private final long mAdmittedCount;
+    private final long mTotalWaitMs;
+    private final long mMaxWaitMs;
+
+    RequestQueueMetrics(@NonNull final Request.Priority priority, final int inFlightCount,
+            final int waitingCount, final long admittedCount, final long totalWaitMs,
+            final long maxWaitMs) {
+        mPriority = priority;
+        mInFlightCount = inFlightCount;
+        mWaitingCount = waitingCount;
+        mAdmittedCount = admittedCount;
+        mTotalWaitMs = totalWaitMs;
+        mMaxWaitMs = maxWaitMs;
+    }
+
+    @NonNull
+    public Request.Priority getPriority() {
+        return mPriority;
+    }
+
+    /**
+     * @return Requests handed to the network or cache dispatchers that have not finished yet.
+     */
+    public int getInFlightCount() {
+        return mInFlightCount;
+    }
+
+    /**
+     * @return Requests held back because their class is at its concurrency cap.
+     */
+    public int getWaitingCount() {
+        return mWaitingCount;
+    }
+
+    /**
+     * @return The queue depth of this class, in flight and waiting.
+     */
+    public int getQueueDepth() {
+        return mInFlightCount + mWaitingCount;
+    }
+
+    /**
+     * @return Requests handed to the dispatchers since the queue was created.
+     */
+    public long getAdmittedCount() {
+        return mAdmittedCount;
+    }
+
+    /**
+     * @return Average time requests were held back before being handed to the dispatchers.
+     */
+    public long getAverageWaitMs() {
+        return mAdmittedCount == 0 ? 0 : mTotalWaitMs / mAdmittedCount;
+    }
+
+    public long getMaxWaitMs() {
+        return mMaxWaitMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s: inFlight=%d waiting=%d admitted=%d avgWaitMs=%d maxWaitMs=%d",
+                mPriority, mInFlightCount, mWaitingCount, mAdmittedCount, getAverageWaitMs(),
+                mMaxWaitMs);
+    }
+}
@@ -16,7 +16,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Singleton to cache ad request rate limit time interval and reason.
+ * Singleton to cache ad request rate limit time interval and reason. The interval is also
+ * passed on to the {@link AdmissionController}, which paces requests once the limit has ended.
  */
 public class RequestRateTracker {
 
@@ -61,6 +62,7 @@ public class RequestRateTracker {
 
         if (blockIntervalMs != null && blockIntervalMs > 0) {
             mTimeRecordMap.put(adUnit, new TimeRecord(blockIntervalMs, reason));
+            Networking.getAdmissionController().onServerBackoff(adUnit, blockIntervalMs);
         } else {
             mTimeRecordMap.remove(adUnit);
         }
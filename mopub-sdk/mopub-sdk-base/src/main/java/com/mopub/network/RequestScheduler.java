@@ -0,0 +1,207 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.volley.Request;
+import com.mopub.volley.RequestQueue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides when the requests of a {@link MoPubRequestQueue} are handed to Volley's dispatchers.
+ *
+ * Volley already takes requests off its queue in {@link Request.Priority} order, but once all
+ * network threads are busy with a burst of low priority requests, a high priority request still
+ * has to wait for one of them to finish. The scheduler caps how many requests of each priority
+ * can be in flight, and can keep network threads free for {@link Request.Priority#IMMEDIATE}
+ * requests. Requests over their cap wait here, first in first out within a priority, and are
+ * released as others finish.
+ *
+ * All methods are synchronized. Callers must hand the returned requests to Volley outside of
+ * their own locks.
+ */
+class RequestScheduler {
+
+    private static class PriorityClass {
+        int mMaxInFlight = Integer.MAX_VALUE;
+        int mInFlight;
+        @NonNull final ArrayDeque<Request<?>> mWaiting = new ArrayDeque<>();
+        long mAdmittedCount;
+        long mTotalWaitMs;
+        long mMaxWaitMs;
+    }
+
+    // Highest priority first
+    private static final Request.Priority[] PRIORITIES = {
+            Request.Priority.IMMEDIATE,
+            Request.Priority.HIGH,
+            Request.Priority.NORMAL,
+            Request.Priority.LOW
+    };
+
+    @NonNull private final Map<Request.Priority, PriorityClass> mClasses =
+            new EnumMap<>(Request.Priority.class);
+    // Identity maps, since some requests consider each other equal when they share a url
+    @NonNull private final Map<Request<?>, Request.Priority> mInFlightRequests =
+            new IdentityHashMap<>();
+    @NonNull private final Map<Request<?>, Long> mWaitingSince = new IdentityHashMap<>();
+    private int mMaxBackgroundInFlight = Integer.MAX_VALUE;
+    private int mBackgroundInFlight;
+
+    RequestScheduler() {
+        for (final Request.Priority priority : PRIORITIES) {
+            mClasses.put(priority, new PriorityClass());
+        }
+    }
+
+    /**
+     * Limits how many requests of a priority can be in flight at once.
+     */
+    synchronized void setMaxInFlight(@NonNull final Request.Priority priority,
+            final int maxInFlight) {
+        Preconditions.checkNotNull(priority);
+        Preconditions.checkArgument(maxInFlight > 0, "maxInFlight must be positive");
+
+        mClasses.get(priority).mMaxInFlight = maxInFlight;
+    }
+
+    /**
+     * Limits how many requests below {@link Request.Priority#IMMEDIATE} can be in flight at once,
+     * across all their priorities.
+     */
+    synchronized void setMaxBackgroundInFlight(final int maxBackgroundInFlight) {
+        Preconditions.checkArgument(maxBackgroundInFlight > 0,
+                "maxBackgroundInFlight must be positive");
+
+        mMaxBackgroundInFlight = maxBackgroundInFlight;
+    }
+
+    /**
+     * Called when a request is added to the queue.
+     *
+     * @return true if the request can be handed to the dispatchers now, false if it has to wait.
+     */
+    synchronized boolean onAdded(@NonNull final Request<?> request) {
+        Preconditions.checkNotNull(request);
+
+        final Request.Priority priority = getPriority(request);
+        final PriorityClass priorityClass = mClasses.get(priority);
+        if (priorityClass.mWaiting.isEmpty() && canAdmit(priority)) {
+            admit(request, priority, 0);
+            return true;
+        }
+
+        priorityClass.mWaiting.add(request);
+        mWaitingSince.put(request, SystemClock.elapsedRealtime());
+        return false;
+    }
+
+    /**
+     * Called when a request that was handed to the dispatchers has finished.
+     *
+     * @return The waiting requests that can be handed to the dispatchers now.
+     */
+    @NonNull
+    synchronized List<Request<?>> onFinished(@NonNull final Request<?> request) {
+        Preconditions.checkNotNull(request);
+
+        final Request.Priority priority = mInFlightRequests.remove(request);
+        if (priority == null) {
+            return new ArrayList<>();
+        }
+
+        mClasses.get(priority).mInFlight--;
+        if (priority != Request.Priority.IMMEDIATE) {
+            mBackgroundInFlight--;
+        }
+        return admitWaiting();
+    }
+
+    /**
+     * Removes and cancels the waiting requests matching the filter.
+     */
+    synchronized void cancelWaiting(@NonNull final RequestQueue.RequestFilter filter) {
+        Preconditions.checkNotNull(filter);
+
+        for (final PriorityClass priorityClass : mClasses.values()) {
+            final Iterator<Request<?>> iterator = priorityClass.mWaiting.iterator();
+            while (iterator.hasNext()) {
+                final Request<?> request = iterator.next();
+                if (filter.apply(request)) {
+                    request.cancel();
+                    mWaitingSince.remove(request);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @NonNull
+    synchronized RequestQueueMetrics getMetrics(@NonNull final Request.Priority priority) {
+        Preconditions.checkNotNull(priority);
+
+        final PriorityClass priorityClass = mClasses.get(priority);
+        return new RequestQueueMetrics(priority, priorityClass.mInFlight,
+                priorityClass.mWaiting.size(), priorityClass.mAdmittedCount,
+                priorityClass.mTotalWaitMs, priorityClass.mMaxWaitMs);
+    }
+
+    @NonNull
+    private List<Request<?>> admitWaiting() {
+        final List<Request<?>> admitted = new ArrayList<>();
+        final long now = SystemClock.elapsedRealtime();
+        for (final Request.Priority priority : PRIORITIES) {
+            final PriorityClass priorityClass = mClasses.get(priority);
+            while (!priorityClass.mWaiting.isEmpty() && canAdmit(priority)) {
+                final Request<?> request = priorityClass.mWaiting.poll();
+                final Long waitingSince = mWaitingSince.remove(request);
+                if (request.isCanceled()) {
+                    continue;
+                }
+                admit(request, priority, waitingSince == null ? 0 : now - waitingSince);
+                admitted.add(request);
+            }
+        }
+        return admitted;
+    }
+
+    private boolean canAdmit(@NonNull final Request.Priority priority) {
+        if (mClasses.get(priority).mInFlight >= mClasses.get(priority).mMaxInFlight) {
+            return false;
+        }
+        return priority == Request.Priority.IMMEDIATE
+                || mBackgroundInFlight < mMaxBackgroundInFlight;
+    }
+
+    private void admit(@NonNull final Request<?> request, @NonNull final Request.Priority priority,
+            final long waitMs) {
+        final PriorityClass priorityClass = mClasses.get(priority);
+        priorityClass.mInFlight++;
+        priorityClass.mAdmittedCount++;
+        priorityClass.mTotalWaitMs += waitMs;
+        priorityClass.mMaxWaitMs = Math.max(priorityClass.mMaxWaitMs, waitMs);
+        if (priority != Request.Priority.IMMEDIATE) {
+            mBackgroundInFlight++;
+        }
+        mInFlightRequests.put(request, priority);
+    }
+
+    @NonNull
+    private static Request.Priority getPriority(@Nullable final Request<?> request) {
+        final Request.Priority priority = request == null ? null : request.getPriority();
+        return priority == null ? Request.Priority.NORMAL : priority;
+    }
+}
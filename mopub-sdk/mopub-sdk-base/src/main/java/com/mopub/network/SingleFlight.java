@@ -0,0 +1,188 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.support.annotation.NonNull;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.volley.Request;
+import com.mopub.volley.RequestQueue;
+import com.mopub.volley.Response;
+import com.mopub.volley.VolleyError;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges identical concurrent requests into one network call. The first caller for a key starts
+ * a shared request, and callers that join while it is in flight are given the same result. Each
+ * caller gets a {@link Call} to cancel its interest; the shared request is only cancelled once
+ * every caller has cancelled.
+ *
+ * Keys are compared with equals and hashCode, so the requests themselves can be used as keys
+ * when they implement them. A flight is only joined by requests for the same request queue.
+ *
+ * @param <T> The type of the parsed response.
+ */
+public class SingleFlight<T> {
+
+    public interface Listener<T> extends Response.ErrorListener {
+        void onResponse(@NonNull T response);
+    }
+
+    /**
+     * Creates the shared request for a flight. The request must report its result to the given
+     * listeners.
+     */
+    public interface RequestFactory<T> {
+        @NonNull
+        Request<?> createRequest(@NonNull Response.Listener<T> listener,
+                @NonNull Response.ErrorListener errorListener);
+    }
+
+    /**
+     * One caller's interest in a flight.
+     */
+    public class Call {
+        @NonNull private final Flight mFlight;
+        @NonNull private final Listener<T> mListener;
+        private boolean mCanceled;
+
+        Call(@NonNull final Flight flight, @NonNull final Listener<T> listener) {
+            mFlight = flight;
+            mListener = listener;
+        }
+
+        /**
+         * Stops delivering the result to this caller. Cancels the shared request if no other
+         * caller is waiting for it.
+         */
+        public void cancel() {
+            synchronized (SingleFlight.this) {
+                if (mCanceled) {
+                    return;
+                }
+                mCanceled = true;
+                mFlight.mCalls.remove(this);
+                if (!mFlight.mCalls.isEmpty() || mFlight.mFinished) {
+                    return;
+                }
+                mFlight.mFinished = true;
+                if (mFlights.get(mFlight.mKey) == mFlight) {
+                    mFlights.remove(mFlight.mKey);
+                }
+            }
+            mFlight.mRequest.cancel();
+        }
+
+        public boolean isCanceled() {
+            synchronized (SingleFlight.this) {
+                return mCanceled;
+            }
+        }
+
+        /**
+         * @return The request shared by every caller of this flight.
+         */
+        @NonNull
+        public Request<?> getRequest() {
+            return mFlight.mRequest;
+        }
+    }
+
+    private class Flight {
+        @NonNull final Object mKey;
+        @NonNull final RequestQueue mRequestQueue;
+        @NonNull final List<Call> mCalls = new ArrayList<>(1);
+        @NonNull Request<?> mRequest;
+        boolean mFinished;
+
+        Flight(@NonNull final Object key, @NonNull final RequestQueue requestQueue) {
+            mKey = key;
+            mRequestQueue = requestQueue;
+        }
+    }
+
+    @NonNull private final Map<Object, Flight> mFlights = new HashMap<>();
+
+    /**
+     * Joins the flight for the key, or starts one and adds its request to the queue.
+     *
+     * @param requestQueue The queue for the shared request.
+     * @param key          Identifies identical requests.
+     * @param factory      Creates the shared request if no flight is in progress.
+     * @param listener     Receives the shared result, unless the returned call is cancelled.
+     * @return The call, used to cancel interest in the result.
+     */
+    @NonNull
+    public Call join(@NonNull final RequestQueue requestQueue, @NonNull final Object key,
+            @NonNull final RequestFactory<T> factory, @NonNull final Listener<T> listener) {
+        Preconditions.checkNotNull(requestQueue);
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(factory);
+        Preconditions.checkNotNull(listener);
+
+        final Flight flight;
+        final Call call;
+        synchronized (this) {
+            final Flight existing = mFlights.get(key);
+            if (existing != null && existing.mRequestQueue == requestQueue) {
+                call = new Call(existing, listener);
+                existing.mCalls.add(call);
+                return call;
+            }
+
+            flight = new Flight(key, requestQueue);
+            // Created before the flight is published, so callers that join always see it
+            flight.mRequest = factory.createRequest(
+                    new Response.Listener<T>() {
+                        @Override
+                        public void onResponse(final T response) {
+                            for (final Call finishedCall : finish(flight)) {
+                                finishedCall.mListener.onResponse(response);
+                            }
+                        }
+                    },
+                    new Response.ErrorListener() {
+                        @Override
+                        public void onErrorResponse(final VolleyError error) {
+                            for (final Call finishedCall : finish(flight)) {
+                                finishedCall.mListener.onErrorResponse(error);
+                            }
+                        }
+                    });
+            call = new Call(flight, listener);
+            flight.mCalls.add(call);
+            mFlights.put(key, flight);
+        }
+
+        requestQueue.add(flight.mRequest);
+        return call;
+    }
+
+    /**
+     * @return The number of callers waiting on the flight for the key.
+     */
+    @VisibleForTesting
+    synchronized int getCallCount(@NonNull final Object key) {
+        final Flight flight = mFlights.get(key);
+        return flight == null ? 0 : flight.mCalls.size();
+    }
+
+    @NonNull
+    private synchronized List<Call> finish(@NonNull final Flight flight) {
+        if (mFlights.get(flight.mKey) == flight) {
+            mFlights.remove(flight.mKey);
+        }
+        if (flight.mFinished) {
+            return new ArrayList<>();
+        }
+        flight.mFinished = true;
+        return new ArrayList<>(flight.mCalls);
+    }
+}
@@ -0,0 +1,64 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of how useful the waterfall pages fetched ahead of time by {@link AdLoader} were.
+ */
+public class SpeculativeFetchMetrics {
+    private final long mStartedCount;
+    private final long mUsedCount;
+    private final long mDiscardedCount;
+
+    SpeculativeFetchMetrics(final long startedCount, final long usedCount,
+            final long discardedCount) {
+        mStartedCount = startedCount;
+        mUsedCount = usedCount;
+        mDiscardedCount = discardedCount;
+    }
+
+    /**
+     * @return Next waterfall pages requested before the current ad failed.
+     */
+    public long getStartedCount() {
+        return mStartedCount;
+    }
+
+    /**
+     * @return Pages that were needed because the current ad failed.
+     */
+    public long getUsedCount() {
+        return mUsedCount;
+    }
+
+    /**
+     * @return Pages that were thrown away because the current ad loaded.
+     */
+    public long getDiscardedCount() {
+        return mDiscardedCount;
+    }
+
+    /**
+     * @return The fraction of started pages that were used.
+     */
+    public double getHitRate() {
+        return mStartedCount == 0 ? 0 : (double) mUsedCount / mStartedCount;
+    }
+
+    /**
+     * @return The fraction of started pages that were thrown away.
+     */
+    public double getWasteRate() {
+        return mStartedCount == 0 ? 0 : (double) mDiscardedCount / mStartedCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "started=%d used=%d discarded=%d hitRate=%.2f wasteRate=%.2f",
+                mStartedCount, mUsedCount, mDiscardedCount, getHitRate(), getWasteRate());
+    }
+}
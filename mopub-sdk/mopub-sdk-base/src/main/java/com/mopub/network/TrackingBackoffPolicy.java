@@ -0,0 +1,39 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.volley.NoConnectionError;
+import com.mopub.volley.VolleyError;
+
+/**
+ * Backoff policy for tracking pixels. Only retries when no connection could be made, since the
+ * server never saw those requests. Any other failure may already have been counted, and retrying
+ * it could duplicate an impression.
+ */
+class TrackingBackoffPolicy extends BackoffPolicy {
+    private static final int DEFAULT_BACKOFF_TIME_MS = 10 * 1000;
+    private static final int MAX_BACKOFF_TIME_MS = 5 * 60 * 1000;
+    private static final int BACKOFF_MULTIPLIER = 2;
+    private static final int MAX_RETRIES = 4;
+
+    TrackingBackoffPolicy() {
+        mDefaultBackoffTimeMs = DEFAULT_BACKOFF_TIME_MS;
+        mMaxBackoffTimeMs = MAX_BACKOFF_TIME_MS;
+        mBackoffMultiplier = BACKOFF_MULTIPLIER;
+        mMaxRetries = MAX_RETRIES;
+    }
+
+    @Override
+    public void backoff(final VolleyError volleyError) throws VolleyError {
+        if (!(volleyError instanceof NoConnectionError) || !hasAttemptRemaining()) {
+            throw volleyError;
+        }
+
+        mBackoffMs = (int) Math.min(
+                mDefaultBackoffTimeMs * Math.pow(mBackoffMultiplier, mRetryCount),
+                mMaxBackoffTimeMs);
+        mRetryCount++;
+    }
+}
@@ -0,0 +1,261 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.volley.NoConnectionError;
+import com.mopub.volley.Request;
+import com.mopub.volley.VolleyError;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Sends tracking pixels on a request queue that is separate from the one used for ad requests,
+ * so ad loads never wait behind tracking traffic.
+ *
+ * Identical urls are only sent once while a request for them is pending, unless the caller asks
+ * for every firing to be sent. Pixels that could not
+ * connect are retried with a {@link TrackingBackoffPolicy}, and pending pixels are recorded in a
+ * {@link TrackingJournal} so they are sent again after the process restarts. Requests are ordered
+ * by {@link Request.Priority}, so impressions are sent before progress pixels.
+ */
+class TrackingDispatcher {
+
+    private static class PendingPixel {
+        @NonNull final String mUrl;
+        @NonNull final Request.Priority mPriority;
+        @NonNull final List<TrackingRequest.Listener> mListeners = new ArrayList<>(1);
+        @NonNull final BackoffPolicy mBackoffPolicy = new TrackingBackoffPolicy();
+
+        PendingPixel(@NonNull final String url, @NonNull final Request.Priority priority) {
+            mUrl = url;
+            mPriority = priority;
+        }
+    }
+
+    @NonNull private final Context mContext;
+    @NonNull private final MoPubRequestQueue mRequestQueue;
+    @NonNull private final Executor mJournalExecutor;
+    @Nullable private final TrackingJournal mJournal;
+    @NonNull private final Map<String, PendingPixel> mPendingPixels = new HashMap<>();
+
+    TrackingDispatcher(@NonNull final Context context,
+            @NonNull final MoPubRequestQueue requestQueue) {
+        this(context, requestQueue, createJournal(context),
+                new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<Runnable>()));
+    }
+
+    @VisibleForTesting
+    TrackingDispatcher(@NonNull final Context context,
+            @NonNull final MoPubRequestQueue requestQueue,
+            @Nullable final TrackingJournal journal,
+            @NonNull final Executor journalExecutor) {
+        Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(requestQueue);
+        Preconditions.checkNotNull(journalExecutor);
+
+        final Context applicationContext = context.getApplicationContext();
+        mContext = applicationContext != null ? applicationContext : context;
+        mRequestQueue = requestQueue;
+        mJournal = journal;
+        mJournalExecutor = journalExecutor;
+
+        replayJournal();
+    }
+
+    /**
+     * Sends a tracking pixel. If the same url is already pending, the listener is attached to the
+     * pending request instead of sending the url again.
+     *
+     * @param context  Used to create the request.
+     * @param url      The tracking url.
+     * @param priority The order in which this pixel is sent relative to other pending pixels.
+     * @param listener Notified once the pixel has been sent or has failed for good. May be null.
+     */
+    void dispatch(@NonNull final Context context, @NonNull final String url,
+            @NonNull final Request.Priority priority,
+            @Nullable final TrackingRequest.Listener listener) {
+        dispatch(context, url, priority, listener, true);
+    }
+
+    /**
+     * Sends a tracking pixel like {@link #dispatch(Context, String, Request.Priority,
+     * TrackingRequest.Listener)}.
+     *
+     * @param deduplicate False if this pixel must be sent even when the same url is pending, as
+     *                    for repeatable VAST trackers.
+     */
+    void dispatch(@NonNull final Context context, @NonNull final String url,
+            @NonNull final Request.Priority priority,
+            @Nullable final TrackingRequest.Listener listener,
+            final boolean deduplicate) {
+        Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(url);
+        Preconditions.checkNotNull(priority);
+
+        final PendingPixel pendingPixel;
+        synchronized (this) {
+            final PendingPixel existing = mPendingPixels.get(url);
+            if (existing != null && deduplicate) {
+                if (listener != null) {
+                    existing.mListeners.add(listener);
+                }
+                return;
+            }
+
+            pendingPixel = new PendingPixel(url, priority);
+            if (listener != null) {
+                pendingPixel.mListeners.add(listener);
+            }
+            if (existing == null) {
+                mPendingPixels.put(url, pendingPixel);
+            }
+        }
+
+        journalAdd(new TrackingJournal.Entry(url, priority, System.currentTimeMillis()));
+        mRequestQueue.add(createRequest(context, pendingPixel));
+    }
+
+    @NonNull
+    private TrackingRequest createRequest(@NonNull final Context context,
+            @NonNull final PendingPixel pendingPixel) {
+        return new TrackingRequest(context, pendingPixel.mUrl, pendingPixel.mPriority,
+                new TrackingRequest.Listener() {
+                    @Override
+                    public void onResponse(@NonNull final String url) {
+                        onPixelSucceeded(pendingPixel);
+                    }
+
+                    @Override
+                    public void onErrorResponse(final VolleyError volleyError) {
+                        onPixelFailed(pendingPixel, volleyError);
+                    }
+                });
+    }
+
+    private void onPixelSucceeded(@NonNull final PendingPixel pendingPixel) {
+        if (MoPubLog.isLoggable(CUSTOM)) {
+            MoPubLog.log(CUSTOM, "Successfully hit tracking endpoint: " + pendingPixel.mUrl);
+        }
+
+        journalRemove(pendingPixel.mUrl);
+        for (final TrackingRequest.Listener listener : finish(pendingPixel)) {
+            listener.onResponse(pendingPixel.mUrl);
+        }
+    }
+
+    private void onPixelFailed(@NonNull final PendingPixel pendingPixel,
+            @Nullable final VolleyError volleyError) {
+        try {
+            pendingPixel.mBackoffPolicy.backoff(volleyError);
+            if (MoPubLog.isLoggable(CUSTOM)) {
+                MoPubLog.log(CUSTOM, "Failed to connect to tracking endpoint: "
+                        + pendingPixel.mUrl + ". Retrying in "
+                        + pendingPixel.mBackoffPolicy.getBackoffMs() + "ms.");
+            }
+            mRequestQueue.addDelayedRequest(createRequest(mContext, pendingPixel),
+                    pendingPixel.mBackoffPolicy.getBackoffMs());
+            return;
+        } catch (VolleyError e) {
+            // Not retriable, or out of retries
+        }
+
+        if (MoPubLog.isLoggable(CUSTOM)) {
+            MoPubLog.log(CUSTOM, "Failed to hit tracking endpoint: " + pendingPixel.mUrl);
+        }
+
+        // A pixel that never reached the server stays in the journal for the next launch
+        if (!(volleyError instanceof NoConnectionError)) {
+            journalRemove(pendingPixel.mUrl);
+        }
+        for (final TrackingRequest.Listener listener : finish(pendingPixel)) {
+            listener.onErrorResponse(volleyError);
+        }
+    }
+
+    @NonNull
+    private synchronized List<TrackingRequest.Listener> finish(
+            @NonNull final PendingPixel pendingPixel) {
+        if (mPendingPixels.get(pendingPixel.mUrl) == pendingPixel) {
+            mPendingPixels.remove(pendingPixel.mUrl);
+        }
+        return pendingPixel.mListeners;
+    }
+
+    private void replayJournal() {
+        if (mJournal == null) {
+            return;
+        }
+
+        mJournalExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (final TrackingJournal.Entry entry : mJournal.open(System.currentTimeMillis())) {
+                    final PendingPixel pendingPixel;
+                    synchronized (TrackingDispatcher.this) {
+                        if (mPendingPixels.containsKey(entry.mUrl)) {
+                            continue;
+                        }
+                        pendingPixel = new PendingPixel(entry.mUrl, entry.mPriority);
+                        mPendingPixels.put(entry.mUrl, pendingPixel);
+                    }
+                    mRequestQueue.add(createRequest(mContext, pendingPixel));
+                }
+            }
+        });
+    }
+
+    private void journalAdd(@NonNull final TrackingJournal.Entry entry) {
+        if (mJournal == null) {
+            return;
+        }
+
+        mJournalExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mJournal.add(entry);
+            }
+        });
+    }
+
+    private void journalRemove(@NonNull final String url) {
+        if (mJournal == null) {
+            return;
+        }
+
+        mJournalExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mJournal.remove(url);
+            }
+        });
+    }
+
+    @Nullable
+    private static TrackingJournal createJournal(@NonNull final Context context) {
+        final File cacheDir = context.getCacheDir();
+        if (cacheDir == null) {
+            return null;
+        }
+        return new TrackingJournal(cacheDir);
+    }
+}
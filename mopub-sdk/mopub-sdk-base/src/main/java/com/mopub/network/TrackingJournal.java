@@ -0,0 +1,261 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.Streams;
+import com.mopub.volley.Request;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Append-only journal of tracking pixels that have not been delivered yet, so they can be sent
+ * again after the process is restarted. The format follows {@link com.mopub.common.DiskLruCache}:
+ *
+ * <pre>
+ *     mopub.TrackingJournal
+ *     1
+ *
+ *     ADD HIGH 1546300800000 https://ads.mopub.com/m/imp?id=1
+ *     ADD LOW 1546300801000 https://tracker.example.com/firstQuartile
+ *     DONE https://ads.mopub.com/m/imp?id=1
+ * </pre>
+ *
+ * Each ADD line records a pixel with its priority and creation time, and each DONE line removes
+ * it. The journal is rewritten without the redundant lines when it is opened and when too many of
+ * them have accumulated.
+ *
+ * This class is not thread safe. All calls are expected to come from a single thread.
+ */
+class TrackingJournal {
+    static final String JOURNAL_FILE_NAME = "mopub-tracking-journal";
+    static final String MAGIC = "mopub.TrackingJournal";
+    static final String VERSION = "1";
+
+    /**
+     * Pixels older than this are not replayed.
+     */
+    static final long MAX_AGE_MS = 24 * 60 * 60 * 1000;
+    /**
+     * New pixels are not recorded once this many are pending, which bounds the journal size.
+     */
+    static final int MAX_ENTRIES = 200;
+    private static final int MAX_REDUNDANT_LINES = 500;
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final String ADD = "ADD";
+    private static final String DONE = "DONE";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static class Entry {
+        @NonNull final String mUrl;
+        @NonNull final Request.Priority mPriority;
+        final long mCreatedMs;
+
+        Entry(@NonNull final String url, @NonNull final Request.Priority priority,
+                final long createdMs) {
+            mUrl = url;
+            mPriority = priority;
+            mCreatedMs = createdMs;
+        }
+    }
+
+    @NonNull private final File mJournalFile;
+    @NonNull private final File mJournalFileTmp;
+    @NonNull private final Map<String, Entry> mEntries = new LinkedHashMap<>();
+    @Nullable private Writer mWriter;
+    private int mRedundantLines;
+
+    TrackingJournal(@NonNull final File directory) {
+        Preconditions.checkNotNull(directory);
+
+        mJournalFile = new File(directory, JOURNAL_FILE_NAME);
+        mJournalFileTmp = new File(directory, JOURNAL_FILE_NAME + ".tmp");
+    }
+
+    /**
+     * Reads the journal from disk and compacts it.
+     *
+     * @param nowMs The current time, used to drop expired pixels.
+     * @return The pixels that were recorded but not delivered, oldest first.
+     */
+    @NonNull
+    List<Entry> open(final long nowMs) {
+        mEntries.clear();
+        if (mJournalFile.exists()) {
+            try {
+                readJournal();
+            } catch (IOException e) {
+                MoPubLog.log(CUSTOM, "Unable to read tracking journal. Discarding it.");
+                mEntries.clear();
+            }
+        }
+
+        for (final Entry entry : new ArrayList<>(mEntries.values())) {
+            if (nowMs - entry.mCreatedMs > MAX_AGE_MS || entry.mCreatedMs > nowMs) {
+                mEntries.remove(entry.mUrl);
+            }
+        }
+
+        rebuildJournal();
+        return new ArrayList<>(mEntries.values());
+    }
+
+    /**
+     * Records a pixel as pending.
+     */
+    void add(@NonNull final Entry entry) {
+        Preconditions.checkNotNull(entry);
+
+        if (mWriter == null || !isJournalable(entry.mUrl)) {
+            return;
+        }
+        if (mEntries.containsKey(entry.mUrl)) {
+            return;
+        }
+        if (mEntries.size() >= MAX_ENTRIES) {
+            MoPubLog.log(CUSTOM, "Tracking journal is full. Not recording " + entry.mUrl);
+            return;
+        }
+
+        mEntries.put(entry.mUrl, entry);
+        writeLine(ADD + ' ' + entry.mPriority.name() + ' ' + entry.mCreatedMs + ' ' + entry.mUrl);
+    }
+
+    /**
+     * Removes a pixel once it has been delivered or failed permanently.
+     */
+    void remove(@NonNull final String url) {
+        Preconditions.checkNotNull(url);
+
+        if (mWriter == null || mEntries.remove(url) == null) {
+            return;
+        }
+
+        writeLine(DONE + ' ' + url);
+        mRedundantLines += 2;
+        if (mRedundantLines >= MAX_REDUNDANT_LINES) {
+            rebuildJournal();
+        }
+    }
+
+    void close() {
+        Streams.closeStream(mWriter);
+        mWriter = null;
+    }
+
+    private void readJournal() throws IOException {
+        final StringBuilder journal = new StringBuilder();
+        final Reader reader = new InputStreamReader(new FileInputStream(mJournalFile), UTF_8);
+        try {
+            final char[] buffer = new char[BUFFER_SIZE];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                journal.append(buffer, 0, count);
+            }
+        } finally {
+            Streams.closeStream(reader);
+        }
+
+        // Everything after the last line break is ignored, since it may have been cut off. The
+        // last element of the split is always the empty string after that line break.
+        final String[] lines = journal.substring(0, journal.lastIndexOf("\n") + 1).split("\n", -1);
+        if (lines.length < 4 || !MAGIC.equals(lines[0]) || !VERSION.equals(lines[1])
+                || !"".equals(lines[2])) {
+            throw new IOException("unexpected journal header");
+        }
+        for (int i = 3; i < lines.length - 1; i++) {
+            readJournalLine(lines[i]);
+        }
+    }
+
+    private void readJournalLine(@NonNull final String line) {
+        if (line.startsWith(DONE + ' ')) {
+            mEntries.remove(line.substring(DONE.length() + 1));
+            return;
+        }
+
+        final String[] parts = line.split(" ", 4);
+        if (parts.length != 4 || !ADD.equals(parts[0])) {
+            return;
+        }
+        try {
+            final Entry entry = new Entry(parts[3], Request.Priority.valueOf(parts[1]),
+                    Long.parseLong(parts[2]));
+            mEntries.put(entry.mUrl, entry);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException as well
+        }
+    }
+
+    /**
+     * Writes a new journal with only the pending pixels and replaces the current one.
+     */
+    private void rebuildJournal() {
+        close();
+        mRedundantLines = 0;
+
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(mJournalFileTmp), UTF_8));
+            writer.write(MAGIC + "\n" + VERSION + "\n\n");
+            for (final Entry entry : mEntries.values()) {
+                writer.write(ADD + ' ' + entry.mPriority.name() + ' ' + entry.mCreatedMs + ' '
+                        + entry.mUrl + '\n');
+            }
+            writer.close();
+            writer = null;
+
+            if (!mJournalFileTmp.renameTo(mJournalFile)) {
+                throw new IOException("Unable to rename tracking journal.");
+            }
+            mWriter = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(mJournalFile, true), UTF_8));
+        } catch (IOException e) {
+            MoPubLog.log(CUSTOM, "Unable to write tracking journal. Pixels will not be persisted.");
+            Streams.closeStream(writer);
+            mJournalFileTmp.delete();
+            mWriter = null;
+        }
+    }
+
+    private void writeLine(@NonNull final String line) {
+        if (mWriter == null) {
+            return;
+        }
+        try {
+            mWriter.write(line);
+            mWriter.write('\n');
+            mWriter.flush();
+        } catch (IOException e) {
+            MoPubLog.log(CUSTOM, "Unable to append to tracking journal.");
+            close();
+        }
+    }
+
+    private static boolean isJournalable(@NonNull final String url) {
+        return url.indexOf('\n') < 0 && url.indexOf('\r') < 0;
+    }
+}
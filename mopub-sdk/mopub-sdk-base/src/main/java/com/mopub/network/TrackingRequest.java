@@ -10,24 +10,19 @@ import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.mopub.common.Preconditions;
-import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.Utils;
 import com.mopub.mobileads.VastErrorCode;
 import com.mopub.mobileads.VastMacroHelper;
 import com.mopub.mobileads.VastTracker;
 import com.mopub.volley.DefaultRetryPolicy;
 import com.mopub.volley.NetworkResponse;
-import com.mopub.volley.RequestQueue;
 import com.mopub.volley.Response;
-import com.mopub.volley.VolleyError;
 import com.mopub.volley.toolbox.HttpHeaderParser;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
-
 public class TrackingRequest extends MoPubRequest<Void> {
 
     // Retrying may cause duplicate impressions
@@ -38,12 +33,15 @@ public class TrackingRequest extends MoPubRequest<Void> {
     }
 
     @Nullable private final TrackingRequest.Listener mListener;
+    @NonNull private final Priority mPriority;
 
-    private TrackingRequest(@NonNull final Context context,
+    TrackingRequest(@NonNull final Context context,
             @NonNull final String url,
+            @NonNull final Priority priority,
             @Nullable final Listener listener) {
         super(context, url, listener);
         mListener = listener;
+        mPriority = priority;
         setShouldCache(false);
         setRetryPolicy(new DefaultRetryPolicy(
                 DefaultRetryPolicy.DEFAULT_TIMEOUT_MS,
@@ -51,6 +49,11 @@ public class TrackingRequest extends MoPubRequest<Void> {
                 DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
     }
 
+    @Override
+    public Priority getPriority() {
+        return mPriority;
+    }
+
     @Override
     protected Response<Void> parseNetworkResponse(final NetworkResponse networkResponse) {
         if (networkResponse.statusCode != 200) {
@@ -79,64 +82,72 @@ public class TrackingRequest extends MoPubRequest<Void> {
             @Nullable final Integer contentPlayHead,
             @Nullable final String assetUri,
             @Nullable final Context context) {
+        makeVastTrackingHttpRequest(vastTrackers, vastErrorCode, contentPlayHead, assetUri,
+                context, Priority.NORMAL);
+    }
+
+    public static void makeVastTrackingHttpRequest(
+            @NonNull final List<VastTracker> vastTrackers,
+            @Nullable final VastErrorCode vastErrorCode,
+            @Nullable final Integer contentPlayHead,
+            @Nullable final String assetUri,
+            @Nullable final Context context,
+            @NonNull final Priority priority) {
         Preconditions.checkNotNull(vastTrackers);
+        Preconditions.checkNotNull(priority);
 
-        List<String> trackers = new ArrayList<String>(vastTrackers.size());
+        List<VastTracker> trackers = new ArrayList<VastTracker>(vastTrackers.size());
+        List<VastTracker> repeatableTrackers = new ArrayList<VastTracker>();
         for (VastTracker vastTracker : vastTrackers) {
             if (vastTracker == null) {
                 continue;
             }
-            if (vastTracker.isTracked() && !vastTracker.isRepeatable()) {
+            if (vastTracker.isRepeatable()) {
+                repeatableTrackers.add(vastTracker);
+            } else if (vastTracker.isTracked()) {
                 continue;
+            } else {
+                trackers.add(vastTracker);
             }
-            trackers.add(vastTracker.getContent());
             vastTracker.setTracked();
         }
 
-        makeTrackingHttpRequest(
-                new VastMacroHelper(trackers)
+        dispatch(VastMacroHelper.fromTrackers(trackers)
+                        .withErrorCode(vastErrorCode)
+                        .withContentPlayHead(contentPlayHead)
+                        .withAssetUri(assetUri)
+                        .getUris(),
+                context, null, priority, true);
+        // Every firing of a repeatable tracker is sent, even while an earlier one is pending
+        dispatch(VastMacroHelper.fromTrackers(repeatableTrackers)
                         .withErrorCode(vastErrorCode)
                         .withContentPlayHead(contentPlayHead)
                         .withAssetUri(assetUri)
                         .getUris(),
-                context
-        );
+                context, null, priority, false);
     }
 
     public static void makeTrackingHttpRequest(@Nullable final Iterable<String> urls,
             @Nullable final Context context,
             @Nullable final Listener listener) {
-        if (urls == null || context == null) {
-            return;
-        }
-
-        final RequestQueue requestQueue = Networking.getRequestQueue(context);
-        for (final String url : urls) {
-            if (TextUtils.isEmpty(url)) {
-                continue;
-            }
+        makeTrackingHttpRequestWithPriority(urls, context, listener, Priority.NORMAL);
+    }
 
-            final TrackingRequest.Listener internalListener = new TrackingRequest.Listener() {
-                @Override
-                public void onResponse(@NonNull String url) {
-                    MoPubLog.log(CUSTOM, "Successfully hit tracking endpoint: " + url);
-                    if (listener != null) {
-                        listener.onResponse(url);
-                    }
-                }
-
-                @Override
-                public void onErrorResponse(final VolleyError volleyError) {
-                    MoPubLog.log(CUSTOM, "Failed to hit tracking endpoint: " + url);
-                    if (listener != null) {
-                        listener.onErrorResponse(volleyError);
-                    }
-                }
-            };
-            final TrackingRequest trackingRequest = new TrackingRequest(context, url,
-                    internalListener);
-            requestQueue.add(trackingRequest);
-        }
+    /**
+     * Sends tracking pixels through the {@link TrackingDispatcher}, which uses its own request
+     * queue so tracking never delays ad requests.
+     *
+     * @param urls     The tracking urls. Empty urls are skipped.
+     * @param context  The context.
+     * @param listener Notified for each url once it has been sent or has failed for good.
+     * @param priority Impressions should use {@link Priority#HIGH} and video progress pixels
+     *                 {@link Priority#LOW}. Everything else uses {@link Priority#NORMAL}.
+     */
+    public static void makeTrackingHttpRequestWithPriority(@Nullable final Iterable<String> urls,
+            @Nullable final Context context,
+            @Nullable final Listener listener,
+            @NonNull final Priority priority) {
+        dispatch(urls, context, listener, priority, true);
     }
 
     public static void makeTrackingHttpRequest(@Nullable final String url,
@@ -156,4 +167,28 @@ public class TrackingRequest extends MoPubRequest<Void> {
             @Nullable final Context context) {
         makeTrackingHttpRequest(urls, context, null);
     }
+
+    public static void makeTrackingHttpRequestWithPriority(@Nullable final Iterable<String> urls,
+            @Nullable final Context context,
+            @NonNull final Priority priority) {
+        makeTrackingHttpRequestWithPriority(urls, context, null, priority);
+    }
+
+    private static void dispatch(@Nullable final Iterable<String> urls,
+            @Nullable final Context context,
+            @Nullable final Listener listener,
+            @NonNull final Priority priority,
+            final boolean deduplicate) {
+        if (urls == null || context == null) {
+            return;
+        }
+
+        final TrackingDispatcher trackingDispatcher = Networking.getTrackingDispatcher(context);
+        for (final String url : urls) {
+            if (TextUtils.isEmpty(url)) {
+                continue;
+            }
+            trackingDispatcher.dispatch(context, url, priority, listener, deduplicate);
+        }
+    }
 }
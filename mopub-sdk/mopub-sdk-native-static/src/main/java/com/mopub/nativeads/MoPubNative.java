@@ -20,6 +20,7 @@ import com.mopub.mobileads.MoPubErrorCode;
 import com.mopub.network.AdLoader;
 import com.mopub.network.AdResponse;
 import com.mopub.network.MoPubNetworkError;
+import com.mopub.network.MoPubRequestParams;
 import com.mopub.volley.NetworkResponse;
 import com.mopub.volley.Request;
 import com.mopub.volley.VolleyError;
@@ -184,10 +185,16 @@ public class MoPubNative {
             MoPubLog.log(CUSTOM, "MoPubNative Loading ad from: " + endpointUrl);
         }
 
-        requestNativeAd(endpointUrl, null);
+        requestNativeAd(endpointUrl, generator.getRequestParams(), null);
     }
 
     void requestNativeAd(@Nullable final String endpointUrl, @Nullable final NativeErrorCode errorCode) {
+        requestNativeAd(endpointUrl, null, errorCode);
+    }
+
+    private void requestNativeAd(@Nullable final String endpointUrl,
+            @Nullable final MoPubRequestParams requestParams,
+            @Nullable final NativeErrorCode errorCode) {
         final Context context = getContextOrDestroy();
         if (context == null) {
             return;
@@ -198,7 +205,8 @@ public class MoPubNative {
                 mMoPubNativeNetworkListener.onNativeFail(errorCode == null ? INVALID_REQUEST_URL : errorCode);
                 return;
             } else {
-                mAdLoader = new AdLoader(endpointUrl, AdFormat.NATIVE, mAdUnitId, context, mVolleyListener);
+                mAdLoader = new AdLoader(endpointUrl, requestParams, AdFormat.NATIVE, mAdUnitId,
+                        context, mVolleyListener);
             }
         }
         mNativeRequest = mAdLoader.loadNextAd(errorCode);
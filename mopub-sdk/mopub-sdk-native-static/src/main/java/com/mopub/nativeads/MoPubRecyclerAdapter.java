@@ -36,12 +36,17 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
     }
 
     @NonNull private final RecyclerView.AdapterDataObserver mAdapterDataObserver;
+    @NonNull private final RecyclerView.OnScrollListener mOnScrollListener;
     @Nullable private RecyclerView mRecyclerView;
     @NonNull private final MoPubStreamAdPlacer mStreamAdPlacer;
     @NonNull private final RecyclerView.Adapter mOriginalAdapter;
     @NonNull private final VisibilityTracker mVisibilityTracker;
     @NonNull private final WeakHashMap<View, Integer> mViewPositionMap;
 
+    // The visible range last passed to the ad placer from a scroll, end exclusive.
+    private int mScrolledRangeStart = RecyclerView.NO_POSITION;
+    private int mScrolledRangeEnd = RecyclerView.NO_POSITION;
+
     @NonNull private ContentChangeStrategy mStrategy = INSERT_AT_END;
     @Nullable private MoPubNativeAdLoadedListener mAdLoadedListener;
 
@@ -161,17 +166,28 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
         };
 
         mOriginalAdapter.registerAdapterDataObserver(mAdapterDataObserver);
+
+        mOnScrollListener = new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(final RecyclerView recyclerView, final int dx, final int dy) {
+                handleScrolled(recyclerView);
+            }
+        };
     }
 
     @Override
     public void onAttachedToRecyclerView(final RecyclerView recyclerView) {
         super.onAttachedToRecyclerView(recyclerView);
         mRecyclerView = recyclerView;
+        mScrolledRangeStart = RecyclerView.NO_POSITION;
+        mScrolledRangeEnd = RecyclerView.NO_POSITION;
+        recyclerView.addOnScrollListener(mOnScrollListener);
     }
 
     @Override
     public void onDetachedFromRecyclerView(final RecyclerView recyclerView) {
         super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(mOnScrollListener);
         mRecyclerView = null;
     }
 
@@ -424,8 +440,12 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
             return;
         }
 
-        mViewPositionMap.put(holder.itemView, position);
-        mVisibilityTracker.addView(holder.itemView, 0, null);
+        // With a linear layout the visible range comes from scrolls, so content rows only need
+        // their visibility checked for other layout managers.
+        if (!isTrackingScrolledRange()) {
+            mViewPositionMap.put(holder.itemView, position);
+            mVisibilityTracker.addView(holder.itemView, 0, null);
+        }
 
         //noinspection unchecked
         mOriginalAdapter.onBindViewHolder(holder, mStreamAdPlacer.getOriginalPosition(position));
@@ -453,6 +473,9 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
 
     public void destroy() {
         mOriginalAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
+        if (mRecyclerView != null) {
+            mRecyclerView.removeOnScrollListener(mOnScrollListener);
+        }
         mStreamAdPlacer.destroy();
         mVisibilityTracker.destroy();
     }
@@ -543,6 +566,39 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
         notifyItemRemoved(position);
     }
 
+    /**
+     * Places ads in the visible range after a scroll or a layout that changed it. The layout
+     * manager already knows the first and last visible rows, so nothing is measured, and most
+     * scroll events, which don't move a row across an edge of the list, do nothing at all.
+     */
+    @VisibleForTesting
+    void handleScrolled(@NonNull final RecyclerView recyclerView) {
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager)) {
+            return;
+        }
+
+        // Includes GridLayoutManager
+        final LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+        final int firstPosition = linearLayoutManager.findFirstVisibleItemPosition();
+        final int lastPosition = linearLayoutManager.findLastVisibleItemPosition();
+        if (firstPosition == RecyclerView.NO_POSITION || lastPosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        if (firstPosition == mScrolledRangeStart && lastPosition + 1 == mScrolledRangeEnd) {
+            return;
+        }
+        mScrolledRangeStart = firstPosition;
+        mScrolledRangeEnd = lastPosition + 1;
+        mStreamAdPlacer.placeAdsInRange(mScrolledRangeStart, mScrolledRangeEnd);
+    }
+
+    private boolean isTrackingScrolledRange() {
+        return mRecyclerView != null
+                && mRecyclerView.getLayoutManager() instanceof LinearLayoutManager;
+    }
+
     private void handleVisibilityChanged(final List<View> visibleViews,
             final List<View> invisibleViews) {
         // Loop through all visible positions in order to build a max and min range, and then
@@ -7,6 +7,7 @@ package com.mopub.nativeads;
 import android.app.Activity;
 import android.content.Context;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.view.View;
@@ -80,15 +81,29 @@ public class MoPubStreamAdPlacer {
     // The visible range is the range of items which we believe are visible, inclusive.
     // Placing ads near this range makes for a smoother user experience when scrolling up
     // or down.
-    private static final int MAX_VISIBLE_RANGE = 100;
+    @VisibleForTesting static final int MAX_VISIBLE_RANGE = 100;
     private int mVisibleRangeStart;
     private int mVisibleRangeEnd;
 
     private int mItemCount;
     // A buffer around the visible range where we'll place ads if possible.
-    private static final int RANGE_BUFFER = 6;
+    @VisibleForTesting static final int RANGE_BUFFER = 6;
     private boolean mNeedsPlacement;
 
+    // While the user scrolls down, the buffer also covers the rows they are expected to scroll
+    // through in this time, which is about how long an ad takes to load.
+    @VisibleForTesting static final int LOOK_AHEAD_MILLIS = 1000;
+    // Visible ranges further apart in time than this are not part of the same scroll.
+    @VisibleForTesting static final int VELOCITY_TIMEOUT_MILLIS = 500;
+    // Weight of the newest visible range in the estimated velocity.
+    private static final float VELOCITY_SMOOTHING = 0.5f;
+    private static final long NO_VELOCITY_SAMPLE = -1;
+
+    // Scroll velocity in rows per second, estimated from successive visible ranges.
+    private float mScrollVelocity;
+    private int mVelocitySamplePosition;
+    private long mVelocitySampleMillis = NO_VELOCITY_SAMPLE;
+
     /**
      * Creates a new MoPubStreamAdPlacer object.
      *
@@ -327,6 +342,7 @@ public class MoPubStreamAdPlacer {
      * @param endPosition The end of the range in which to place ads, exclusive.
      */
     public void placeAdsInRange(final int startPosition, final int endPosition) {
+        updateScrollVelocity(startPosition, SystemClock.uptimeMillis());
         mVisibleRangeStart = startPosition;
         mVisibleRangeEnd = Math.min(endPosition, startPosition + MAX_VISIBLE_RANGE);
         notifyNeedsPlacement();
@@ -651,6 +667,14 @@ public class MoPubStreamAdPlacer {
      * Places ads using the current visible range.
      */
     private void placeAds() {
+        final int lookAheadRows = getLookAheadRows(SystemClock.uptimeMillis());
+        if (lookAheadRows > RANGE_BUFFER) {
+            // Have the ad source load ads for the positions the user is about to scroll to, so
+            // they can be placed before those positions are on screen.
+            mAdSource.prefetch(countAdsToPlace(mVisibleRangeStart,
+                    mVisibleRangeEnd + lookAheadRows));
+        }
+
         // Place ads within the visible range
         if (!tryPlaceAdsInRange(mVisibleRangeStart, mVisibleRangeEnd)) {
             return;
@@ -659,7 +683,58 @@ public class MoPubStreamAdPlacer {
         // Place ads after the visible range so that user will see an ad if they scroll down. We
         // don't place an ad before the visible range, because we are trying to be mindful of
         // changes that will affect scrolling.
-        tryPlaceAdsInRange(mVisibleRangeEnd, mVisibleRangeEnd + RANGE_BUFFER);
+        tryPlaceAdsInRange(mVisibleRangeEnd, mVisibleRangeEnd + lookAheadRows);
+    }
+
+    /**
+     * Updates the scroll velocity with a new visible range.
+     *
+     * @param startPosition The start of the new visible range.
+     * @param now The current uptime.
+     */
+    private void updateScrollVelocity(final int startPosition, final long now) {
+        final long elapsedMillis = now - mVelocitySampleMillis;
+        if (mVelocitySampleMillis == NO_VELOCITY_SAMPLE || elapsedMillis > VELOCITY_TIMEOUT_MILLIS) {
+            mScrollVelocity = 0;
+        } else if (elapsedMillis > 0) {
+            final float velocity = (startPosition - mVelocitySamplePosition) * 1000f / elapsedMillis;
+            mScrollVelocity += (velocity - mScrollVelocity) * VELOCITY_SMOOTHING;
+        } else {
+            // Several ranges in the same millisecond are measured from the first one
+            return;
+        }
+        mVelocitySamplePosition = startPosition;
+        mVelocitySampleMillis = now;
+    }
+
+    /**
+     * Gets the number of rows after the visible range to place ads in. This is
+     * {@link #RANGE_BUFFER} unless the user is scrolling down, and at most
+     * {@link #MAX_VISIBLE_RANGE}.
+     */
+    @VisibleForTesting
+    int getLookAheadRows(final long now) {
+        if (mScrollVelocity <= 0 || now - mVelocitySampleMillis > VELOCITY_TIMEOUT_MILLIS) {
+            return RANGE_BUFFER;
+        }
+
+        final int scrolledRows = (int) (mScrollVelocity * LOOK_AHEAD_MILLIS / 1000);
+        return Math.min(RANGE_BUFFER + scrolledRows, MAX_VISIBLE_RANGE);
+    }
+
+    /**
+     * Counts the positions in the range [start, end) that are waiting for an ad.
+     */
+    private int countAdsToPlace(final int start, final int end) {
+        int count = 0;
+        int position = start;
+        while (position < end && position < mItemCount && position != PlacementData.NOT_FOUND) {
+            if (mPlacementData.shouldPlaceAd(position)) {
+                count++;
+            }
+            position = mPlacementData.nextInsertionPosition(position);
+        }
+        return count;
     }
 
     /**
@@ -16,6 +16,7 @@ import com.mopub.network.AdResponse;
 import com.mopub.network.ImpressionData;
 import com.mopub.network.SingleImpression;
 import com.mopub.network.TrackingRequest;
+import com.mopub.volley.Request;
 
 import java.util.HashSet;
 import java.util.List;
@@ -222,7 +223,8 @@ public class NativeAd {
 
         mRecordedImpression = true;
 
-        TrackingRequest.makeTrackingHttpRequest(mImpressionTrackers, mContext);
+        TrackingRequest.makeTrackingHttpRequestWithPriority(mImpressionTrackers, mContext,
+                Request.Priority.HIGH);
         if (mMoPubNativeEventListener != null) {
             mMoPubNativeEventListener.onImpression(view);
         }
@@ -11,11 +11,14 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.network.AdmissionController;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import static com.mopub.common.Constants.AD_EXPIRATION_DELAY;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.nativeads.MoPubNative.MoPubNativeNetworkListener;
 
 /**
@@ -26,8 +29,14 @@ import static com.mopub.nativeads.MoPubNative.MoPubNativeNetworkListener;
  * a queue, so that the first ad loaded from the server will be the first ad available for dequeue.
  * To take an ad out of the cache, call {@link #dequeueAd}.
  *
- * The cache size may be automatically adjusted by the MoPub server based on an app's usage and
- * ad fill rate. Cached ads have a maximum TTL of 4 hours before which they expire.
+ * The cache size adapts to how the stream uses it. It starts at {@link #MIN_TARGET_DEPTH} ads and
+ * grows by one, up to {@link #MAX_TARGET_DEPTH}, each time an ad is dequeued while the cache is
+ * empty, which happens when the user scrolls past ad positions faster than ads load. It shrinks by
+ * one each time a cached ad expires unused. Up to {@link #MAX_REQUESTS_IN_FLIGHT} ads are requested
+ * in parallel, each with its own {@link MoPubNative}, except while requests are failing.
+ *
+ * Cached ads have a maximum TTL of 4 hours before which they expire. Expired ads are swept out of
+ * the cache and destroyed when they expire, so they can be replaced before they are needed.
  *
  * The ad source also takes care of retrying failed ad requests, with a reasonable back-off to
  * avoid spamming the server.
@@ -36,9 +45,15 @@ import static com.mopub.nativeads.MoPubNative.MoPubNativeNetworkListener;
  */
 class NativeAdSource {
     /**
-     * Number of ads to cache
+     * Bounds of the number of ads to cache
      */
-    private static final int CACHE_LIMIT = 1;
+    @VisibleForTesting static final int MIN_TARGET_DEPTH = 1;
+    @VisibleForTesting static final int MAX_TARGET_DEPTH = 4;
+
+    /**
+     * Number of ads that may be requested at the same time
+     */
+    @VisibleForTesting static final int MAX_REQUESTS_IN_FLIGHT = 2;
 
     private static final int EXPIRATION_TIME_MILLISECONDS = AD_EXPIRATION_DELAY;
     private static final int MAXIMUM_RETRY_TIME_MILLISECONDS = 5 * 60 * 1000; // 5 minutes.
@@ -47,18 +62,25 @@ class NativeAdSource {
     @NonNull private final List<TimestampWrapper<NativeAd>> mNativeAdCache;
     @NonNull private final Handler mReplenishCacheHandler;
     @NonNull private final Runnable mReplenishCacheRunnable;
-    @NonNull private final MoPubNativeNetworkListener mMoPubNativeNetworkListener;
+    @NonNull private final Runnable mExpirationSweepRunnable;
+    @NonNull private final List<AdRequest> mAdRequests;
 
-    @VisibleForTesting boolean mRequestInFlight;
     @VisibleForTesting boolean mRetryInFlight;
     @VisibleForTesting int mSequenceNumber;
     @VisibleForTesting int mCurrentRetries;
+    @VisibleForTesting int mTargetDepth;
+    private boolean mExpirationSweepScheduled;
+
+    // Cache metrics since the ads were last cleared
+    private int mDequeueCount;
+    private int mHitCount;
+    private int mWastedAdCount;
 
     @Nullable private AdSourceListener mAdSourceListener;
 
     // We will need collections of these when we support multiple ad units.
     @Nullable private RequestParameters mRequestParameters;
-    @Nullable private MoPubNative mMoPubNative;
+    @Nullable private MoPubNativeFactory mMoPubNativeFactory;
 
     @NonNull private final AdRendererRegistry mAdRendererRegistry;
 
@@ -72,8 +94,50 @@ class NativeAdSource {
         void onAdsAvailable();
     }
 
+    /**
+     * Creates the {@link MoPubNative}s used to request ads for the current ad unit.
+     */
+    @VisibleForTesting
+    interface MoPubNativeFactory {
+        @NonNull
+        MoPubNative create(@NonNull MoPubNativeNetworkListener listener);
+    }
+
+    /**
+     * One of the requests the ad source may have in flight. A {@link MoPubNative} loads one ad at a
+     * time, so each request has its own.
+     */
+    private final class AdRequest implements MoPubNativeNetworkListener {
+        @Nullable MoPubNative mMoPubNative;
+        boolean mInFlight;
+        // Sent with the request, so parallel requests differ and are not merged into one
+        int mSequenceNumber;
+
+        @Override
+        public void onNativeLoad(@NonNull final NativeAd nativeAd) {
+            // This can be null if the ad source was cleared as the AsyncTask is posting
+            // back to the UI handler. Drop this response.
+            if (mMoPubNative == null) {
+                return;
+            }
+
+            mInFlight = false;
+            handleNativeLoad(nativeAd);
+        }
+
+        @Override
+        public void onNativeFail(final NativeErrorCode errorCode) {
+            if (mMoPubNative == null) {
+                return;
+            }
+
+            mInFlight = false;
+            handleNativeFail();
+        }
+    }
+
     NativeAdSource() {
-        this(new ArrayList<TimestampWrapper<NativeAd>>(CACHE_LIMIT),
+        this(new ArrayList<TimestampWrapper<NativeAd>>(MAX_TARGET_DEPTH),
                 new Handler(),
                 new AdRendererRegistry());
     }
@@ -91,50 +155,21 @@ class NativeAdSource {
                 replenishCache();
             }
         };
-
-        mAdRendererRegistry = adRendererRegistry;
-
-        // Construct native URL and start filling the cache
-        mMoPubNativeNetworkListener = new MoPubNativeNetworkListener() {
+        mExpirationSweepRunnable = new Runnable() {
             @Override
-            public void onNativeLoad(@NonNull final NativeAd nativeAd) {
-                // This can be null if the ad source was cleared as the AsyncTask is posting
-                // back to the UI handler. Drop this response.
-                if (mMoPubNative == null) {
-                    return;
-                }
-
-                mRequestInFlight = false;
-                mSequenceNumber++;
-                resetRetryTime();
-
-                mNativeAdCache.add(new TimestampWrapper<NativeAd>(nativeAd));
-                if (mNativeAdCache.size() == 1 && mAdSourceListener != null) {
-                    mAdSourceListener.onAdsAvailable();
-                }
-
+            public void run() {
+                mExpirationSweepScheduled = false;
+                sweepExpiredAds(SystemClock.uptimeMillis());
                 replenishCache();
-            }
-
-            @Override
-            public void onNativeFail(final NativeErrorCode errorCode) {
-                // Reset the retry time for the next time we dequeue.
-                mRequestInFlight = false;
-
-                // Stopping requests after the max retry count prevents us from using battery when
-                // the user is not interacting with the stream, eg. the app is backgrounded.
-                if (mCurrentRetries >= RETRY_TIME_ARRAY_MILLISECONDS.length - 1) {
-                    resetRetryTime();
-                    return;
-                }
-
-                updateRetryTime();
-                mRetryInFlight = true;
-                mReplenishCacheHandler.postDelayed(mReplenishCacheRunnable, getRetryTime());
+                scheduleExpirationSweep();
             }
         };
 
+        mAdRendererRegistry = adRendererRegistry;
+        mAdRequests = new ArrayList<AdRequest>(MAX_REQUESTS_IN_FLIGHT);
+
         mSequenceNumber = 0;
+        mTargetDepth = MIN_TARGET_DEPTH;
         resetRetryTime();
     }
 
@@ -153,8 +188,10 @@ class NativeAdSource {
      */
     void registerAdRenderer(@NonNull final MoPubAdRenderer moPubNativeAdRenderer) {
         mAdRendererRegistry.registerAdRenderer(moPubNativeAdRenderer);
-        if (mMoPubNative != null) {
-            mMoPubNative.registerAdRenderer(moPubNativeAdRenderer);
+        for (final AdRequest adRequest : mAdRequests) {
+            if (adRequest.mMoPubNative != null) {
+                adRequest.mMoPubNative.registerAdRenderer(moPubNativeAdRenderer);
+            }
         }
     }
 
@@ -174,20 +211,36 @@ class NativeAdSource {
     void loadAds(@NonNull final Activity activity,
             @NonNull final String adUnitId,
             final RequestParameters requestParameters) {
-        loadAds(requestParameters, new MoPubNative(activity, adUnitId, mMoPubNativeNetworkListener));
+        loadAds(requestParameters, new MoPubNativeFactory() {
+            @NonNull
+            @Override
+            public MoPubNative create(@NonNull final MoPubNativeNetworkListener listener) {
+                return new MoPubNative(activity, adUnitId, listener);
+            }
+        });
     }
 
     @VisibleForTesting
     void loadAds(final RequestParameters requestParameters,
-             final MoPubNative moPubNative) {
+            @NonNull final MoPubNativeFactory moPubNativeFactory) {
         clear();
 
-        for (MoPubAdRenderer renderer : mAdRendererRegistry.getRendererIterable()) {
-            moPubNative.registerAdRenderer(renderer);
-        }
+        mRequestParameters = requestParameters;
+        mMoPubNativeFactory = moPubNativeFactory;
+
+        replenishCache();
+    }
+
+    /**
+     * Loads ads with a single {@link MoPubNative}, so only one request is ever in flight.
+     */
+    @VisibleForTesting
+    void loadAds(final RequestParameters requestParameters,
+             final MoPubNative moPubNative) {
+        clear();
 
+        addAdRequest(moPubNative);
         mRequestParameters = requestParameters;
-        mMoPubNative = moPubNative;
 
         replenishCache();
     }
@@ -197,20 +250,32 @@ class NativeAdSource {
      */
     void clear() {
         // This will cleanup listeners to stop callbacks from handling old ad units
-        if (mMoPubNative != null) {
-            mMoPubNative.destroy();
-            mMoPubNative = null;
+        for (final AdRequest adRequest : mAdRequests) {
+            if (adRequest.mMoPubNative != null) {
+                adRequest.mMoPubNative.destroy();
+                adRequest.mMoPubNative = null;
+            }
+            adRequest.mInFlight = false;
         }
+        mAdRequests.clear();
+        mMoPubNativeFactory = null;
 
         mRequestParameters = null;
 
         for (final TimestampWrapper<NativeAd> timestampWrapper : mNativeAdCache) {
             timestampWrapper.mInstance.destroy();
+            mWastedAdCount++;
         }
         mNativeAdCache.clear();
 
+        logCacheMetrics();
+        mDequeueCount = 0;
+        mHitCount = 0;
+        mWastedAdCount = 0;
+
         mReplenishCacheHandler.removeMessages(0);
-        mRequestInFlight = false;
+        mRetryInFlight = false;
+        mExpirationSweepScheduled = false;
         mSequenceNumber = 0;
         resetRetryTime();
     }
@@ -229,20 +294,24 @@ class NativeAdSource {
     NativeAd dequeueAd() {
         final long now = SystemClock.uptimeMillis();
 
+        mDequeueCount++;
+        sweepExpiredAds(now);
+
+        NativeAd nativeAd = null;
+        if (!mNativeAdCache.isEmpty()) {
+            nativeAd = mNativeAdCache.remove(0).mInstance;
+            mHitCount++;
+        } else if (!mAdRequests.isEmpty() && mTargetDepth < MAX_TARGET_DEPTH) {
+            // Ads are wanted faster than they load
+            mTargetDepth++;
+        }
+
         // Starting an ad request takes several millis. Post for performance reasons.
-        if (!mRequestInFlight && !mRetryInFlight) {
+        if (getRequestsInFlight() < getMaxRequestsInFlight() && !mRetryInFlight) {
             mReplenishCacheHandler.post(mReplenishCacheRunnable);
         }
 
-        // Dequeue the first ad that hasn't expired.
-        while (!mNativeAdCache.isEmpty()) {
-            TimestampWrapper<NativeAd> responseWrapper = mNativeAdCache.remove(0);
-
-            if (now - responseWrapper.mCreatedTimestamp < EXPIRATION_TIME_MILLISECONDS) {
-                return responseWrapper.mInstance;
-            }
-        }
-        return null;
+        return nativeAd;
     }
 
     @VisibleForTesting
@@ -266,28 +335,226 @@ class NativeAdSource {
     }
 
     /**
-     * Replenish ads in the ad source cache.
+     * Replenish ads in the ad source cache, requesting as many ads as the cache is short of, up to
+     * the number of requests allowed in flight.
      *
      * Calling this method is useful for warming the cache without dequeueing an ad.
      */
     @VisibleForTesting
     void replenishCache() {
-        if (!mRequestInFlight && mMoPubNative != null && mNativeAdCache.size() < CACHE_LIMIT) {
-            mRequestInFlight = true;
-            mMoPubNative.makeRequest(mRequestParameters, mSequenceNumber);
+        replenishCache(mTargetDepth);
+    }
+
+    private void replenishCache(final int targetDepth) {
+        final int maxRequestsInFlight = getMaxRequestsInFlight();
+        int requestsInFlight = getRequestsInFlight();
+        while (requestsInFlight < maxRequestsInFlight
+                && mNativeAdCache.size() + requestsInFlight < targetDepth) {
+            final AdRequest adRequest = getIdleAdRequest();
+            if (adRequest == null || adRequest.mMoPubNative == null) {
+                return;
+            }
+
+            adRequest.mSequenceNumber = getNextSequenceNumber();
+            adRequest.mInFlight = true;
+            requestsInFlight++;
+            adRequest.mMoPubNative.makeRequest(mRequestParameters, adRequest.mSequenceNumber);
         }
     }
 
+    /**
+     * Requests the ads that are missing for a number of upcoming ad positions, up to
+     * {@link #MAX_TARGET_DEPTH}. This is a one-off request and does not change the target depth,
+     * so the cache is not kept this deep once the prefetched ads have been used.
+     *
+     * @param adCount The number of ads that will be dequeued soon.
+     */
+    void prefetch(final int adCount) {
+        final int prefetchDepth = Math.min(adCount, MAX_TARGET_DEPTH);
+        if (prefetchDepth <= mTargetDepth) {
+            return;
+        }
+
+        replenishCache(prefetchDepth);
+    }
+
+    /**
+     * Number of ad requests currently in flight.
+     */
+    int getRequestsInFlight() {
+        int requestsInFlight = 0;
+        for (final AdRequest adRequest : mAdRequests) {
+            if (adRequest.mInFlight) {
+                requestsInFlight++;
+            }
+        }
+        return requestsInFlight;
+    }
+
+    /**
+     * Fraction of dequeued ads that were ready in the cache since the ads were last cleared, or 0
+     * if no ads were dequeued.
+     */
+    float getHitRate() {
+        return mDequeueCount == 0 ? 0 : mHitCount / (float) mDequeueCount;
+    }
+
+    /**
+     * Number of loaded ads that expired or were cleared without being dequeued, since the ads
+     * were last cleared.
+     */
+    int getWastedAdCount() {
+        return mWastedAdCount;
+    }
+
+    private void handleNativeLoad(@NonNull final NativeAd nativeAd) {
+        mSequenceNumber++;
+        resetRetryTime();
+
+        mNativeAdCache.add(new TimestampWrapper<NativeAd>(nativeAd));
+        if (mNativeAdCache.size() == 1 && mAdSourceListener != null) {
+            mAdSourceListener.onAdsAvailable();
+        }
+
+        scheduleExpirationSweep();
+        replenishCache();
+    }
+
+    private void handleNativeFail() {
+        // Stopping requests after the max retry count prevents us from using battery when
+        // the user is not interacting with the stream, eg. the app is backgrounded.
+        if (mCurrentRetries >= RETRY_TIME_ARRAY_MILLISECONDS.length - 1) {
+            resetRetryTime();
+            return;
+        }
+
+        // Another request may already be waiting to retry
+        if (mRetryInFlight) {
+            return;
+        }
+
+        updateRetryTime();
+        mRetryInFlight = true;
+        mReplenishCacheHandler.postDelayed(mReplenishCacheRunnable,
+                AdmissionController.addJitter(getRetryTime(),
+                        MAXIMUM_RETRY_TIME_MILLISECONDS));
+    }
+
+    /**
+     * Requests go one at a time while they are failing, and otherwise up to
+     * {@link #MAX_REQUESTS_IN_FLIGHT} at once.
+     */
+    private int getMaxRequestsInFlight() {
+        if (mMoPubNativeFactory == null) {
+            return Math.min(mAdRequests.size(), MAX_REQUESTS_IN_FLIGHT);
+        }
+        return mCurrentRetries > 0 ? 1 : MAX_REQUESTS_IN_FLIGHT;
+    }
+
+    /**
+     * Gets the sequence number for a new request. This is the number of ads loaded so far, unless
+     * a request in flight already uses it. Identical ad requests in flight share one response, so
+     * parallel requests with the same sequence number would all load the same ad.
+     */
+    private int getNextSequenceNumber() {
+        int sequenceNumber = mSequenceNumber;
+        boolean inUse = true;
+        while (inUse) {
+            inUse = false;
+            for (final AdRequest adRequest : mAdRequests) {
+                if (adRequest.mInFlight && adRequest.mSequenceNumber == sequenceNumber) {
+                    sequenceNumber++;
+                    inUse = true;
+                    break;
+                }
+            }
+        }
+        return sequenceNumber;
+    }
+
+    @Nullable
+    private AdRequest getIdleAdRequest() {
+        for (final AdRequest adRequest : mAdRequests) {
+            if (!adRequest.mInFlight) {
+                return adRequest;
+            }
+        }
+
+        if (mMoPubNativeFactory == null || mAdRequests.size() >= MAX_REQUESTS_IN_FLIGHT) {
+            return null;
+        }
+        final AdRequest adRequest = new AdRequest();
+        addAdRequest(mMoPubNativeFactory.create(adRequest), adRequest);
+        return adRequest;
+    }
+
+    private void addAdRequest(@NonNull final MoPubNative moPubNative) {
+        addAdRequest(moPubNative, new AdRequest());
+    }
+
+    private void addAdRequest(@NonNull final MoPubNative moPubNative,
+            @NonNull final AdRequest adRequest) {
+        for (MoPubAdRenderer renderer : mAdRendererRegistry.getRendererIterable()) {
+            moPubNative.registerAdRenderer(renderer);
+        }
+
+        adRequest.mMoPubNative = moPubNative;
+        mAdRequests.add(adRequest);
+    }
+
+    /**
+     * Destroys the ads at the front of the cache that have expired. Each expired ad also lowers
+     * the target depth, since the cache held more ads than were used.
+     */
+    private void sweepExpiredAds(final long now) {
+        while (!mNativeAdCache.isEmpty()
+                && now - mNativeAdCache.get(0).mCreatedTimestamp >= EXPIRATION_TIME_MILLISECONDS) {
+            mNativeAdCache.remove(0).mInstance.destroy();
+            mWastedAdCount++;
+            if (mTargetDepth > MIN_TARGET_DEPTH) {
+                mTargetDepth--;
+            }
+        }
+    }
+
+    private void scheduleExpirationSweep() {
+        if (mExpirationSweepScheduled || mNativeAdCache.isEmpty()) {
+            return;
+        }
+
+        // Ads are cached in the order they loaded, so the first one expires first
+        final long expiresInMillis = mNativeAdCache.get(0).mCreatedTimestamp
+                + EXPIRATION_TIME_MILLISECONDS - SystemClock.uptimeMillis();
+        mExpirationSweepScheduled = true;
+        mReplenishCacheHandler.postDelayed(mExpirationSweepRunnable,
+                Math.max(0, expiresInMillis));
+    }
+
+    private void logCacheMetrics() {
+        if (mDequeueCount == 0 && mWastedAdCount == 0) {
+            return;
+        }
+        MoPubLog.log(CUSTOM, "Native ad cache served " + mHitCount + " of " + mDequeueCount
+                + " ads requested by the stream. " + mWastedAdCount
+                + " loaded ads were never shown.");
+    }
+
     @Deprecated
     @VisibleForTesting
     void setMoPubNative(final MoPubNative moPubNative) {
-        mMoPubNative = moPubNative;
+        if (mAdRequests.isEmpty()) {
+            mAdRequests.add(new AdRequest());
+        }
+        mAdRequests.get(0).mMoPubNative = moPubNative;
     }
 
     @NonNull
     @Deprecated
     @VisibleForTesting
     MoPubNativeNetworkListener getMoPubNativeNetworkListener() {
-        return mMoPubNativeNetworkListener;
+        if (mAdRequests.isEmpty()) {
+            mAdRequests.add(new AdRequest());
+        }
+        return mAdRequests.get(0);
     }
 }
@@ -119,10 +119,15 @@ import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
  * originalPositions: {3}
  * adjustedPositions: {3}
  *
+ * Repeating positions are added to the desired lists as the stream reaches them, so there is no
+ * cap on the number of ads.
+ *
  * Some runtime guarantees in terms of number of insertion ads:
  * - Finds the next or previous insertion position in O(logN)
  * - Maps from adjusted to original positions and vice versa in O(logN)
- * - Places an ad (moves positions from desired to placed) in O(N)
+ * - Shifts positions for inserted, removed and moved items in O(logN)
+ * - Places an ad (moves positions from desired to placed) in O(logN) when ads are placed in order
+ *   down the stream, and O(N) otherwise
  */
 class PlacementData {
     /**
@@ -130,65 +135,61 @@ class PlacementData {
      */
     public final static int NOT_FOUND = -1;
 
-    // Cap the number of ads to avoid unrestrained memory usage. 200 allows the 5 positioning
-    // arrays to fit in less than 4K.
-    private final static int MAX_ADS = 200;
+    private final static int INITIAL_AD_CAPACITY = 16;
+
+    // The lists and the ad array only grow. This prevents garbage collection when reallocating
+    // them, which causes noticeable stuttering when scrolling on some devices.
+    @NonNull private final PositionList mDesiredOriginalPositions = new PositionList();
+    @NonNull private final PositionList mDesiredInsertionPositions = new PositionList();
+    @NonNull private final PositionList mOriginalAdPositions = new PositionList();
+    @NonNull private final PositionList mAdjustedAdPositions = new PositionList();
+    @NonNull private NativeAd[] mNativeAds = new NativeAd[INITIAL_AD_CAPACITY];
 
-    // Initialize all of these to their max capacity. This prevents garbage collection when
-    // reallocating the list, which causes noticeable stuttering when scrolling on some devices.
-    @NonNull private final int[] mDesiredOriginalPositions = new int[MAX_ADS];
-    @NonNull private final int[] mDesiredInsertionPositions = new int[MAX_ADS];
-    private int mDesiredCount = 0;
-    @NonNull private final int[] mOriginalAdPositions = new int[MAX_ADS];
-    @NonNull private final int[] mAdjustedAdPositions = new int[MAX_ADS];
-    @NonNull private final NativeAd[] mNativeAds = new NativeAd[MAX_ADS];
-    private int mPlacedCount = 0;
+    // Interval of the repeating positions that have not been added to the desired lists yet.
+    private final int mRepeatingInterval;
 
     /**
      * @param desiredInsertionPositions Insertion positions, expressed as original positions
+     * @param repeatingInterval         Interval of the positions after the last one, or
+     *                                  {@link MoPubClientPositioning#NO_REPEAT}
      */
-    private PlacementData(@NonNull final int[] desiredInsertionPositions) {
-        mDesiredCount = Math.min(desiredInsertionPositions.length, MAX_ADS);
-        System.arraycopy(desiredInsertionPositions, 0, mDesiredInsertionPositions, 0, mDesiredCount);
-        System.arraycopy(desiredInsertionPositions, 0, mDesiredOriginalPositions, 0, mDesiredCount);
+    private PlacementData(@NonNull final int[] desiredInsertionPositions,
+            final int repeatingInterval) {
+        mDesiredOriginalPositions.setAll(desiredInsertionPositions,
+                desiredInsertionPositions.length);
+        mDesiredInsertionPositions.setAll(desiredInsertionPositions,
+                desiredInsertionPositions.length);
+        mRepeatingInterval = repeatingInterval;
     }
 
     @NonNull
     static PlacementData fromAdPositioning(@NonNull final MoPubClientPositioning adPositioning) {
         final List<Integer> fixed = adPositioning.getFixedPositions();
-        final int interval = adPositioning.getRepeatingInterval();
-
-        final int size = (interval == MoPubClientPositioning.NO_REPEAT ? fixed.size() : MAX_ADS);
-        final int[] desiredInsertionPositions = new int[size];
+        final int[] desiredInsertionPositions = new int[fixed.size()];
 
         // Fixed positions are in terms of final positions. Calculate current insertion positions
-        // by decrementing numAds at each index.
+        // by decrementing numAds at each index. Repeating positions are added when needed.
         int numAds = 0;
-        int lastPos = 0;
         for (final Integer position : fixed) {
-            lastPos = position - numAds;
-            desiredInsertionPositions[numAds++] = lastPos;
+            desiredInsertionPositions[numAds] = position - numAds;
+            numAds++;
         }
-
-        // Expand the repeating positions, if there are any
-        while (numAds < size) {
-            lastPos = lastPos + interval - 1;
-            desiredInsertionPositions[numAds++] = lastPos;
-        }
-        return new PlacementData(desiredInsertionPositions);
+        return new PlacementData(desiredInsertionPositions, adPositioning.getRepeatingInterval());
     }
 
     @NonNull
     static PlacementData empty() {
-        return new PlacementData(new int[] {});
+        return new PlacementData(new int[] {}, MoPubClientPositioning.NO_REPEAT);
     }
 
     /**
      * Whether the given position should be an ad.
      */
     boolean shouldPlaceAd(final int position) {
-        final int index = binarySearch(mDesiredInsertionPositions, 0, mDesiredCount, position);
-        return index >= 0;
+        extendRepeatingPositions(position, 0);
+        final int index = mDesiredInsertionPositions.lowerBound(position);
+        return index < mDesiredInsertionPositions.size()
+                && mDesiredInsertionPositions.get(index) == position;
     }
 
     /**
@@ -196,12 +197,12 @@ class PlacementData {
      * more ads.
      */
     int nextInsertionPosition(final int position) {
-        final int index = binarySearchGreaterThan(
-                mDesiredInsertionPositions, mDesiredCount, position);
-        if (index == mDesiredCount) {
+        extendRepeatingPositions(position + 1, 0);
+        final int index = mDesiredInsertionPositions.upperBound(position);
+        if (index == mDesiredInsertionPositions.size()) {
             return NOT_FOUND;
         }
-        return mDesiredInsertionPositions[index];
+        return mDesiredInsertionPositions.get(index);
     }
 
     /**
@@ -209,12 +210,12 @@ class PlacementData {
      * are no more ads.
      */
     int previousInsertionPosition(final int position) {
-        final int index = binarySearchFirstEquals(
-                mDesiredInsertionPositions,  mDesiredCount, position);
+        extendRepeatingPositions(position, 0);
+        final int index = mDesiredInsertionPositions.lowerBound(position);
         if (index == 0) {
             return NOT_FOUND;
         }
-        return mDesiredInsertionPositions[index - 1];
+        return mDesiredInsertionPositions.get(index - 1);
     }
 
     /**
@@ -222,54 +223,45 @@ class PlacementData {
      */
     void placeAd(final int adjustedPosition, final NativeAd nativeAd) {
         // See if this is a insertion ad
-        final int desiredIndex = binarySearchFirstEquals(
-                mDesiredInsertionPositions, mDesiredCount, adjustedPosition);
-        if (desiredIndex == mDesiredCount
-                || mDesiredInsertionPositions[desiredIndex] != adjustedPosition) {
+        extendRepeatingPositions(adjustedPosition, 0);
+        final int desiredIndex = mDesiredInsertionPositions.lowerBound(adjustedPosition);
+        if (desiredIndex == mDesiredInsertionPositions.size()
+                || mDesiredInsertionPositions.get(desiredIndex) != adjustedPosition) {
             MoPubLog.log(CUSTOM, "Attempted to insert an ad at an invalid position");
             return;
         }
 
-        // Add to placed array
-        final int originalPosition = mDesiredOriginalPositions[desiredIndex];
-        int placeIndex = binarySearchGreaterThan(
-                mOriginalAdPositions, mPlacedCount, originalPosition);
-        if (placeIndex < mPlacedCount) {
-            final int num = mPlacedCount - placeIndex;
-            System.arraycopy(mOriginalAdPositions, placeIndex,
-                    mOriginalAdPositions, placeIndex + 1, num);
-            System.arraycopy(mAdjustedAdPositions, placeIndex,
-                    mAdjustedAdPositions, placeIndex + 1, num);
-            System.arraycopy(mNativeAds, placeIndex, mNativeAds, placeIndex + 1, num);
+        // Add to placed lists
+        final int originalPosition = mDesiredOriginalPositions.get(desiredIndex);
+        final int placeIndex = mOriginalAdPositions.upperBound(originalPosition);
+        final int placedCount = mOriginalAdPositions.size();
+        if (placedCount == mNativeAds.length) {
+            final NativeAd[] nativeAds = new NativeAd[placedCount * 2];
+            System.arraycopy(mNativeAds, 0, nativeAds, 0, placedCount);
+            mNativeAds = nativeAds;
+        }
+        if (placeIndex < placedCount) {
+            System.arraycopy(mNativeAds, placeIndex, mNativeAds, placeIndex + 1,
+                    placedCount - placeIndex);
         }
-        mOriginalAdPositions[placeIndex] = originalPosition;
-        mAdjustedAdPositions[placeIndex] = adjustedPosition;
+        mOriginalAdPositions.insert(placeIndex, originalPosition);
+        mAdjustedAdPositions.insert(placeIndex, adjustedPosition);
         mNativeAds[placeIndex] = nativeAd;
-        mPlacedCount++;
 
         // Remove desired index
-        final int num = mDesiredCount - desiredIndex - 1;
-        System.arraycopy(mDesiredInsertionPositions, desiredIndex + 1,
-                mDesiredInsertionPositions, desiredIndex, num);
-        System.arraycopy(mDesiredOriginalPositions, desiredIndex + 1,
-                mDesiredOriginalPositions, desiredIndex, num);
-        mDesiredCount--;
+        mDesiredOriginalPositions.remove(desiredIndex);
+        mDesiredInsertionPositions.remove(desiredIndex);
 
         // Increment adjusted positions
-        for (int i = desiredIndex; i < mDesiredCount; ++i) {
-            mDesiredInsertionPositions[i]++;
-        }
-        for (int i = placeIndex + 1; i < mPlacedCount; ++i) {
-            mAdjustedAdPositions[i]++;
-        }
+        mDesiredInsertionPositions.shiftFrom(desiredIndex, 1);
+        mAdjustedAdPositions.shiftFrom(placeIndex + 1, 1);
     }
 
     /**
      * @see {@link com.mopub.nativeads.MoPubStreamAdPlacer#isAd(int)}
      */
     boolean isPlacedAd(final int position) {
-        final int index = binarySearch(mAdjustedAdPositions, 0, mPlacedCount, position);
-        return index >= 0;
+        return findPlacedAd(position) != NOT_FOUND;
     }
 
     /**
@@ -278,8 +270,8 @@ class PlacementData {
      */
     @Nullable
     NativeAd getPlacedAd(final int position) {
-        final int index = binarySearch(mAdjustedAdPositions, 0, mPlacedCount, position);
-        if (index < 0) {
+        final int index = findPlacedAd(position);
+        if (index == NOT_FOUND) {
             return null;
         }
         return mNativeAds[index];
@@ -291,35 +283,31 @@ class PlacementData {
      */
     @NonNull
     int[] getPlacedAdPositions() {
-        int[] positions = new int[mPlacedCount];
-        System.arraycopy(mAdjustedAdPositions, 0, positions, 0, mPlacedCount);
-        return positions;
+        return mAdjustedAdPositions.toArray();
     }
 
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#getOriginalPosition(int)
      */
     int getOriginalPosition(final int position) {
-        final int index = binarySearch(mAdjustedAdPositions, 0, mPlacedCount, position);
+        final int index = mAdjustedAdPositions.lowerBound(position);
 
-        // No match, ~index is the number of ads before this pos.
-        if (index < 0) {
-            return position - ~index;
+        // This is an ad - there is no original position
+        if (index < mAdjustedAdPositions.size() && mAdjustedAdPositions.get(index) == position) {
+            return NOT_FOUND;
         }
 
-        // This is an ad - there is no original position
-        return NOT_FOUND;
+        // index is the number of ads before this pos.
+        return position - index;
     }
 
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#getAdjustedPosition(int)
      */
     int getAdjustedPosition(final int originalPosition) {
-        // This is an ad. Since binary search doesn't properly handle dups, find the first non-ad.
-        int index = binarySearchGreaterThan(mOriginalAdPositions, mPlacedCount, originalPosition);
-        return originalPosition + index;
+        // Ads share the original position of the item after them, so count those too.
+        return originalPosition + mOriginalAdPositions.upperBound(originalPosition);
     }
-
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#getOriginalCount(int)
      */
@@ -349,17 +337,28 @@ class PlacementData {
      * positions.
      */
     int clearAdsInRange(final int adjustedStartRange, final int adjustedEndRange) {
+        final int placedCount = mAdjustedAdPositions.size();
+        final int firstIndex = mAdjustedAdPositions.lowerBound(adjustedStartRange);
+        if (firstIndex == placedCount
+                || mAdjustedAdPositions.get(firstIndex) >= adjustedEndRange) {
+            return 0;
+        }
+
+        // Work on copies of the lists, which are put back once all positions are updated.
+        final int[] originalAdPositions = mOriginalAdPositions.toArray();
+        final int[] adjustedAdPositions = mAdjustedAdPositions.toArray();
+
         // Temporary arrays to store the cleared positions. Using temporary arrays makes it
         // easy to debug what positions are being cleared.
-        int[] clearOriginalPositions = new int[mPlacedCount];
-        int[] clearAdjustedPositions = new int[mPlacedCount];
+        int[] clearOriginalPositions = new int[placedCount];
+        int[] clearAdjustedPositions = new int[placedCount];
         int clearCount = 0;
 
         // Add to the clear position arrays any positions that fall inside
         // [adjustedRangeStart, adjustedRangeEnd).
-        for (int i = 0; i < mPlacedCount; ++i) {
-            int originalPosition = mOriginalAdPositions[i];
-            int adjustedPosition = mAdjustedAdPositions[i];
+        for (int i = 0; i < placedCount; ++i) {
+            int originalPosition = originalAdPositions[i];
+            int adjustedPosition = adjustedAdPositions[i];
             if (adjustedStartRange <= adjustedPosition && adjustedPosition < adjustedEndRange) {
                 // When copying adjusted positions, subtract the current clear count because there
                 // is no longer an ad incrementing the desired insertion position.
@@ -373,37 +372,44 @@ class PlacementData {
             } else if (clearCount > 0) {
                 // The position is not in the range; shift it by the number of cleared ads.
                 int newIndex = i - clearCount;
-                mOriginalAdPositions[newIndex] = originalPosition;
-                mAdjustedAdPositions[newIndex] = adjustedPosition - clearCount;
+                originalAdPositions[newIndex] = originalPosition;
+                adjustedAdPositions[newIndex] = adjustedPosition - clearCount;
                 mNativeAds[newIndex] = mNativeAds[i];
+                mNativeAds[i] = null;
             }
         }
 
-        // If we have cleared nothing, this method was a no-op.
-        if (clearCount == 0) {
-            return 0;
-        }
-
-        // Modify the desired positions arrays in order to make space to put back the
-        // cleared ad positions. For example if the desired array was {1, 10,
-        // 15} and we need to insert {3, 7} we'll shift the desired array to be {1, ?, ? , 10, 15}.
-        int firstCleared = clearAdjustedPositions[0];
-        int desiredIndex = binarySearchFirstEquals(
-                mDesiredInsertionPositions, mDesiredCount, firstCleared);
-        for (int i = mDesiredCount - 1; i >= desiredIndex; --i) {
-            mDesiredOriginalPositions[i + clearCount] = mDesiredOriginalPositions[i];
-            mDesiredInsertionPositions[i + clearCount] = mDesiredInsertionPositions[i] - clearCount;
-        }
-
-        // Copy the cleared ad positions into the desired arrays.
-        for (int i = 0; i < clearCount; ++i) {
-            mDesiredOriginalPositions[desiredIndex + i] = clearOriginalPositions[i];
-            mDesiredInsertionPositions[desiredIndex + i] = clearAdjustedPositions[i];
+        // Merge the cleared ad positions back into the desired positions. For example if the
+        // desired array was {1, 10, 15} and we need to put back {3, 7} it becomes
+        // {1, 3, 7, 8, 13}. Desired positions go before an ad at the same position, and move up
+        // by the number of cleared ads before them.
+        final int desiredCount = mDesiredInsertionPositions.size();
+        final int[] desiredOriginalPositions = mDesiredOriginalPositions.toArray();
+        final int[] desiredInsertionPositions = mDesiredInsertionPositions.toArray();
+        final int[] mergedOriginalPositions = new int[desiredCount + clearCount];
+        final int[] mergedInsertionPositions = new int[desiredCount + clearCount];
+        int desiredIndex = 0;
+        int clearIndex = 0;
+        for (int i = 0; i < desiredCount + clearCount; ++i) {
+            if (clearIndex == clearCount || (desiredIndex < desiredCount
+                    && desiredInsertionPositions[desiredIndex]
+                    <= clearAdjustedPositions[clearIndex] + clearIndex)) {
+                mergedOriginalPositions[i] = desiredOriginalPositions[desiredIndex];
+                mergedInsertionPositions[i] =
+                        desiredInsertionPositions[desiredIndex] - clearIndex;
+                desiredIndex++;
+            } else {
+                mergedOriginalPositions[i] = clearOriginalPositions[clearIndex];
+                mergedInsertionPositions[i] = clearAdjustedPositions[clearIndex];
+                clearIndex++;
+            }
         }
 
-        // Update the array counts, and we're done.
-        mDesiredCount = mDesiredCount + clearCount;
-        mPlacedCount = mPlacedCount - clearCount;
+        // Put the arrays back into the lists, and we're done.
+        mDesiredOriginalPositions.setAll(mergedOriginalPositions, desiredCount + clearCount);
+        mDesiredInsertionPositions.setAll(mergedInsertionPositions, desiredCount + clearCount);
+        mOriginalAdPositions.setAll(originalAdPositions, placedCount - clearCount);
+        mAdjustedAdPositions.setAll(adjustedAdPositions, placedCount - clearCount);
         return clearCount;
     }
 
@@ -412,33 +418,29 @@ class PlacementData {
      * will be back to the desired insertion positions.
      */
     void clearAds() {
-        if (mPlacedCount == 0) {
+        if (mAdjustedAdPositions.size() == 0) {
             return;
         }
 
-        clearAdsInRange(0, mAdjustedAdPositions[mPlacedCount - 1] + 1);
+        clearAdsInRange(0, mAdjustedAdPositions.getLast() + 1);
     }
 
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#insertItem(int)
      */
     void insertItem(final int originalPosition) {
-
-        // Increment desired arrays.
-        int indexToIncrement = binarySearchFirstEquals(
-                mDesiredOriginalPositions, mDesiredCount, originalPosition);
-        for (int i = indexToIncrement; i < mDesiredCount; ++i) {
-            mDesiredOriginalPositions[i]++;
-            mDesiredInsertionPositions[i]++;
-        }
-
-        // Increment placed arrays.
-        indexToIncrement = binarySearchFirstEquals(
-                mOriginalAdPositions, mPlacedCount, originalPosition);
-        for (int i = indexToIncrement; i < mPlacedCount; ++i) {
-            mOriginalAdPositions[i]++;
-            mAdjustedAdPositions[i]++;
-        }
+        // Repeating positions after the item move with it.
+        extendRepeatingPositions(0, originalPosition);
+
+        // Increment desired lists.
+        int indexToIncrement = mDesiredOriginalPositions.lowerBound(originalPosition);
+        mDesiredOriginalPositions.shiftFrom(indexToIncrement, 1);
+        mDesiredInsertionPositions.shiftFrom(indexToIncrement, 1);
+
+        // Increment placed lists.
+        indexToIncrement = mOriginalAdPositions.lowerBound(originalPosition);
+        mOriginalAdPositions.shiftFrom(indexToIncrement, 1);
+        mAdjustedAdPositions.shiftFrom(indexToIncrement, 1);
     }
 
     /**
@@ -449,22 +451,17 @@ class PlacementData {
         // position we're removing. The original position associated with an ad is the original
         // position of the first content item after the ad, so we shouldn't change the original
         // position of an ad that matches the original position removed.
-        int indexToDecrement = binarySearchGreaterThan(
-                mDesiredOriginalPositions, mDesiredCount, originalPosition);
+        extendRepeatingPositions(0, originalPosition + 1);
+        int indexToDecrement = mDesiredOriginalPositions.upperBound(originalPosition);
 
-        // Decrement desired arrays.
-        for (int i = indexToDecrement; i < mDesiredCount; ++i) {
-            mDesiredOriginalPositions[i]--;
-            mDesiredInsertionPositions[i]--;
-        }
+        // Decrement desired lists.
+        mDesiredOriginalPositions.shiftFrom(indexToDecrement, -1);
+        mDesiredInsertionPositions.shiftFrom(indexToDecrement, -1);
 
-        indexToDecrement = binarySearchGreaterThan(
-                mOriginalAdPositions, mPlacedCount, originalPosition);
+        indexToDecrement = mOriginalAdPositions.upperBound(originalPosition);
 
-        for (int i = indexToDecrement; i < mPlacedCount; ++i) {
-            mOriginalAdPositions[i]--;
-            mAdjustedAdPositions[i]--;
-        }
+        mOriginalAdPositions.shiftFrom(indexToDecrement, -1);
+        mAdjustedAdPositions.shiftFrom(indexToDecrement, -1);
     }
 
     /**
@@ -475,59 +472,49 @@ class PlacementData {
         insertItem(newPosition);
     }
 
-    private static int binarySearchFirstEquals(int[] array, int count, int value) {
-        int index = binarySearch(array, 0, count, value);
-
-        // If not found, binarySearch returns the 2's complement of the index of the nearest
-        // value higher than the target value, which is also the insertion index.
-        if (index < 0) {
-            return ~index;
-        }
-
-        int duplicateValue = array[index];
-        while (index >= 0 && array[index] == duplicateValue) {
-            index--;
+    /**
+     * Adds repeating positions to the end of the desired lists until the last one is at or after
+     * both the given insertion position and the given original position. Each one follows the last
+     * insertion position, desired or placed, just like they would have been laid out up front.
+     */
+    private void extendRepeatingPositions(final int insertionPosition,
+            final int originalPosition) {
+        if (mRepeatingInterval == MoPubClientPositioning.NO_REPEAT) {
+            return;
         }
 
-        return index + 1;
-    }
-
-    private static int binarySearchGreaterThan(int[] array, int count, int value) {
-        int index = binarySearch(array, 0, count, value);
-
-        // If not found, binarySearch returns the 2's complement of the index of the nearest
-        // value higher than the target value, which is also the insertion index.
-        if (index < 0) {
-            return ~index;
-        }
+        while (true) {
+            final int desiredCount = mDesiredOriginalPositions.size();
+            final int placedCount = mOriginalAdPositions.size();
+            final int lastPlaced = placedCount > 0 ? mOriginalAdPositions.getLast() : 0;
+            final int lastDesired = desiredCount > 0
+                    ? mDesiredOriginalPositions.getLast()
+                    : NOT_FOUND;
+
+            // Placed ads after the last desired position were the last insertion positions
+            final boolean isLastDesired = desiredCount > 0
+                    && (placedCount == 0 || lastDesired >= lastPlaced);
+            if (isLastDesired && lastDesired >= originalPosition
+                    && mDesiredInsertionPositions.getLast() >= insertionPosition) {
+                return;
+            }
 
-        int duplicateValue = array[index];
-        while (index < count && array[index] == duplicateValue) {
-            index++;
+            // Every placed ad is before the new position
+            final int nextOriginal = (isLastDesired ? lastDesired : lastPlaced)
+                    + mRepeatingInterval - 1;
+            mDesiredOriginalPositions.append(nextOriginal);
+            mDesiredInsertionPositions.append(nextOriginal + placedCount);
         }
-
-        return index;
     }
 
     /**
-     * Copied from Arrays.java, which isn't available until Gingerbread.
+     * The index of the placed ad at the given position, or NOT_FOUND if there is none.
      */
-    private static int binarySearch(int[] array, int startIndex, int endIndex, int value) {
-        int lo = startIndex;
-        int hi = endIndex - 1;
-
-        while (lo <= hi) {
-            int mid = (lo + hi) >>> 1;
-            int midVal = array[mid];
-
-            if (midVal < value) {
-                lo = mid + 1;
-            } else if (midVal > value) {
-                hi = mid - 1;
-            } else {
-                return mid;  // value found
-            }
+    private int findPlacedAd(final int position) {
+        final int index = mAdjustedAdPositions.lowerBound(position);
+        if (index < mAdjustedAdPositions.size() && mAdjustedAdPositions.get(index) == position) {
+            return index;
         }
-        return ~lo;  // value not present
+        return NOT_FOUND;
     }
 }
@@ -0,0 +1,221 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import android.support.annotation.NonNull;
+
+/**
+ * A sorted list of positions that can shift every position from an index onwards in O(logN).
+ *
+ * Positions are stored as the differences between neighbours in a Fenwick tree, so a position is
+ * the sum of the differences up to it. Shifting a suffix of the list changes a single difference,
+ * and since the differences are never negative, the first position at or after a value can be
+ * found by walking down the tree.
+ *
+ * Runtime guarantees in terms of the size of the list:
+ * - Gets a position, shifts a suffix and searches for a value in O(logN)
+ * - Appends or removes the last position in O(logN)
+ * - Inserts or removes any other position in O(N)
+ *
+ * The arrays only grow, so a list that is cleared and refilled does not allocate.
+ */
+class PositionList {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // 1-based Fenwick tree of the differences between neighbouring positions. Nodes after mSize
+    // are stale and are rebuilt when the list grows into them.
+    @NonNull private int[] mTree;
+    // Scratch space for operations that rebuild the tree
+    @NonNull private int[] mScratch;
+    private int mSize;
+
+    PositionList() {
+        mTree = new int[INITIAL_CAPACITY + 1];
+        mScratch = new int[INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * Gets the position at the given index.
+     */
+    int get(final int index) {
+        checkIndex(index, mSize);
+
+        int sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the last position. The list must not be empty.
+     */
+    int getLast() {
+        return get(mSize - 1);
+    }
+
+    /**
+     * The index of the first position greater than or equal to the value, or {@link #size()} if
+     * there is none.
+     */
+    int lowerBound(final int value) {
+        int index = 0;
+        int sum = 0;
+        for (int step = Integer.highestOneBit(mSize); step > 0; step >>= 1) {
+            final int next = index + step;
+            if (next <= mSize && sum + mTree[next] < value) {
+                index = next;
+                sum += mTree[next];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * The index of the first position greater than the value, or {@link #size()} if there is none.
+     */
+    int upperBound(final int value) {
+        return value == Integer.MAX_VALUE ? mSize : lowerBound(value + 1);
+    }
+
+    /**
+     * Adds {@code delta} to every position from the given index to the end of the list. Positions
+     * must stay sorted, so a negative delta may not move a position below the one before it.
+     */
+    void shiftFrom(final int index, final int delta) {
+        if (index < 0 || index >= mSize || delta == 0) {
+            return;
+        }
+
+        for (int i = index + 1; i <= mSize; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * Adds a position to the end of the list. It must not be less than the last position.
+     */
+    void append(final int position) {
+        ensureCapacity(mSize + 1);
+
+        // A node holds the sum of the differences it covers, which is the distance from the
+        // position before its range.
+        final int node = mSize + 1;
+        final int before = node - (node & -node);
+        mTree[node] = position - (before > 0 ? get(before - 1) : 0);
+        mSize++;
+    }
+
+    /**
+     * Inserts a position at the given index. It must be between its neighbours.
+     */
+    void insert(final int index, final int position) {
+        checkIndex(index, mSize + 1);
+
+        if (index == mSize) {
+            append(position);
+            return;
+        }
+
+        ensureCapacity(mSize + 1);
+        copyTo(mScratch);
+        System.arraycopy(mScratch, index, mScratch, index + 1, mSize - index);
+        mScratch[index] = position;
+        build(mScratch, mSize + 1);
+    }
+
+    /**
+     * Removes the position at the given index.
+     */
+    void remove(final int index) {
+        checkIndex(index, mSize);
+
+        if (index == mSize - 1) {
+            mSize--;
+            return;
+        }
+
+        copyTo(mScratch);
+        System.arraycopy(mScratch, index + 1, mScratch, index, mSize - index - 1);
+        build(mScratch, mSize - 1);
+    }
+
+    /**
+     * Replaces the list with the first {@code count} positions of a sorted array.
+     */
+    void setAll(@NonNull final int[] positions, final int count) {
+        ensureCapacity(count);
+        build(positions, count);
+    }
+
+    void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Copies the positions into an array with room for at least {@link #size()} of them.
+     */
+    void copyTo(@NonNull final int[] positions) {
+        // Undo the tree to get the differences back, then add them up
+        System.arraycopy(mTree, 1, positions, 0, mSize);
+        for (int i = mSize; i > 0; i--) {
+            final int parent = i + (i & -i);
+            if (parent <= mSize) {
+                positions[parent - 1] -= positions[i - 1];
+            }
+        }
+        for (int i = 1; i < mSize; i++) {
+            positions[i] += positions[i - 1];
+        }
+    }
+
+    @NonNull
+    int[] toArray() {
+        final int[] positions = new int[mSize];
+        copyTo(positions);
+        return positions;
+    }
+
+    private void build(@NonNull final int[] positions, final int count) {
+        int previous = 0;
+        for (int i = 1; i <= count; i++) {
+            mTree[i] = positions[i - 1] - previous;
+            previous = positions[i - 1];
+        }
+        for (int i = 1; i <= count; i++) {
+            final int parent = i + (i & -i);
+            if (parent <= count) {
+                mTree[parent] += mTree[i];
+            }
+        }
+        mSize = count;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity < mTree.length) {
+            return;
+        }
+
+        int newCapacity = (mTree.length - 1) * 2;
+        while (newCapacity < capacity) {
+            newCapacity *= 2;
+        }
+        final int[] tree = new int[newCapacity + 1];
+        System.arraycopy(mTree, 0, tree, 0, mSize + 1);
+        mTree = tree;
+        mScratch = new int[newCapacity];
+    }
+
+    private static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size "
+                    + size);
+        }
+    }
+}
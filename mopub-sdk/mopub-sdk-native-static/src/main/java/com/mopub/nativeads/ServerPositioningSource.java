@@ -15,9 +15,11 @@ import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.DeviceUtils;
 import com.mopub.mobileads.MoPubErrorCode;
 import com.mopub.nativeads.MoPubNativeAdPositioning.MoPubClientPositioning;
+import com.mopub.network.AdmissionController;
 import com.mopub.network.MoPubNetworkError;
 import com.mopub.network.Networking;
-import com.mopub.volley.RequestQueue;
+import com.mopub.network.SingleFlight;
+import com.mopub.volley.Request;
 import com.mopub.volley.Response;
 import com.mopub.volley.VolleyError;
 
@@ -61,18 +63,22 @@ class ServerPositioningSource implements PositioningSource {
     private static final int MAXIMUM_RETRY_TIME_MILLISECONDS = 5 * 60 * 1000; // 5 minutes.
     private int mMaximumRetryTimeMillis = MAXIMUM_RETRY_TIME_MILLISECONDS;
 
+    // Stream adapters for the same ad unit often load positioning at the same time. Identical
+    // requests in flight share one network call.
+    private static final SingleFlight<MoPubClientPositioning> sPositioningRequests =
+            new SingleFlight<>();
+
     @NonNull private final Context mContext;
 
     // Handler and runnable for retrying after a failed response.
     @NonNull private final Handler mRetryHandler;
     @NonNull private final Runnable mRetryRunnable;
-    private final Response.Listener<MoPubClientPositioning> mPositioningListener;
-    private final Response.ErrorListener mErrorListener;
+    private final SingleFlight.Listener<MoPubClientPositioning> mPositioningListener;
 
     @Nullable private PositioningListener mListener;
     private int mRetryCount;
     @Nullable private String mRetryUrl;
-    @Nullable private PositioningRequest mRequest;
+    @Nullable private SingleFlight<MoPubClientPositioning>.Call mCall;
 
     ServerPositioningSource(@NonNull final Context context) {
         mContext = context.getApplicationContext();
@@ -85,14 +91,12 @@ class ServerPositioningSource implements PositioningSource {
             }
         };
 
-        mPositioningListener = new Response.Listener<MoPubClientPositioning>() {
+        mPositioningListener = new SingleFlight.Listener<MoPubClientPositioning>() {
             @Override
-            public void onResponse(final MoPubClientPositioning clientPositioning) {
+            public void onResponse(@NonNull final MoPubClientPositioning clientPositioning) {
                 handleSuccess(clientPositioning);
             }
-        };
 
-        mErrorListener = new Response.ErrorListener() {
             @Override
             public void onErrorResponse(final VolleyError error) {
                 // Don't log a stack trace when we're just warming up.
@@ -112,9 +116,9 @@ class ServerPositioningSource implements PositioningSource {
     @Override
     public void loadPositions(@NonNull String adUnitId, @NonNull PositioningListener listener) {
         // If a request is in flight, remove it.
-        if (mRequest != null) {
-            mRequest.cancel();
-            mRequest = null;
+        if (mCall != null) {
+            mCall.cancel();
+            mCall = null;
         }
 
         // If a retry is pending remove it.
@@ -133,9 +137,18 @@ class ServerPositioningSource implements PositioningSource {
     private void requestPositioningInternal() {
         MoPubLog.log(CUSTOM, "Loading positioning from: " + mRetryUrl);
 
-        mRequest = new PositioningRequest(mContext, mRetryUrl, mPositioningListener, mErrorListener);
-        final RequestQueue requestQueue = Networking.getRequestQueue(mContext);
-        requestQueue.add(mRequest);
+        final String url = mRetryUrl;
+        mCall = sPositioningRequests.join(Networking.getRequestQueue(mContext), url,
+                new SingleFlight.RequestFactory<MoPubClientPositioning>() {
+                    @NonNull
+                    @Override
+                    public Request<?> createRequest(
+                            @NonNull final Response.Listener<MoPubClientPositioning> listener,
+                            @NonNull final Response.ErrorListener errorListener) {
+                        return new PositioningRequest(mContext, url, listener, errorListener);
+                    }
+                },
+                mPositioningListener);
     }
 
     private void handleSuccess(@NonNull MoPubClientPositioning positioning) {
@@ -159,7 +172,8 @@ class ServerPositioningSource implements PositioningSource {
         }
 
         mRetryCount++;
-        mRetryHandler.postDelayed(mRetryRunnable, delay);
+        mRetryHandler.postDelayed(mRetryRunnable,
+                AdmissionController.addJitter(delay, mMaximumRetryTimeMillis));
     }
 
     @Deprecated
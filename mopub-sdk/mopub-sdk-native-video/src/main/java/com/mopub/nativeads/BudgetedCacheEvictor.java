@@ -0,0 +1,126 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.CacheSpan;
+import com.mopub.common.DiskCacheBudget;
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Evicts the least recently used spans of the native video cache, like ExoPlayer's
+ * LeastRecentlyUsedCacheEvictor, but with a size that the {@link DiskCacheBudget} can change.
+ */
+class BudgetedCacheEvictor implements CacheEvictor, DiskCacheBudget.Store {
+    @NonNull private final DiskCacheBudget mDiskCacheBudget;
+    // Guarded by the cache, which calls the evictor while holding its own lock
+    @NonNull private final TreeSet<CacheSpan> mLeastRecentlyUsed;
+    @Nullable private volatile Cache mCache;
+    private volatile long mMaxBytes;
+    private volatile long mCurrentSize;
+
+    BudgetedCacheEvictor(final long maxBytes) {
+        this(maxBytes, DiskCacheBudget.getInstance());
+    }
+
+    @VisibleForTesting
+    BudgetedCacheEvictor(final long maxBytes, @NonNull final DiskCacheBudget diskCacheBudget) {
+        Preconditions.checkNotNull(diskCacheBudget);
+
+        mMaxBytes = maxBytes;
+        mDiskCacheBudget = diskCacheBudget;
+        mLeastRecentlyUsed = new TreeSet<CacheSpan>(new Comparator<CacheSpan>() {
+            @Override
+            public int compare(final CacheSpan lhs, final CacheSpan rhs) {
+                if (lhs.lastAccessTimestamp == rhs.lastAccessTimestamp) {
+                    return lhs.compareTo(rhs);
+                }
+                return lhs.lastAccessTimestamp < rhs.lastAccessTimestamp ? -1 : 1;
+            }
+        });
+    }
+
+    /**
+     * Sets the cache to evict from when the budget shrinks. Growing caches evict from the cache
+     * that calls the evictor.
+     */
+    void setCache(@NonNull final Cache cache) {
+        Preconditions.checkNotNull(cache);
+
+        mCache = cache;
+    }
+
+    @Override
+    public void onCacheInitialized() {
+        // Do nothing.
+    }
+
+    @Override
+    public void onStartFile(@NonNull final Cache cache, @NonNull final String key,
+            final long position, final long length) {
+        if (length != C.LENGTH_UNSET) {
+            evictCache(cache, length);
+        }
+    }
+
+    @Override
+    public void onSpanAdded(@NonNull final Cache cache, @NonNull final CacheSpan span) {
+        mLeastRecentlyUsed.add(span);
+        mCurrentSize += span.length;
+        evictCache(cache, 0);
+    }
+
+    @Override
+    public void onSpanRemoved(@NonNull final Cache cache, @NonNull final CacheSpan span) {
+        mLeastRecentlyUsed.remove(span);
+        mCurrentSize -= span.length;
+    }
+
+    @Override
+    public void onSpanTouched(@NonNull final Cache cache, @NonNull final CacheSpan oldSpan,
+            @NonNull final CacheSpan newSpan) {
+        onSpanRemoved(cache, oldSpan);
+        onSpanAdded(cache, newSpan);
+        // The cache touches a span when it serves it to the player
+        mDiskCacheBudget.recordHit(DiskCacheBudget.NATIVE_VIDEO, newSpan.length);
+    }
+
+    @Override
+    public long size() {
+        return mCurrentSize;
+    }
+
+    @Override
+    public void setMaxSize(final long maxSizeBytes) {
+        mMaxBytes = maxSizeBytes;
+        final Cache cache = mCache;
+        if (cache == null) {
+            return;
+        }
+        // SimpleCache synchronizes on itself, and removing a span calls back into the evictor
+        synchronized (cache) {
+            evictCache(cache, 0);
+        }
+    }
+
+    private void evictCache(@NonNull final Cache cache, final long requiredSpace) {
+        while (mCurrentSize + requiredSpace > mMaxBytes && !mLeastRecentlyUsed.isEmpty()) {
+            try {
+                cache.removeSpan(mLeastRecentlyUsed.first());
+            } catch (Cache.CacheException e) {
+                // Do nothing.
+            }
+        }
+    }
+}
@@ -9,11 +9,10 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.google.android.exoplayer2.upstream.cache.Cache;
-import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
 import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.mopub.common.DiskCacheBudget;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
-import com.mopub.common.util.DeviceUtils;
 
 import java.io.File;
 
@@ -38,9 +37,12 @@ class MoPubCache {
                         final File nativeCacheDir = new File(cacheDir.getPath()
                                 + File.separator
                                 + NATIVE_CACHE_NAME);
-                        final long cacheSize = DeviceUtils.diskCacheSizeBytes(cacheDir);
-                        final LeastRecentlyUsedCacheEvictor lruEvictor = new LeastRecentlyUsedCacheEvictor(cacheSize);
-                        instance = new SimpleCache(nativeCacheDir, lruEvictor);
+                        final DiskCacheBudget diskCacheBudget = DiskCacheBudget.getInstance();
+                        final long cacheSize = diskCacheBudget.getInitialMaxSize(nativeCacheDir);
+                        final BudgetedCacheEvictor evictor = new BudgetedCacheEvictor(cacheSize);
+                        instance = new SimpleCache(nativeCacheDir, evictor);
+                        evictor.setCache(instance);
+                        diskCacheBudget.register(DiskCacheBudget.NATIVE_VIDEO, evictor);
                         sInstance = instance;
                     }
                 }
@@ -53,6 +55,7 @@ class MoPubCache {
     @VisibleForTesting
     static void resetInstance() {
         if (sInstance != null) {
+            DiskCacheBudget.getInstance().unregister(DiskCacheBudget.NATIVE_VIDEO);
             sInstance.release();
             sInstance = null;
         }
@@ -54,6 +54,7 @@ import com.mopub.mobileads.VastTracker;
 import com.mopub.mobileads.VastVideoConfig;
 import com.mopub.nativeads.NativeVideoController.NativeVideoProgressRunnable.ProgressListener;
 import com.mopub.network.TrackingRequest;
+import com.mopub.volley.Request;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
@@ -654,7 +655,8 @@ public class NativeVideoController extends ExoPlayer.DefaultEventListener implem
                     trackingUrls.add(tracker.getContent());
                     tracker.setTracked();
                 }
-                TrackingRequest.makeTrackingHttpRequest(trackingUrls, mContext);
+                TrackingRequest.makeTrackingHttpRequestWithPriority(trackingUrls, mContext,
+                        Request.Priority.LOW);
             }
         }
 
@@ -27,6 +27,7 @@ import com.mopub.common.VisibleForTesting;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.mobileads.BaseVideoViewController;
 import com.mopub.mobileads.VastVideoConfig;
+import com.mopub.mobileads.VastVideoConfigRegistry;
 import com.mopub.nativeads.MoPubCustomEventVideoNative.MoPubVideoNativeAd;
 import com.mopub.nativeads.NativeFullScreenVideoView.Mode;
 import com.mopub.nativeads.NativeVideoController.NativeVideoProgressRunnable;
@@ -59,8 +60,8 @@ public class NativeVideoViewController extends BaseVideoViewController implement
         this(context, intentExtras, savedInstanceState, baseVideoViewControllerListener,
                 new NativeFullScreenVideoView(context,
                         context.getResources().getConfiguration().orientation,
-                        ((VastVideoConfig) intentExtras.get(Constants.NATIVE_VAST_VIDEO_CONFIG))
-                                .getCustomCtaText()));
+                        VastVideoConfigRegistry.getFromExtras(intentExtras,
+                                Constants.NATIVE_VAST_VIDEO_CONFIG).getCustomCtaText()));
     }
 
     @VisibleForTesting
@@ -76,7 +77,8 @@ public class NativeVideoViewController extends BaseVideoViewController implement
         Preconditions.checkNotNull(fullScreenVideoView);
 
         mVideoState = VideoState.NONE;
-        mVastVideoConfig = ((VastVideoConfig) intentExtras.get(Constants.NATIVE_VAST_VIDEO_CONFIG));
+        mVastVideoConfig = VastVideoConfigRegistry.getFromExtras(intentExtras,
+                Constants.NATIVE_VAST_VIDEO_CONFIG);
         mFullScreenVideoView = fullScreenVideoView;
         final long videoId = (long) intentExtras.get(Constants.NATIVE_VIDEO_ID);
         mNativeVideoController = NativeVideoController.getForId(videoId);
@@ -12,6 +12,7 @@ import com.mopub.common.AdFormat;
 import com.mopub.common.Preconditions;
 import com.mopub.network.AdLoader;
 import com.mopub.network.AdResponse;
+import com.mopub.network.MoPubRequestParams;
 import com.mopub.network.SingleImpression;
 import com.mopub.network.TrackingRequest;
 
@@ -27,7 +28,16 @@ class AdLoaderRewardedVideo extends AdLoader {
                           @NonNull String adUnitId,
                           @NonNull Context context,
                           @NonNull Listener listener) {
-        super(url, adFormat, adUnitId, context, listener);
+        this(url, null, adFormat, adUnitId, context, listener);
+    }
+
+    AdLoaderRewardedVideo(@NonNull String url,
+                          @Nullable MoPubRequestParams requestParams,
+                          @NonNull AdFormat adFormat,
+                          @NonNull String adUnitId,
+                          @NonNull Context context,
+                          @NonNull Listener listener) {
+        super(url, requestParams, adFormat, adUnitId, context, listener);
 
         mImpressionTrackerFired = false;
         mClickTrackerFired = false;
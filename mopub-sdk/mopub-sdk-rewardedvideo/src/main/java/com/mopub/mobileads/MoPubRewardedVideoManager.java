@@ -37,6 +37,7 @@ import com.mopub.common.util.ReflectionTarget;
 import com.mopub.common.util.Utils;
 import com.mopub.network.AdResponse;
 import com.mopub.network.MoPubNetworkError;
+import com.mopub.network.MoPubRequestParams;
 import com.mopub.volley.VolleyError;
 
 import org.json.JSONException;
@@ -294,19 +295,30 @@ public class MoPubRewardedVideoManager {
 
         setSafeAreaValues(urlGenerator);
 
-        loadVideo(adUnitId, urlGenerator.generateUrlString(Constants.HOST), null);
+        final String adUrlString = urlGenerator.generateUrlString(Constants.HOST);
+        loadVideo(adUnitId, adUrlString, urlGenerator.getRequestParams(), null);
     }
 
     private static void loadVideo(@NonNull String adUnitId, @NonNull String adUrlString, @Nullable MoPubErrorCode errorCode) {
+        loadVideo(adUnitId, adUrlString, null, errorCode);
+    }
+
+    private static void loadVideo(@NonNull String adUnitId,
+            @NonNull String adUrlString,
+            @Nullable MoPubRequestParams requestParams,
+            @Nullable MoPubErrorCode errorCode) {
         if (sInstance == null) {
             logErrorNotInitialized();
             return;
         }
 
-        sInstance.fetchAd(adUnitId, adUrlString, errorCode);
+        sInstance.fetchAd(adUnitId, adUrlString, requestParams, errorCode);
     }
 
-    private void fetchAd(@NonNull String adUnitId, @NonNull String adUrlString, @Nullable MoPubErrorCode errorCode) {
+    private void fetchAd(@NonNull String adUnitId,
+            @NonNull String adUrlString,
+            @Nullable MoPubRequestParams requestParams,
+            @Nullable MoPubErrorCode errorCode) {
         if (rewardedAdsLoaders.isLoading(adUnitId)) {
             MoPubLog.log(CUSTOM, String.format(Locale.US, "Did not queue rewarded ad request for ad " +
                     "unit %s. A request is already pending.", adUnitId));
@@ -316,7 +328,7 @@ public class MoPubRewardedVideoManager {
         // Issue MoPub request
         MoPubLog.log(CUSTOM, String.format(Locale.US,
                 "Loading rewarded ad request for ad unit %s with URL %s", adUnitId, adUrlString));
-        rewardedAdsLoaders.loadNextAd(mContext, adUnitId, adUrlString, errorCode);
+        rewardedAdsLoaders.loadNextAd(mContext, adUnitId, adUrlString, requestParams, errorCode);
     }
 
     public static boolean hasVideo(@NonNull String adUnitId) {
@@ -13,6 +13,7 @@ import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
 import com.mopub.network.AdLoader;
 import com.mopub.network.AdResponse;
+import com.mopub.network.MoPubRequestParams;
 import com.mopub.volley.Request;
 import com.mopub.volley.VolleyError;
 
@@ -51,6 +52,15 @@ class RewardedAdsLoaders {
                           @NonNull String adUnitId,
                           @NonNull String adUrlString,
                           @Nullable MoPubErrorCode errorCode) {
+        return loadNextAd(context, adUnitId, adUrlString, null, errorCode);
+    }
+
+    @Nullable
+    Request<?> loadNextAd(@NonNull Context context,
+                          @NonNull String adUnitId,
+                          @NonNull String adUrlString,
+                          @Nullable MoPubRequestParams requestParams,
+                          @Nullable MoPubErrorCode errorCode) {
         Preconditions.checkNotNull(adUnitId);
         Preconditions.checkNotNull(context);
 
@@ -58,6 +68,7 @@ class RewardedAdsLoaders {
 
         if (adLoader == null || !adLoader.hasMoreAds()) {
             adLoader = new AdLoaderRewardedVideo(adUrlString,
+                                                 requestParams,
                                                  AdFormat.REWARDED_VIDEO,
                                                  adUnitId,
                                                  context,
@@ -16,42 +16,59 @@ import com.mopub.mobileads.MoPubErrorCode;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
 
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.mopub.common.BaseAdapterConfiguration.CUSTOM_EVENT_PREF_NAME;
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 @RunWith(SdkTestRunner.class)
 public class AdapterConfigurationManagerTest {
+    private static final long WAIT_MS = 5000;
 
     private Context context;
     private AdapterConfigurationManager subject;
     private SdkInitializationListener mockInitializationListener;
+    private AtomicBoolean initializationFinished;
 
     @Before
     public void setup() {
         context = Robolectric.buildActivity(Activity.class).create().get();
         mockInitializationListener = mock(SdkInitializationListenerMockClass.class);
+        initializationFinished = new AtomicBoolean();
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                initializationFinished.set(true);
+                return null;
+            }
+        }).when(mockInitializationListener).onInitializationFinished();
         subject = new AdapterConfigurationManager(mockInitializationListener);
 
     }
 
     @Test
-    public void initialize_getTokensAsJsonString_withAdapterConfigurationClass_shouldAddOneMoPubAdvancedBidder_shouldSetUpAdapterConfiguration() {
+    public void initialize_getTokensAsJsonString_withAdapterConfigurationClass_shouldAddOneMoPubAdvancedBidder_shouldSetUpAdapterConfiguration() throws Exception {
         final Set<String> set = new HashSet<>();
         set.add(ACMTestAdapterConfiguration.class.getName());
         set.add(ACMNoTokenAdapterConfiguration.class.getName());
 
         subject.initialize(context, set, new HashMap<String, Map<String, String>>(),
                 new HashMap<String, Map<String, String>>());
+        waitForInitializationFinished();
 
+        // The tokens are collected before initialization finishes
         assertThat(subject.getTokensAsJsonString(context)).isEqualTo(
                 "{\"AdapterConfigurationTest\":{\"token\":\"AdapterConfigurationTestToken\"}}");
         verify(mockInitializationListener).onInitializationFinished();
@@ -71,12 +88,13 @@ public class AdapterConfigurationManagerTest {
     }
 
     @Test
-    public void initialize_getTokensAsJsonString_withNoTokens_shouldReturnNull() {
+    public void initialize_getTokensAsJsonString_withNoTokens_shouldReturnNull() throws Exception {
         final Set<String> set = new HashSet<>();
         set.add(ACMNoTokenAdapterConfiguration.class.getName());
 
         subject.initialize(context, set, new HashMap<String, Map<String, String>>(),
                 new HashMap<String, Map<String, String>>());
+        waitForInitializationFinished();
 
         assertThat(subject.getTokensAsJsonString(context)).isNull();
         verify(mockInitializationListener).onInitializationFinished();
@@ -118,6 +136,15 @@ public class AdapterConfigurationManagerTest {
         assertThat(actualMoPubRequestOptions.get("key4")).isEqualTo("value4");
     }
 
+    private void waitForInitializationFinished() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (!initializationFinished.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            // The listener is called on the main thread
+            ShadowLooper.runUiThreadTasks();
+        }
+    }
+
     private static class ACMTestAdapterConfiguration extends BaseAdapterConfiguration {
 
         @NonNull
@@ -0,0 +1,246 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.content.Context;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.Robolectric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class BiddingTokenCacheTest {
+    private static final long WAIT_MS = 5000;
+
+    private Context context;
+    private ExecutorService executor;
+    private AdapterConfiguration fastAdapter;
+
+    @Before
+    public void setUp() {
+        context = Robolectric.buildActivity(Activity.class).create().get();
+        executor = Executors.newCachedThreadPool();
+        fastAdapter = createAdapterConfiguration("fast", "fastToken");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void getTokensJson_withNoSnapshot_shouldNotWait_shouldRefreshInBackground() throws Exception {
+        final CountDownLatch adapterLatch = new CountDownLatch(1);
+        when(fastAdapter.getBiddingToken(any(Context.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                adapterLatch.await();
+                return "fastToken";
+            }
+        });
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Collections.singletonList(fastAdapter), executor);
+
+        assertThat(subject.getTokensJson()).isNull();
+
+        adapterLatch.countDown();
+        waitForTokens(subject, "{\"fast\":{\"token\":\"fastToken\"}}");
+    }
+
+    @Test
+    public void getTokensJson_withNoTokens_shouldReturnNull() {
+        final AdapterConfiguration noTokenAdapter = createAdapterConfiguration("none", null);
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Collections.singletonList(noTokenAdapter), executor);
+        subject.refresh();
+        verify(noTokenAdapter, timeout(WAIT_MS)).getBiddingToken(any(Context.class));
+
+        assertThat(subject.getTokensJson()).isNull();
+    }
+
+    @Test
+    public void getTokensJson_withSnapshot_shouldNotCallAdapters() throws Exception {
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Collections.singletonList(fastAdapter), executor);
+        waitForTokens(subject, "{\"fast\":{\"token\":\"fastToken\"}}");
+
+        subject.getTokensJson();
+        subject.getTokensJson();
+
+        verify(fastAdapter, times(1)).getBiddingToken(any(Context.class));
+    }
+
+    @Test
+    public void getTokensJson_withSlowAdapter_shouldNotWaitForIt_shouldAddItsTokenWhenItArrives() throws Exception {
+        final CountDownLatch slowAdapterLatch = new CountDownLatch(1);
+        final AdapterConfiguration slowAdapter = createAdapterConfiguration("slow", "slowToken");
+        when(slowAdapter.getBiddingToken(any(Context.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                slowAdapterLatch.await();
+                return "slowToken";
+            }
+        });
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Arrays.asList(slowAdapter, fastAdapter), executor);
+        subject.refresh();
+        waitForTokens(subject, "{\"fast\":{\"token\":\"fastToken\"}}");
+
+        slowAdapterLatch.countDown();
+
+        waitForTokens(subject,
+                "{\"slow\":{\"token\":\"slowToken\"},\"fast\":{\"token\":\"fastToken\"}}");
+    }
+
+    @Test
+    public void getTokensJson_withAdapterThatThrows_shouldReturnOtherTokens() throws Exception {
+        final AdapterConfiguration brokenAdapter = createAdapterConfiguration("broken", null);
+        when(brokenAdapter.getBiddingToken(any(Context.class))).thenThrow(
+                new IllegalStateException());
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Arrays.asList(brokenAdapter, fastAdapter), executor);
+
+        waitForTokens(subject, "{\"fast\":{\"token\":\"fastToken\"}}");
+    }
+
+    @Test
+    public void getTokensJson_afterRefreshInterval_shouldReturnCachedTokens_shouldRefreshInBackground() throws Exception {
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Collections.singletonList(fastAdapter), executor);
+        waitForTokens(subject, "{\"fast\":{\"token\":\"fastToken\"}}");
+        when(fastAdapter.getBiddingToken(any(Context.class))).thenReturn("newToken");
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                BiddingTokenCache.REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(subject.getTokensJson()).isEqualTo("{\"fast\":{\"token\":\"fastToken\"}}");
+        waitForTokens(subject, "{\"fast\":{\"token\":\"newToken\"}}");
+    }
+
+    @Test
+    public void getTokensJson_whenTokenHasExpired_shouldReturnNull() throws Exception {
+        final CountDownLatch adapterLatch = new CountDownLatch(1);
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Collections.singletonList(fastAdapter), executor);
+        waitForTokens(subject, "{\"fast\":{\"token\":\"fastToken\"}}");
+        // The adapter stops answering, so the token is never renewed
+        when(fastAdapter.getBiddingToken(any(Context.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                adapterLatch.await();
+                return null;
+            }
+        });
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                BiddingTokenCache.TOKEN_TTL_MS, TimeUnit.MILLISECONDS);
+
+        try {
+            // The snapshot is dropped right away, without waiting for the refresh
+            assertThat(subject.getTokensJson()).isNull();
+            waitForTokens(subject, null);
+        } finally {
+            adapterLatch.countDown();
+        }
+    }
+
+    @Test
+    public void getTokensJson_whileRefreshing_withOneExpiredToken_shouldOnlyDropThatToken() throws Exception {
+        final CountDownLatch slowAdapterLatch = new CountDownLatch(1);
+        final AdapterConfiguration slowAdapter = createAdapterConfiguration("slow", "slowToken");
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Arrays.asList(slowAdapter, fastAdapter), executor);
+        waitForTokens(subject,
+                "{\"slow\":{\"token\":\"slowToken\"},\"fast\":{\"token\":\"fastToken\"}}");
+        // The slow adapter stops answering, so only the fast token is renewed
+        when(slowAdapter.getBiddingToken(any(Context.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                slowAdapterLatch.await();
+                return "newSlowToken";
+            }
+        });
+        when(fastAdapter.getBiddingToken(any(Context.class))).thenReturn("newFastToken");
+
+        try {
+            Robolectric.getForegroundThreadScheduler().advanceBy(
+                    BiddingTokenCache.REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            waitForTokens(subject,
+                    "{\"slow\":{\"token\":\"slowToken\"},\"fast\":{\"token\":\"newFastToken\"}}");
+
+            Robolectric.getForegroundThreadScheduler().advanceBy(
+                    BiddingTokenCache.TOKEN_TTL_MS - BiddingTokenCache.REFRESH_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+
+            assertThat(subject.getTokensJson()).isEqualTo(
+                    "{\"fast\":{\"token\":\"newFastToken\"}}");
+        } finally {
+            slowAdapterLatch.countDown();
+        }
+    }
+
+    @Test
+    public void refresh_withCallback_shouldRunItOnceTokensAreCollected() throws Exception {
+        final CountDownLatch refreshedLatch = new CountDownLatch(1);
+        final BiddingTokenCache subject = new BiddingTokenCache(context,
+                Collections.singletonList(fastAdapter), executor);
+
+        subject.refresh(new Runnable() {
+            @Override
+            public void run() {
+                refreshedLatch.countDown();
+            }
+        });
+
+        assertThat(refreshedLatch.await(WAIT_MS, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(subject.getTokensJson()).isEqualTo("{\"fast\":{\"token\":\"fastToken\"}}");
+    }
+
+    private static AdapterConfiguration createAdapterConfiguration(final String networkName,
+            final String token) {
+        final AdapterConfiguration adapterConfiguration = mock(AdapterConfiguration.class);
+        when(adapterConfiguration.getMoPubNetworkName()).thenReturn(networkName);
+        when(adapterConfiguration.getBiddingToken(any(Context.class))).thenReturn(token);
+        return adapterConfiguration;
+    }
+
+    private static void waitForTokens(final BiddingTokenCache subject,
+            final String expectedTokensJson) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_MS;
+        String tokensJson = subject.getTokensJson();
+        while (!equals(tokensJson, expectedTokensJson)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            tokensJson = subject.getTokensJson();
+        }
+        assertThat(tokensJson).isEqualTo(expectedTokensJson);
+    }
+
+    private static boolean equals(final String a, final String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -18,6 +18,7 @@ import org.robolectric.Robolectric;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
 import java.util.concurrent.Semaphore;
 
 import static com.mopub.common.CacheService.DiskLruCacheGetListener;
@@ -73,7 +74,7 @@ public class CacheServiceTest {
         assertThat(CacheService.getDiskLruCache()).isNull();
 
         CacheService.initialize(context);
-        DiskLruCache diskLruCache = CacheService.getDiskLruCache();
+        ConcurrentDiskLruCache diskLruCache = CacheService.getDiskLruCache();
         assertThat(diskLruCache).isNotNull();
 
         CacheService.initialize(context);
@@ -94,6 +95,29 @@ public class CacheServiceTest {
         assertThat(CacheService.getFromDiskCache(key1)).isEqualTo(data1.getBytes());
     }
 
+    @Test
+    public void openDiskCacheEntry_whenPopulated_shouldMapValue() throws Exception {
+        CacheService.initialize(context);
+        CacheService.putToDiskCache(key1, data1.getBytes());
+
+        final ConcurrentDiskLruCache.Snapshot snapshot = CacheService.openDiskCacheEntry(key1);
+        try {
+            final MappedByteBuffer buffer = snapshot.map(0);
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            assertThat(bytes).isEqualTo(data1.getBytes());
+        } finally {
+            snapshot.close();
+        }
+    }
+
+    @Test
+    public void openDiskCacheEntry_whenEmpty_shouldReturnNull() throws Exception {
+        CacheService.initialize(context);
+
+        assertThat(CacheService.openDiskCacheEntry(key1)).isNull();
+    }
+
     @Test
     public void diskLruCacheGet_whenEmpty_shouldReturnNull() throws Exception {
         CacheService.initialize(context);
@@ -0,0 +1,422 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class ConcurrentDiskLruCacheTest {
+    private static final int APP_VERSION = 1;
+    private static final long MAX_SIZE = 1024 * 1024;
+
+    private File directory;
+    private ConcurrentDiskLruCache subject;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(Robolectric.buildActivity(Activity.class).create().get().getCacheDir(),
+                "concurrent-disk-lru-cache");
+        subject = ConcurrentDiskLruCache.open(directory, APP_VERSION, 1, MAX_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        subject.delete();
+    }
+
+    @Test
+    public void edit_thenGet_shouldReturnCommittedValue() throws Exception {
+        put(subject, "key", "value");
+
+        final ConcurrentDiskLruCache.Snapshot snapshot = subject.get("key");
+        assertThat(snapshot.getString(0)).isEqualTo("value");
+        assertThat(snapshot.getLength(0)).isEqualTo(5);
+        assertThat(subject.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void get_withMissingKey_shouldReturnNull() throws Exception {
+        assertThat(subject.get("missing")).isNull();
+    }
+
+    @Test
+    public void get_whileFirstEditIsInProgress_shouldReturnNull() throws Exception {
+        final ConcurrentDiskLruCache.Editor editor = subject.edit("key");
+        editor.set(0, "value");
+
+        assertThat(subject.get("key")).isNull();
+
+        editor.commit();
+        assertThat(subject.get("key").getString(0)).isEqualTo("value");
+    }
+
+    @Test
+    public void edit_whileAnotherEditIsInProgress_shouldReturnNull() throws Exception {
+        final ConcurrentDiskLruCache.Editor editor = subject.edit("key");
+
+        assertThat(subject.edit("key")).isNull();
+
+        editor.abort();
+        assertThat(subject.edit("key")).isNotNull();
+    }
+
+    @Test
+    public void edit_whileCommittedEntryIsBeingUpdated_shouldStillReadOldValue() throws Exception {
+        put(subject, "key", "old");
+
+        final ConcurrentDiskLruCache.Editor editor = subject.edit("key");
+        editor.set(0, "new");
+        assertThat(subject.get("key").getString(0)).isEqualTo("old");
+
+        editor.commit();
+        assertThat(subject.get("key").getString(0)).isEqualTo("new");
+    }
+
+    @Test
+    public void snapshotEdit_afterEntryChanged_shouldReturnNull() throws Exception {
+        put(subject, "key", "old");
+        final ConcurrentDiskLruCache.Snapshot snapshot = subject.get("key");
+        snapshot.close();
+
+        put(subject, "key", "new");
+
+        assertThat(snapshot.edit()).isNull();
+    }
+
+    @Test
+    public void remove_shouldDeleteFile_shouldUpdateSize() throws Exception {
+        put(subject, "key", "value");
+
+        assertThat(subject.remove("key")).isTrue();
+
+        assertThat(subject.get("key")).isNull();
+        assertThat(new File(directory, "key.0").exists()).isFalse();
+        assertThat(subject.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void commit_whenCacheIsFull_shouldEvictLeastRecentlyUsedEntries() throws Exception {
+        subject.setMaxSize(10);
+        put(subject, "a", "aaaa");
+        put(subject, "b", "bbbb");
+        subject.get("a").close();
+
+        put(subject, "c", "cccc");
+        subject.flush();
+
+        assertThat(subject.get("a")).isNotNull();
+        assertThat(subject.get("b")).isNull();
+        assertThat(subject.get("c")).isNotNull();
+        assertThat(subject.size()).isEqualTo(8);
+    }
+
+    @Test
+    public void pin_shouldKeepEntryFromBeingEvicted_untilClosed() throws Exception {
+        subject.setMaxSize(10);
+        put(subject, "a", "aaaa");
+        final ConcurrentDiskLruCache.Snapshot pinned = subject.pin("a");
+        put(subject, "b", "bbbb");
+        put(subject, "c", "cccc");
+        subject.flush();
+
+        assertThat(subject.get("a")).isNotNull();
+        assertThat(subject.get("b")).isNull();
+
+        subject.get("c").close();
+        pinned.close();
+        put(subject, "d", "dddd");
+        subject.flush();
+
+        assertThat(subject.get("a")).isNull();
+        assertThat(subject.get("c")).isNotNull();
+        assertThat(subject.get("d")).isNotNull();
+    }
+
+    @Test
+    public void snapshotMap_shouldReturnValue() throws Exception {
+        put(subject, "key", "value");
+        final ConcurrentDiskLruCache.Snapshot snapshot = subject.pin("key");
+
+        final MappedByteBuffer buffer = snapshot.map(0);
+        snapshot.close();
+
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertThat(new String(bytes, "UTF-8")).isEqualTo("value");
+        assertThat(buffer.isReadOnly()).isTrue();
+    }
+
+    @Test
+    public void close_thenOpen_shouldRestoreEntries() throws Exception {
+        put(subject, "a", "aaaa");
+        put(subject, "b", "bb");
+        subject.remove("a");
+        subject.close();
+
+        subject = ConcurrentDiskLruCache.open(directory, APP_VERSION, 1, MAX_SIZE);
+
+        assertThat(subject.get("a")).isNull();
+        assertThat(subject.get("b").getString(0)).isEqualTo("bb");
+        assertThat(subject.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void close_thenOpenWithDiskLruCache_shouldRestoreEntries() throws Exception {
+        put(subject, "a", "aaaa");
+        subject.close();
+
+        final DiskLruCache diskLruCache = DiskLruCache.open(directory, APP_VERSION, 1, MAX_SIZE);
+        try {
+            assertThat(diskLruCache.get("a").getString(0)).isEqualTo("aaaa");
+            assertThat(diskLruCache.size()).isEqualTo(4);
+        } finally {
+            diskLruCache.close();
+        }
+    }
+
+    @Test
+    public void open_withDiskLruCacheJournal_shouldRestoreEntries() throws Exception {
+        subject.delete();
+        final DiskLruCache diskLruCache = DiskLruCache.open(directory, APP_VERSION, 1, MAX_SIZE);
+        final DiskLruCache.Editor editor = diskLruCache.edit("a");
+        editor.set(0, "aaaa");
+        editor.commit();
+        diskLruCache.close();
+
+        subject = ConcurrentDiskLruCache.open(directory, APP_VERSION, 1, MAX_SIZE);
+
+        assertThat(subject.get("a").getString(0)).isEqualTo("aaaa");
+    }
+
+    @Test
+    public void open_withFilesMissingFromJournal_shouldDeleteThem() throws Exception {
+        put(subject, "a", "aaaa");
+        subject.close();
+        final File orphan = new File(directory, "orphan.0");
+        final File orphanTmp = new File(directory, "orphan.0.tmp");
+        assertThat(orphan.createNewFile()).isTrue();
+        assertThat(orphanTmp.createNewFile()).isTrue();
+
+        subject = ConcurrentDiskLruCache.open(directory, APP_VERSION, 1, MAX_SIZE);
+
+        assertThat(orphan.exists()).isFalse();
+        assertThat(orphanTmp.exists()).isFalse();
+        assertThat(subject.get("a")).isNotNull();
+    }
+
+    @Test
+    public void get_whileLargeCommitOfOtherKeyHoldsItsLock_shouldNotBlock() throws Exception {
+        put(subject, "small", "value");
+        final ConcurrentDiskLruCache.Editor editor = subject.edit("large");
+        editor.set(0, "large value");
+
+        final Object largeLock = getLock("large");
+        final CountDownLatch readLatch = new CountDownLatch(1);
+        synchronized (largeLock) {
+            final Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        subject.get("small").close();
+                        readLatch.countDown();
+                    } catch (IOException ignored) {
+                    }
+                }
+            });
+            reader.start();
+            assertThat(readLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        editor.commit();
+    }
+
+    @Test
+    public void stressTest_concurrentEditsReadsAndRemoves_shouldOnlyReadCompleteValues() throws Exception {
+        final int threads = 8;
+        final int operationsPerThread = 500;
+        final int keys = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < threads; t++) {
+                final int seed = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        final Random random = new Random(seed);
+                        for (int i = 0; i < operationsPerThread; i++) {
+                            final String key = "key" + random.nextInt(keys);
+                            final int operation = random.nextInt(10);
+                            if (operation < 6) {
+                                assertCompleteValue(subject.get(key));
+                            } else if (operation < 9) {
+                                final ConcurrentDiskLruCache.Editor editor = subject.edit(key);
+                                if (editor != null) {
+                                    editor.set(0, createValue(random.nextInt(2000) + 1));
+                                    editor.commit();
+                                }
+                            } else {
+                                subject.remove(key);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        subject.flush();
+        long expectedSize = 0;
+        for (int i = 0; i < keys; i++) {
+            final ConcurrentDiskLruCache.Snapshot snapshot = subject.get("key" + i);
+            assertCompleteValue(snapshot);
+            if (snapshot != null) {
+                expectedSize += snapshot.getLength(0);
+            }
+        }
+        assertThat(subject.size()).isEqualTo(expectedSize);
+
+        // The journal written in the background describes the same entries
+        subject.close();
+        subject = ConcurrentDiskLruCache.open(directory, APP_VERSION, 1, MAX_SIZE);
+        assertThat(subject.size()).isEqualTo(expectedSize);
+    }
+
+    @Test
+    public void stressTest_concurrentPinsAndEvictions_shouldNotEvictPinnedEntries() throws Exception {
+        final int pinningThreads = 4;
+        final int pinsPerThread = 500;
+        final int keys = 8;
+        // Every trim tries to evict everything that is not pinned
+        subject.setMaxSize(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(pinningThreads + 1);
+        try {
+            final AtomicBoolean pinning = new AtomicBoolean(true);
+            final Future<Void> writer = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    final Random random = new Random();
+                    while (pinning.get()) {
+                        final String key = "key" + random.nextInt(keys);
+                        final ConcurrentDiskLruCache.Editor editor = subject.edit(key);
+                        if (editor != null) {
+                            editor.set(0, createValue(random.nextInt(100) + 1));
+                            editor.commit();
+                        }
+                    }
+                    return null;
+                }
+            });
+            final List<Future<Void>> pinners = new ArrayList<Future<Void>>();
+            for (int t = 0; t < pinningThreads; t++) {
+                final int seed = t;
+                pinners.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        final Random random = new Random(seed);
+                        for (int i = 0; i < pinsPerThread; i++) {
+                            final String key = "key" + random.nextInt(keys);
+                            final ConcurrentDiskLruCache.Snapshot snapshot = subject.pin(key);
+                            if (snapshot == null) {
+                                continue;
+                            }
+                            try {
+                                // Pinned values are read by path, like the video player does
+                                assertThat(new File(directory, key + ".0").exists()).isTrue();
+                            } finally {
+                                snapshot.close();
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            try {
+                for (final Future<Void> pinner : pinners) {
+                    pinner.get();
+                }
+            } finally {
+                pinning.set(false);
+            }
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        subject.flush();
+        assertThat(subject.size()).isEqualTo(0);
+    }
+
+    private Object getLock(final String key) throws Exception {
+        final Method lockFor =
+                ConcurrentDiskLruCache.class.getDeclaredMethod("lockFor", String.class);
+        lockFor.setAccessible(true);
+        return lockFor.invoke(subject, key);
+    }
+
+    private static void put(final ConcurrentDiskLruCache cache, final String key,
+            final String value) throws IOException {
+        final ConcurrentDiskLruCache.Editor editor = cache.edit(key);
+        editor.set(0, value);
+        editor.commit();
+    }
+
+    /**
+     * Values are a length prefix followed by that many copies of one character, so a value mixed
+     * from two commits or read with the wrong length is detected.
+     */
+    private static String createValue(final int length) {
+        final StringBuilder value = new StringBuilder().append(length).append(':');
+        final char c = (char) ('a' + length % 26);
+        for (int i = 0; i < length; i++) {
+            value.append(c);
+        }
+        return value.toString();
+    }
+
+    private static void assertCompleteValue(final ConcurrentDiskLruCache.Snapshot snapshot)
+            throws IOException {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            final String value = snapshot.getString(0);
+            assertThat((long) value.length()).isEqualTo(snapshot.getLength(0));
+            final int length = Integer.parseInt(value.substring(0, value.indexOf(':')));
+            assertThat(value).isEqualTo(createValue(length));
+        } finally {
+            snapshot.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class DiskCacheBudgetTest {
+    private static final long BUDGET = 1000;
+
+    private FakeStore storeA;
+    private FakeStore storeB;
+    private DiskCacheBudget subject;
+
+    private static class FakeStore implements DiskCacheBudget.Store {
+        long mSize;
+        long mMaxSize = -1;
+
+        @Override
+        public long size() {
+            return mSize;
+        }
+
+        @Override
+        public void setMaxSize(final long maxSizeBytes) {
+            mMaxSize = maxSizeBytes;
+            mSize = Math.min(mSize, maxSizeBytes);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        storeA = new FakeStore();
+        storeB = new FakeStore();
+        subject = new DiskCacheBudget(new Executor() {
+            @Override
+            public void execute(final Runnable runnable) {
+                runnable.run();
+            }
+        });
+        subject.setMaxSize(BUDGET);
+    }
+
+    @Test
+    public void register_withNoHits_shouldSplitBudgetEqually() {
+        subject.register("a", storeA);
+        subject.register("b", storeB);
+
+        assertThat(storeA.mMaxSize).isEqualTo(500);
+        assertThat(storeB.mMaxSize).isEqualTo(500);
+        assertThat(subject.getMaxSize("a")).isEqualTo(500);
+    }
+
+    @Test
+    public void recordHit_afterRebalanceInterval_shouldGiveMoreBudgetToStoreWithMoreHits() {
+        subject.register("a", storeA);
+        subject.register("b", storeB);
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                DiskCacheBudget.REBALANCE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        subject.recordHit("b", 300);
+        subject.recordHit("a", 100);
+
+        assertThat(storeA.mMaxSize + storeB.mMaxSize).isEqualTo(BUDGET);
+        assertThat(storeB.mMaxSize).isGreaterThan(storeA.mMaxSize);
+    }
+
+    @Test
+    public void recordHit_beforeRebalanceInterval_shouldNotChangeShares() {
+        subject.register("a", storeA);
+        subject.register("b", storeB);
+
+        subject.recordHit("b", 300);
+
+        assertThat(storeA.mMaxSize).isEqualTo(500);
+        assertThat(storeB.mMaxSize).isEqualTo(500);
+    }
+
+    @Test
+    public void setMaxSize_shouldShrinkStores() {
+        storeA.mSize = 400;
+        storeB.mSize = 400;
+        subject.register("a", storeA);
+        subject.register("b", storeB);
+
+        subject.setMaxSize(200);
+
+        assertThat(storeA.mMaxSize).isEqualTo(100);
+        assertThat(storeB.mMaxSize).isEqualTo(100);
+        assertThat(subject.getTotalSize()).isEqualTo(200);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMaxSize_withZero_shouldThrowIllegalArgumentException() {
+        subject.setMaxSize(0);
+    }
+
+    @Test
+    public void setMaxSize_withZero_shouldKeepPreviousBudget() {
+        try {
+            subject.setMaxSize(0);
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        assertThat(subject.getMaxSize()).isEqualTo(BUDGET);
+        assertThat(subject.getInitialMaxSize(new File("/"))).isEqualTo(BUDGET);
+    }
+
+    @Test
+    public void unregister_shouldGiveItsShareToOtherStores() {
+        subject.register("a", storeA);
+        subject.register("b", storeB);
+
+        subject.unregister("b");
+
+        assertThat(storeA.mMaxSize).isEqualTo(BUDGET);
+        assertThat(subject.getMaxSize("b")).isEqualTo(0);
+    }
+
+    @Test
+    public void getInitialMaxSize_whenBudgetWasSet_shouldReturnIt() {
+        assertThat(subject.getInitialMaxSize(new File("/"))).isEqualTo(BUDGET);
+    }
+
+    @Test
+    public void allocate_shouldGiveEveryStoreMinShare_shouldAddUpToBudget() {
+        final long[] shares = DiskCacheBudget.allocate(1000, new double[]{0, 0, 100});
+
+        assertThat(shares[0]).isEqualTo(100);
+        assertThat(shares[1]).isEqualTo(100);
+        assertThat(shares[2]).isEqualTo(800);
+    }
+
+    @Test
+    public void allocate_withManyStores_shouldNotGiveOutMoreThanBudget() {
+        final long[] shares = DiskCacheBudget.allocate(1000, new double[20]);
+
+        long total = 0;
+        for (final long share : shares) {
+            assertThat(share).isEqualTo(50);
+            total += share;
+        }
+        assertThat(total).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,227 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures read throughput and p99 read latency of {@link DiskLruCache} and
+ * {@link ConcurrentDiskLruCache} while another thread keeps committing video sized entries. Reads
+ * are of small entries, like thumbnails and VAST documents.
+ */
+@RunWith(SdkTestRunner.class)
+public class DiskLruCacheBenchmark {
+    private static final int READER_THREADS = 4;
+    private static final int READS_PER_THREAD = 20000;
+    private static final int SMALL_ENTRIES = 64;
+    private static final int SMALL_ENTRY_BYTES = 4 * 1024;
+    private static final int LARGE_ENTRY_BYTES = 8 * 1024 * 1024;
+    private static final long MAX_SIZE = 256L * 1024 * 1024;
+
+    /** The operations the benchmark needs, so both caches run the same code. */
+    private interface Cache {
+        void put(String key, byte[] value) throws IOException;
+
+        int read(String key, byte[] buffer) throws IOException;
+
+        void delete() throws IOException;
+    }
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        Benchmark.assumeEnabled();
+
+        directory = new File(Robolectric.buildActivity(Activity.class).create().get().getCacheDir(),
+                "disk-lru-cache-benchmark");
+    }
+
+    @Test
+    public void read_whileCommittingLargeEntries_diskLruCacheVersusConcurrentDiskLruCache() throws Exception {
+        run("DiskLruCache", openDiskLruCache());
+        run("ConcurrentDiskLruCache", openConcurrentDiskLruCache());
+    }
+
+    @After
+    public void tearDown() {
+        if (directory != null) {
+            directory.delete();
+        }
+    }
+
+    private void run(final String name, final Cache cache) throws Exception {
+        try {
+            final byte[] smallValue = new byte[SMALL_ENTRY_BYTES];
+            new Random(0).nextBytes(smallValue);
+            for (int i = 0; i < SMALL_ENTRIES; i++) {
+                cache.put("small" + i, smallValue);
+            }
+
+            final AtomicBoolean writing = new AtomicBoolean(true);
+            final ExecutorService executor = Executors.newFixedThreadPool(READER_THREADS + 1);
+            try {
+                final Future<Integer> writer = executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        final byte[] largeValue = new byte[LARGE_ENTRY_BYTES];
+                        int commits = 0;
+                        while (writing.get()) {
+                            cache.put("large" + (commits % 8), largeValue);
+                            commits++;
+                        }
+                        return commits;
+                    }
+                });
+
+                final long startNanos = System.nanoTime();
+                final List<Future<long[]>> readers = new ArrayList<Future<long[]>>();
+                for (int t = 0; t < READER_THREADS; t++) {
+                    final int seed = t;
+                    readers.add(executor.submit(new Callable<long[]>() {
+                        @Override
+                        public long[] call() throws Exception {
+                            final Random random = new Random(seed);
+                            final byte[] buffer = new byte[SMALL_ENTRY_BYTES];
+                            final long[] latencies = new long[READS_PER_THREAD];
+                            for (int i = 0; i < READS_PER_THREAD; i++) {
+                                final long readStartNanos = System.nanoTime();
+                                cache.read("small" + random.nextInt(SMALL_ENTRIES), buffer);
+                                latencies[i] = System.nanoTime() - readStartNanos;
+                            }
+                            return latencies;
+                        }
+                    }));
+                }
+
+                final long[] latencies = new long[READER_THREADS * READS_PER_THREAD];
+                for (int t = 0; t < READER_THREADS; t++) {
+                    System.arraycopy(readers.get(t).get(), 0, latencies, t * READS_PER_THREAD,
+                            READS_PER_THREAD);
+                }
+                final long elapsedNanos = System.nanoTime() - startNanos;
+                writing.set(false);
+                final int commits = writer.get();
+
+                Arrays.sort(latencies);
+                final long p99Nanos = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+                System.out.println(String.format(Locale.US,
+                        "%-40s %12.1f reads/s %12.3f ms p99 %6d large commits", name,
+                        latencies.length / (elapsedNanos / 1e9), p99Nanos / 1e6, commits));
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            cache.delete();
+        }
+    }
+
+    private Cache openDiskLruCache() throws IOException {
+        final DiskLruCache diskLruCache = DiskLruCache.open(directory, 1, 1, MAX_SIZE);
+        return new Cache() {
+            @Override
+            public void put(final String key, final byte[] value) throws IOException {
+                final DiskLruCache.Editor editor = diskLruCache.edit(key);
+                if (editor == null) {
+                    return;
+                }
+                write(editor.newOutputStream(0), value);
+                // CacheService flushed the cache on every put
+                diskLruCache.flush();
+                editor.commit();
+            }
+
+            @Override
+            public int read(final String key, final byte[] buffer) throws IOException {
+                final DiskLruCache.Snapshot snapshot = diskLruCache.get(key);
+                try {
+                    return readFully(snapshot.getInputStream(0), buffer);
+                } finally {
+                    snapshot.close();
+                }
+            }
+
+            @Override
+            public void delete() throws IOException {
+                diskLruCache.delete();
+            }
+        };
+    }
+
+    private Cache openConcurrentDiskLruCache() throws IOException {
+        final ConcurrentDiskLruCache diskLruCache =
+                ConcurrentDiskLruCache.open(directory, 1, 1, MAX_SIZE);
+        return new Cache() {
+            @Override
+            public void put(final String key, final byte[] value) throws IOException {
+                final ConcurrentDiskLruCache.Editor editor = diskLruCache.edit(key);
+                if (editor == null) {
+                    return;
+                }
+                write(editor.newOutputStream(0), value);
+                editor.commit();
+            }
+
+            @Override
+            public int read(final String key, final byte[] buffer) throws IOException {
+                final ConcurrentDiskLruCache.Snapshot snapshot = diskLruCache.get(key);
+                try {
+                    return readFully(snapshot.getInputStream(0), buffer);
+                } finally {
+                    snapshot.close();
+                }
+            }
+
+            @Override
+            public void delete() throws IOException {
+                diskLruCache.delete();
+            }
+        };
+    }
+
+    private static void write(final OutputStream outputStream, final byte[] value)
+            throws IOException {
+        try {
+            outputStream.write(value);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static int readFully(final InputStream inputStream, final byte[] buffer)
+            throws IOException {
+        int total = 0;
+        int count;
+        while (total < buffer.length
+                && (count = inputStream.read(buffer, total, buffer.length - total)) != -1) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -242,7 +242,7 @@ public class MoPubTest {
 
         MoPub.initializeSdk(mActivity, sdkConfiguration, null);
 
-        ShadowLooper.runUiThreadTasks();
+        waitForSdkInitialization();
         assertThat(MoPub.getAdvancedBiddingTokensJson(mActivity)).isEqualTo(
                 "{\"AdvancedBidderTestClassName\":{\"token\":\"AdvancedBidderTestClassToken\"}}");
     }
@@ -255,7 +255,7 @@ public class MoPubTest {
 
         MoPub.initializeSdk(mActivity, sdkConfiguration, null);
 
-        ShadowLooper.runUiThreadTasks();
+        waitForSdkInitialization();
         assertThat(MoPub.getAdvancedBiddingTokensJson(mActivity)).isEqualTo(
                 "{\"AdvancedBidderTestClassName\":{\"token\":\"AdvancedBidderTestClassToken\"}}");
 
@@ -312,6 +312,19 @@ public class MoPubTest {
         assertThat(actual).isTrue();
     }
 
+    /**
+     * Initialization finishes on the main thread once the bidding tokens have been collected in
+     * the background.
+     */
+    private static void waitForSdkInitialization() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        ShadowLooper.runUiThreadTasks();
+        while (!MoPub.isSdkInitialized() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasks();
+        }
+    }
+
     private static class AdapterConfigurationTestClass extends BaseAdapterConfiguration {
         @NonNull
         @Override
@@ -0,0 +1,153 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.WeakHashMap;
+
+import static com.mopub.common.VisibilityTracker.TrackingInfo;
+import static com.mopub.common.VisibilityTracker.VisibilityChecker;
+import static com.mopub.common.VisibilityTracker.VisibilityTrackerListener;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Compares each tracker running its own visibility pass with one shared {@link VisibilityEngine}
+ * pass, on a feed that scrolls a little every frame. The feed has 30 rows, 10 of them video ads.
+ * Like the SDK, it has an impression tracker for every ad, a visibility tracker for every video
+ * ad, and one adapter tracker over every row.
+ */
+@RunWith(SdkTestRunner.class)
+public class VisibilityEngineBenchmark {
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 2000;
+    private static final int ROW_COUNT = 30;
+    private static final int VIDEO_AD_COUNT = 10;
+    private static final int ROW_HEIGHT = 300;
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+    private static final int SCROLL_PER_FRAME = 45;
+
+    private FrameLayout feed;
+    private List<VisibilityTracker> trackers;
+    private List<VisibilityTracker.VisibilityRunnable> perTrackerPasses;
+    private VisibilityEngine engine;
+    private int visibleViewCount;
+    private int scrollY;
+
+    @Before
+    public void setUp() {
+        Benchmark.assumeEnabled();
+
+        final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        feed = new FrameLayout(activity);
+        activity.setContentView(feed);
+        feed.layout(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+
+        final List<View> rows = new ArrayList<View>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            final View row = new View(activity);
+            feed.addView(row);
+            row.layout(0, i * ROW_HEIGHT, SCREEN_WIDTH, (i + 1) * ROW_HEIGHT);
+            rows.add(row);
+        }
+
+        final VisibilityTrackerListener countingListener = new VisibilityTrackerListener() {
+            @Override
+            public void onVisibilityChanged(final List<View> visibleViews,
+                    final List<View> invisibleViews) {
+                visibleViewCount += visibleViews.size();
+            }
+        };
+
+        trackers = new ArrayList<VisibilityTracker>();
+        perTrackerPasses = new ArrayList<VisibilityTracker.VisibilityRunnable>();
+        final VisibilityTracker adapterTracker = createTracker(activity, countingListener);
+        for (final View row : rows) {
+            adapterTracker.addView(row, 0, null);
+        }
+        for (int i = 0; i < ROW_COUNT; i += ROW_COUNT / VIDEO_AD_COUNT) {
+            createTracker(activity, countingListener).addView(rows.get(i), 50, null);
+            createTracker(activity, countingListener).addView(rows.get(i), 0, 50, null);
+        }
+
+        engine = VisibilityEngine.forView(activity, null);
+    }
+
+    @Test
+    public void visibilityPass_perTrackerVersusSharedEngine() throws Exception {
+        // Both paths have to see the same views before their cost is compared
+        for (int frame = 0; frame < 50; frame++) {
+            scroll();
+            visibleViewCount = 0;
+            runPerTrackerPasses();
+            final int perTrackerVisibleCount = visibleViewCount;
+            visibleViewCount = 0;
+            engine.runVisibilityPass();
+            assertThat(visibleViewCount).isEqualTo(perTrackerVisibleCount);
+        }
+
+        final long measurementsBefore = engine.getMeasurementCount();
+        engine.runVisibilityPass();
+        System.out.println("Views measured per shared pass: "
+                + (engine.getMeasurementCount() - measurementsBefore) + " for "
+                + trackers.size() + " trackers");
+
+        Benchmark.run("Per-tracker visibility passes",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        scroll();
+                        runPerTrackerPasses();
+                    }
+                });
+        Benchmark.run("Shared VisibilityEngine pass",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        scroll();
+                        engine.runVisibilityPass();
+                    }
+                });
+    }
+
+    /**
+     * What each tracker did on its own before: a pass outside the engine, so every tracker
+     * measures every view it tracks itself.
+     */
+    private void runPerTrackerPasses() {
+        for (final VisibilityTracker.VisibilityRunnable perTrackerPass : perTrackerPasses) {
+            perTrackerPass.run();
+        }
+    }
+
+    private void scroll() {
+        scrollY = (scrollY + SCROLL_PER_FRAME) % (ROW_COUNT * ROW_HEIGHT - SCREEN_HEIGHT);
+        feed.scrollTo(0, scrollY);
+    }
+
+    private VisibilityTracker createTracker(final Activity activity,
+            final VisibilityTrackerListener listener) {
+        final VisibilityTracker tracker = new VisibilityTracker(activity,
+                new WeakHashMap<View, TrackingInfo>(), new VisibilityChecker(), new Handler());
+        tracker.setVisibilityTrackerListener(listener);
+        trackers.add(tracker);
+        perTrackerPasses.add(tracker.new VisibilityRunnable());
+        return tracker;
+    }
+}
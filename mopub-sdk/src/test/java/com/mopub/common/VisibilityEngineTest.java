@@ -0,0 +1,177 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.robolectric.Robolectric;
+
+import static android.view.ViewTreeObserver.OnPreDrawListener;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class VisibilityEngineTest {
+    @Mock private Handler visibilityHandler;
+    @Mock private ViewTreeObserver viewTreeObserver;
+    @Mock private VisibilityEngine.Subscriber subscriber1;
+    @Mock private VisibilityEngine.Subscriber subscriber2;
+
+    private VisibilityEngine subject;
+
+    @Before
+    public void setUp() {
+        when(viewTreeObserver.isAlive()).thenReturn(true);
+        subject = new VisibilityEngine(visibilityHandler);
+        subject.attach(viewTreeObserver);
+    }
+
+    @Test
+    public void forView_withSameActivity_shouldReturnSameEngine() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+        final VisibilityEngine engine = VisibilityEngine.forView(activity, null);
+
+        assertThat(engine).isNotNull();
+        assertThat(VisibilityEngine.forView(activity, null)).isSameAs(engine);
+        assertThat(VisibilityEngine.forView(
+                Robolectric.buildActivity(Activity.class).create().get(), null))
+                .isNotSameAs(engine);
+    }
+
+    @Test
+    public void forView_withApplicationContext_shouldReturnNull() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+        assertThat(VisibilityEngine.forView(activity.getApplicationContext(), null)).isNull();
+    }
+
+    @Test
+    public void subscribe_shouldRegisterOnePreDrawListenerForAllSubscribers() {
+        subject.subscribe(subscriber1);
+        subject.subscribe(subscriber2);
+        subject.subscribe(subscriber2);
+
+        verify(viewTreeObserver, times(1)).addOnPreDrawListener(subject.mOnPreDrawListener);
+        assertThat(subject.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void unsubscribe_withLastSubscriber_shouldRemovePreDrawListener() {
+        subject.subscribe(subscriber1);
+        subject.subscribe(subscriber2);
+
+        subject.unsubscribe(subscriber1);
+        verify(viewTreeObserver, never()).removeOnPreDrawListener(any(OnPreDrawListener.class));
+
+        subject.unsubscribe(subscriber2);
+        verify(viewTreeObserver).removeOnPreDrawListener(subject.mOnPreDrawListener);
+    }
+
+    @Test
+    public void scheduleVisibilityCheck_shouldPostOnePassUntilItRuns() {
+        subject.subscribe(subscriber1);
+
+        subject.scheduleVisibilityCheck();
+        subject.scheduleVisibilityCheck();
+        verify(visibilityHandler, times(1)).postDelayed(any(Runnable.class),
+                eq((long) VisibilityEngine.VISIBILITY_THROTTLE_MILLIS));
+
+        subject.runVisibilityPass();
+        subject.scheduleVisibilityCheck();
+        verify(visibilityHandler, times(2)).postDelayed(any(Runnable.class), anyLong());
+    }
+
+    @Test
+    public void onPreDraw_shouldScheduleVisibilityCheck() {
+        subject.subscribe(subscriber1);
+
+        assertThat(subject.mOnPreDrawListener.onPreDraw()).isTrue();
+
+        verify(visibilityHandler).postDelayed(any(Runnable.class), anyLong());
+    }
+
+    @Test
+    public void runVisibilityPass_shouldCallEverySubscriber() {
+        subject.subscribe(subscriber1);
+        subject.subscribe(subscriber2);
+
+        subject.runVisibilityPass();
+
+        verify(subscriber1).onVisibilityCheck();
+        verify(subscriber2).onVisibilityCheck();
+    }
+
+    @Test
+    public void getGlobalVisibleRect_duringPass_shouldMeasureEachViewOnce() {
+        final View view = VisibilityTrackerTest.createViewMock(View.VISIBLE, 50, 100, 100, 100,
+                true, true);
+        final View hiddenView = VisibilityTrackerTest.createViewMock(View.VISIBLE, 0, 0, 100,
+                100, true, false);
+        final boolean[] results = new boolean[4];
+        final Rect[] rects = { new Rect(), new Rect() };
+        final VisibilityEngine.Subscriber measuringSubscriber = new VisibilityEngine.Subscriber() {
+            private int mCalls;
+
+            @Override
+            public void onVisibilityCheck() {
+                results[mCalls * 2] = VisibilityEngine.getGlobalVisibleRect(view, rects[mCalls]);
+                results[mCalls * 2 + 1] = VisibilityEngine.getGlobalVisibleRect(hiddenView,
+                        new Rect());
+                mCalls++;
+            }
+        };
+        subject.subscribe(measuringSubscriber);
+        subject.subscribe(new VisibilityEngine.Subscriber() {
+            @Override
+            public void onVisibilityCheck() {
+                measuringSubscriber.onVisibilityCheck();
+            }
+        });
+
+        subject.runVisibilityPass();
+
+        verify(view, times(1)).getGlobalVisibleRect(any(Rect.class));
+        verify(hiddenView, times(1)).getGlobalVisibleRect(any(Rect.class));
+        assertThat(results).isEqualTo(new boolean[] { true, false, true, false });
+        assertThat(rects[0]).isEqualTo(new Rect(0, 0, 50, 100));
+        assertThat(rects[1]).isEqualTo(rects[0]);
+        assertThat(subject.getMeasurementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void getGlobalVisibleRect_betweenPasses_shouldMeasureAgain() {
+        final View view = VisibilityTrackerTest.createViewMock(View.VISIBLE, 50, 100, 100, 100,
+                true, true);
+        subject.subscribe(new VisibilityEngine.Subscriber() {
+            @Override
+            public void onVisibilityCheck() {
+                VisibilityEngine.getGlobalVisibleRect(view, new Rect());
+            }
+        });
+
+        subject.runVisibilityPass();
+        subject.runVisibilityPass();
+        VisibilityEngine.getGlobalVisibleRect(view, new Rect());
+
+        verify(view, times(3)).getGlobalVisibleRect(any(Rect.class));
+    }
+}
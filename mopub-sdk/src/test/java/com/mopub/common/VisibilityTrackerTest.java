@@ -98,9 +98,10 @@ public class VisibilityTrackerTest {
         when(viewTreeObserver.isAlive()).thenReturn(true);
 
         subject = new VisibilityTracker(activity1, trackedViews, visibilityChecker, visibilityHandler);
-        assertThat(subject.mOnPreDrawListener).isNotNull();
-        verify(viewTreeObserver).addOnPreDrawListener(subject.mOnPreDrawListener);
-        assertThat(subject.mWeakViewTreeObserver.get()).isEqualTo(viewTreeObserver);
+        assertThat(subject.getVisibilityEngine()).isNotNull();
+        verify(viewTreeObserver).addOnPreDrawListener(
+                subject.getVisibilityEngine().mOnPreDrawListener);
+        assertThat(subject.getVisibilityEngine().getViewTreeObserver()).isEqualTo(viewTreeObserver);
     }
 
     @Test
@@ -116,8 +117,8 @@ public class VisibilityTrackerTest {
         when(viewTreeObserver.isAlive()).thenReturn(false);
 
         subject = new VisibilityTracker(activity1, trackedViews, visibilityChecker, visibilityHandler);
-        verify(viewTreeObserver, never()).addOnPreDrawListener(subject.mOnPreDrawListener);
-        assertThat(subject.mWeakViewTreeObserver.get()).isNull();
+        verify(viewTreeObserver, never()).addOnPreDrawListener(any(OnPreDrawListener.class));
+        assertThat(subject.getVisibilityEngine()).isNull();
     }
 
     @Test
@@ -125,7 +126,7 @@ public class VisibilityTrackerTest {
         subject = new VisibilityTracker(activity.getApplicationContext(), trackedViews,
                 visibilityChecker, visibilityHandler);
 
-        assertThat(subject.mWeakViewTreeObserver.get()).isNull();
+        assertThat(subject.getVisibilityEngine()).isNull();
     }
 
     @Test
@@ -149,7 +150,7 @@ public class VisibilityTrackerTest {
                 visibilityChecker, visibilityHandler);
         subject.addView(view, MIN_PERCENTAGE_VIEWED, null);
 
-        assertThat(subject.mWeakViewTreeObserver.get()).isEqualTo(viewTreeObserver);
+        assertThat(subject.getVisibilityEngine().getViewTreeObserver()).isEqualTo(viewTreeObserver);
     }
 
     @Test(expected = NullPointerException.class)
@@ -207,7 +208,7 @@ public class VisibilityTrackerTest {
         assertThat(trackedViews).isEmpty();
         verify(visibilityHandler).removeMessages(0);
         verify(viewTreeObserver).removeOnPreDrawListener(any(OnPreDrawListener.class));
-        assertThat(subject.mWeakViewTreeObserver.get()).isNull();
+        assertThat(subject.getVisibilityEngine()).isNull();
     }
 
     @Test
@@ -0,0 +1,88 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.logging;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.Reflection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.mopub.common.logging.MoPubLog.AdLogEvent.LOAD_FAILED;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Measures the cost of log calls for events no logger is interested in, which is the common case
+ * in production, against the same calls reaching a logger that drops the message.
+ */
+@RunWith(SdkTestRunner.class)
+public class MoPubLogBenchmark {
+    private static final int WARMUP_ITERATIONS = 100000;
+    private static final int ITERATIONS = 1000000;
+
+    private MoPubLog.LogLevel originalLogLevel;
+    private MoPubLogger noOpLogger;
+
+    @Before
+    public void setUp() {
+        Benchmark.assumeEnabled();
+
+        originalLogLevel = MoPubLog.getLogLevel();
+        noOpLogger = new MoPubLogger() {
+            @Override
+            public void log(final String className, final String methodName,
+                    final String identifier, final String message) {
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (originalLogLevel == null) {
+            return;
+        }
+        new Reflection.MethodBuilder(null, "removeLogger")
+                .setStatic(MoPubLog.class)
+                .setAccessible()
+                .addParam(MoPubLogger.class, noOpLogger)
+                .execute();
+        MoPubLog.setLogLevel(originalLogLevel);
+    }
+
+    @Test
+    public void log_disabledVersusEnabled() throws Exception {
+        final Integer errorCode = 3;
+
+        MoPubLog.setLogLevel(MoPubLog.LogLevel.INFO);
+        Benchmark.run("disabled debug event, 1 arg",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        MoPubLog.log(CUSTOM, "message");
+                    }
+                });
+
+        MoPubLog.setLogLevel(MoPubLog.LogLevel.NONE);
+        Benchmark.run("disabled info event, 2 args",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        MoPubLog.log(LOAD_FAILED, errorCode, "message");
+                    }
+                });
+
+        MoPubLog.addLogger(noOpLogger, MoPubLog.LogLevel.DEBUG);
+        Benchmark.run("enabled debug event, 1 arg",
+                WARMUP_ITERATIONS / 10, ITERATIONS / 10, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        MoPubLog.log(CUSTOM, "message");
+                    }
+                });
+    }
+}
@@ -0,0 +1,155 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.logging;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.Reflection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.mopub.common.logging.MoPubLog.AdLogEvent.LOAD_ATTEMPTED;
+import static com.mopub.common.logging.MoPubLog.AdLogEvent.LOAD_FAILED;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(SdkTestRunner.class)
+public class MoPubLogTest {
+
+    private MoPubLogger mockLogger;
+    private MoPubLog.LogLevel originalLogLevel;
+
+    @Before
+    public void setUp() {
+        originalLogLevel = MoPubLog.getLogLevel();
+        MoPubLog.setLogLevel(MoPubLog.LogLevel.NONE);
+        mockLogger = mock(MoPubLogger.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        removeLogger(mockLogger);
+        MoPubLog.setLogLevel(originalLogLevel);
+    }
+
+    @Test
+    public void isLoggable_withNoInterestedLogger_shouldReturnFalse() {
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.NONE);
+
+        assertThat(MoPubLog.isLoggable(CUSTOM)).isFalse();
+        assertThat(MoPubLog.isLoggable(LOAD_ATTEMPTED)).isFalse();
+    }
+
+    @Test
+    public void isLoggable_withInfoLogger_shouldOnlyAcceptInfoEvents() {
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.INFO);
+
+        assertThat(MoPubLog.isLoggable(LOAD_ATTEMPTED)).isTrue();
+        assertThat(MoPubLog.isLoggable(CUSTOM)).isFalse();
+    }
+
+    @Test
+    public void isLoggable_withNullEvent_shouldReturnFalse() {
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.DEBUG);
+
+        assertThat(MoPubLog.isLoggable(null)).isFalse();
+    }
+
+    @Test
+    public void isLoggable_afterLoggerLevelIsRaised_shouldReturnFalse() {
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.DEBUG);
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.INFO);
+
+        assertThat(MoPubLog.isLoggable(CUSTOM)).isFalse();
+    }
+
+    @Test
+    public void log_withDisabledEvent_shouldNotFormatArguments() {
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.INFO);
+        final CountingArgument argument = new CountingArgument();
+
+        MoPubLog.log(CUSTOM, argument);
+
+        verifyZeroInteractions(mockLogger);
+        assertThat(argument.toStringCount).isEqualTo(0);
+    }
+
+    @Test
+    public void log_withMultipleLoggers_shouldFormatMessageOnce() throws Exception {
+        final MoPubLogger secondLogger = mock(MoPubLogger.class);
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.DEBUG);
+        MoPubLog.addLogger(secondLogger, MoPubLog.LogLevel.DEBUG);
+        final CountingArgument argument = new CountingArgument();
+
+        MoPubLog.log(CUSTOM, argument);
+
+        verify(mockLogger).log(anyString(), anyString(), (String) isNull(), eq("SDK Log - argument"));
+        verify(secondLogger).log(anyString(), anyString(), (String) isNull(), eq("SDK Log - argument"));
+        assertThat(argument.toStringCount).isEqualTo(1);
+        removeLogger(secondLogger);
+    }
+
+    @Test
+    public void log_withEnabledEvent_shouldPassCallerAndFormattedMessage() {
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.DEBUG);
+
+        MoPubLog.log(CUSTOM, "message");
+
+        verify(mockLogger).log(MoPubLogTest.class.getName(),
+                "log_withEnabledEvent_shouldPassCallerAndFormattedMessage", null,
+                "SDK Log - message");
+    }
+
+    @Test
+    public void log_withIdentifierAndTwoArguments_shouldFormatBoth() {
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.INFO);
+
+        MoPubLog.log("adUnitId", LOAD_FAILED, 1, "error");
+
+        verify(mockLogger).log(MoPubLogTest.class.getName(),
+                "log_withIdentifierAndTwoArguments_shouldFormatBoth", "adUnitId",
+                "Ad failed to load: (1) error");
+    }
+
+    @Test
+    public void log_withLoggerBelowEventLevel_shouldOnlyNotifyInterestedLogger() throws Exception {
+        final MoPubLogger infoLogger = mock(MoPubLogger.class);
+        MoPubLog.addLogger(mockLogger, MoPubLog.LogLevel.DEBUG);
+        MoPubLog.addLogger(infoLogger, MoPubLog.LogLevel.INFO);
+
+        MoPubLog.log(CUSTOM, "message");
+
+        verify(mockLogger).log(anyString(), anyString(), (String) isNull(), anyString());
+        verify(infoLogger, never()).log(anyString(), anyString(), anyString(), anyString());
+        removeLogger(infoLogger);
+    }
+
+    private static void removeLogger(final MoPubLogger logger) throws Exception {
+        new Reflection.MethodBuilder(null, "removeLogger")
+                .setStatic(MoPubLog.class)
+                .setAccessible()
+                .addParam(MoPubLogger.class, logger)
+                .execute();
+    }
+
+    private static class CountingArgument {
+        int toStringCount;
+
+        @Override
+        public String toString() {
+            toStringCount++;
+            return "argument";
+        }
+    }
+}
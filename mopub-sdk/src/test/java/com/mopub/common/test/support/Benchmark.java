@@ -0,0 +1,95 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.test.support;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Minimal JVM microbenchmark harness for unit tests. Benchmarks are skipped unless the
+ * MOPUB_BENCHMARKS environment variable is set to true when running the unit tests, e.g.
+ * MOPUB_BENCHMARKS=true ./gradlew :mopub-sdk:testDebugUnitTest --tests '*Benchmark'
+ */
+public class Benchmark {
+    public static final String ENABLED_PROPERTY = "mopub.benchmarks";
+
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    public static class Result {
+        @NonNull public final String name;
+        public final double nanosPerOp;
+        /**
+         * Bytes allocated per operation on the benchmark thread, or -1 if the JVM does not
+         * support allocation counters.
+         */
+        public final long bytesPerOp;
+
+        Result(@NonNull final String name, final double nanosPerOp, final long bytesPerOp) {
+            this.name = name;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-40s %12.1f ns/op %12d B/op", name, nanosPerOp,
+                    bytesPerOp);
+        }
+    }
+
+    /**
+     * Skips the calling test unless benchmarks were enabled for this run.
+     */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("Benchmarks are disabled. Set MOPUB_BENCHMARKS to run them.",
+                Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY)));
+    }
+
+    @NonNull
+    public static Result run(@NonNull final String name, final int warmupIterations,
+            final int iterations, @NonNull final Operation operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            operation.run();
+        }
+
+        final long startBytes = allocatedBytes();
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final long endBytes = allocatedBytes();
+
+        final long bytesPerOp = (startBytes < 0 || endBytes < 0)
+                ? -1
+                : (endBytes - startBytes) / iterations;
+        final Result result = new Result(name, (double) elapsedNanos / iterations, bytesPerOp);
+        System.out.println(result);
+        return result;
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean sunThreadMXBean =
+                (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private Benchmark() {
+    }
+}
@@ -0,0 +1,121 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.test.support;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Http server on the loopback interface for tests that need real connections. Every request gets
+ * the same 200 response, gzipped when the client accepts gzip. The last request is recorded.
+ */
+public class LocalHttpServer {
+    @NonNull private final HttpServer mServer;
+    @NonNull private final ExecutorService mExecutor;
+    @NonNull private final byte[] mBody;
+    @NonNull private final byte[] mGzippedBody;
+
+    @Nullable private volatile Headers mLastRequestHeaders;
+    @Nullable private volatile byte[] mLastRequestBody;
+    @Nullable private volatile String mLastRequestMethod;
+
+    public LocalHttpServer(@NonNull final byte[] body, final int threads) throws IOException {
+        mBody = body;
+        mGzippedBody = gzip(body);
+        mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        mExecutor = Executors.newFixedThreadPool(threads);
+        mServer.setExecutor(mExecutor);
+        mServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                respond(exchange);
+            }
+        });
+        mServer.start();
+    }
+
+    @NonNull
+    public String getUrl(@NonNull final String path) {
+        return "http://127.0.0.1:" + mServer.getAddress().getPort() + path;
+    }
+
+    @Nullable
+    public Headers getLastRequestHeaders() {
+        return mLastRequestHeaders;
+    }
+
+    @Nullable
+    public byte[] getLastRequestBody() {
+        return mLastRequestBody;
+    }
+
+    @Nullable
+    public String getLastRequestMethod() {
+        return mLastRequestMethod;
+    }
+
+    public void shutdown() {
+        mServer.stop(0);
+        mExecutor.shutdownNow();
+    }
+
+    private void respond(@NonNull final HttpExchange exchange) throws IOException {
+        try {
+            mLastRequestMethod = exchange.getRequestMethod();
+            mLastRequestHeaders = exchange.getRequestHeaders();
+            mLastRequestBody = readFully(exchange.getRequestBody());
+
+            final String acceptEncoding =
+                    exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            final boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            final byte[] body = gzip ? mGzippedBody : mBody;
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (gzip) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            final OutputStream outputStream = exchange.getResponseBody();
+            outputStream.write(body);
+            outputStream.close();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @NonNull
+    private static byte[] readFully(@NonNull final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, count);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @NonNull
+    private static byte[] gzip(@NonNull final byte[] body) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+        gzipOutputStream.write(body);
+        gzipOutputStream.close();
+        return outputStream.toByteArray();
+    }
+}
@@ -313,6 +313,27 @@ public class AdViewControllerTest {
         assertThat(Robolectric.getForegroundThreadScheduler().size()).isEqualTo(0);
     }
 
+    @Test
+    public void getRefreshDelayMillis_afterServerErrors_shouldKeepBackoffSchedule_shouldAddJitter() {
+        subject.setRefreshTimeMillis(30000);
+
+        subject.mBackoffPower = 1;
+        assertThat(subject.getRefreshDelayMillis()).isEqualTo(30000);
+
+        // The multipliers are 1.5^power truncated to 2x, 3x and 5x, plus up to 20% jitter
+        final long[] expectedDelays = {60000, 90000, 150000};
+        for (int i = 0; i < expectedDelays.length; i++) {
+            subject.mBackoffPower = i + 2;
+            final long delayMillis = subject.getRefreshDelayMillis();
+            assertThat(delayMillis).isGreaterThanOrEqualTo(expectedDelays[i]);
+            assertThat(delayMillis).isLessThanOrEqualTo((long) (expectedDelays[i] * 1.2));
+        }
+
+        subject.mBackoffPower = 20;
+        assertThat(subject.getRefreshDelayMillis()).isLessThanOrEqualTo(600000);
+        assertThat(subject.getRefreshDelayMillis()).isGreaterThanOrEqualTo(480000);
+    }
+
     @Test
     public void scheduleRefreshTimer_whenAdViewControllerNotConfiguredByResponse_shouldHaveDefaultRefreshTime() {
         ShadowLooper.pauseMainLooper();
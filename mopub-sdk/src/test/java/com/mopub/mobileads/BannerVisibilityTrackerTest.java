@@ -79,9 +79,8 @@ public class BannerVisibilityTrackerTest {
         when(viewTreeObserver.isAlive()).thenReturn(true);
 
         subject = new BannerVisibilityTracker(spyActivity, mockView, mockView, MIN_VISIBLE_DIPS, MIN_VISIBLE_MILLIS);
-        assertThat(subject.mOnPreDrawListener).isNotNull();
-        verify(viewTreeObserver).addOnPreDrawListener(subject.mOnPreDrawListener);
-        assertThat(subject.mWeakViewTreeObserver.get()).isEqualTo(viewTreeObserver);
+        assertThat(subject.getVisibilityEngine()).isNotNull();
+        verify(viewTreeObserver).addOnPreDrawListener(any(OnPreDrawListener.class));
     }
 
     @Test
@@ -97,15 +96,15 @@ public class BannerVisibilityTrackerTest {
         when(viewTreeObserver.isAlive()).thenReturn(false);
 
         subject = new BannerVisibilityTracker(mockActivity, mockView, mockView, MIN_VISIBLE_DIPS, MIN_VISIBLE_MILLIS);
-        verify(viewTreeObserver, never()).addOnPreDrawListener(subject.mOnPreDrawListener);
-        assertThat(subject.mWeakViewTreeObserver.get()).isNull();
+        verify(viewTreeObserver, never()).addOnPreDrawListener(any(OnPreDrawListener.class));
+        assertThat(subject.getVisibilityEngine()).isNull();
     }
 
     @Test
     public void constructor_withApplicationContext_shouldNotSetOnPreDrawListener() {
         subject = new BannerVisibilityTracker(activity.getApplicationContext(), mockView, mockView, MIN_VISIBLE_DIPS, MIN_VISIBLE_MILLIS);
 
-        assertThat(subject.mWeakViewTreeObserver.get()).isNull();
+        assertThat(subject.getVisibilityEngine()).isNull();
     }
 
     @Test
@@ -119,7 +118,8 @@ public class BannerVisibilityTrackerTest {
         when(viewTreeObserver.isAlive()).thenReturn(true);
 
         subject = new BannerVisibilityTracker(activity.getApplicationContext(), rootView, mockView, MIN_VISIBLE_DIPS, MIN_VISIBLE_MILLIS);
-        assertThat(subject.mWeakViewTreeObserver.get()).isEqualTo(viewTreeObserver);
+        assertThat(subject.getVisibilityEngine()).isNotNull();
+        verify(viewTreeObserver).addOnPreDrawListener(any(OnPreDrawListener.class));
     }
 
     @Test
@@ -141,7 +141,7 @@ public class BannerVisibilityTrackerTest {
         assertThat(visibilityHandler.hasMessages(0)).isFalse();
         assertThat(subject.isVisibilityScheduled()).isFalse();
         verify(viewTreeObserver).removeOnPreDrawListener(any(OnPreDrawListener.class));
-        assertThat(subject.mWeakViewTreeObserver.get()).isNull();
+        assertThat(subject.getVisibilityEngine()).isNull();
         assertThat(subject.getBannerVisibilityTrackerListener()).isNull();
     }
 
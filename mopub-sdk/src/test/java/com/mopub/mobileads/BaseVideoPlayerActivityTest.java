@@ -42,6 +42,7 @@ public class BaseVideoPlayerActivityTest {
     @Before
     public void setup() throws Exception {
         mVastVideoConfig = mock(VastVideoConfig.class, withSettings().serializable());
+        when(mVastVideoConfig.copy()).thenReturn(new VastVideoConfig());
         testBroadcastIdentifier = 1234;
         mOrientation = CreativeOrientation.DEVICE;
     }
@@ -73,15 +74,20 @@ public class BaseVideoPlayerActivityTest {
         verifyNoMoreInteractions(mockAudioManager);
     }
 
-    static void assertVastVideoPlayerActivityStarted(final Class clazz,
+    static VastVideoConfig assertVastVideoPlayerActivityStarted(final Class clazz,
             final VastVideoConfig vastVideoConfig,
             final long broadcastIdentifier) {
         final Intent intent = ShadowApplication.getInstance().getNextStartedActivity();
         assertIntentAndBroadcastIdentifierAreCorrect(intent, clazz, broadcastIdentifier);
 
-        final VastVideoConfig expectedVastVideoConfig =
-                (VastVideoConfig) intent.getSerializableExtra(VastVideoViewController.VAST_VIDEO_CONFIG);
-        assertThat(expectedVastVideoConfig).isEqualsToByComparingFields(vastVideoConfig);
+        final long handle = intent.getLongExtra(VastVideoConfigRegistry.HANDLE_KEY,
+                VastVideoConfigRegistry.NO_HANDLE);
+        assertThat(intent.hasExtra(VastVideoViewController.VAST_VIDEO_CONFIG)).isFalse();
+        // The player gets a copy, so it does not share tracker state with the caller
+        final VastVideoConfig registered = VastVideoConfigRegistry.get(handle);
+        assertThat(registered).isNotNull();
+        assertThat(registered).isNotSameAs(vastVideoConfig);
+        return registered;
     }
 
     public static void assertMraidVideoPlayerActivityStarted(final Class clazz, final String url) {
@@ -9,7 +9,6 @@ import com.mopub.mobileads.test.support.VastUtils;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.w3c.dom.Node;
 
 import static com.mopub.mobileads.test.support.VastUtils.createNode;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -34,7 +33,7 @@ public class VastAdXmlManagerTest {
                 "    </Wrapper>" +
                 "</Ad>";
 
-        Node adNode = createNode(adXml);
+        VastXmlElement adNode = createNode(adXml);
         subject = new VastAdXmlManager(adNode);
 
         VastInLineXmlManager vastInLineXmlManager = subject.getInLineXmlManager();
@@ -62,7 +61,7 @@ public class VastAdXmlManagerTest {
                 "    </Wrapper>" +
                 "</Ad>";
 
-        Node adNode = createNode(adXml);
+        VastXmlElement adNode = createNode(adXml);
         subject = new VastAdXmlManager(adNode);
 
         VastInLineXmlManager vastInLineXmlManager = subject.getInLineXmlManager();
@@ -80,7 +79,7 @@ public class VastAdXmlManagerTest {
                 "    </Wrapper>" +
                 "</Ad>";
 
-        Node adNode = createNode(adXml);
+        VastXmlElement adNode = createNode(adXml);
         subject = new VastAdXmlManager(adNode);
 
         assertThat(subject.getInLineXmlManager()).isNull();
@@ -101,7 +100,7 @@ public class VastAdXmlManagerTest {
                 "    </Wrapper>" +
                 "</Ad>";
 
-        Node adNode = createNode(adXml);
+        VastXmlElement adNode = createNode(adXml);
         subject = new VastAdXmlManager(adNode);
 
         VastWrapperXmlManager vastWrapperXmlManager = subject.getWrapperXmlManager();
@@ -129,7 +128,7 @@ public class VastAdXmlManagerTest {
                 "    </Wrapper>" +
                 "</Ad>";
 
-        Node adNode = createNode(adXml);
+        VastXmlElement adNode = createNode(adXml);
         subject = new VastAdXmlManager(adNode);
 
         VastWrapperXmlManager vastWrapperXmlManager = subject.getWrapperXmlManager();
@@ -147,7 +146,7 @@ public class VastAdXmlManagerTest {
                 "    </InLine>" +
                 "</Ad>";
 
-        Node adNode = createNode(adXml);
+        VastXmlElement adNode = createNode(adXml);
         subject = new VastAdXmlManager(adNode);
 
         assertThat(subject.getWrapperXmlManager()).isNull();
@@ -168,7 +167,7 @@ public class VastAdXmlManagerTest {
                 "    </Wrapper>" +
                 "</Ad>";
 
-        Node adNode = createNode(adXml);
+        VastXmlElement adNode = createNode(adXml);
         subject = new VastAdXmlManager(adNode);
 
         assertThat(subject.getSequence()).isEqualTo("42");
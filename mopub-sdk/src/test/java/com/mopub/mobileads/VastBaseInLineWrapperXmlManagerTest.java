@@ -9,7 +9,6 @@ import com.mopub.mobileads.test.support.VastUtils;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.w3c.dom.Node;
 
 import java.util.List;
 
@@ -42,7 +41,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(VastUtils.vastTrackersToStrings(subject.getImpressionTrackers()))
@@ -54,7 +53,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
         String inLineXml = "<InLine>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getImpressionTrackers()).isEmpty();
@@ -103,7 +102,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         List<VastLinearXmlManager> linearXmlManagers = subject.getLinearXmlManagers();
@@ -136,7 +135,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getLinearXmlManagers()).isEmpty();
@@ -162,7 +161,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getLinearXmlManagers()).isEmpty();
@@ -188,7 +187,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "                 </Creative>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getLinearXmlManagers()).isEmpty();
@@ -240,7 +239,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getCompanionAdXmlManagers()).hasSize(2);
@@ -263,7 +262,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getLinearXmlManagers()).isEmpty();
@@ -285,7 +284,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getLinearXmlManagers()).isEmpty();
@@ -307,7 +306,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "          </Creatives>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getLinearXmlManagers()).isEmpty();
@@ -329,7 +328,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "                 </Creative>" +
                 "</InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getLinearXmlManagers()).isEmpty();
@@ -344,7 +343,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "               </Extensions>" +
                 "           </InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getVastExtensionParentXmlManager()).isNotNull();
@@ -364,7 +363,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "               </Extensions>" +
                 "           </InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getVastExtensionParentXmlManager()).isNotNull();
@@ -388,7 +387,7 @@ public class VastBaseInLineWrapperXmlManagerTest {
                 "                 </Creative>" +
                 "           </InLine>";
 
-        Node inLineNode = createNode(inLineXml);
+        VastXmlElement inLineNode = createNode(inLineXml);
         subject = new VastInLineXmlManager(inLineNode);
 
         assertThat(subject.getVastExtensionParentXmlManager()).isNull();
@@ -10,7 +10,6 @@ import com.mopub.mobileads.test.support.VastUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.w3c.dom.Node;
 
 import static com.mopub.mobileads.test.support.VastUtils.createNode;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -19,7 +18,7 @@ import static org.fest.assertions.api.Assertions.assertThat;
 public class VastIconConfigXmlManagerTest {
 
     private VastIconXmlManager subject;
-    private Node iconNode;
+    private VastXmlElement iconNode;
 
     @Before
     public void setup() throws Exception {
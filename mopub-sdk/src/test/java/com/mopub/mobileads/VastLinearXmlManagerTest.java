@@ -10,7 +10,6 @@ import com.mopub.mobileads.test.support.VastUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.w3c.dom.Node;
 
 import java.util.List;
 
@@ -21,7 +20,7 @@ import static org.fest.assertions.api.Assertions.assertThat;
 public class VastLinearXmlManagerTest {
 
     private VastLinearXmlManager subject;
-    private Node linearNode;
+    private VastXmlElement linearNode;
 
     @Before
     public void setup() throws Exception {
@@ -379,7 +378,7 @@ public class VastLinearXmlManagerTest {
         String linearXml = "<Linear>" +
                 "</Linear>";
 
-        Node linearNode = createNode(linearXml);
+        VastXmlElement linearNode = createNode(linearXml);
         subject = new VastLinearXmlManager(linearNode);
 
         assertThat(subject.getSkipOffset()).isNull();
@@ -390,7 +389,7 @@ public class VastLinearXmlManagerTest {
         String linearXml = "<Linear skipoffset=\"\">" +
                 "</Linear>";
 
-        Node linearNode = createNode(linearXml);
+        VastXmlElement linearNode = createNode(linearXml);
         subject = new VastLinearXmlManager(linearNode);
 
         assertThat(subject.getSkipOffset()).isNull();
@@ -416,7 +415,7 @@ public class VastLinearXmlManagerTest {
                 "    </MediaFiles>" +
                 "</Linear>";
 
-        Node linearNode = createNode(linearXml);
+        VastXmlElement linearNode = createNode(linearXml);
         subject = new VastLinearXmlManager(linearNode);
 
         List<VastMediaXmlManager> mediaXmlManagers = subject.getMediaXmlManagers();
@@ -434,7 +433,7 @@ public class VastLinearXmlManagerTest {
                 "    </MediaFile>" +
                 "</Linear>";
 
-        Node linearNode = createNode(linearXml);
+        VastXmlElement linearNode = createNode(linearXml);
         subject = new VastLinearXmlManager(linearNode);
 
         List<VastMediaXmlManager> mediaXmlManagers = subject.getMediaXmlManagers();
@@ -460,7 +459,7 @@ public class VastLinearXmlManagerTest {
                 "    </Icons>" +
                 "</Linear>";
 
-        Node linearNode = createNode(linearXml);
+        VastXmlElement linearNode = createNode(linearXml);
         subject = new VastLinearXmlManager(linearNode);
 
         assertThat(subject.getIconXmlManagers()).isEmpty();
@@ -478,7 +477,7 @@ public class VastLinearXmlManagerTest {
                 "    </Icon>" +
                 "</Linear>";
 
-        Node linearNode = createNode(linearXml);
+        VastXmlElement linearNode = createNode(linearXml);
         subject = new VastLinearXmlManager(linearNode);
 
         assertThat(subject.getIconXmlManagers()).isEmpty();
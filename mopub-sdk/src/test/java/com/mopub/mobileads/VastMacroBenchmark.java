@@ -0,0 +1,116 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Compares filling in VAST macros with one {@code replaceAll} per macro against the url
+ * templates kept on each {@link VastTracker}, on the trackers fired at one quartile of a video
+ * with many verification and measurement vendors.
+ */
+@RunWith(SdkTestRunner.class)
+public class VastMacroBenchmark {
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int ITERATIONS = 10000;
+    private static final int TRACKERS_PER_QUARTILE = 40;
+    private static final String ASSET_URI = "https://cdn.mopub.com/video/creative_1280x720.mp4";
+    private static final int CONTENT_PLAY_HEAD = 7500;
+
+    private List<VastTracker> trackers;
+    private List<String> trackerUrls;
+
+    @Before
+    public void setUp() {
+        Benchmark.assumeEnabled();
+
+        trackers = new ArrayList<VastTracker>();
+        trackerUrls = new ArrayList<String>();
+        for (int i = 0; i < TRACKERS_PER_QUARTILE; i++) {
+            final String url = "https://vendor" + i + ".example.com/track?event=firstQuartile"
+                    + "&playhead=[CONTENTPLAYHEAD]&asset=[ASSETURI]&cb=[CACHEBUSTING]"
+                    + "&campaign=1234567&placement=abcdef&[unknown]=" + i;
+            trackers.add(new VastFractionalProgressTracker(url, 0.25f));
+            trackerUrls.add(url);
+        }
+    }
+
+    @Test
+    public void getUris_replaceAllVersusUrlTemplates() throws Exception {
+        // Both paths have to agree before their cost is compared. The cache buster is random,
+        // so it is taken from the template output.
+        final List<String> rendered = VastMacroHelper.fromTrackers(trackers)
+                .withAssetUri(ASSET_URI)
+                .withContentPlayHead(CONTENT_PLAY_HEAD)
+                .getUris();
+        final String cachebuster = rendered.get(0).replaceAll(".*&cb=([0-9]+)&.*", "$1");
+        final VastMacroHelper encodedValues = new VastMacroHelper(
+                Collections.singletonList("[ASSETURI]|[CONTENTPLAYHEAD]"))
+                .withAssetUri(ASSET_URI)
+                .withContentPlayHead(CONTENT_PLAY_HEAD);
+        final String[] parts = encodedValues.getUris().get(0).split("\\|");
+        assertThat(replaceAll(trackerUrls, parts[0], parts[1], cachebuster)).isEqualTo(rendered);
+
+        Benchmark.run("replaceAll per macro",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        replaceAll(trackerUrls, parts[0], parts[1], cachebuster);
+                    }
+                });
+        Benchmark.run("VastUrlTemplate",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        VastMacroHelper.fromTrackers(trackers)
+                                .withAssetUri(ASSET_URI)
+                                .withContentPlayHead(CONTENT_PLAY_HEAD)
+                                .getUris();
+                    }
+                });
+    }
+
+    /**
+     * The previous {@link VastMacroHelper#getUris()}, which compiled a regular expression for
+     * every macro of every url.
+     */
+    private static List<String> replaceAll(final List<String> urls, final String assetUri,
+            final String contentPlayHead, final String cachebuster) {
+        final List<String> modifiedUrls = new ArrayList<String>();
+        for (final String url : urls) {
+            String modifiedUrl = url;
+            for (final VastMacro vastMacro : VastMacro.values()) {
+                final String value;
+                switch (vastMacro) {
+                    case ASSETURI:
+                        value = assetUri;
+                        break;
+                    case CONTENTPLAYHEAD:
+                        value = contentPlayHead;
+                        break;
+                    case CACHEBUSTING:
+                        value = cachebuster;
+                        break;
+                    default:
+                        value = "";
+                }
+                modifiedUrl = modifiedUrl.replaceAll("\\[" + vastMacro.name() + "\\]", value);
+            }
+            modifiedUrls.add(modifiedUrl);
+        }
+        return modifiedUrls;
+    }
+}
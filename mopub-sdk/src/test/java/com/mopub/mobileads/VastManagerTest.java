@@ -22,6 +22,8 @@ import org.robolectric.Robolectric;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadows.ShadowLooper;
 
+import java.net.HttpURLConnection;
+import java.util.Arrays;
 import java.util.concurrent.Semaphore;
 
 import static com.mopub.mobileads.VastManager.VastManagerListener;
@@ -30,6 +32,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(SdkTestRunner.class)
 @Config(qualifiers = "w480dp-h800dp", shadows = {ShadowMoPubHttpUrlConnection.class})
@@ -49,6 +52,7 @@ public class VastManagerTest {
     @Before
     public void setup() {
         context = Robolectric.buildActivity(Activity.class).create().get();
+        VastWrapperResolver.clearCache();
         CacheService.initializeDiskCache(context);
         subject = new VastManager(context, true);
         dspCreativeId = "dspCreativeId";
@@ -217,6 +221,25 @@ public class VastManagerTest {
         assertThat(mVastVideoConfig).isNull();
     }
 
+    @Test
+    public void prepareVastVideoConfiguration_withVideoDownloadFailingAfterPlayable_shouldReturnNull() throws Exception {
+        // Vast redirect response
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_NESTED_VAST_XML_STRING);
+        // Video download response that ends early, after enough has arrived to be playable
+        final char[] videoData = new char[VideoDownloader.PLAYABLE_BUFFER_BYTES + 1];
+        Arrays.fill(videoData, 'v');
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, new String(videoData));
+        final HttpURLConnection videoUrlConnection = (HttpURLConnection)
+                ShadowMoPubHttpUrlConnection.getPendingUrlConnections().toArray()[1];
+        when(videoUrlConnection.getContentLength()).thenReturn(videoData.length * 2);
+
+        prepareVastVideoConfiguration();
+        semaphore.acquire();
+        verify(vastManagerListener).onVastVideoConfigurationPrepared(any(VastVideoConfig.class));
+
+        assertThat(mVastVideoConfig).isNull();
+    }
+
     @Test
     public void prepareVastVideoConfiguration_withNoExtensions_shouldContainTheCorrectDefaultExtensionValues() throws Exception {
         // Vast redirect response to XML without VAST extensions
@@ -0,0 +1,146 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.app.Activity;
+
+import com.mopub.common.ClientMetadata.MoPubNetworkType;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.mobileads.VastXmlManagerAggregator.CompanionOrientation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class VastMediaSelectorTest {
+    private static final int SCREEN_WIDTH_DP = 800;
+    private static final double SCREEN_ASPECT_RATIO = 800.0 / 480;
+
+    private Activity context;
+
+    @Before
+    public void setUp() {
+        context = Robolectric.buildActivity(Activity.class).create().get();
+    }
+
+    @Test
+    public void constructor_shouldPickBitrateRangeForNetworkType() {
+        assertThat(createSubject(MoPubNetworkType.WIFI).getBitrateThresholdLow())
+                .isEqualTo(VastMediaSelector.BITRATE_THRESHOLD_LOW);
+        assertThat(createSubject(MoPubNetworkType.UNKNOWN).getBitrateThresholdHigh())
+                .isEqualTo(VastMediaSelector.BITRATE_THRESHOLD_HIGH);
+        assertThat(createSubject(MoPubNetworkType.GGG).getBitrateThresholdHigh())
+                .isEqualTo(VastMediaSelector.BITRATE_THRESHOLD_HIGH_3G);
+        assertThat(createSubject(MoPubNetworkType.GG).getBitrateThresholdHigh())
+                .isEqualTo(VastMediaSelector.BITRATE_THRESHOLD_HIGH_2G);
+    }
+
+    @Test
+    public void selectMediaFile_onWifi_shouldPreferBitrateInDefaultRange() {
+        final VastMediaXmlManager low = createMediaXmlManager(250, "low_url");
+        final VastMediaXmlManager high = createMediaXmlManager(1200, "high_url");
+
+        final VastMediaSelector.Choice<String> choice = createSubject(MoPubNetworkType.WIFI)
+                .selectMediaFile(Arrays.asList(low, high));
+
+        assertThat(choice.getValue()).isEqualTo("high_url");
+    }
+
+    @Test
+    public void selectMediaFile_on2g_shouldPreferLowerBitrate() {
+        final VastMediaXmlManager low = createMediaXmlManager(250, "low_url");
+        final VastMediaXmlManager high = createMediaXmlManager(1200, "high_url");
+
+        final VastMediaSelector.Choice<String> choice = createSubject(MoPubNetworkType.GG)
+                .selectMediaFile(Arrays.asList(low, high));
+
+        assertThat(choice.getValue()).isEqualTo("low_url");
+    }
+
+    @Test
+    public void selectMediaFile_shouldReturnScoreOfChoice() {
+        // Same aspect ratio as the screen, within a screen width, and a bitrate in range
+        final VastMediaXmlManager media = createMediaXmlManager(1000, "media_url");
+
+        final VastMediaSelector.Choice<String> choice = createSubject(MoPubNetworkType.WIFI)
+                .selectMediaFile(Collections.singletonList(media));
+
+        // mp4 scores 1.5 when it fits perfectly
+        assertThat(choice.getScore()).isEqualTo(1.5);
+    }
+
+    @Test
+    public void selectMediaFile_withNoPlayableMediaFile_shouldReturnNull() {
+        final VastMediaXmlManager media = createMediaXmlManager(1000, "media_url");
+        when(media.getType()).thenReturn("video/webm");
+
+        assertThat(createSubject(MoPubNetworkType.WIFI)
+                .selectMediaFile(Collections.singletonList(media))).isNull();
+    }
+
+    @Test
+    public void selectCompanionAds_shouldChooseForBothOrientationsInOnePass() {
+        final VastCompanionAdXmlManager landscape = createCompanionXmlManager(400, 300,
+                "landscape_url");
+        final VastCompanionAdXmlManager portrait = createCompanionXmlManager(300, 400,
+                "portrait_url");
+
+        final Map<CompanionOrientation, VastMediaSelector.Choice<VastCompanionAdConfig>> choices =
+                createSubject(MoPubNetworkType.WIFI).selectCompanionAds(
+                        Arrays.asList(landscape, portrait));
+
+        assertThat(choices.get(CompanionOrientation.LANDSCAPE).getValue().getVastResource()
+                .getResource()).isEqualTo("landscape_url");
+        assertThat(choices.get(CompanionOrientation.PORTRAIT).getValue().getVastResource()
+                .getResource()).isEqualTo("portrait_url");
+    }
+
+    @Test
+    public void selectCompanionAds_withCompanionsTooSmall_shouldReturnEmptyMap() {
+        final VastCompanionAdXmlManager companion = createCompanionXmlManager(299, 250,
+                "image_url");
+
+        assertThat(createSubject(MoPubNetworkType.WIFI).selectCompanionAds(
+                Collections.singletonList(companion))).isEmpty();
+    }
+
+    private VastMediaSelector createSubject(final MoPubNetworkType networkType) {
+        return new VastMediaSelector(context, SCREEN_ASPECT_RATIO, SCREEN_WIDTH_DP, networkType);
+    }
+
+    private static VastMediaXmlManager createMediaXmlManager(final int bitrate,
+            final String mediaUrl) {
+        final VastMediaXmlManager mediaXmlManager = mock(VastMediaXmlManager.class);
+        when(mediaXmlManager.getWidth()).thenReturn(800);
+        when(mediaXmlManager.getHeight()).thenReturn(480);
+        when(mediaXmlManager.getBitrate()).thenReturn(bitrate);
+        when(mediaXmlManager.getType()).thenReturn("video/mp4");
+        when(mediaXmlManager.getMediaUrl()).thenReturn(mediaUrl);
+        return mediaXmlManager;
+    }
+
+    private static VastCompanionAdXmlManager createCompanionXmlManager(final int width,
+            final int height, final String imageUrl) {
+        final VastCompanionAdXmlManager companionXmlManager =
+                mock(VastCompanionAdXmlManager.class);
+        when(companionXmlManager.getWidth()).thenReturn(width);
+        when(companionXmlManager.getHeight()).thenReturn(height);
+        final VastResourceXmlManager resourceXmlManager =
+                VastXmlManagerAggregatorTest.initializeVastResourceXmlManagerMock(imageUrl,
+                        "image/png", null, null);
+        when(companionXmlManager.getResourceXmlManager()).thenReturn(resourceXmlManager);
+        return companionXmlManager;
+    }
+}
@@ -0,0 +1,98 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class VastProgressTrackerScheduleTest {
+    private VastAbsoluteProgressTracker absolute1;
+    private VastAbsoluteProgressTracker absolute2;
+    private VastFractionalProgressTracker fractional1;
+    private VastFractionalProgressTracker fractional2;
+    private List<VastTracker> dueTrackers;
+    private VastProgressTrackerSchedule subject;
+
+    @Before
+    public void setUp() {
+        absolute1 = new VastAbsoluteProgressTracker("absolute1", 1000);
+        absolute2 = new VastAbsoluteProgressTracker("absolute2", 5000);
+        fractional1 = new VastFractionalProgressTracker("fractional1", 0.25f);
+        fractional2 = new VastFractionalProgressTracker("fractional2", 0.5f);
+        dueTrackers = new ArrayList<VastTracker>();
+        subject = new VastProgressTrackerSchedule(Arrays.asList(absolute1, absolute2),
+                Arrays.asList(fractional1, fractional2));
+    }
+
+    @Test
+    public void collectDueTrackers_shouldAddDueTrackersAbsoluteFirst_shouldMarkThemTracked() {
+        final int added = subject.collectDueTrackers(2500, 10000, dueTrackers);
+
+        assertThat(added).isEqualTo(2);
+        assertThat(dueTrackers).containsExactly(absolute1, fractional1);
+        assertThat(absolute1.isTracked()).isTrue();
+        assertThat(fractional1.isTracked()).isTrue();
+        assertThat(absolute2.isTracked()).isFalse();
+    }
+
+    @Test
+    public void collectDueTrackers_calledAgain_shouldNotAddTrackersTwice() {
+        subject.collectDueTrackers(2500, 10000, dueTrackers);
+        dueTrackers.clear();
+
+        final int added = subject.collectDueTrackers(3000, 10000, dueTrackers);
+
+        assertThat(added).isEqualTo(0);
+        assertThat(dueTrackers).isEmpty();
+    }
+
+    @Test
+    public void collectDueTrackers_withTrackerTrackedElsewhere_shouldSkipIt() {
+        absolute1.setTracked();
+
+        subject.collectDueTrackers(1000, 10000, dueTrackers);
+
+        assertThat(dueTrackers).isEmpty();
+    }
+
+    @Test
+    public void collectDueTrackers_withNoVideoLength_shouldAddNothing() {
+        assertThat(subject.collectDueTrackers(2500, 0, dueTrackers)).isEqualTo(0);
+        assertThat(subject.collectDueTrackers(-1, 10000, dueTrackers)).isEqualTo(0);
+        assertThat(dueTrackers).isEmpty();
+    }
+
+    @Test
+    public void getNextTriggerMillis_shouldReturnEarliestRemainingTrigger() {
+        assertThat(subject.getNextTriggerMillis(10000)).isEqualTo(1000);
+
+        subject.collectDueTrackers(1000, 10000, dueTrackers);
+        assertThat(subject.getNextTriggerMillis(10000)).isEqualTo(2500);
+
+        subject.collectDueTrackers(5000, 10000, dueTrackers);
+        assertThat(subject.getNextTriggerMillis(10000))
+                .isEqualTo(VastProgressTrackerSchedule.NO_TRIGGER);
+    }
+
+    @Test
+    public void getRemainingCount_shouldCountTrackersNotTrackedYet() {
+        assertThat(subject.getRemainingCount()).isEqualTo(4);
+
+        subject.collectDueTrackers(2500, 10000, dueTrackers);
+        fractional2.setTracked();
+
+        assertThat(subject.getRemainingCount()).isEqualTo(1);
+    }
+}
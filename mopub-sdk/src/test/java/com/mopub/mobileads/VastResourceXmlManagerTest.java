@@ -9,7 +9,6 @@ import com.mopub.common.test.support.SdkTestRunner;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.w3c.dom.Node;
 
 import static com.mopub.mobileads.test.support.VastUtils.createNode;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -18,7 +17,7 @@ import static org.fest.assertions.api.Assertions.assertThat;
 public class VastResourceXmlManagerTest {
 
     private VastResourceXmlManager subject;
-    private Node resourceNode;
+    private VastXmlElement resourceNode;
 
     @Before
     public void setup() throws Exception {
@@ -0,0 +1,86 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class VastUrlTemplateTest {
+    private String[] values;
+    private StringBuilder builder;
+
+    @Before
+    public void setUp() {
+        values = new String[VastMacro.values().length];
+        values[VastMacro.ERRORCODE.ordinal()] = "900";
+        values[VastMacro.CONTENTPLAYHEAD.ordinal()] = "00:00:01.000";
+        builder = new StringBuilder();
+    }
+
+    @Test
+    public void render_shouldReplaceEveryMacro() {
+        final VastUrlTemplate subject = VastUrlTemplate.compile(
+                "https://a.com/t?e=[ERRORCODE]&p=[CONTENTPLAYHEAD]&e2=[ERRORCODE]");
+
+        assertThat(subject.hasMacros()).isTrue();
+        assertThat(subject.render(values, builder))
+                .isEqualTo("https://a.com/t?e=900&p=00:00:01.000&e2=900");
+    }
+
+    @Test
+    public void render_withMissingValue_shouldReplaceMacroWithEmptyString() {
+        final VastUrlTemplate subject = VastUrlTemplate.compile("https://a.com/t?u=[ASSETURI]&x=1");
+
+        assertThat(subject.render(values, builder)).isEqualTo("https://a.com/t?u=&x=1");
+    }
+
+    @Test
+    public void render_shouldLeaveUnknownBracketsAlone() {
+        final VastUrlTemplate subject = VastUrlTemplate.compile(
+                "https://a.com/t?a=[OTHER]&b=[[ERRORCODE]]&c=[ERRORCODE");
+
+        assertThat(subject.render(values, builder))
+                .isEqualTo("https://a.com/t?a=[OTHER]&b=[900]&c=[ERRORCODE");
+    }
+
+    @Test
+    public void render_withNoMacros_shouldReturnUrl() {
+        final String url = "https://a.com/t?a=b";
+        final VastUrlTemplate subject = VastUrlTemplate.compile(url);
+
+        assertThat(subject.hasMacros()).isFalse();
+        assertThat(subject.render(values, builder)).isSameAs(url);
+    }
+
+    @Test
+    public void render_shouldMatchReplacingEachMacroInTurn() {
+        final String url = "[CACHEBUSTING]https://a.com/[ERRORCODE]/[CONTENTPLAYHEAD]"
+                + "?c=[CACHEBUSTING]&u=[ASSETURI][ERRORCODE]";
+        values[VastMacro.CACHEBUSTING.ordinal()] = "12345678";
+        values[VastMacro.ASSETURI.ordinal()] = "https%3A%2F%2Fa.com%2Fv.mp4";
+
+        String expected = url;
+        for (final VastMacro macro : VastMacro.values()) {
+            final String value = values[macro.ordinal()];
+            expected = expected.replace("[" + macro.name() + "]", value == null ? "" : value);
+        }
+
+        assertThat(VastUrlTemplate.compile(url).render(values, builder)).isEqualTo(expected);
+    }
+
+    @Test
+    public void vastTracker_shouldCompileTemplateOnce() {
+        final VastTracker tracker = new VastTracker("https://a.com/t?e=[ERRORCODE]");
+
+        assertThat(tracker.getUrlTemplate()).isSameAs(tracker.getUrlTemplate());
+        assertThat(tracker.getUrlTemplate().getUrl()).isEqualTo("https://a.com/t?e=[ERRORCODE]");
+    }
+}
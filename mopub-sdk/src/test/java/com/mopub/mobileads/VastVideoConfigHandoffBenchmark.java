@@ -0,0 +1,137 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Compares the part of starting the video player activity that moves the
+ * {@link VastVideoConfig} across: serializing it into the Intent and reading it back in the
+ * activity, against registering it with {@link VastVideoConfigRegistry} and looking it up by
+ * handle. The config is shaped like a verified VAST ad with many vendors' trackers.
+ */
+@RunWith(SdkTestRunner.class)
+public class VastVideoConfigHandoffBenchmark {
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1000;
+    private static final int TRACKERS_PER_EVENT = 20;
+
+    private VastVideoConfig vastVideoConfig;
+
+    @Before
+    public void setUp() {
+        Benchmark.assumeEnabled();
+        VastVideoConfigRegistry.clearAll();
+
+        vastVideoConfig = new VastVideoConfig();
+        vastVideoConfig.setDiskMediaFileUrl("/data/cache/mopub/video_1280x720.mp4");
+        vastVideoConfig.setNetworkMediaFileUrl("https://cdn.mopub.com/video_1280x720.mp4");
+        vastVideoConfig.setClickThroughUrl("https://advertiser.example.com/landing");
+        vastVideoConfig.addImpressionTrackers(createTrackers("impression"));
+        vastVideoConfig.addCompleteTrackers(createTrackers("complete"));
+        vastVideoConfig.addPauseTrackers(createTrackers("pause"));
+        vastVideoConfig.addResumeTrackers(createTrackers("resume"));
+        vastVideoConfig.addCloseTrackers(createTrackers("close"));
+        vastVideoConfig.addSkipTrackers(createTrackers("skip"));
+        vastVideoConfig.addClickTrackers(createTrackers("click"));
+        vastVideoConfig.addErrorTrackers(createTrackers("error"));
+
+        final List<VastFractionalProgressTracker> fractionalTrackers =
+                new ArrayList<VastFractionalProgressTracker>();
+        final List<VastAbsoluteProgressTracker> absoluteTrackers =
+                new ArrayList<VastAbsoluteProgressTracker>();
+        for (int i = 0; i < TRACKERS_PER_EVENT; i++) {
+            fractionalTrackers.add(new VastFractionalProgressTracker(createUrl("firstQuartile", i), 0.25f));
+            fractionalTrackers.add(new VastFractionalProgressTracker(createUrl("midpoint", i), 0.5f));
+            fractionalTrackers.add(new VastFractionalProgressTracker(createUrl("thirdQuartile", i), 0.75f));
+            absoluteTrackers.add(new VastAbsoluteProgressTracker(createUrl("start", i), 0));
+        }
+        vastVideoConfig.addFractionalTrackers(fractionalTrackers);
+        vastVideoConfig.addAbsoluteTrackers(absoluteTrackers);
+
+        final VastCompanionAdConfig landscape = new VastCompanionAdConfig(480, 320,
+                new VastResource("https://cdn.mopub.com/companion_480x320.png",
+                        VastResource.Type.STATIC_RESOURCE, VastResource.CreativeType.IMAGE,
+                        480, 320),
+                "https://advertiser.example.com/companion", createTrackers("companionClick"),
+                createTrackers("creativeView"));
+        final VastCompanionAdConfig portrait = new VastCompanionAdConfig(320, 480,
+                new VastResource("https://cdn.mopub.com/companion_320x480.png",
+                        VastResource.Type.STATIC_RESOURCE, VastResource.CreativeType.IMAGE,
+                        320, 480),
+                "https://advertiser.example.com/companion", createTrackers("companionClick"),
+                createTrackers("creativeView"));
+        vastVideoConfig.setVastCompanionAd(landscape, portrait);
+    }
+
+    @Test
+    public void handoff_serializedIntentExtraVersusRegistryHandle() throws Exception {
+        final byte[] serialized = serialize(vastVideoConfig);
+        System.out.println("Serialized VastVideoConfig: " + serialized.length + " bytes");
+        assertThat(deserialize(serialized).getDiskMediaFileUrl())
+                .isEqualTo(vastVideoConfig.getDiskMediaFileUrl());
+
+        Benchmark.run("Serializable Intent extra",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() throws Exception {
+                        deserialize(serialize(vastVideoConfig));
+                    }
+                });
+        Benchmark.run("VastVideoConfigRegistry handle",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        final long handle = VastVideoConfigRegistry.register(vastVideoConfig);
+                        VastVideoConfigRegistry.get(handle);
+                        VastVideoConfigRegistry.release(handle);
+                    }
+                });
+    }
+
+    private static List<VastTracker> createTrackers(final String event) {
+        final List<VastTracker> trackers = new ArrayList<VastTracker>(TRACKERS_PER_EVENT);
+        for (int i = 0; i < TRACKERS_PER_EVENT; i++) {
+            trackers.add(new VastTracker(createUrl(event, i)));
+        }
+        return trackers;
+    }
+
+    private static String createUrl(final String event, final int vendor) {
+        return "https://vendor" + vendor + ".example.com/track?event=" + event
+                + "&cb=[CACHEBUSTING]&playhead=[CONTENTPLAYHEAD]&campaign=1234567";
+    }
+
+    private static byte[] serialize(final VastVideoConfig config) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(config);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static VastVideoConfig deserialize(final byte[] serialized) throws Exception {
+        final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized));
+        try {
+            return (VastVideoConfig) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.os.Bundle;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class VastVideoConfigRegistryTest {
+    private VastVideoConfig vastVideoConfig;
+
+    @Before
+    public void setUp() {
+        VastVideoConfigRegistry.clearAll();
+        vastVideoConfig = new VastVideoConfig();
+    }
+
+    @Test
+    public void register_shouldReturnDistinctHandles() {
+        final long first = VastVideoConfigRegistry.register(vastVideoConfig);
+        final long second = VastVideoConfigRegistry.register(vastVideoConfig);
+
+        assertThat(first).isNotEqualTo(VastVideoConfigRegistry.NO_HANDLE);
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    public void get_shouldReturnRegisteredConfig_untilReleased() {
+        final long handle = VastVideoConfigRegistry.register(vastVideoConfig);
+
+        assertThat(VastVideoConfigRegistry.get(handle)).isSameAs(vastVideoConfig);
+        // Looking a config up does not release it, so a recreated activity can find it again
+        assertThat(VastVideoConfigRegistry.get(handle)).isSameAs(vastVideoConfig);
+
+        VastVideoConfigRegistry.release(handle);
+
+        assertThat(VastVideoConfigRegistry.get(handle)).isNull();
+    }
+
+    @Test
+    public void register_withMaxSizeReached_shouldReleaseOldestConfig() {
+        final long oldest = VastVideoConfigRegistry.register(vastVideoConfig);
+        for (int i = 0; i < VastVideoConfigRegistry.MAX_SIZE; i++) {
+            VastVideoConfigRegistry.register(new VastVideoConfig());
+        }
+
+        assertThat(VastVideoConfigRegistry.size()).isEqualTo(VastVideoConfigRegistry.MAX_SIZE);
+        assertThat(VastVideoConfigRegistry.get(oldest)).isNull();
+    }
+
+    @Test
+    public void getFromExtras_withHandle_shouldReturnRegisteredConfig() {
+        final Bundle extras = new Bundle();
+        extras.putLong(VastVideoConfigRegistry.HANDLE_KEY,
+                VastVideoConfigRegistry.register(vastVideoConfig));
+
+        assertThat(VastVideoConfigRegistry.getFromExtras(extras, "config"))
+                .isSameAs(vastVideoConfig);
+    }
+
+    @Test
+    public void getFromExtras_withSerializedConfig_shouldReturnIt() {
+        final Bundle extras = new Bundle();
+        extras.putSerializable("config", vastVideoConfig);
+
+        assertThat(VastVideoConfigRegistry.getFromExtras(extras, "config"))
+                .isSameAs(vastVideoConfig);
+    }
+
+    @Test
+    public void getFromExtras_withReleasedHandleAndNoConfig_shouldReturnNull() {
+        final Bundle extras = new Bundle();
+        final long handle = VastVideoConfigRegistry.register(vastVideoConfig);
+        extras.putLong(VastVideoConfigRegistry.HANDLE_KEY, handle);
+        VastVideoConfigRegistry.release(handle);
+
+        assertThat(VastVideoConfigRegistry.getFromExtras(extras, "config")).isNull();
+        assertThat(VastVideoConfigRegistry.getFromExtras(null, "config")).isNull();
+    }
+}
@@ -435,6 +435,56 @@ public class VastVideoConfigTest {
         assertThat(untriggeredTrackers).isEmpty();
     }
 
+    @Test
+    public void copy_shouldCopyTrackers_shouldKeepTrackedState() throws Exception {
+        subject.setClickThroughUrl("click_through_url");
+        subject.addImpressionTrackers(VastUtils.stringsToVastTrackers("imp"));
+        subject.addFractionalTrackers(
+                Arrays.asList(new VastFractionalProgressTracker("first", 0.25f)));
+        subject.addAbsoluteTrackers(Arrays.asList(new VastAbsoluteProgressTracker("start", 0)));
+        subject.setVideoViewabilityTracker(new VideoViewabilityTracker(2000, 50, "viewable"));
+        subject.getImpressionTrackers().get(0).setTracked();
+
+        final VastVideoConfig copy = subject.copy();
+
+        assertThat(copy.getNetworkMediaFileUrl()).isEqualTo("video_url");
+        assertThat(copy.getClickThroughUrl()).isEqualTo("click_through_url");
+        assertThat(copy.getImpressionTrackers()).hasSize(1);
+        assertThat(copy.getImpressionTrackers().get(0))
+                .isNotSameAs(subject.getImpressionTrackers().get(0));
+        assertThat(copy.getImpressionTrackers().get(0).getContent()).isEqualTo("imp");
+        assertThat(copy.getImpressionTrackers().get(0).isTracked()).isTrue();
+        assertThat(copy.getFractionalTrackers().get(0).trackingFraction()).isEqualTo(0.25f);
+        assertThat(copy.getAbsoluteTrackers().get(0).getTrackingMilliseconds()).isEqualTo(0);
+        assertThat(copy.getVideoViewabilityTracker())
+                .isNotSameAs(subject.getVideoViewabilityTracker());
+        assertThat(copy.getVideoViewabilityTracker().getPercentViewable()).isEqualTo(50);
+    }
+
+    @Test
+    public void copy_withOriginalTrackedAfterCopying_shouldStillFireQuartileTrackersOfCopy() throws Exception {
+        subject.addFractionalTrackers(
+                Arrays.asList(new VastFractionalProgressTracker("first", 0.25f),
+                        new VastFractionalProgressTracker("mid", 0.5f),
+                        new VastFractionalProgressTracker("third", 0.75f)));
+        final VastVideoConfig copy = subject.copy();
+
+        // The in-feed player keeps tracking the original config
+        for (final VastTracker tracker : subject.getUntriggeredTrackersBefore(10000, 10000)) {
+            tracker.setTracked();
+        }
+        subject.getProgressTrackerSchedule().collectDueTrackers(10000, 10000,
+                new ArrayList<VastTracker>());
+
+        final List<VastTracker> dueTrackers = new ArrayList<VastTracker>();
+        assertThat(copy.getRemainingProgressTrackerCount()).isEqualTo(3);
+        assertThat(copy.getProgressTrackerSchedule().collectDueTrackers(10000, 10000,
+                dueTrackers)).isEqualTo(3);
+        assertThat(dueTrackers.get(0).getContent()).isEqualTo("first");
+        assertThat(dueTrackers.get(1).getContent()).isEqualTo("mid");
+        assertThat(dueTrackers.get(2).getContent()).isEqualTo("third");
+    }
+
     @Test
     public void handleClickForResult_withNullClickThroughUrl_shouldNotOpenNewActivity() throws Exception {
         subject.handleClickForResult(activity, 1234, 1);
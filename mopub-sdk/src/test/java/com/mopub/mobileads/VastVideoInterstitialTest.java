@@ -167,11 +167,18 @@ public class VastVideoInterstitialTest extends ResponseBodyInterstitialTest {
         ((VastVideoInterstitial) subject).onVastVideoConfigurationPrepared(vastVideoConfig);
 
         subject.showInterstitial();
-        BaseVideoPlayerActivityTest.assertVastVideoPlayerActivityStarted(
-                MraidVideoPlayerActivity.class,
-                vastVideoConfig,
-                broadcastIdentifier
+        final VastVideoConfig registered =
+                BaseVideoPlayerActivityTest.assertVastVideoPlayerActivityStarted(
+                        MraidVideoPlayerActivity.class,
+                        vastVideoConfig,
+                        broadcastIdentifier
                 );
+        assertThat(registered.getNetworkMediaFileUrl()).isEqualTo(videoUrl);
+        assertThat(registered.getAbsoluteTrackers()).hasSize(1);
+        assertThat(registered.getFractionalTrackers()).hasSize(3);
+        assertThat(registered.getCompleteTrackers()).hasSize(1);
+        assertThat(registered.getImpressionTrackers()).hasSize(1);
+        assertThat(registered.getClickTrackers()).hasSize(1);
         assertThat(vastVideoConfig.isRewardedVideo()).isFalse();
     }
 
@@ -26,6 +26,7 @@ import android.widget.VideoView;
 import com.mopub.common.ExternalViewabilitySession;
 import com.mopub.common.MoPubBrowser;
 import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.test.support.ShadowAsyncTasks;
 import com.mopub.mobileads.resource.CloseButtonDrawable;
 import com.mopub.mobileads.test.support.GestureUtils;
 import com.mopub.mobileads.test.support.ShadowVastVideoView;
@@ -617,6 +618,27 @@ public class VastVideoViewControllerTest {
                 argThat(new IntentIsEqual(expectedIntent)));
     }
 
+    @Config(shadows = {ShadowAsyncTasks.class})
+    @Test
+    public void onDestroy_withVideoStillDownloading_shouldNotSetVideoPathWhenDownloadCompletes() throws Exception {
+        VideoDownloader.cache("video_url", mock(VideoDownloader.VideoDownloaderListener.class));
+        final VideoDownloader.VideoDownloaderTask task =
+                (VideoDownloader.VideoDownloaderTask) ShadowAsyncTasks.getLatestAsyncTask();
+        try {
+            initializeSubject();
+            assertThat(shadowOf(subject.getVideoView()).getVideoPath()).isNull();
+
+            subject.onDestroy();
+            task.onPostExecute(true);
+
+            assertThat(shadowOf(subject.getVideoView()).getVideoPath()).isNull();
+            assertThat(subject.getVideoError()).isFalse();
+        } finally {
+            VideoDownloader.clearDownloaderTasks();
+            ShadowAsyncTasks.reset();
+        }
+    }
+
     @Test
     public void onDestroy_withBlurLastVideoFrameTaskStillRunning_shouldCancelTask() throws Exception {
         initializeSubject();
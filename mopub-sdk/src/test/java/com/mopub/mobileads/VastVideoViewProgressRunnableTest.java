@@ -7,6 +7,7 @@ package com.mopub.mobileads;
 import android.content.Context;
 import android.os.Handler;
 
+import com.mopub.common.ExternalViewabilitySession.VideoEvent;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.network.MoPubRequestQueue;
 import com.mopub.network.Networking;
@@ -20,6 +21,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -35,13 +37,14 @@ public class VastVideoViewProgressRunnableTest {
     @Mock Context mockContext;
     @Mock Handler mockHandler;
     @Mock MoPubRequestQueue mockRequestQueue;
-    @Mock VastVideoConfig mockVideoConfig;
     @Captor ArgumentCaptor<TrackingRequest> requestCaptor;
+    VastVideoConfig vastVideoConfig;
     VastVideoViewProgressRunnable subject;
 
     @Before
     public void setup() {
-        subject = new VastVideoViewProgressRunnable(mockVastVideoViewController, mockVideoConfig,
+        vastVideoConfig = new VastVideoConfig();
+        subject = new VastVideoViewProgressRunnable(mockVastVideoViewController, vastVideoConfig,
                 mockHandler);
 
         // Request Queue needed to verify tracking requests made.
@@ -49,26 +52,28 @@ public class VastVideoViewProgressRunnableTest {
     }
 
     @Test
-    public void doWork_whenTrackersReturned_shouldMakeTrackingRequests() {
-        List<VastTracker> testTrackers = new ArrayList<VastTracker>();
+    public void doWork_whenTrackersDue_shouldMakeTrackingRequests() {
+        List<VastAbsoluteProgressTracker> testTrackers = new ArrayList<VastAbsoluteProgressTracker>();
         testTrackers.add(new VastAbsoluteProgressTracker("https://example.com/", 1999));
         testTrackers.add(new VastAbsoluteProgressTracker("https://example1.com/", 2000));
-
-        when(mockVideoConfig.getUntriggeredTrackersBefore(eq(3000), eq(4000)))
-                .thenReturn(testTrackers);
-        when(mockVastVideoViewController.getCurrentPosition()).thenReturn(3000);
-        when(mockVastVideoViewController.getDuration()).thenReturn(4000);
+        vastVideoConfig.addAbsoluteTrackers(testTrackers);
+        when(mockVastVideoViewController.getCurrentPosition()).thenReturn(2000);
+        when(mockVastVideoViewController.getDuration()).thenReturn(10000);
         when(mockVastVideoViewController.getContext()).thenReturn(mockContext);
 
         subject.doWork();
 
-        verify(mockVideoConfig).getUntriggeredTrackersBefore(eq(3000), eq(4000));
         verify(mockVastVideoViewController).getCurrentPosition();
         verify(mockVastVideoViewController).getDuration();
         verify(mockVastVideoViewController).getContext();
         verify(mockVastVideoViewController).getNetworkMediaFileUrl();
-        verify(mockVastVideoViewController).handleIconDisplay(eq(3000));
+        verify(mockVastVideoViewController).handleIconDisplay(eq(2000));
         verify(mockVastVideoViewController).updateProgressBar();
+        // The viewability events at the start of the video are due as well
+        verify(mockVastVideoViewController).handleViewabilityQuartileEvent(
+                VideoEvent.AD_STARTED.name());
+        verify(mockVastVideoViewController).handleViewabilityQuartileEvent(
+                VideoEvent.AD_IMPRESSED.name());
 
         // Capture request queue - should get two different trackers.
         verify(mockRequestQueue, times(2)).add(requestCaptor.capture());
@@ -76,23 +81,22 @@ public class VastVideoViewProgressRunnableTest {
         assertThat(allValues).hasSize(2);
         assertThat(allValues.get(0).getUrl()).isEqualTo("https://example.com/");
         assertThat(allValues.get(1).getUrl()).isEqualTo("https://example1.com/");
+        assertThat(vastVideoConfig.getRemainingProgressTrackerCount()).isEqualTo(3);
 
         verifyNoMoreInteractions(mockVastVideoViewController, mockRequestQueue);
     }
 
     @Test
-    public void doWork_whenNoTrackersReturned_shouldNotMakeTrackingRequests() {
-        List<VastTracker> testTrackers = new ArrayList<VastTracker>();
-
-        when(mockVideoConfig.getUntriggeredTrackersBefore(eq(3000), eq(4000)))
-                .thenReturn(testTrackers);
+    public void doWork_whenNoTrackersDue_shouldNotMakeTrackingRequests() {
+        for (VastFractionalProgressTracker tracker : vastVideoConfig.getFractionalTrackers()) {
+            tracker.setTracked();
+        }
         when(mockVastVideoViewController.getCurrentPosition()).thenReturn(3000);
         when(mockVastVideoViewController.getDuration()).thenReturn(4000);
         when(mockVastVideoViewController.getContext()).thenReturn(mockContext);
 
         subject.doWork();
 
-        verify(mockVideoConfig).getUntriggeredTrackersBefore(eq(3000), eq(4000));
         verify(mockVastVideoViewController).getCurrentPosition();
         verify(mockVastVideoViewController).getDuration();
         verify(mockVastVideoViewController).handleIconDisplay(eq(3000));
@@ -100,4 +104,46 @@ public class VastVideoViewProgressRunnableTest {
 
         verifyNoMoreInteractions(mockVastVideoViewController, mockRequestQueue);
     }
+
+    @Test
+    public void doWork_calledTwice_shouldOnlyTrackOnce() {
+        vastVideoConfig.addAbsoluteTrackers(Collections.singletonList(
+                new VastAbsoluteProgressTracker("https://example.com/", 1000)));
+        when(mockVastVideoViewController.getCurrentPosition()).thenReturn(2000);
+        when(mockVastVideoViewController.getDuration()).thenReturn(10000);
+        when(mockVastVideoViewController.getContext()).thenReturn(mockContext);
+
+        subject.doWork();
+        subject.doWork();
+
+        verify(mockRequestQueue).add(requestCaptor.capture());
+        assertThat(requestCaptor.getValue().getUrl()).isEqualTo("https://example.com/");
+    }
+
+    @Test
+    public void getNextDelayMillis_withTrackerDueBeforeInterval_shouldReturnTimeUntilTracker() {
+        vastVideoConfig.addAbsoluteTrackers(Collections.singletonList(
+                new VastAbsoluteProgressTracker("https://example.com/", 2020)));
+        when(mockVastVideoViewController.getCurrentPosition()).thenReturn(2000);
+        when(mockVastVideoViewController.getDuration()).thenReturn(10000);
+        when(mockVastVideoViewController.getContext()).thenReturn(mockContext);
+        subject.startRepeating(50);
+
+        subject.doWork();
+
+        assertThat(subject.getNextDelayMillis()).isEqualTo(20);
+    }
+
+    @Test
+    public void getNextDelayMillis_withNoTrackerDueSoon_shouldReturnUpdateInterval() {
+        when(mockVastVideoViewController.getCurrentPosition()).thenReturn(2000);
+        when(mockVastVideoViewController.getDuration()).thenReturn(10000);
+        when(mockVastVideoViewController.getContext()).thenReturn(mockContext);
+        subject.startRepeating(50);
+
+        subject.doWork();
+
+        // The first quartile is at 2500ms
+        assertThat(subject.getNextDelayMillis()).isEqualTo(50);
+    }
 }
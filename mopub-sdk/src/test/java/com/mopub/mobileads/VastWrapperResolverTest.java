@@ -0,0 +1,155 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.test.support.ShadowMoPubHttpUrlConnection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class VastWrapperResolverTest {
+    private static final String URL = "https://ads.example.com/wrapper";
+
+    private ExecutorService executor;
+    private VastWrapperResolver subject;
+
+    @Before
+    public void setUp() {
+        VastWrapperResolver.clearCache();
+        // One thread, so pending responses are used in the order the redirects were started
+        executor = Executors.newSingleThreadExecutor();
+        subject = new VastWrapperResolver(executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void resolve_shouldFetchRedirectsConcurrently_shouldKeepTheirOrder() throws Exception {
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "first");
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "second");
+
+        final Future<String> first = subject.resolve(URL + "/1");
+        final Future<String> second = subject.resolve(URL + "/2");
+
+        assertThat(second.get()).isEqualTo("second");
+        assertThat(first.get()).isEqualTo("first");
+        assertThat(subject.getTimesFollowedVastRedirect()).isEqualTo(2);
+    }
+
+    @Test
+    public void resolve_afterMaxRedirects_shouldReturnNull() throws Exception {
+        for (int i = 0; i < VastXmlManagerAggregator.MAX_TIMES_TO_FOLLOW_VAST_REDIRECT; i++) {
+            ShadowMoPubHttpUrlConnection.addPendingResponse(200, "xml");
+            assertThat(subject.resolve(URL + "/" + i)).isNotNull();
+        }
+
+        assertThat(subject.resolve(URL)).isNull();
+        assertThat(subject.getTimesFollowedVastRedirect())
+                .isEqualTo(VastXmlManagerAggregator.MAX_TIMES_TO_FOLLOW_VAST_REDIRECT);
+    }
+
+    @Test
+    public void prefetch_shouldNotCountAgainstRedirectBudget_untilResolved() throws Exception {
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "first");
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "second");
+
+        final Future<String> first = subject.prefetch(URL + "/1");
+        final Future<String> second = subject.prefetch(URL + "/2");
+
+        assertThat(subject.getTimesFollowedVastRedirect()).isEqualTo(0);
+        assertThat(subject.resolve(URL + "/1", first)).isSameAs(first);
+        assertThat(first.get()).isEqualTo("first");
+        assertThat(second.get()).isEqualTo("second");
+        assertThat(subject.getTimesFollowedVastRedirect()).isEqualTo(1);
+    }
+
+    @Test
+    public void prefetch_afterMaxPrefetchedRedirects_shouldReturnNull_shouldStillResolve() throws Exception {
+        for (int i = 0; i < VastWrapperResolver.MAX_PREFETCHED_REDIRECTS; i++) {
+            ShadowMoPubHttpUrlConnection.addPendingResponse(200, "xml");
+            assertThat(subject.prefetch(URL + "/" + i)).isNotNull();
+        }
+
+        assertThat(subject.prefetch(URL)).isNull();
+
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "xml");
+        assertThat(subject.resolve(URL).get()).isEqualTo("xml");
+    }
+
+    @Test
+    public void resolve_withPrefetchedRedirect_afterMaxRedirects_shouldCancelIt_shouldReturnNull() throws Exception {
+        // Keeps the prefetch queued
+        final CountDownLatch latch = new CountDownLatch(1);
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                latch.await();
+                return null;
+            }
+        });
+        final Future<String> prefetched = subject.prefetch(URL);
+        subject.setTimesFollowedVastRedirect(
+                VastXmlManagerAggregator.MAX_TIMES_TO_FOLLOW_VAST_REDIRECT);
+
+        try {
+            assertThat(subject.resolve(URL, prefetched)).isNull();
+            assertThat(prefetched.isCancelled()).isTrue();
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void resolve_withUrlFetchedByAnotherResolver_shouldUseCache() throws Exception {
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "xml");
+        assertThat(subject.resolve(URL).get()).isEqualTo("xml");
+
+        final VastWrapperResolver otherResolver = new VastWrapperResolver(executor);
+        final Future<String> cached = otherResolver.resolve(URL);
+
+        assertThat(cached.isDone()).isTrue();
+        assertThat(cached.get()).isEqualTo("xml");
+        assertThat(otherResolver.getTimesFollowedVastRedirect()).isEqualTo(1);
+        assertThat(ShadowMoPubHttpUrlConnection.getPendingUrlConnections()).isEmpty();
+    }
+
+    @Test
+    public void resolve_withUrlAlreadyFollowedBySameResolver_shouldFetchAgain() throws Exception {
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "first");
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "second");
+
+        assertThat(subject.resolve(URL).get()).isEqualTo("first");
+        assertThat(subject.resolve(URL).get()).isEqualTo("second");
+    }
+
+    @Test
+    public void resolve_afterCacheTtl_shouldFetchAgain() throws Exception {
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "first");
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "second");
+        assertThat(subject.resolve(URL).get()).isEqualTo("first");
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                VastWrapperResolver.CACHE_TTL_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(new VastWrapperResolver(executor).resolve(URL).get()).isEqualTo("second");
+    }
+}
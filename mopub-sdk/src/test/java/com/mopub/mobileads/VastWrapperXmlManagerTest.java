@@ -8,7 +8,6 @@ import com.mopub.common.test.support.SdkTestRunner;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.w3c.dom.Node;
 
 import static com.mopub.mobileads.test.support.VastUtils.createNode;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -27,7 +26,7 @@ public class VastWrapperXmlManagerTest {
                 "    <VASTAdTagURI>https://redirecturl/xml</VASTAdTagURI>" +
                 "</Wrapper>";
 
-        Node wrapperNode = createNode(wrapperXml);
+        VastXmlElement wrapperNode = createNode(wrapperXml);
         subject = new VastWrapperXmlManager(wrapperNode);
 
         assertThat(subject.getVastAdTagURI()).isEqualTo("https://redirecturl/xml");
@@ -41,7 +40,7 @@ public class VastWrapperXmlManagerTest {
                 "    </Impression>" +
                 "</Wrapper>";
 
-        Node wrapperNode = createNode(wrapperXml);
+        VastXmlElement wrapperNode = createNode(wrapperXml);
         subject = new VastWrapperXmlManager(wrapperNode);
 
         assertThat(subject.getVastAdTagURI()).isNull();
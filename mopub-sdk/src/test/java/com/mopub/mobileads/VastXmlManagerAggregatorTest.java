@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 
 import static com.mopub.common.VolleyRequestMatcher.isUrl;
@@ -348,6 +350,7 @@ public class VastXmlManagerAggregatorTest {
     @Before
     public void setup() {
         context = Robolectric.buildActivity(Activity.class).create().get();
+        VastWrapperResolver.clearCache();
 
         Networking.setRequestQueueForTesting(mockRequestQueue);
 
@@ -1545,6 +1548,83 @@ public class VastXmlManagerAggregatorTest {
                 .containsOnly("viewTrackingUri1", "viewTrackingUri2");
     }
 
+    @Test
+    public void evaluateVastXmlManager_withTwoWrappers_shouldFollowBoth_shouldUseFirstValidInDocumentOrder() throws Exception {
+        final String twoWrappersXml = "<VAST version='3.0'>" +
+                "    <Ad id='first'>" +
+                "        <Wrapper>" +
+                "            <AdSystem>MoPub</AdSystem>" +
+                "            <VASTAdTagURI>https://first.example.com/xml</VASTAdTagURI>" +
+                "        </Wrapper>" +
+                "    </Ad>" +
+                "    <Ad id='second'>" +
+                "        <Wrapper>" +
+                "            <AdSystem>MoPub</AdSystem>" +
+                "            <VASTAdTagURI>https://second.example.com/xml</VASTAdTagURI>" +
+                "        </Wrapper>" +
+                "    </Ad>" +
+                "</VAST>";
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_INVALID_XML_STRING);
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_NESTED_VAST_XML_STRING);
+        // One thread, so the pending responses are used in document order
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        subject = new VastXmlManagerAggregator(vastXmlManagerAggregatorListener, 1.0, DIM_LONG,
+                context, new VastWrapperResolver(executor));
+
+        final VastVideoConfig vastVideoConfig = subject.evaluateVastXmlManager(twoWrappersXml,
+                new ArrayList<VastTracker>());
+        executor.shutdownNow();
+
+        assertThat(vastVideoConfig.getNetworkMediaFileUrl()).isEqualTo(
+                "https://s3.amazonaws.com/mopub-vast/tapad-video.mp4");
+        assertThat(ShadowMoPubHttpUrlConnection.getPendingUrlConnections()).isEmpty();
+    }
+
+    @Test
+    public void evaluateVastXmlManager_withWrapperSiblingsAndDeepChain_shouldOnlyCountFollowedRedirects() throws Exception {
+        final String threeWrappersXml = "<VAST version='3.0'>" +
+                "    <Ad id='first'>" +
+                "        <Wrapper>" +
+                "            <AdSystem>MoPub</AdSystem>" +
+                "            <VASTAdTagURI>https://first.example.com/xml</VASTAdTagURI>" +
+                "        </Wrapper>" +
+                "    </Ad>" +
+                "    <Ad id='second'>" +
+                "        <Wrapper>" +
+                "            <AdSystem>MoPub</AdSystem>" +
+                "            <VASTAdTagURI>https://second.example.com/xml</VASTAdTagURI>" +
+                "        </Wrapper>" +
+                "    </Ad>" +
+                "    <Ad id='third'>" +
+                "        <Wrapper>" +
+                "            <AdSystem>MoPub</AdSystem>" +
+                "            <VASTAdTagURI>https://third.example.com/xml</VASTAdTagURI>" +
+                "        </Wrapper>" +
+                "    </Ad>" +
+                "</VAST>";
+        // The first wrapper starts a chain that uses the whole redirect budget
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_VAST_XML_STRING);
+        // The prefetched siblings, which are never followed
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_NESTED_VAST_XML_STRING);
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_NESTED_VAST_XML_STRING);
+        for (int i = 0; i < VastXmlManagerAggregator.MAX_TIMES_TO_FOLLOW_VAST_REDIRECT - 2; i++) {
+            ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_VAST_XML_STRING);
+        }
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, TEST_NESTED_VAST_XML_STRING);
+        // One thread, so the pending responses are used in the order the redirects were started
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        subject = new VastXmlManagerAggregator(vastXmlManagerAggregatorListener, 1.0, DIM_LONG,
+                context, new VastWrapperResolver(executor));
+
+        final VastVideoConfig vastVideoConfig = subject.evaluateVastXmlManager(threeWrappersXml,
+                new ArrayList<VastTracker>());
+        executor.shutdownNow();
+
+        assertThat(vastVideoConfig.getNetworkMediaFileUrl()).isEqualTo(
+                "https://s3.amazonaws.com/mopub-vast/tapad-video.mp4");
+        assertThat(ShadowMoPubHttpUrlConnection.getPendingUrlConnections()).isEmpty();
+    }
+
     @Test
     public void evaluateVastXmlManager_withInvalidXml_shouldReturnNullVastVideoConfiguration() {
         VastVideoConfig vastVideoConfig = subject.evaluateVastXmlManager(
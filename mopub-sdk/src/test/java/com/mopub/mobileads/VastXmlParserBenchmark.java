@@ -0,0 +1,213 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Compares the previous DOM based parsing of VAST xml with the single pass
+ * {@link VastXmlPullParser} on a large document with many wrapper ads, each with impression,
+ * tracking, click and error urls. Both paths read the same values the aggregator reads to follow
+ * the wrappers.
+ */
+@RunWith(SdkTestRunner.class)
+public class VastXmlParserBenchmark {
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int ITERATIONS = 200;
+    private static final int AD_COUNT = 40;
+    private static final String[] EVENTS = new String[]{"creativeView", "start", "firstQuartile",
+            "midpoint", "thirdQuartile", "complete", "mute", "unmute", "pause", "resume",
+            "fullscreen", "close", "skip"};
+    private static final List<String> UNREAD_EVENTS = Arrays.asList("mute", "unmute",
+            "fullscreen");
+
+    private String vastXml;
+
+    @Before
+    public void setUp() throws Exception {
+        Benchmark.assumeEnabled();
+
+        final StringBuilder builder = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        builder.append("<VAST version='3.0'>");
+        for (int ad = 0; ad < AD_COUNT; ad++) {
+            builder.append("<Ad id='").append(ad).append("' sequence='").append(ad + 1)
+                    .append("'><Wrapper><AdSystem>MoPub</AdSystem>")
+                    .append("<VASTAdTagURI><![CDATA[https://dsp.example.com/vast?ad=").append(ad)
+                    .append("&cb=1234567890]]></VASTAdTagURI>");
+            for (int i = 0; i < 4; i++) {
+                builder.append("<Impression><![CDATA[https://dsp.example.com/imp?ad=").append(ad)
+                        .append("&n=").append(i).append("]]></Impression>");
+            }
+            builder.append("<Error><![CDATA[https://dsp.example.com/err?code=[ERRORCODE]]]></Error>")
+                    .append("<Creatives><Creative AdID='").append(ad)
+                    .append("'><Linear><TrackingEvents>");
+            for (final String event : EVENTS) {
+                builder.append("<Tracking event='").append(event)
+                        .append("'><![CDATA[https://dsp.example.com/t?e=").append(event)
+                        .append("&ad=").append(ad).append("]]></Tracking>");
+            }
+            builder.append("<Tracking event='progress' offset='00:00:05.000'>")
+                    .append("https://dsp.example.com/t?e=progress</Tracking>")
+                    .append("</TrackingEvents><VideoClicks><ClickTracking>")
+                    .append("https://dsp.example.com/click</ClickTracking></VideoClicks>")
+                    .append("</Linear></Creative></Creatives>")
+                    .append("<Extensions><Extension type='MoPub'><MoPubViewabilityTracker")
+                    .append(" viewablePlaytime='2.5' percentViewable='50%'>")
+                    .append("https://dsp.example.com/view</MoPubViewabilityTracker></Extension>")
+                    .append("</Extensions></Wrapper></Ad>");
+        }
+        builder.append("</VAST><MP_TRACKING_URLS>")
+                .append("<MP_TRACKING_URL>https://ads.mopub.com/imp1</MP_TRACKING_URL>")
+                .append("<MP_TRACKING_URL>https://ads.mopub.com/imp2</MP_TRACKING_URL>")
+                .append("</MP_TRACKING_URLS>");
+        vastXml = builder.toString();
+    }
+
+    @Test
+    public void parse_domVersusPullParser() throws Exception {
+        // Both paths have to agree before their cost is compared
+        assertThat(readWithPullParser(vastXml)).isEqualTo(readWithDom(vastXml));
+
+        Benchmark.run("DocumentBuilder + getElementsByTagName",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() throws Exception {
+                        readWithDom(vastXml);
+                    }
+                });
+        Benchmark.run("VastXmlPullParser",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() throws Exception {
+                        readWithPullParser(vastXml);
+                    }
+                });
+    }
+
+    /**
+     * The parsing work VastXmlManager used to do, followed by the same reads.
+     */
+    private static int readWithDom(String xml) throws Exception {
+        xml = xml.replaceFirst("<\\?.*\\?>", "");
+        final String documentString = "<MPMoVideoXMLDocRoot>" + xml + "</MPMoVideoXMLDocRoot>";
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setCoalescing(true);
+        final Document document = factory.newDocumentBuilder()
+                .parse(new InputSource(new StringReader(documentString)));
+
+        int length = 0;
+        final NodeList ads = document.getElementsByTagName("Ad");
+        for (int i = 0; i < ads.getLength(); i++) {
+            final Node wrapper = getFirstChild(ads.item(i), "Wrapper");
+            length += getNodeValue(
+                    getFirstChild(wrapper, "VASTAdTagURI")).length();
+            for (final Node impression : getChildren(wrapper, "Impression")) {
+                length += getNodeValue(impression).length();
+            }
+            final Node creatives = getFirstChild(wrapper, "Creatives");
+            for (final Node creative : getChildren(creatives, "Creative")) {
+                final Node linear = getFirstChild(creative, "Linear");
+                final Node trackingEvents = getFirstChild(linear,
+                        "TrackingEvents");
+                for (final Node tracking : getChildren(trackingEvents,
+                        "Tracking")) {
+                    // The linear xml manager has no getters for these events
+                    if (!UNREAD_EVENTS.contains(((Element) tracking).getAttribute("event"))) {
+                        length += getNodeValue(tracking).length();
+                    }
+                }
+                final Node videoClicks = getFirstChild(linear,
+                        "VideoClicks");
+                for (final Node click : getChildren(videoClicks,
+                        "ClickTracking")) {
+                    length += getNodeValue(click).length();
+                }
+            }
+        }
+        final NodeList trackers = document.getElementsByTagName("MP_TRACKING_URL");
+        for (int i = 0; i < trackers.getLength(); i++) {
+            length += getNodeValue(trackers.item(i)).length();
+        }
+        return length;
+    }
+
+    private static List<Node> getChildren(final Node node, final String name) {
+        final List<Node> children = new ArrayList<Node>();
+        final NodeList nodeList = node.getChildNodes();
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            if (nodeList.item(i).getNodeName().equals(name)) {
+                children.add(nodeList.item(i));
+            }
+        }
+        return children;
+    }
+
+    private static Node getFirstChild(final Node node, final String name) {
+        return getChildren(node, name).get(0);
+    }
+
+    private static String getNodeValue(final Node node) {
+        return node.getFirstChild().getNodeValue().trim();
+    }
+
+    private static int readWithPullParser(final String xml) throws Exception {
+        final VastXmlManager vastXmlManager = new VastXmlManager();
+        vastXmlManager.parseVastXml(xml);
+
+        int length = 0;
+        for (final VastAdXmlManager vastAdXmlManager : vastXmlManager.getAdXmlManagers()) {
+            final VastWrapperXmlManager wrapper = vastAdXmlManager.getWrapperXmlManager();
+            length += wrapper.getVastAdTagURI().length();
+            for (final VastTracker impression : wrapper.getImpressionTrackers()) {
+                length += impression.getContent().length();
+            }
+            for (final VastLinearXmlManager linear : wrapper.getLinearXmlManagers()) {
+                for (final VastTracker tracker : linear.getFractionalProgressTrackers()) {
+                    length += tracker.getContent().length();
+                }
+                for (final VastTracker tracker : linear.getAbsoluteProgressTrackers()) {
+                    length += tracker.getContent().length();
+                }
+                length += sumContentLength(linear.getVideoCompleteTrackers());
+                length += sumContentLength(linear.getPauseTrackers());
+                length += sumContentLength(linear.getResumeTrackers());
+                length += sumContentLength(linear.getVideoCloseTrackers());
+                length += sumContentLength(linear.getVideoSkipTrackers());
+                length += sumContentLength(linear.getClickTrackers());
+            }
+        }
+        for (final VastTracker tracker : vastXmlManager.getMoPubImpressionTrackers()) {
+            length += tracker.getContent().length();
+        }
+        return length;
+    }
+
+    private static int sumContentLength(final List<VastTracker> trackers) {
+        int length = 0;
+        for (final VastTracker tracker : trackers) {
+            length += tracker.getContent().length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,148 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.api.Assertions.fail;
+
+@RunWith(SdkTestRunner.class)
+public class VastXmlPullParserTest {
+    private static final String[] CORPUS = new String[]{
+            VastXmlManagerAggregatorTest.TEST_VAST_XML_STRING,
+            VastXmlManagerAggregatorTest.TEST_NESTED_VAST_XML_STRING,
+            VastXmlManagerAggregatorTest.TEST_NESTED_NO_COMPANION_VAST_XML_STRING,
+            VastXmlManagerAggregatorTest.TEST_VAST_BAD_NEST_URL_XML_STRING,
+            VastXmlManagerAggregatorTest.TEST_JUST_ERROR_XML_STRING,
+            VastXmlManagerAggregatorTest.TEST_INVALID_VAST_XML_STRING,
+            VastXmlManagerAggregatorTest.TEST_VAST_WITH_NEGATIVE_SEQUENCE_NUMBER_XML_STRING,
+            VastManagerTest.TEST_VAST_XML_STRING,
+            VastManagerTest.TEST_NESTED_VAST_XML_STRING,
+            VastManagerTest.TEST_VAST_BAD_NEST_URL_XML_STRING,
+            "<VAST><Ad><InLine><Impression>  <![CDATA[https://a]]>  </Impression>" +
+                    "<Description/><AdTitle> <Inner>text</Inner></AdTitle>" +
+                    "<Extension>before<Child/>after</Extension>" +
+                    "<Tracking event=\"start\">https://a?b=1&amp;c=2</Tracking>" +
+                    "</InLine></Ad></VAST>",
+    };
+
+    @Test
+    public void parse_withCorpus_shouldMatchDomDocument() throws Exception {
+        for (final String xml : CORPUS) {
+            final String documentString = "<root>" + xml.replaceFirst("<\\?.*\\?>", "") + "</root>";
+
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setCoalescing(true);
+            final Document document = factory.newDocumentBuilder()
+                    .parse(new InputSource(new StringReader(documentString)));
+
+            assertSameElement(document.getDocumentElement(),
+                    VastXmlPullParser.parse(documentString));
+        }
+    }
+
+    @Test
+    public void parse_withElementsByName_shouldCollectElementsAtAnyDepthInDocumentOrder()
+            throws Exception {
+        final Map<String, List<VastXmlElement>> elementsByName =
+                new HashMap<String, List<VastXmlElement>>();
+        elementsByName.put("Error", new ArrayList<VastXmlElement>());
+
+        VastXmlPullParser.parse(new StringReader("<VAST><Error>1</Error><Ad><Wrapper>" +
+                "<Error>2</Error></Wrapper></Ad><Error>3</Error></VAST>"), elementsByName);
+
+        final List<VastXmlElement> errors = elementsByName.get("Error");
+        assertThat(errors).hasSize(3);
+        assertThat(errors.get(0).getValue()).isEqualTo("1");
+        assertThat(errors.get(1).getValue()).isEqualTo("2");
+        assertThat(errors.get(2).getValue()).isEqualTo("3");
+    }
+
+    @Test
+    public void parse_withEmptyElement_shouldHaveNullValue() throws Exception {
+        final VastXmlElement element = VastXmlPullParser.parse("<Description/>");
+
+        assertThat(element.getName()).isEqualTo("Description");
+        assertThat(element.getValue()).isNull();
+        assertThat(element.hasAttributes()).isFalse();
+    }
+
+    @Test
+    public void parse_withTwoRootElements_shouldThrowXmlPullParserException() throws Exception {
+        try {
+            VastXmlPullParser.parse("<VAST/><VAST/>");
+            fail("Expected XmlPullParserException");
+        } catch (XmlPullParserException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void parse_withInvalidXml_shouldThrowXmlPullParserException() throws Exception {
+        try {
+            VastXmlPullParser.parse(VastXmlManagerAggregatorTest.TEST_INVALID_XML_STRING);
+            fail("Expected XmlPullParserException");
+        } catch (XmlPullParserException e) {
+            // pass
+        }
+    }
+
+    private static void assertSameElement(final Node node, final VastXmlElement element) {
+        assertThat(element.getName()).isEqualTo(node.getNodeName());
+        assertThat(element.getValue()).isEqualTo(getNodeValue(node));
+
+        final NamedNodeMap attributes = node.getAttributes();
+        assertThat(element.hasAttributes()).isEqualTo(attributes.getLength() > 0);
+        for (int i = 0; i < attributes.getLength(); i++) {
+            final Node attribute = attributes.item(i);
+            assertThat(element.getAttribute(attribute.getNodeName()))
+                    .isEqualTo(attribute.getNodeValue());
+        }
+
+        final List<Node> childNodes = getChildElements(node);
+        final List<VastXmlElement> childElements = element.getChildren();
+        assertThat(childElements).hasSize(childNodes.size());
+        for (int i = 0; i < childNodes.size(); i++) {
+            assertSameElement(childNodes.get(i), childElements.get(i));
+        }
+    }
+
+    /**
+     * The trimmed text of the node's first child, which is what VastXmlManager used to read.
+     */
+    private static String getNodeValue(final Node node) {
+        if (node.getFirstChild() == null || node.getFirstChild().getNodeValue() == null) {
+            return null;
+        }
+        return node.getFirstChild().getNodeValue().trim();
+    }
+
+    private static List<Node> getChildElements(final Node node) {
+        final List<Node> children = new ArrayList<Node>();
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+}
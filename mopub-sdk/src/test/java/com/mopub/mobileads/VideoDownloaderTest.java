@@ -23,13 +23,23 @@ import org.mockito.Mock;
 import org.robolectric.Robolectric;
 import org.robolectric.annotation.Config;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
 
 @RunWith(SdkTestRunner.class)
 @Config(shadows = {ShadowAsyncTasks.class, ShadowMoPubHttpUrlConnection.class})
@@ -259,6 +269,130 @@ public class VideoDownloaderTest {
         assertThat(VideoDownloader.getDownloaderTasks()).hasSize(0);
     }
 
+    @Test
+    public void cache_withSameUrlInFlight_shouldNotStartSecondDownload_shouldNotifyBothListeners() {
+        final VideoDownloaderListener otherListener = mock(VideoDownloaderListener.class);
+        VideoDownloader.cache(expectedUrl1, mockListener);
+        final VideoDownloaderTask task = (VideoDownloaderTask) ShadowAsyncTasks.getLatestAsyncTask();
+
+        VideoDownloader.cache(expectedUrl1, otherListener);
+
+        assertThat(VideoDownloader.getDownloaderTasks()).hasSize(1);
+        task.onPostExecute(true);
+        verify(mockListener).onComplete(true);
+        verify(otherListener).onComplete(true);
+    }
+
+    @Test
+    public void addListenerIfDownloading_withDownloadInFlight_shouldReturnTrue_shouldNotifyListener() {
+        final VideoDownloaderListener otherListener = mock(VideoDownloaderListener.class);
+        VideoDownloader.cache(expectedUrl1, mockListener);
+        final VideoDownloaderTask task = (VideoDownloaderTask) ShadowAsyncTasks.getLatestAsyncTask();
+
+        assertThat(VideoDownloader.addListenerIfDownloading(expectedUrl1, otherListener)).isTrue();
+        assertThat(VideoDownloader.addListenerIfDownloading(expectedUrl2, otherListener)).isFalse();
+
+        task.onPostExecute(false);
+        verify(otherListener).onComplete(false);
+        assertThat(VideoDownloader.addListenerIfDownloading(expectedUrl1, otherListener)).isFalse();
+    }
+
+    @Test
+    public void removeListener_withDownloadInFlight_shouldNotNotifyListener() {
+        final VideoDownloaderListener otherListener = mock(VideoDownloaderListener.class);
+        VideoDownloader.cache(expectedUrl1, mockListener);
+        final VideoDownloaderTask task = (VideoDownloaderTask) ShadowAsyncTasks.getLatestAsyncTask();
+        VideoDownloader.addListenerIfDownloading(expectedUrl1, otherListener);
+
+        VideoDownloader.removeListener(expectedUrl1, otherListener);
+        task.onProgressUpdate();
+        task.onPostExecute(true);
+
+        verify(mockListener).onComplete(true);
+        verifyZeroInteractions(otherListener);
+    }
+
+    @Test
+    public void doInBackground_withPartialFileAndValidator_shouldRequestRemainingRange_shouldCacheWholeVideo() throws Exception {
+        final File partialFile = CacheService.getPartialFile(expectedUrl1);
+        writeFile(partialFile, "res");
+        writeFile(new File(partialFile.getPath() + ".validator"), "\"etag\"");
+        final Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        headers.put("Content-Range", Collections.singletonList("bytes 3-7/8"));
+        ShadowMoPubHttpUrlConnection.addPendingResponse(206, "ponse", headers);
+        final HttpURLConnection urlConnection =
+                (HttpURLConnection) ShadowMoPubHttpUrlConnection.getPendingUrlConnections().peek();
+        final VideoDownloaderTask videoDownloaderTask = new VideoDownloaderTask(mockListener);
+
+        final Boolean result = videoDownloaderTask.doInBackground(expectedUrl1);
+
+        assertThat(result).isTrue();
+        verify(urlConnection).setRequestProperty("Range", "bytes=3-");
+        verify(urlConnection).setRequestProperty("If-Range", "\"etag\"");
+        assertThat(CacheService.getFromDiskCache(expectedUrl1)).isEqualTo("response".getBytes());
+        assertThat(partialFile.exists()).isFalse();
+    }
+
+    @Test
+    public void doInBackground_withPartialFileAndFullResponse_shouldStartOver() throws Exception {
+        final File partialFile = CacheService.getPartialFile(expectedUrl1);
+        writeFile(partialFile, "stale");
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "response");
+        final VideoDownloaderTask videoDownloaderTask = new VideoDownloaderTask(mockListener);
+
+        final Boolean result = videoDownloaderTask.doInBackground(expectedUrl1);
+
+        assertThat(result).isTrue();
+        assertThat(CacheService.getFromDiskCache(expectedUrl1)).isEqualTo("response".getBytes());
+    }
+
+    @Test
+    public void doInBackground_withResponseEndingEarly_shouldReturnFalse_shouldKeepPartialFile() throws Exception {
+        ShadowMoPubHttpUrlConnection.addPendingResponse(200, "response");
+        final HttpURLConnection urlConnection =
+                (HttpURLConnection) ShadowMoPubHttpUrlConnection.getPendingUrlConnections().peek();
+        when(urlConnection.getContentLength()).thenReturn(100);
+        final VideoDownloaderTask videoDownloaderTask = new VideoDownloaderTask(mockListener);
+
+        final Boolean result = videoDownloaderTask.doInBackground(expectedUrl1);
+
+        assertThat(result).isFalse();
+        assertThat(CacheService.getDiskLruCache().size()).isEqualTo(0);
+        assertThat(CacheService.getPartialFile(expectedUrl1).length()).isEqualTo(8);
+    }
+
+    @Test
+    public void onProgressUpdate_shouldCallOnPlayable() {
+        final VideoDownloaderTask videoDownloaderTask = new VideoDownloaderTask(mockListener);
+
+        videoDownloaderTask.onProgressUpdate();
+
+        verify(mockListener).onPlayable();
+        verify(mockListener, never()).onComplete(anyBoolean());
+    }
+
+    @Test
+    public void addListener_afterOnProgressUpdate_shouldCallOnPlayableOnce() {
+        final VideoDownloaderListener otherListener = mock(VideoDownloaderListener.class);
+        final VideoDownloaderTask videoDownloaderTask = new VideoDownloaderTask(mockListener);
+        videoDownloaderTask.onProgressUpdate();
+
+        videoDownloaderTask.addListener(otherListener);
+        videoDownloaderTask.onProgressUpdate();
+
+        verify(mockListener).onPlayable();
+        verify(otherListener).onPlayable();
+    }
+
+    private static void writeFile(final File file, final String contents) throws IOException {
+        final FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(contents.getBytes());
+        } finally {
+            outputStream.close();
+        }
+    }
+
     private static String createLongString(int size) {
         return new String(new char[size]).replace("\0", "*");
     }
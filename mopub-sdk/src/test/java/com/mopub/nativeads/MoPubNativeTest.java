@@ -5,6 +5,8 @@
 package com.mopub.nativeads;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.support.annotation.NonNull;
 
 import com.mopub.common.MoPub;
 import com.mopub.common.SdkConfiguration;
@@ -18,6 +20,7 @@ import com.mopub.mobileads.MoPubErrorCode;
 import com.mopub.nativeads.MoPubNative.MoPubNativeNetworkListener;
 import com.mopub.network.MoPubNetworkError;
 import com.mopub.network.MoPubRequestQueue;
+import com.mopub.network.MultiAdRequest;
 import com.mopub.network.Networking;
 import com.mopub.volley.NoConnectionError;
 import com.mopub.volley.Request;
@@ -27,6 +30,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -37,6 +41,7 @@ import org.robolectric.shadows.ShadowLog;
 import org.robolectric.shadows.ShadowLooper;
 
 import java.net.MalformedURLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -49,8 +54,10 @@ import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -186,6 +193,33 @@ public class MoPubNativeTest {
         verify(mockNetworkListener).onNativeFail(eq(NativeErrorCode.EMPTY_AD_RESPONSE));
     }
 
+    @Test
+    public void makeRequest_fromNativeAdSourceWithParallelRequests_shouldSendEachAdRequest() {
+        final NativeAdSource nativeAdSource = new NativeAdSource(
+                new ArrayList<TimestampWrapper<NativeAd>>(), mock(Handler.class),
+                mockAdRendererRegistry);
+        nativeAdSource.mTargetDepth = NativeAdSource.MAX_REQUESTS_IN_FLIGHT;
+
+        nativeAdSource.loadAds(new RequestParameters.Builder().build(),
+                new NativeAdSource.MoPubNativeFactory() {
+                    @NonNull
+                    @Override
+                    public MoPubNative create(@NonNull final MoPubNativeNetworkListener listener) {
+                        return new MoPubNative(context, adUnitId, mockAdRendererRegistry, listener);
+                    }
+                });
+
+        // Identical ad requests in flight would be merged into one network call
+        final ArgumentCaptor<MultiAdRequest> requestCaptor =
+                ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue, times(2)).add(requestCaptor.capture());
+        final MultiAdRequest first = requestCaptor.getAllValues().get(0);
+        final MultiAdRequest second = requestCaptor.getAllValues().get(1);
+        assertThat(first).isNotEqualTo(second);
+        assertThat(first.getOriginalUrl()).contains("MAGIC_NO=0");
+        assertThat(second.getOriginalUrl()).contains("MAGIC_NO=1");
+    }
+
     @Test
     public void onAdError_withNoConnection_shouldLogMoPubErrorCodeNoConnection_shouldNotifyListener() {
         MoPubLog.setLogLevel(MoPubLog.LogLevel.DEBUG);
@@ -31,6 +31,7 @@ import static com.mopub.nativeads.MoPubRecyclerAdapter.ContentChangeStrategy.MOV
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -262,6 +263,98 @@ public class MoPubRecyclerAdapterTest {
         verify(originalAdapter).onBindViewHolder(mockTestHolder, AD_POSITION_1);
     }
 
+    @Test
+    public void onBindViewHolder_whenNotAttached_shouldTrackContentVisibility() {
+        subject.onBindViewHolder(mockTestHolder, AD_POSITION_1 + 1);
+
+        verify(mockVisibilityTracker).addView(any(View.class), eq(0), any(Integer.class));
+    }
+
+    @Test
+    public void onBindViewHolder_withLinearLayoutManager_shouldNotTrackContentVisibility() {
+        when(mockRecyclerView.getLayoutManager()).thenReturn(mockLayoutManager);
+        subject.onAttachedToRecyclerView(mockRecyclerView);
+
+        subject.onBindViewHolder(mockTestHolder, AD_POSITION_1 + 1);
+
+        verify(mockVisibilityTracker, never()).addView(any(View.class), anyInt(), any(Integer.class));
+        verify(originalAdapter).onBindViewHolder(mockTestHolder, AD_POSITION_1);
+    }
+
+    @Test
+    public void onAttachedToRecyclerView_shouldAddScrollListener_onDetached_shouldRemoveIt() {
+        subject.onAttachedToRecyclerView(mockRecyclerView);
+
+        ArgumentCaptor<RecyclerView.OnScrollListener> listenerCaptor =
+                ArgumentCaptor.forClass(RecyclerView.OnScrollListener.class);
+        verify(mockRecyclerView).addOnScrollListener(listenerCaptor.capture());
+
+        subject.onDetachedFromRecyclerView(mockRecyclerView);
+
+        verify(mockRecyclerView).removeOnScrollListener(listenerCaptor.getValue());
+    }
+
+    @Test
+    public void onScrolled_shouldPlaceAdsInVisibleRange() {
+        when(mockRecyclerView.getLayoutManager()).thenReturn(mockLayoutManager);
+        when(mockLayoutManager.findFirstVisibleItemPosition()).thenReturn(3);
+        when(mockLayoutManager.findLastVisibleItemPosition()).thenReturn(9);
+        subject.onAttachedToRecyclerView(mockRecyclerView);
+        ArgumentCaptor<RecyclerView.OnScrollListener> listenerCaptor =
+                ArgumentCaptor.forClass(RecyclerView.OnScrollListener.class);
+        verify(mockRecyclerView).addOnScrollListener(listenerCaptor.capture());
+
+        listenerCaptor.getValue().onScrolled(mockRecyclerView, 0, 12);
+
+        verify(mockStreamAdPlacer).placeAdsInRange(3, 10);
+    }
+
+    @Test
+    public void handleScrolled_withUnchangedVisibleRange_shouldOnlyPlaceAdsOnce() {
+        when(mockRecyclerView.getLayoutManager()).thenReturn(mockLayoutManager);
+        when(mockLayoutManager.findFirstVisibleItemPosition()).thenReturn(3);
+        when(mockLayoutManager.findLastVisibleItemPosition()).thenReturn(9);
+
+        subject.handleScrolled(mockRecyclerView);
+        subject.handleScrolled(mockRecyclerView);
+        when(mockLayoutManager.findLastVisibleItemPosition()).thenReturn(10);
+        subject.handleScrolled(mockRecyclerView);
+
+        verify(mockStreamAdPlacer).placeAdsInRange(3, 10);
+        verify(mockStreamAdPlacer).placeAdsInRange(3, 11);
+        verify(mockStreamAdPlacer, times(2)).placeAdsInRange(anyInt(), anyInt());
+    }
+
+    @Test
+    public void handleScrolled_withNoVisibleItems_shouldNotPlaceAds() {
+        when(mockRecyclerView.getLayoutManager()).thenReturn(mockLayoutManager);
+        when(mockLayoutManager.findFirstVisibleItemPosition()).thenReturn(RecyclerView.NO_POSITION);
+        when(mockLayoutManager.findLastVisibleItemPosition()).thenReturn(RecyclerView.NO_POSITION);
+
+        subject.handleScrolled(mockRecyclerView);
+
+        verify(mockStreamAdPlacer, never()).placeAdsInRange(anyInt(), anyInt());
+    }
+
+    @Test
+    public void handleScrolled_withNonLinearLayoutManager_shouldNotPlaceAds() {
+        when(mockRecyclerView.getLayoutManager()).thenReturn(mock(RecyclerView.LayoutManager.class));
+
+        subject.handleScrolled(mockRecyclerView);
+
+        verify(mockStreamAdPlacer, never()).placeAdsInRange(anyInt(), anyInt());
+    }
+
+    @Test
+    public void destroy_whenAttached_shouldRemoveScrollListener() {
+        subject.onAttachedToRecyclerView(mockRecyclerView);
+
+        subject.destroy();
+
+        verify(mockRecyclerView).removeOnScrollListener(any(RecyclerView.OnScrollListener.class));
+        verify(mockVisibilityTracker).destroy();
+    }
+
     @Test
     public void onViewAttached_whenMoPubViewHolder_shouldNotCallOriginalAdapter() {
         subject.onViewAttachedToWindow(spyViewHolder);
@@ -5,6 +5,7 @@
 package com.mopub.nativeads;
 
 import android.app.Activity;
+import android.os.SystemClock;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -23,6 +24,7 @@ import org.robolectric.Robolectric;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
@@ -303,6 +305,73 @@ public class MoPubStreamAdPlacerTest {
         verify(mockAdLoadedListener, never()).onAdLoaded(50);
     }
 
+    @Test
+    public void placeAdsInRange_whileScrollingDown_shouldPlaceAdsFurtherAhead_shouldPrefetchAds() {
+        when(mockAdSource.dequeueAd()).thenReturn(mStubNativeAd);
+        subject.registerAdRenderer(mockAdRenderer);
+        subject.loadAds("test-ad-unit-id");
+        subject.handlePositioningLoad(positioning);
+        subject.handleAdsAvailable();
+
+        Robolectric.getForegroundThreadScheduler().pause();
+        subject.setItemCount(200);
+        subject.placeAdsInRange(0, 10);
+        Robolectric.getForegroundThreadScheduler().advanceBy(100, TimeUnit.MILLISECONDS);
+        subject.placeAdsInRange(20, 30);
+        Robolectric.getForegroundThreadScheduler().advanceBy(100, TimeUnit.MILLISECONDS);
+
+        assertThat(subject.getLookAheadRows(SystemClock.uptimeMillis()))
+                .isGreaterThan(MoPubStreamAdPlacer.RANGE_BUFFER);
+        assertThat(subject.isAd(29)).isTrue();
+        assertThat(subject.isAd(61)).isTrue();
+        verify(mockAdSource).prefetch(anyInt());
+    }
+
+    @Test
+    public void placeAdsInRange_withoutScrolling_shouldOnlyPlaceAdsInRangeBuffer() {
+        when(mockAdSource.dequeueAd()).thenReturn(mStubNativeAd);
+        subject.registerAdRenderer(mockAdRenderer);
+        subject.loadAds("test-ad-unit-id");
+        subject.handlePositioningLoad(positioning);
+        subject.handleAdsAvailable();
+
+        Robolectric.getForegroundThreadScheduler().pause();
+        subject.setItemCount(200);
+        subject.placeAdsInRange(20, 30);
+        Robolectric.getForegroundThreadScheduler().advanceBy(100, TimeUnit.MILLISECONDS);
+
+        assertThat(subject.isAd(29)).isTrue();
+        assertThat(subject.isAd(61)).isFalse();
+        verify(mockAdSource, never()).prefetch(anyInt());
+    }
+
+    @Test
+    public void getLookAheadRows_shouldBeBoundedByMaxVisibleRange() {
+        subject.placeAdsInRange(0, 10);
+        Robolectric.getForegroundThreadScheduler().advanceBy(10, TimeUnit.MILLISECONDS);
+        subject.placeAdsInRange(500, 510);
+
+        assertThat(subject.getLookAheadRows(SystemClock.uptimeMillis()))
+                .isEqualTo(MoPubStreamAdPlacer.MAX_VISIBLE_RANGE);
+    }
+
+    @Test
+    public void getLookAheadRows_whenScrollingUp_orAfterScrollStops_shouldReturnRangeBuffer() {
+        subject.placeAdsInRange(50, 60);
+        Robolectric.getForegroundThreadScheduler().advanceBy(100, TimeUnit.MILLISECONDS);
+        subject.placeAdsInRange(40, 50);
+
+        assertThat(subject.getLookAheadRows(SystemClock.uptimeMillis()))
+                .isEqualTo(MoPubStreamAdPlacer.RANGE_BUFFER);
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(100, TimeUnit.MILLISECONDS);
+        subject.placeAdsInRange(60, 70);
+        final long now = SystemClock.uptimeMillis();
+        assertThat(subject.getLookAheadRows(now)).isGreaterThan(MoPubStreamAdPlacer.RANGE_BUFFER);
+        assertThat(subject.getLookAheadRows(now + MoPubStreamAdPlacer.VELOCITY_TIMEOUT_MILLIS + 1))
+                .isEqualTo(MoPubStreamAdPlacer.RANGE_BUFFER);
+    }
+
     @Test
     public void getAdView_withNoAds_returnsNull() {
         assertThat(subject.getAdView(1, null, null)).isNull();
@@ -24,6 +24,7 @@ import com.mopub.mobileads.MraidVideoPlayerActivity;
 import com.mopub.mobileads.VastManager;
 import com.mopub.mobileads.VastTracker;
 import com.mopub.mobileads.VastVideoConfig;
+import com.mopub.mobileads.VastVideoConfigRegistry;
 import com.mopub.mobileads.VideoViewabilityTracker;
 import com.mopub.nativeads.BaseNativeAd.NativeEventListener;
 import com.mopub.nativeads.CustomEventNative.CustomEventNativeListener;
@@ -515,6 +516,8 @@ public class MoPubVideoNativeAdTest {
 
     @Test
     public void MediaLayout_clickListener_shouldPrepareToLeaveView_shouldTriggerImpressionTracker_shouldNotDisableAppAudio_shouldStartFullScreenVideoActivity() {
+        final VastVideoConfig vastVideoConfigCopy = new VastVideoConfig();
+        when(mockVastVideoConfig.copy()).thenReturn(vastVideoConfigCopy);
         subject.loadAd();
         subject.onVastVideoConfigurationPrepared(mockVastVideoConfig);
         subject.prepare(mockRootView);
@@ -546,9 +549,9 @@ public class MoPubVideoNativeAdTest {
                 .isEqualTo("native");
         assertThat(startedActivity.getLongExtra(Constants.NATIVE_VIDEO_ID, 0L))
                 .isGreaterThan(0L);
-        assertThat(startedActivity.getSerializableExtra(Constants
-                .NATIVE_VAST_VIDEO_CONFIG))
-                .isEqualTo(mockVastVideoConfig);
+        assertThat(VastVideoConfigRegistry.get(startedActivity.getLongExtra(
+                VastVideoConfigRegistry.HANDLE_KEY, VastVideoConfigRegistry.NO_HANDLE)))
+                .isSameAs(vastVideoConfigCopy);
     }
 
     @Test
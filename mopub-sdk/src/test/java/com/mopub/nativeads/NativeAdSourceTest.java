@@ -6,16 +6,21 @@ package com.mopub.nativeads;
 
 import android.os.Handler;
 import android.os.SystemClock;
+import android.support.annotation.NonNull;
 
+import com.mopub.common.Constants;
 import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.nativeads.MoPubNative.MoPubNativeNetworkListener;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.robolectric.shadows.ShadowSystemClock;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static com.mopub.nativeads.NativeAdSource.AdSourceListener;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -24,6 +29,7 @@ import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -65,9 +71,10 @@ public class NativeAdSourceTest {
 
     @Test
     public void constructor_shouldInitializeCorrectly() {
-        assertThat(subject.mRequestInFlight).isFalse();
+        assertThat(subject.getRequestsInFlight()).isEqualTo(0);
         assertThat(subject.mSequenceNumber).isEqualTo(0);
         assertThat(subject.getRetryTime()).isEqualTo(defaultRetryTime);
+        assertThat(subject.mTargetDepth).isEqualTo(NativeAdSource.MIN_TARGET_DEPTH);
     }
 
     @Test
@@ -110,7 +117,7 @@ public class NativeAdSourceTest {
     @Test
     public void loadAds_shouldReplenishCache() {
         subject.loadAds(requestParameters, mockMoPubNative);
-        assertThat(subject.mRequestInFlight).isTrue();
+        assertThat(subject.getRequestsInFlight()).isEqualTo(1);
         verify(mockMoPubNative).makeRequest(requestParameters, 0);
     }
 
@@ -124,10 +131,10 @@ public class NativeAdSourceTest {
     @Test
     public void loadAds_shouldClearNativeAdSource() {
         subject.setMoPubNative(mockMoPubNative);
+        subject.replenishCache();
         TimestampWrapper<NativeAd> timestampWrapper =
                 new TimestampWrapper<NativeAd>(mock(NativeAd.class));
         nativeAdCache.add(timestampWrapper);
-        subject.mRequestInFlight = true;
         subject.mSequenceNumber = 5;
         subject.mCurrentRetries = maxRetries;
 
@@ -142,7 +149,7 @@ public class NativeAdSourceTest {
         assertThat(subject.getRetryTime()).isEqualTo(defaultRetryTime);
 
         // new request has been kicked off
-        assertThat(subject.mRequestInFlight).isTrue();
+        assertThat(subject.getRequestsInFlight()).isEqualTo(1);
     }
 
     @Test
@@ -157,9 +164,9 @@ public class NativeAdSourceTest {
     @Test
     public void clear_shouldDestroyMoPubNative_shouldClearNativeAdCache_shouldRemovePollHandlerMessages_shouldResetSequenceNumber_shouldResetRequestInFlight_shouldResetRetryTime() {
         subject.setMoPubNative(mockMoPubNative);
+        subject.replenishCache();
         TimestampWrapper<NativeAd> timestampWrapper = new TimestampWrapper<NativeAd>(mock(NativeAd.class));
         nativeAdCache.add(timestampWrapper);
-        subject.mRequestInFlight = true;
         subject.mSequenceNumber = 5;
         subject.mCurrentRetries = maxRetries;
 
@@ -169,11 +176,31 @@ public class NativeAdSourceTest {
         assertThat(nativeAdCache).isEmpty();
         verify(mockMoPubNative).destroy();
         verify(mockReplenishCacheHandler).removeMessages(0);
-        assertThat(subject.mRequestInFlight).isFalse();
+        assertThat(subject.getRequestsInFlight()).isEqualTo(0);
         assertThat(subject.mSequenceNumber).isEqualTo(0);
         assertThat(subject.getRetryTime()).isEqualTo(defaultRetryTime);
     }
 
+    @Test
+    public void clear_withRetryScheduled_shouldResetRetryInFlight_shouldLetNextLoadRetry() {
+        subject.loadAds(requestParameters, mockMoPubNative);
+        subject.getMoPubNativeNetworkListener().onNativeFail(NativeErrorCode.UNSPECIFIED);
+        assertThat(subject.mRetryInFlight).isTrue();
+
+        subject.clear();
+
+        assertThat(subject.mRetryInFlight).isFalse();
+
+        final MoPubNative secondMoPubNative = mock(MoPubNative.class);
+        subject.loadAds(requestParameters, secondMoPubNative);
+        verify(secondMoPubNative).makeRequest(requestParameters, 0);
+
+        // A failure of the new request schedules its own retry
+        subject.getMoPubNativeNetworkListener().onNativeFail(NativeErrorCode.UNSPECIFIED);
+        assertThat(subject.mRetryInFlight).isTrue();
+        verify(mockReplenishCacheHandler, times(2)).postDelayed(any(Runnable.class), anyLong());
+    }
+
     @Test
     public void dequeueAd_withNonStaleAd_shouldReturnNativeAd() {
         subject.setMoPubNative(mockMoPubNative);
@@ -211,10 +238,10 @@ public class NativeAdSourceTest {
     @Test
     public void dequeueAd_requestInFlight_shouldNotReplenishCache() {
         subject.setMoPubNative(mockMoPubNative);
+        subject.replenishCache();
 
         nativeAdCache.add(new TimestampWrapper<NativeAd>(mMockNativeAd));
 
-        subject.mRequestInFlight = true;
         assertThat(subject.dequeueAd()).isEqualTo(mMockNativeAd);
 
         assertThat(nativeAdCache).isEmpty();
@@ -254,18 +281,18 @@ public class NativeAdSourceTest {
         subject.replenishCache();
 
         verify(mockMoPubNative).makeRequest(any(RequestParameters.class), eq(0));
-        assertThat(subject.mRequestInFlight).isTrue();
+        assertThat(subject.getRequestsInFlight()).isEqualTo(1);
     }
 
     @Test
     public void replenishCache_withRequestInFlight_shouldNotLoadNativeAd() {
-        subject.mRequestInFlight = true;
         subject.setMoPubNative(mockMoPubNative);
+        subject.replenishCache();
 
         subject.replenishCache();
 
-        verify(mockMoPubNative, never()).makeRequest(requestParameters, 0);
-        assertThat(subject.mRequestInFlight).isTrue();
+        verify(mockMoPubNative).makeRequest(any(RequestParameters.class), eq(0));
+        assertThat(subject.getRequestsInFlight()).isEqualTo(1);
     }
 
     @SuppressWarnings("unchecked")
@@ -281,7 +308,7 @@ public class NativeAdSourceTest {
         subject.replenishCache();
 
         verify(mockMoPubNative, never()).makeRequest(any(RequestParameters.class), any(Integer.class));
-        assertThat(subject.mRequestInFlight).isFalse();
+        assertThat(subject.getRequestsInFlight()).isEqualTo(0);
     }
 
     @Test
@@ -333,7 +360,7 @@ public class NativeAdSourceTest {
     public void moPubNativeNetworkListener_onNativeLoad_withFullCache_shouldResetRequestInFlight() {
         subject.setMoPubNative(mockMoPubNative);
 
-        subject.mRequestInFlight = true;
+        subject.replenishCache();
 
         // fill cache
         nativeAdCache.add(mock(TimestampWrapper.class));
@@ -342,44 +369,245 @@ public class NativeAdSourceTest {
 
         subject.getMoPubNativeNetworkListener().onNativeLoad(mMockNativeAd);
 
-        assertThat(subject.mRequestInFlight).isEqualTo(false);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(0);
     }
 
     @Test
     public void moPubNativeNetworkListener_onNativeLoad_withCacheFilled_shouldNotReplenishCache() {
         subject.setMoPubNative(mockMoPubNative);
 
-        subject.mRequestInFlight = true;
+        subject.replenishCache();
 
         subject.getMoPubNativeNetworkListener().onNativeLoad(mMockNativeAd);
 
-        assertThat(subject.mRequestInFlight).isEqualTo(false);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(0);
     }
 
     @Test
     public void
     moPubNativeNetworkListener_onNativeFail_shouldResetInFlight_shouldUpdateRetryTime_shouldPostDelayedRunnable() {
-        subject.mRequestInFlight = true;
+        subject.setMoPubNative(mockMoPubNative);
+        subject.replenishCache();
 
         subject.getMoPubNativeNetworkListener().onNativeFail(NativeErrorCode.UNSPECIFIED);
 
-        assertThat(subject.mRequestInFlight).isEqualTo(false);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(0);
         assertThat(subject.mRetryInFlight).isEqualTo(true);
         assertThat(subject.getRetryTime()).isGreaterThan(defaultRetryTime);
-        verify(mockReplenishCacheHandler).postDelayed(any(Runnable.class), eq((long)subject.getRetryTime()));
+        ArgumentCaptor<Long> delayCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(mockReplenishCacheHandler).postDelayed(any(Runnable.class), delayCaptor.capture());
+        // Retries are spread out with jitter
+        assertThat(delayCaptor.getValue()).isGreaterThanOrEqualTo((long) subject.getRetryTime());
+        assertThat(delayCaptor.getValue()).isLessThanOrEqualTo((long) (subject.getRetryTime() * 1.2));
     }
 
     @Test
     public void
     moPubNativeNetworkListener_onNativeFail_maxRetryTime_shouldResetInflight_shouldResetRetryTime_shouldNotPostDelayedRunnable() {
-        subject.mRequestInFlight = true;
+        subject.setMoPubNative(mockMoPubNative);
+        subject.replenishCache();
         subject.mCurrentRetries = maxRetries;
 
         subject.getMoPubNativeNetworkListener().onNativeFail(NativeErrorCode.UNSPECIFIED);
 
-        assertThat(subject.mRequestInFlight).isEqualTo(false);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(0);
         assertThat(subject.mRetryInFlight).isEqualTo(false);
         assertThat(subject.getRetryTime()).isEqualTo(defaultRetryTime);
         verify(mockReplenishCacheHandler, never()).postDelayed(any(Runnable.class), anyLong());
     }
+
+    @Test
+    public void loadAds_withMoPubNativeFactory_shouldRequestUpToTargetDepth() {
+        final TestMoPubNativeFactory factory = new TestMoPubNativeFactory();
+
+        subject.loadAds(requestParameters, factory);
+
+        assertThat(factory.moPubNatives).hasSize(1);
+        verify(factory.moPubNatives.get(0)).registerAdRenderer(mockRenderer);
+        verify(factory.moPubNatives.get(0)).makeRequest(requestParameters, 0);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void dequeueAd_withEmptyCache_shouldGrowTargetDepth_shouldRequestInParallelWithOwnSequenceNumber() {
+        final TestMoPubNativeFactory factory = new TestMoPubNativeFactory();
+        subject.loadAds(requestParameters, factory);
+
+        assertThat(subject.dequeueAd()).isNull();
+        assertThat(subject.mTargetDepth).isEqualTo(NativeAdSource.MIN_TARGET_DEPTH + 1);
+        ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockReplenishCacheHandler).post(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+
+        assertThat(factory.moPubNatives).hasSize(2);
+        verify(factory.moPubNatives.get(1)).makeRequest(requestParameters, 1);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void dequeueAd_withEmptyCache_shouldNotGrowTargetDepthPastMaximum() {
+        subject.loadAds(requestParameters, new TestMoPubNativeFactory());
+
+        for (int i = 0; i < NativeAdSource.MAX_TARGET_DEPTH + 2; i++) {
+            subject.dequeueAd();
+        }
+
+        assertThat(subject.mTargetDepth).isEqualTo(NativeAdSource.MAX_TARGET_DEPTH);
+    }
+
+    @Test
+    public void replenishCache_shouldNotHaveMoreThanMaxRequestsInFlight() {
+        final TestMoPubNativeFactory factory = new TestMoPubNativeFactory();
+        subject.mTargetDepth = NativeAdSource.MAX_TARGET_DEPTH;
+
+        subject.loadAds(requestParameters, factory);
+        subject.replenishCache();
+
+        assertThat(factory.moPubNatives).hasSize(NativeAdSource.MAX_REQUESTS_IN_FLIGHT);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(NativeAdSource.MAX_REQUESTS_IN_FLIGHT);
+    }
+
+    @Test
+    public void moPubNativeNetworkListener_onNativeLoad_withParallelRequests_shouldRequestNextAdFromSameMoPubNative() {
+        final TestMoPubNativeFactory factory = new TestMoPubNativeFactory();
+        subject.mTargetDepth = 3;
+        subject.loadAds(requestParameters, factory);
+
+        factory.listeners.get(0).onNativeLoad(mMockNativeAd);
+
+        assertThat(nativeAdCache).hasSize(1);
+        verify(mockAdSourceListener).onAdsAvailable();
+        assertThat(factory.moPubNatives).hasSize(2);
+        verify(factory.moPubNatives.get(1)).makeRequest(requestParameters, 1);
+        // The second request still uses sequence number 1
+        verify(factory.moPubNatives.get(0)).makeRequest(requestParameters, 2);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void moPubNativeNetworkListener_onNativeFail_withParallelRequests_shouldRequestOneAtATime() {
+        final TestMoPubNativeFactory factory = new TestMoPubNativeFactory();
+        subject.mTargetDepth = 3;
+        subject.loadAds(requestParameters, factory);
+
+        factory.listeners.get(0).onNativeFail(NativeErrorCode.UNSPECIFIED);
+        factory.listeners.get(1).onNativeFail(NativeErrorCode.UNSPECIFIED);
+
+        // Only one retry is scheduled for both failures
+        ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockReplenishCacheHandler).postDelayed(runnableCaptor.capture(), anyLong());
+        runnableCaptor.getValue().run();
+
+        assertThat(subject.mRetryInFlight).isFalse();
+        assertThat(subject.getRequestsInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void moPubNativeNetworkListener_onNativeLoad_shouldScheduleExpirationSweep() {
+        subject.setMoPubNative(mockMoPubNative);
+
+        subject.getMoPubNativeNetworkListener().onNativeLoad(mMockNativeAd);
+
+        verify(mockReplenishCacheHandler).postDelayed(any(Runnable.class),
+                eq((long) Constants.AD_EXPIRATION_DELAY));
+    }
+
+    @Test
+    public void expirationSweep_shouldDestroyExpiredAds_shouldShrinkTargetDepth_shouldReplenishCache() {
+        subject.setMoPubNative(mockMoPubNative);
+        subject.mTargetDepth = 2;
+        subject.getMoPubNativeNetworkListener().onNativeLoad(mMockNativeAd);
+        ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockReplenishCacheHandler).postDelayed(runnableCaptor.capture(), anyLong());
+
+        nativeAdCache.get(0).mCreatedTimestamp =
+                SystemClock.uptimeMillis() - Constants.AD_EXPIRATION_DELAY;
+        runnableCaptor.getValue().run();
+
+        verify(mMockNativeAd).destroy();
+        assertThat(nativeAdCache).isEmpty();
+        assertThat(subject.getWastedAdCount()).isEqualTo(1);
+        assertThat(subject.mTargetDepth).isEqualTo(1);
+        verify(mockMoPubNative).makeRequest(any(RequestParameters.class), eq(1));
+    }
+
+    @Test
+    public void prefetch_shouldRequestMissingAds_shouldNotChangeTargetDepth() {
+        final TestMoPubNativeFactory factory = new TestMoPubNativeFactory();
+        subject.loadAds(requestParameters, factory);
+
+        subject.prefetch(3);
+
+        assertThat(subject.mTargetDepth).isEqualTo(NativeAdSource.MIN_TARGET_DEPTH);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(NativeAdSource.MAX_REQUESTS_IN_FLIGHT);
+
+        subject.prefetch(NativeAdSource.MAX_TARGET_DEPTH + 10);
+        assertThat(subject.mTargetDepth).isEqualTo(NativeAdSource.MIN_TARGET_DEPTH);
+    }
+
+    @Test
+    public void prefetch_afterPrefetchedAdsLoad_shouldOnlyReplenishToTargetDepth() {
+        final TestMoPubNativeFactory factory = new TestMoPubNativeFactory();
+        subject.loadAds(requestParameters, factory);
+        subject.prefetch(NativeAdSource.MAX_TARGET_DEPTH);
+
+        factory.listeners.get(0).onNativeLoad(mock(NativeAd.class));
+        factory.listeners.get(1).onNativeLoad(mock(NativeAd.class));
+        subject.dequeueAd();
+        subject.dequeueAd();
+        subject.replenishCache();
+
+        // The cache is only refilled to its target depth, not to the prefetched depth
+        assertThat(subject.mTargetDepth).isEqualTo(NativeAdSource.MIN_TARGET_DEPTH);
+        assertThat(subject.getRequestsInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void prefetch_withFewerAds_shouldNotLowerTargetDepth() {
+        subject.mTargetDepth = 3;
+
+        subject.prefetch(1);
+
+        assertThat(subject.mTargetDepth).isEqualTo(3);
+    }
+
+    @Test
+    public void getHitRate_shouldReturnFractionOfDequeuesServedFromCache() {
+        assertThat(subject.getHitRate()).isEqualTo(0f);
+        subject.setMoPubNative(mockMoPubNative);
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(mMockNativeAd));
+
+        subject.dequeueAd();
+        subject.dequeueAd();
+
+        assertThat(subject.getHitRate()).isEqualTo(0.5f);
+    }
+
+    @Test
+    public void clear_shouldResetCacheMetrics() {
+        subject.setMoPubNative(mockMoPubNative);
+        subject.dequeueAd();
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(mMockNativeAd));
+
+        subject.clear();
+
+        verify(mMockNativeAd).destroy();
+        assertThat(subject.getHitRate()).isEqualTo(0f);
+        assertThat(subject.getWastedAdCount()).isEqualTo(0);
+    }
+
+    private static class TestMoPubNativeFactory implements NativeAdSource.MoPubNativeFactory {
+        final List<MoPubNative> moPubNatives = new ArrayList<MoPubNative>();
+        final List<MoPubNativeNetworkListener> listeners =
+                new ArrayList<MoPubNativeNetworkListener>();
+
+        @NonNull
+        @Override
+        public MoPubNative create(@NonNull final MoPubNativeNetworkListener listener) {
+            final MoPubNative moPubNative = mock(MoPubNative.class);
+            moPubNatives.add(moPubNative);
+            listeners.add(listener);
+            return moPubNative;
+        }
+    }
 }
@@ -0,0 +1,277 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the {@link PositionList} backed {@link PlacementData} against the previous fixed size
+ * arrays, on a feed with an ad every few rows that is as long as the arrays allow. Items are
+ * inserted and removed at the top of the feed, which shifts every ad after them.
+ */
+@RunWith(SdkTestRunner.class)
+public class PlacementDataBenchmark {
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int ITERATIONS = 20000;
+    private static final int REPEATING_INTERVAL = 3;
+    // The previous arrays held 200 ads
+    private static final int ITEM_COUNT = 400;
+    private static final int LONG_ITEM_COUNT = 40000;
+
+    private NativeAd nativeAd;
+    private PlacementData placementData;
+    private ArrayPlacementData arrayPlacementData;
+
+    @Before
+    public void setUp() {
+        Benchmark.assumeEnabled();
+
+        nativeAd = mock(NativeAd.class);
+        placementData = placeAds(ITEM_COUNT);
+        arrayPlacementData = new ArrayPlacementData(REPEATING_INTERVAL);
+        final int adjustedCount = placementData.getAdjustedCount(ITEM_COUNT);
+        for (int position = 0; position < adjustedCount; position++) {
+            if (arrayPlacementData.shouldPlaceAd(position)) {
+                arrayPlacementData.placeAd(position, nativeAd);
+            }
+        }
+    }
+
+    @Test
+    public void insertAndRemoveItem_arraysVersusPositionLists() throws Exception {
+        // Both have to agree before their cost is compared
+        placementData.insertItem(0);
+        arrayPlacementData.insertItem(0);
+        assertThat(placementData.getPlacedAdPositions())
+                .isEqualTo(arrayPlacementData.getPlacedAdPositions());
+        placementData.removeItem(0);
+        arrayPlacementData.removeItem(0);
+        assertThat(placementData.getPlacedAdPositions())
+                .isEqualTo(arrayPlacementData.getPlacedAdPositions());
+
+        Benchmark.run("arrays insertItem+removeItem",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        arrayPlacementData.insertItem(0);
+                        arrayPlacementData.removeItem(0);
+                    }
+                });
+        Benchmark.run("PositionList insertItem+removeItem",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        placementData.insertItem(0);
+                        placementData.removeItem(0);
+                    }
+                });
+
+        final PlacementData longPlacementData = placeAds(LONG_ITEM_COUNT);
+        Benchmark.run("PositionList insertItem+removeItem x100",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        longPlacementData.insertItem(0);
+                        longPlacementData.removeItem(0);
+                    }
+                });
+    }
+
+    @Test
+    public void mapPositions_arraysVersusPositionLists() throws Exception {
+        final int adjustedCount = placementData.getAdjustedCount(ITEM_COUNT);
+        for (int position = 0; position < adjustedCount; position++) {
+            assertThat(placementData.getOriginalPosition(position))
+                    .isEqualTo(arrayPlacementData.getOriginalPosition(position));
+        }
+        for (int position = 0; position < ITEM_COUNT; position++) {
+            assertThat(placementData.getAdjustedPosition(position))
+                    .isEqualTo(arrayPlacementData.getAdjustedPosition(position));
+        }
+
+        Benchmark.run("arrays map every row",
+                WARMUP_ITERATIONS / 10, ITERATIONS / 10, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        for (int position = 0; position < ITEM_COUNT; position++) {
+                            arrayPlacementData.getOriginalPosition(
+                                    arrayPlacementData.getAdjustedPosition(position));
+                        }
+                    }
+                });
+        Benchmark.run("PositionList map every row",
+                WARMUP_ITERATIONS / 10, ITERATIONS / 10, new Benchmark.Operation() {
+                    @Override
+                    public void run() {
+                        for (int position = 0; position < ITEM_COUNT; position++) {
+                            placementData.getOriginalPosition(
+                                    placementData.getAdjustedPosition(position));
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Places ads down a feed, the way the stream ad placer does while the user scrolls.
+     */
+    private PlacementData placeAds(final int itemCount) {
+        final PlacementData data = PlacementData.fromAdPositioning(
+                MoPubNativeAdPositioning.clientPositioning()
+                        .enableRepeatingPositions(REPEATING_INTERVAL));
+        for (int position = 0; position < data.getAdjustedCount(itemCount); position++) {
+            if (data.shouldPlaceAd(position)) {
+                data.placeAd(position, nativeAd);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * The parts of the previous {@link PlacementData} used here, which kept positions in arrays
+     * of at most 200 ads and shifted every following entry on each item change.
+     */
+    private static class ArrayPlacementData {
+        private static final int MAX_ADS = 200;
+
+        private final int[] mDesiredOriginalPositions = new int[MAX_ADS];
+        private final int[] mDesiredInsertionPositions = new int[MAX_ADS];
+        private int mDesiredCount = 0;
+        private final int[] mOriginalAdPositions = new int[MAX_ADS];
+        private final int[] mAdjustedAdPositions = new int[MAX_ADS];
+        private final NativeAd[] mNativeAds = new NativeAd[MAX_ADS];
+        private int mPlacedCount = 0;
+
+        ArrayPlacementData(final int interval) {
+            int lastPos = 0;
+            while (mDesiredCount < MAX_ADS) {
+                lastPos = lastPos + interval - 1;
+                mDesiredOriginalPositions[mDesiredCount] = lastPos;
+                mDesiredInsertionPositions[mDesiredCount] = lastPos;
+                mDesiredCount++;
+            }
+        }
+
+        boolean shouldPlaceAd(final int position) {
+            return Arrays.binarySearch(mDesiredInsertionPositions, 0, mDesiredCount, position)
+                    >= 0;
+        }
+
+        void placeAd(final int adjustedPosition, final NativeAd nativeAd) {
+            final int desiredIndex = binarySearchFirstEquals(
+                    mDesiredInsertionPositions, mDesiredCount, adjustedPosition);
+            final int originalPosition = mDesiredOriginalPositions[desiredIndex];
+            int placeIndex = binarySearchGreaterThan(
+                    mOriginalAdPositions, mPlacedCount, originalPosition);
+            if (placeIndex < mPlacedCount) {
+                final int num = mPlacedCount - placeIndex;
+                System.arraycopy(mOriginalAdPositions, placeIndex,
+                        mOriginalAdPositions, placeIndex + 1, num);
+                System.arraycopy(mAdjustedAdPositions, placeIndex,
+                        mAdjustedAdPositions, placeIndex + 1, num);
+                System.arraycopy(mNativeAds, placeIndex, mNativeAds, placeIndex + 1, num);
+            }
+            mOriginalAdPositions[placeIndex] = originalPosition;
+            mAdjustedAdPositions[placeIndex] = adjustedPosition;
+            mNativeAds[placeIndex] = nativeAd;
+            mPlacedCount++;
+
+            final int num = mDesiredCount - desiredIndex - 1;
+            System.arraycopy(mDesiredInsertionPositions, desiredIndex + 1,
+                    mDesiredInsertionPositions, desiredIndex, num);
+            System.arraycopy(mDesiredOriginalPositions, desiredIndex + 1,
+                    mDesiredOriginalPositions, desiredIndex, num);
+            mDesiredCount--;
+
+            for (int i = desiredIndex; i < mDesiredCount; ++i) {
+                mDesiredInsertionPositions[i]++;
+            }
+            for (int i = placeIndex + 1; i < mPlacedCount; ++i) {
+                mAdjustedAdPositions[i]++;
+            }
+        }
+
+        int[] getPlacedAdPositions() {
+            return Arrays.copyOf(mAdjustedAdPositions, mPlacedCount);
+        }
+
+        int getOriginalPosition(final int position) {
+            final int index = Arrays.binarySearch(mAdjustedAdPositions, 0, mPlacedCount, position);
+            return index < 0 ? position - ~index : PlacementData.NOT_FOUND;
+        }
+
+        int getAdjustedPosition(final int originalPosition) {
+            return originalPosition
+                    + binarySearchGreaterThan(mOriginalAdPositions, mPlacedCount, originalPosition);
+        }
+
+        void insertItem(final int originalPosition) {
+            int indexToIncrement = binarySearchFirstEquals(
+                    mDesiredOriginalPositions, mDesiredCount, originalPosition);
+            for (int i = indexToIncrement; i < mDesiredCount; ++i) {
+                mDesiredOriginalPositions[i]++;
+                mDesiredInsertionPositions[i]++;
+            }
+
+            indexToIncrement = binarySearchFirstEquals(
+                    mOriginalAdPositions, mPlacedCount, originalPosition);
+            for (int i = indexToIncrement; i < mPlacedCount; ++i) {
+                mOriginalAdPositions[i]++;
+                mAdjustedAdPositions[i]++;
+            }
+        }
+
+        void removeItem(final int originalPosition) {
+            int indexToDecrement = binarySearchGreaterThan(
+                    mDesiredOriginalPositions, mDesiredCount, originalPosition);
+            for (int i = indexToDecrement; i < mDesiredCount; ++i) {
+                mDesiredOriginalPositions[i]--;
+                mDesiredInsertionPositions[i]--;
+            }
+
+            indexToDecrement = binarySearchGreaterThan(
+                    mOriginalAdPositions, mPlacedCount, originalPosition);
+            for (int i = indexToDecrement; i < mPlacedCount; ++i) {
+                mOriginalAdPositions[i]--;
+                mAdjustedAdPositions[i]--;
+            }
+        }
+
+        private static int binarySearchFirstEquals(int[] array, int count, int value) {
+            int index = Arrays.binarySearch(array, 0, count, value);
+            if (index < 0) {
+                return ~index;
+            }
+
+            int duplicateValue = array[index];
+            while (index >= 0 && array[index] == duplicateValue) {
+                index--;
+            }
+            return index + 1;
+        }
+
+        private static int binarySearchGreaterThan(int[] array, int count, int value) {
+            int index = Arrays.binarySearch(array, 0, count, value);
+            if (index < 0) {
+                return ~index;
+            }
+
+            int duplicateValue = array[index];
+            while (index < count && array[index] == duplicateValue) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -619,6 +619,76 @@ public class PlacementDataTest {
         verify(mMockNativeAd3).destroy();
     }
 
+    @Test
+    public void placedAds_withUnplacedPositionsBetween_thenClearAll_shouldResetInsertionPositions() {
+        adsAt15repeating.placeAd(1, mMockNativeAd);
+        adsAt15repeating.placeAd(9, mMockNativeAd);
+        checkPlacedPositions(15, adsAt15repeating, 1, 9);
+        checkInsertionPositions(15, adsAt15repeating, 5, 7, 12, 14);
+
+        adsAt15repeating.clearAds();
+        checkPlacedPositions(15, adsAt15repeating);
+        checkInsertionPositions(15, adsAt15repeating, 1, 4, 6, 8, 10, 12, 14);
+    }
+
+    @Test
+    public void placedAds_withUnplacedPositionsBetween_thenClearRange_shouldShiftLaterPositions() {
+        adsAt15repeating.placeAd(1, mMockNativeAd);
+        adsAt15repeating.placeAd(9, mMockNativeAd);
+
+        adsAt15repeating.clearAdsInRange(0, 2);
+        checkPlacedPositions(15, adsAt15repeating, 8);
+        checkInsertionPositions(15, adsAt15repeating, 1, 4, 6, 11, 13, 15);
+    }
+
+    @Test
+    public void placeAds_moreThan200_shouldPlaceAll() {
+        for (int position = 0; position < 2000; position++) {
+            if (adsRepeating.shouldPlaceAd(position)) {
+                adsRepeating.placeAd(position, mMockNativeAd);
+            }
+        }
+
+        // Every third position is an ad
+        final int[] placedAdPositions = adsRepeating.getPlacedAdPositions();
+        assertThat(placedAdPositions.length).isEqualTo(666);
+        assertThat(placedAdPositions[0]).isEqualTo(2);
+        assertThat(placedAdPositions[665]).isEqualTo(1997);
+        assertThat(adsRepeating.getPlacedAd(1997)).isEqualTo(mMockNativeAd);
+        assertThat(adsRepeating.getOriginalPosition(1997)).isEqualTo(NOT_FOUND);
+        assertThat(adsRepeating.getOriginalPosition(1998)).isEqualTo(1332);
+        assertThat(adsRepeating.getAdjustedPosition(1332)).isEqualTo(1998);
+        assertThat(adsRepeating.nextInsertionPosition(1997)).isEqualTo(2000);
+    }
+
+    @Test
+    public void fixedPositions_moreThan200_shouldAllBeDesired() {
+        MoPubNativeAdPositioning.MoPubClientPositioning positioning =
+                MoPubNativeAdPositioning.clientPositioning();
+        for (int position = 0; position < 1000; position += 4) {
+            positioning.addFixedPosition(position);
+        }
+        final PlacementData subject = PlacementData.fromAdPositioning(positioning);
+
+        // Each fixed position is an insertion position once the ads before it are placed
+        assertThat(subject.shouldPlaceAd(996 - 249)).isTrue();
+        assertThat(subject.previousInsertionPosition(996 - 249)).isEqualTo(992 - 248);
+        assertThat(subject.nextInsertionPosition(996 - 249)).isEqualTo(NOT_FOUND);
+    }
+
+    @Test
+    public void insertAndRemoveItems_farDownTheStream_shouldShiftRepeatingPositions() {
+        adsRepeating.insertItem(100);
+        adsRepeating.removeItem(200);
+
+        checkInsertionPositions(10, adsRepeating, 2, 4, 6, 8, 10);
+        assertThat(adsRepeating.shouldPlaceAd(98)).isTrue();
+        assertThat(adsRepeating.nextInsertionPosition(98)).isEqualTo(101);
+        assertThat(adsRepeating.previousInsertionPosition(199)).isEqualTo(197);
+        assertThat(adsRepeating.nextInsertionPosition(199)).isEqualTo(200);
+        assertThat(adsRepeating.nextInsertionPosition(200)).isEqualTo(202);
+    }
+
     @Test
     public void insertItems_afterPlacing() {
         adsAt15repeating.placeAd(1, mMockNativeAd);
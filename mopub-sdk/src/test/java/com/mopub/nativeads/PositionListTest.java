@@ -0,0 +1,122 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class PositionListTest {
+    private PositionList subject;
+
+    @Before
+    public void setUp() {
+        subject = new PositionList();
+        subject.setAll(new int[] {1, 4, 4, 6, 10}, 5);
+    }
+
+    @Test
+    public void get_shouldReturnPositions() {
+        assertThat(subject.size()).isEqualTo(5);
+        assertThat(subject.get(0)).isEqualTo(1);
+        assertThat(subject.get(2)).isEqualTo(4);
+        assertThat(subject.getLast()).isEqualTo(10);
+        assertThat(subject.toArray()).isEqualTo(new int[] {1, 4, 4, 6, 10});
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_withIndexPastTheEnd_shouldThrowIndexOutOfBoundsException() {
+        subject.get(5);
+    }
+
+    @Test
+    public void lowerBound_shouldReturnFirstPositionAtOrAfterValue() {
+        assertThat(subject.lowerBound(0)).isEqualTo(0);
+        assertThat(subject.lowerBound(1)).isEqualTo(0);
+        assertThat(subject.lowerBound(4)).isEqualTo(1);
+        assertThat(subject.lowerBound(5)).isEqualTo(3);
+        assertThat(subject.lowerBound(10)).isEqualTo(4);
+        assertThat(subject.lowerBound(11)).isEqualTo(5);
+    }
+
+    @Test
+    public void upperBound_shouldReturnFirstPositionAfterValue() {
+        assertThat(subject.upperBound(0)).isEqualTo(0);
+        assertThat(subject.upperBound(4)).isEqualTo(3);
+        assertThat(subject.upperBound(10)).isEqualTo(5);
+        assertThat(subject.upperBound(Integer.MAX_VALUE)).isEqualTo(5);
+    }
+
+    @Test
+    public void shiftFrom_shouldShiftPositionsFromIndexOnwards() {
+        subject.shiftFrom(2, 3);
+
+        assertThat(subject.toArray()).isEqualTo(new int[] {1, 4, 7, 9, 13});
+        assertThat(subject.lowerBound(5)).isEqualTo(2);
+
+        subject.shiftFrom(0, -1);
+
+        assertThat(subject.toArray()).isEqualTo(new int[] {0, 3, 6, 8, 12});
+    }
+
+    @Test
+    public void shiftFrom_withIndexPastTheEnd_shouldDoNothing() {
+        subject.shiftFrom(5, 3);
+
+        assertThat(subject.toArray()).isEqualTo(new int[] {1, 4, 4, 6, 10});
+    }
+
+    @Test
+    public void insert_shouldKeepPositionsInOrder() {
+        subject.insert(1, 2);
+        subject.insert(6, 12);
+        subject.insert(0, 0);
+
+        assertThat(subject.toArray()).isEqualTo(new int[] {0, 1, 2, 4, 4, 6, 10, 12});
+        assertThat(subject.lowerBound(5)).isEqualTo(5);
+    }
+
+    @Test
+    public void remove_shouldKeepPositionsInOrder() {
+        subject.remove(4);
+        subject.remove(0);
+
+        assertThat(subject.toArray()).isEqualTo(new int[] {4, 4, 6});
+        assertThat(subject.lowerBound(5)).isEqualTo(2);
+    }
+
+    @Test
+    public void append_pastInitialCapacity_shouldGrow() {
+        subject.clear();
+        for (int i = 0; i < 1000; i++) {
+            subject.append(i * 3);
+        }
+
+        assertThat(subject.size()).isEqualTo(1000);
+        assertThat(subject.get(500)).isEqualTo(1500);
+        assertThat(subject.getLast()).isEqualTo(2997);
+        assertThat(subject.lowerBound(1501)).isEqualTo(501);
+
+        subject.shiftFrom(500, 1);
+
+        assertThat(subject.get(499)).isEqualTo(1497);
+        assertThat(subject.get(500)).isEqualTo(1501);
+        assertThat(subject.getLast()).isEqualTo(2998);
+    }
+
+    @Test
+    public void append_afterRemovingLast_shouldReplaceIt() {
+        subject.remove(4);
+        subject.shiftFrom(1, 1);
+        subject.append(8);
+
+        assertThat(subject.toArray()).isEqualTo(new int[] {1, 5, 5, 7, 8});
+    }
+}
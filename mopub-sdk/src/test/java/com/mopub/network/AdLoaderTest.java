@@ -22,6 +22,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.robolectric.Robolectric;
 import org.robolectric.shadows.ShadowLooper;
@@ -31,6 +32,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static com.mopub.mobileads.MoPubErrorCode.UNSPECIFIED;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -57,8 +59,6 @@ public class AdLoaderTest {
     @Mock
     private AdLoader.Listener mockListener;
     @Mock
-    private MultiAdRequest mockMultiAdRequest;
-    @Mock
     private MoPubRequestQueue mockRequestQueue;
 
     private Activity activity;
@@ -80,6 +80,8 @@ public class AdLoaderTest {
     @After
     public void teardown() {
         RequestRateTrackerTest.clearRequestRateTracker();
+        AdLoader.setSpeculativeFetchEnabled(false);
+        AdLoader.clearSpeculativeFetchMetrics();
     }
 
     @Test
@@ -204,12 +206,103 @@ public class AdLoaderTest {
     public void fetchAd_addsRequestToQueue() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         // call private method AdLoader.fetchAd()
         Method fetchMethod = getMethod("fetchAd", new Class[]{MultiAdRequest.class, Context.class});
-        Request<?> request = (Request<?>) fetchMethod.invoke(subject, mockMultiAdRequest, activity);
+        MultiAdRequest multiAdRequest = new MultiAdRequest("test-url", AdFormat.BANNER, adUnitId,
+                activity, mock(MultiAdRequest.Listener.class));
+        Request<?> request = (Request<?>) fetchMethod.invoke(subject, multiAdRequest, activity);
 
         RequestQueue requestQueue = Networking.getRequestQueue();
         verify(requestQueue).add(request);
     }
 
+    @Test
+    public void loadNextAd_withIdenticalRequestInFlight_shouldShareOneRequest_shouldDeliverToBoth() throws Exception {
+        AdLoader.Listener otherListener = mock(AdLoader.Listener.class);
+        AdLoader other = new AdLoader("test-url", AdFormat.BANNER, adUnitId, activity, otherListener);
+
+        subject.loadNextAd(null);
+        other.loadNextAd(null);
+
+        ArgumentCaptor<MultiAdRequest> requestCaptor = ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue).add(requestCaptor.capture());
+
+        byte[] body = createResponseBody(null, new JSONObject[]{createAdResponseJson("trackingUrl", "content")});
+        requestCaptor.getValue().deliverResponse(new MultiAdResponse(activity,
+                new NetworkResponse(200, body, headers, false), AdFormat.BANNER, adUnitId));
+
+        verify(mockListener).onSuccess(any(AdResponse.class));
+        verify(otherListener).onSuccess(any(AdResponse.class));
+        assertThat(subject.isRunning()).isFalse();
+        assertThat(other.isRunning()).isFalse();
+    }
+
+    @Test
+    public void loadNextAd_withIdenticalRequestInFlight_whenOneIsCanceled_shouldOnlyDeliverToOther() throws Exception {
+        AdLoader.Listener otherListener = mock(AdLoader.Listener.class);
+        AdLoader other = new AdLoader("test-url", AdFormat.BANNER, adUnitId, activity, otherListener);
+
+        subject.loadNextAd(null).cancel();
+        other.loadNextAd(null);
+
+        ArgumentCaptor<MultiAdRequest> requestCaptor = ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue).add(requestCaptor.capture());
+        MultiAdRequest sharedRequest = requestCaptor.getValue();
+        assertThat(sharedRequest.isCanceled()).isFalse();
+
+        sharedRequest.deliverError(new VolleyError("error"));
+
+        verify(mockListener, never()).onErrorResponse(any(VolleyError.class));
+        verify(otherListener).onErrorResponse(any(VolleyError.class));
+    }
+
+    @Test
+    public void loadNextAd_withIdenticalRequestInFlight_whenAllAreCanceled_shouldCancelSharedRequest() throws Exception {
+        AdLoader other = new AdLoader("test-url", AdFormat.BANNER, adUnitId, activity,
+                mock(AdLoader.Listener.class));
+
+        Request<?> request = subject.loadNextAd(null);
+        Request<?> otherRequest = other.loadNextAd(null);
+
+        ArgumentCaptor<MultiAdRequest> requestCaptor = ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue).add(requestCaptor.capture());
+
+        request.cancel();
+        assertThat(requestCaptor.getValue().isCanceled()).isFalse();
+        otherRequest.cancel();
+        assertThat(requestCaptor.getValue().isCanceled()).isTrue();
+    }
+
+    @Test
+    public void loadNextAd_whenNotAdmitted_shouldDeferRequest_shouldSendItOnceAdmitted() throws Exception {
+        for (int i = 0; i < AdmissionController.BUCKET_CAPACITY; i++) {
+            assertThat(Networking.getAdmissionController().tryAdmit(adUnitId)).isNotNull();
+        }
+
+        subject.loadNextAd(null);
+
+        verify(mockRequestQueue, never()).add(any(Request.class));
+        assertThat(subject.isRunning()).isTrue();
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                AdmissionController.TOKEN_INTERVAL_MS * 2, TimeUnit.MILLISECONDS);
+
+        verify(mockRequestQueue).add(any(MultiAdRequest.class));
+        assertThat(subject.isRunning()).isTrue();
+    }
+
+    @Test
+    public void loadNextAd_whenNotAdmitted_whenCanceled_shouldNotSendRequest() throws Exception {
+        for (int i = 0; i < AdmissionController.BUCKET_CAPACITY; i++) {
+            Networking.getAdmissionController().tryAdmit(adUnitId);
+        }
+
+        subject.loadNextAd(null).cancel();
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                AdmissionController.TOKEN_INTERVAL_MS * 2, TimeUnit.MILLISECONDS);
+
+        verify(mockRequestQueue, never()).add(any(Request.class));
+        assertThat(subject.isRunning()).isFalse();
+    }
+
     @Test
     public void oneAdResponseWaterfall_shouldSucceed() throws JSONException, MoPubNetworkError, NoSuchFieldException, IllegalAccessException {
         JSONObject adResponseJson = createAdResponseJson("trackingUrl", "content_data");
@@ -274,7 +367,126 @@ public class AdLoaderTest {
         assertThat(subject.hasMoreAds()).isTrue();
     }
 
+    @Test
+    public void loadNextAd_withLastAdOfPage_withSpeculativeFetchDisabled_shouldNotRequestNextPage() throws Exception {
+        setMultiAdResponse("fail_url", 1);
+
+        subject.loadNextAd(null);
+
+        verify(mockRequestQueue, never()).add(any(Request.class));
+    }
+
+    @Test
+    public void loadNextAd_withLastAdOfPage_withSpeculativeFetchEnabled_shouldRequestNextPage() throws Exception {
+        AdLoader.setSpeculativeFetchEnabled(true);
+        setMultiAdResponse("fail_url", 2);
+
+        subject.loadNextAd(null);
+        verify(mockRequestQueue, never()).add(any(Request.class));
+
+        subject.loadNextAd(UNSPECIFIED);
+        verify(mockRequestQueue).add(any(MultiAdRequest.class));
+        assertThat(AdLoader.getSpeculativeFetchMetrics().getStartedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void loadNextAd_withLastAdOfPage_withSpeculativeFetchEnabled_whenNotAdmitted_shouldNotRequestNextPage() throws Exception {
+        AdLoader.setSpeculativeFetchEnabled(true);
+        setMultiAdResponse("fail_url", 1);
+        Networking.getAdmissionController().onServerBackoff(adUnitId, 60000);
+
+        subject.loadNextAd(null);
+
+        verify(mockRequestQueue, never()).add(any(Request.class));
+        assertThat(AdLoader.getSpeculativeFetchMetrics().getStartedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void loadNextAd_afterLastAdFailed_withSpeculativeFetchInFlight_shouldUseItsResponse() throws Exception {
+        AdLoader.setSpeculativeFetchEnabled(true);
+        setMultiAdResponse("fail_url", 1);
+        subject.loadNextAd(null);
+        ArgumentCaptor<MultiAdRequest> requestCaptor = ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue).add(requestCaptor.capture());
+        MultiAdRequest speculativeRequest = requestCaptor.getValue();
+
+        Request<?> request = subject.loadNextAd(UNSPECIFIED);
+        // The queued request is the shared copy of the loader's request
+        assertThat(request.getUrl()).isEqualTo(speculativeRequest.getUrl());
+        assertThat(subject.isRunning()).isTrue();
+
+        speculativeRequest.deliverResponse(createMultiAdResponse(null, 1));
+
+        verify(mockListener, times(2)).onSuccess(any(AdResponse.class));
+        verify(mockRequestQueue).add(any(Request.class));
+        assertThat(subject.isRunning()).isFalse();
+        assertThat(AdLoader.getSpeculativeFetchMetrics().getUsedCount()).isEqualTo(1);
+        assertThat(AdLoader.getSpeculativeFetchMetrics().getHitRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void loadNextAd_afterLastAdFailed_withSpeculativeFetchFinished_shouldDeliverItsResponse() throws Exception {
+        AdLoader.setSpeculativeFetchEnabled(true);
+        setMultiAdResponse("fail_url", 1);
+        subject.loadNextAd(null);
+        ArgumentCaptor<MultiAdRequest> requestCaptor = ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue).add(requestCaptor.capture());
+        requestCaptor.getValue().deliverResponse(createMultiAdResponse(null, 1));
+        verify(mockListener, times(1)).onSuccess(any(AdResponse.class));
+
+        subject.loadNextAd(UNSPECIFIED);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        verify(mockListener, times(2)).onSuccess(any(AdResponse.class));
+        assertThat(subject.hasMoreAds()).isFalse();
+    }
+
+    @Test
+    public void loadNextAd_afterLastAdFailed_withSpeculativeFetchError_shouldDeliverError() throws Exception {
+        AdLoader.setSpeculativeFetchEnabled(true);
+        setMultiAdResponse("fail_url", 1);
+        subject.loadNextAd(null);
+        ArgumentCaptor<MultiAdRequest> requestCaptor = ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue).add(requestCaptor.capture());
+
+        subject.loadNextAd(UNSPECIFIED);
+        requestCaptor.getValue().deliverError(new VolleyError("error"));
+
+        verify(mockListener).onErrorResponse(any(VolleyError.class));
+        assertThat(subject.isFailed()).isTrue();
+    }
+
+    @Test
+    public void creativeDownloadSuccess_withSpeculativeFetch_shouldCancelIt() throws Exception {
+        AdLoader.setSpeculativeFetchEnabled(true);
+        setMultiAdResponse("fail_url", 1);
+        subject.loadNextAd(null);
+        ArgumentCaptor<MultiAdRequest> requestCaptor = ArgumentCaptor.forClass(MultiAdRequest.class);
+        verify(mockRequestQueue).add(requestCaptor.capture());
+
+        subject.creativeDownloadSuccess();
+
+        assertThat(requestCaptor.getValue().isCanceled()).isTrue();
+        assertThat(AdLoader.getSpeculativeFetchMetrics().getDiscardedCount()).isEqualTo(1);
+        assertThat(AdLoader.getSpeculativeFetchMetrics().getWasteRate()).isEqualTo(1.0);
+    }
+
     // -----------  utils  -----------
+    private void setMultiAdResponse(final String failUrl, final int adCount) throws Exception {
+        getPrivateField("mMultiAdResponse").set(subject, createMultiAdResponse(failUrl, adCount));
+    }
+
+    private MultiAdResponse createMultiAdResponse(final String failUrl, final int adCount) throws Exception {
+        JSONObject[] adResponses = new JSONObject[adCount];
+        for (int i = 0; i < adCount; i++) {
+            adResponses[i] = createAdResponseJson("trackingUrl" + i, "content_" + i);
+        }
+        byte[] body = createResponseBody(failUrl, adResponses);
+        return new MultiAdResponse(activity, new NetworkResponse(200, body, headers, false),
+                AdFormat.BANNER, adUnitId);
+    }
+
+
     private static Field getPrivateField(final String name) throws NoSuchFieldException {
         Field declaredField = AdLoader.class.getDeclaredField(name);
         declaredField.setAccessible(true);
@@ -0,0 +1,156 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class AdmissionControllerTest {
+    private static final String AD_UNIT_1 = "ad_unit_1";
+    private static final String AD_UNIT_2 = "ad_unit_2";
+
+    private AdmissionController subject;
+
+    @Before
+    public void setUp() {
+        subject = new AdmissionController(100);
+    }
+
+    @Test
+    public void tryAdmit_withinBucketCapacity_shouldAdmit() {
+        for (int i = 0; i < AdmissionController.BUCKET_CAPACITY; i++) {
+            assertThat(subject.tryAdmit(AD_UNIT_1)).isNotNull();
+        }
+        assertThat(subject.getInFlightCount()).isEqualTo(AdmissionController.BUCKET_CAPACITY);
+    }
+
+    @Test
+    public void tryAdmit_whenBucketIsEmpty_shouldNotAdmit_shouldNotCountInFlight() {
+        for (int i = 0; i < AdmissionController.BUCKET_CAPACITY; i++) {
+            subject.tryAdmit(AD_UNIT_1);
+        }
+
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNull();
+        assertThat(subject.getInFlightCount()).isEqualTo(AdmissionController.BUCKET_CAPACITY);
+    }
+
+    @Test
+    public void tryAdmit_whenBucketIsEmpty_shouldNotAffectOtherAdUnits() {
+        for (int i = 0; i < AdmissionController.BUCKET_CAPACITY; i++) {
+            subject.tryAdmit(AD_UNIT_1);
+        }
+
+        assertThat(subject.tryAdmit(AD_UNIT_2)).isNotNull();
+    }
+
+    @Test
+    public void tryAdmit_afterTokenInterval_shouldAdmitAgain() {
+        for (int i = 0; i < AdmissionController.BUCKET_CAPACITY; i++) {
+            subject.tryAdmit(AD_UNIT_1);
+        }
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNull();
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                AdmissionController.TOKEN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNotNull();
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNull();
+    }
+
+    @Test
+    public void tryAdmit_withMaxInFlight_shouldNotAdmitUntilReleased() {
+        subject = new AdmissionController(2);
+
+        final AdmissionController.Permit permit = subject.tryAdmit(AD_UNIT_1);
+        assertThat(subject.tryAdmit(AD_UNIT_2)).isNotNull();
+        assertThat(subject.tryAdmit(null)).isNull();
+
+        permit.release();
+
+        assertThat(subject.tryAdmit(null)).isNotNull();
+    }
+
+    @Test
+    public void release_calledTwice_shouldOnlyReleaseOnce() {
+        final AdmissionController.Permit permit = subject.tryAdmit(AD_UNIT_1);
+        subject.tryAdmit(AD_UNIT_2);
+
+        permit.release();
+        permit.release();
+
+        assertThat(subject.getInFlightCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onServerBackoff_shouldNotAdmitUntilBackoffHasPassed() {
+        subject.onServerBackoff(AD_UNIT_1, 5000);
+
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNull();
+        Robolectric.getForegroundThreadScheduler().advanceBy(4999, TimeUnit.MILLISECONDS);
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNull();
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.MILLISECONDS);
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNotNull();
+        // Tokens come back one interval at a time after a backoff
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNull();
+    }
+
+    @Test
+    public void onServerBackoff_withShorterBackoff_shouldKeepLongerBackoff() {
+        subject.onServerBackoff(AD_UNIT_1, 5000);
+        subject.onServerBackoff(AD_UNIT_1, 100);
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(100, TimeUnit.MILLISECONDS);
+
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNull();
+    }
+
+    @Test
+    public void onServerBackoff_withZeroBackoff_shouldDoNothing() {
+        subject.onServerBackoff(AD_UNIT_1, 0);
+
+        assertThat(subject.tryAdmit(AD_UNIT_1)).isNotNull();
+    }
+
+    @Test
+    public void getBackoffMs_withNoFailures_shouldReturnBaseDelay() {
+        assertThat(AdmissionController.getBackoffMs(1000, 2, 0, 60000)).isEqualTo(1000);
+    }
+
+    @Test
+    public void getBackoffMs_withFailures_shouldGrowExponentially_shouldAddJitter() {
+        for (int i = 0; i < 100; i++) {
+            final long backoffMs = AdmissionController.getBackoffMs(1000, 2, 3, 60000);
+
+            assertThat(backoffMs).isGreaterThanOrEqualTo(8000);
+            assertThat(backoffMs).isLessThanOrEqualTo(
+                    (long) (8000 * (1 + AdmissionController.JITTER_FRACTION)));
+        }
+    }
+
+    @Test
+    public void getBackoffMs_shouldNotExceedMaximum() {
+        for (int i = 0; i < 100; i++) {
+            final long backoffMs = AdmissionController.getBackoffMs(1000, 2, 20, 60000);
+
+            assertThat(backoffMs).isLessThanOrEqualTo(60000);
+            assertThat(backoffMs).isGreaterThanOrEqualTo(
+                    (long) (60000 * (1 - AdmissionController.JITTER_FRACTION)));
+        }
+    }
+
+    @Test
+    public void addJitter_withZeroDelay_shouldReturnZero() {
+        assertThat(AdmissionController.addJitter(0, 1000)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.app.Activity;
+
+import com.mopub.common.DiskCacheBudget;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.Cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.io.File;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class BudgetedDiskBasedCacheTest {
+    private static final long MAX_SIZE = 10000;
+    private static final int DATA_SIZE = 1000;
+
+    private File cacheDirectory;
+    private BudgetedDiskBasedCache subject;
+
+    @Before
+    public void setUp() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        cacheDirectory = new File(activity.getCacheDir(), "budgeted-volley-cache");
+        subject = createCache();
+    }
+
+    @After
+    public void tearDown() {
+        subject.clear();
+    }
+
+    @Test
+    public void readKey_shouldReturnKeyOfVolleyCacheFile() {
+        subject.put("key", createEntry());
+
+        assertThat(BudgetedDiskBasedCache.readKey(subject.getFileForKey("key"))).isEqualTo("key");
+    }
+
+    @Test
+    public void setMaxSize_afterRestart_shouldEvictFilesWrittenBeforeThroughVolley() {
+        subject.put("a", createEntry());
+        subject.put("b", createEntry());
+        final BudgetedDiskBasedCache restartedCache = createCache();
+
+        restartedCache.setMaxSize(0);
+
+        assertThat(restartedCache.size()).isEqualTo(0);
+        assertThat(cacheDirectory.list()).isEmpty();
+        assertThat(restartedCache.get("a")).isNull();
+        assertThat(restartedCache.get("b")).isNull();
+    }
+
+    @Test
+    public void put_pastVolleyLimit_shouldEvictBeforeVolleyPrunes_shouldMatchFilesOnDisk() {
+        for (int i = 0; i < 30; i++) {
+            subject.put("key" + i, createEntry());
+        }
+
+        assertThat(subject.size()).isLessThanOrEqualTo(MAX_SIZE);
+        assertThat(subject.size()).isEqualTo(sizeOnDisk());
+        assertThat(subject.get("key29")).isNotNull();
+        assertThat(subject.get("key0")).isNull();
+    }
+
+    private BudgetedDiskBasedCache createCache() {
+        final BudgetedDiskBasedCache cache = new BudgetedDiskBasedCache(cacheDirectory, MAX_SIZE,
+                DiskCacheBudget.getInstance());
+        cache.initialize();
+        return cache;
+    }
+
+    private long sizeOnDisk() {
+        long size = 0;
+        for (final File file : cacheDirectory.listFiles()) {
+            size += file.length();
+        }
+        return size;
+    }
+
+    private static Cache.Entry createEntry() {
+        final Cache.Entry entry = new Cache.Entry();
+        entry.data = new byte[DATA_SIZE];
+        return entry;
+    }
+}
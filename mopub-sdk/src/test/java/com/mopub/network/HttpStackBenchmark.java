@@ -0,0 +1,119 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.LocalHttpServer;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.NetworkResponse;
+import com.mopub.volley.Request;
+import com.mopub.volley.toolbox.BaseHttpStack;
+import com.mopub.volley.toolbox.BasicNetwork;
+import com.mopub.volley.toolbox.HurlStack;
+import com.mopub.volley.toolbox.StringRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Measures requests per second and p99 latency of Volley's HurlStack, which the request queues
+ * used before, and {@link RequestQueueHttpStack} against a server on the loopback interface. The
+ * response is an ad server sized json body, so the difference is mostly compression.
+ */
+@RunWith(SdkTestRunner.class)
+public class HttpStackBenchmark {
+    private static final int CLIENT_THREADS = 4;
+    private static final int WARMUP_REQUESTS_PER_THREAD = 50;
+    private static final int REQUESTS_PER_THREAD = 500;
+    private static final int BODY_BYTES = 32 * 1024;
+
+    private LocalHttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        Benchmark.assumeEnabled();
+
+        final StringBuilder body = new StringBuilder("{\"ad-responses\":[");
+        while (body.length() < BODY_BYTES) {
+            body.append("{\"metadata\":{\"x-adtype\":\"html\",\"x-height\":50,\"x-width\":320},")
+                    .append("\"content\":\"<div class=\\\"banner\\\">ad</div>\"},");
+        }
+        body.append("{}]}");
+        server = new LocalHttpServer(body.toString().getBytes("UTF-8"), CLIENT_THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void executeRequest_hurlStackVersusRequestQueueHttpStack() throws Exception {
+        run("HurlStack", new HurlStack());
+        run("RequestQueueHttpStack", new RequestQueueHttpStack("benchmark"));
+    }
+
+    private void run(final String name, final BaseHttpStack httpStack) throws Exception {
+        final BasicNetwork network = new BasicNetwork(httpStack);
+        final String url = server.getUrl("/m/ad");
+
+        runRequests(network, url, WARMUP_REQUESTS_PER_THREAD);
+
+        final long startNanos = System.nanoTime();
+        final long[] latencies = runRequests(network, url, REQUESTS_PER_THREAD);
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        Arrays.sort(latencies);
+        final long p99Nanos = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+        final double requestsPerSecond = latencies.length / (elapsedNanos / 1e9);
+        System.out.println(String.format(Locale.US, "%-40s %12.1f req/s %12.3f ms p99", name,
+                requestsPerSecond, p99Nanos / 1e6));
+    }
+
+    private static long[] runRequests(final BasicNetwork network, final String url,
+            final int requestsPerThread) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        try {
+            final Future<?>[] futures = new Future<?>[CLIENT_THREADS];
+            final long[] latencies = new long[CLIENT_THREADS * requestsPerThread];
+            for (int thread = 0; thread < CLIENT_THREADS; thread++) {
+                final int offset = thread * requestsPerThread;
+                futures[thread] = executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < requestsPerThread; i++) {
+                            final Request<String> request = new StringRequest(
+                                    Request.Method.GET, url, null, null);
+                            final long startNanos = System.nanoTime();
+                            final NetworkResponse response = network.performRequest(request);
+                            latencies[offset + i] = System.nanoTime() - startNanos;
+                            assertThat(response.data.length).isGreaterThan(BODY_BYTES);
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            return latencies;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
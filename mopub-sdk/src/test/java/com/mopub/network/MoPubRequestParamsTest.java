@@ -0,0 +1,112 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class MoPubRequestParamsTest {
+
+    private static final String URL = "https://ads.mopub.com/m/ad?id=adunit";
+
+    private MoPubRequestParams.Builder subject;
+
+    @Before
+    public void setUp() {
+        subject = new MoPubRequestParams.Builder();
+    }
+
+    @Test
+    public void build_shouldKeepUrlAndInsertionOrder() {
+        final MoPubRequestParams params = subject
+                .put("id", "adunit")
+                .put("q", "key:value,other key")
+                .put("mr", true)
+                .build(URL);
+
+        assertThat(params.getUrl()).isEqualTo(URL);
+        final Map<String, String> map = params.getParams();
+        assertThat(map.keySet()).containsExactly("id", "q", "mr");
+        assertThat(map.get("q")).isEqualTo("key:value,other key");
+        assertThat(map.get("mr")).isEqualTo("1");
+    }
+
+    @Test
+    public void put_withEmptyOrNullValues_shouldSkipThem() {
+        final MoPubRequestParams params = subject
+                .put("a", "")
+                .put("b", (String) null)
+                .put("c", (Boolean) null)
+                .build(URL);
+
+        assertThat(params.getParams()).isEmpty();
+    }
+
+    @Test
+    public void put_withRepeatedKey_shouldJoinValuesWithComma() {
+        final MoPubRequestParams params = subject
+                .put("assets", "title")
+                .put("assets", "text")
+                .build(URL);
+
+        assertThat(params.getParams().get("assets")).isEqualTo("title,text");
+    }
+
+    @Test
+    public void build_thenPut_shouldNotChangeBuiltParams() {
+        final MoPubRequestParams params = subject.put("a", "1").build(URL);
+
+        subject.put("b", "2");
+
+        assertThat(params.getParams()).hasSize(1);
+    }
+
+    @Test
+    public void toJsonBody_shouldContainUnencodedValues() throws Exception {
+        final String body = subject
+                .put("id", "adunit")
+                .put("q", "a b&c=d")
+                .build(URL)
+                .toJsonBody(null);
+
+        final JSONObject json = new JSONObject(body);
+        assertThat(json.length()).isEqualTo(2);
+        assertThat(json.getString("id")).isEqualTo("adunit");
+        assertThat(json.getString("q")).isEqualTo("a b&c=d");
+    }
+
+    @Test
+    public void toJsonBody_withRewriter_shouldResolveTemplates() throws Exception {
+        final PlayServicesUrlRewriter rewriter = mock(PlayServicesUrlRewriter.class);
+        when(rewriter.rewriteValue("adunit")).thenReturn("adunit");
+        when(rewriter.rewriteValue(PlayServicesUrlRewriter.UDID_TEMPLATE)).thenReturn("ifa:123");
+
+        final String body = subject
+                .put("id", "adunit")
+                .put("udid", PlayServicesUrlRewriter.UDID_TEMPLATE)
+                .build(URL)
+                .toJsonBody(rewriter);
+
+        final JSONObject json = new JSONObject(body);
+        assertThat(json.getString("id")).isEqualTo("adunit");
+        assertThat(json.getString("udid")).isEqualTo("ifa:123");
+    }
+
+    @Test
+    public void toJsonBody_withNoParams_shouldReturnNull() {
+        assertThat(subject.build(URL).toJsonBody(null)).isNull();
+    }
+}
@@ -12,6 +12,7 @@ import com.mopub.common.MoPub;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.common.util.ResponseHeader;
 import com.mopub.volley.NetworkResponse;
+import com.mopub.volley.Request;
 import com.mopub.volley.Response;
 
 import org.json.JSONArray;
@@ -130,6 +131,11 @@ public class MultiAdRequestTest {
         MoPub.resetBrowserAgent();
     }
 
+    @Test
+    public void getPriority_shouldBeImmediate() {
+        assertThat(subject.getPriority()).isEqualTo(Request.Priority.IMMEDIATE);
+    }
+
     @Test
     public void deliverResponse_shouldCallListenerOnSuccess() {
         subject.deliverResponse(mockAdResponse);
@@ -174,6 +180,19 @@ public class MultiAdRequestTest {
         assert(!subject.equals(that));
     }
 
+    @Test
+    public void equals_withPostRequestsDifferingInQueryParams_shouldReturnFalse() {
+        final MultiAdRequest first = new MultiAdRequest(
+                "https://ads.mopub.com/m/ad?id=" + adUnitId + "&MAGIC_NO=0", AdFormat.NATIVE,
+                adUnitId, activity, mockListener);
+        final MultiAdRequest second = new MultiAdRequest(
+                "https://ads.mopub.com/m/ad?id=" + adUnitId + "&MAGIC_NO=1", AdFormat.NATIVE,
+                adUnitId, activity, mockListener);
+
+        assertThat(first.getUrl()).isEqualTo(second.getUrl());
+        assertThat(first.equals(second)).isFalse();
+    }
+
     @Test
     public void getHeaders_withDefaultLocale_shouldReturnDefaultLanguageCode() {
         Map<String, String> expectedHeaders = new HashMap<>();
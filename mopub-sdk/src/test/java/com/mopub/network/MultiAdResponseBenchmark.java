@@ -0,0 +1,131 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.Benchmark;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.ResponseHeader;
+import com.mopub.volley.NetworkResponse;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * Compares the previous JSONObject based decoding of the multi ad response with the streaming
+ * {@link MultiAdResponseReader} on waterfall payloads shaped like the ones the ad server sends:
+ * an html banner, an mraid creative and a VAST interstitial with a large inline document.
+ */
+@RunWith(SdkTestRunner.class)
+public class MultiAdResponseBenchmark {
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int ITERATIONS = 200;
+
+    private NetworkResponse networkResponse;
+
+    @Before
+    public void setUp() throws Exception {
+        Benchmark.assumeEnabled();
+
+        final JSONArray adResponses = new JSONArray()
+                .put(createItem("html", "", createCreative("<div class=\"banner\">ad</div>", 20 * 1024)))
+                .put(createItem("mraid", "", createCreative("<script src=\"mraid.js\"></script>", 60 * 1024)))
+                .put(createItem("interstitial", "vast", createCreative("<Tracking event=\"start\"><![CDATA[https://ads.mopub.com/t?e=start]]></Tracking>", 300 * 1024)));
+        final JSONObject body = new JSONObject();
+        body.put(ResponseHeader.FAIL_URL.getKey(), "https://ads.mopub.com/m/ad?id=adunit&exclude=a&exclude=b");
+        body.put(ResponseHeader.REQUEST_ID.getKey(), "a2f0c0f1e4c34e8c9f4b2f8d4f8e2a01");
+        body.put(ResponseHeader.AD_RESPONSES.getKey(), adResponses);
+
+        networkResponse = new NetworkResponse(body.toString().getBytes("UTF-8"));
+    }
+
+    @Test
+    public void decode_jsonObjectVersusStreaming() throws Exception {
+        // Both paths have to agree before their cost is compared
+        final MultiAdResponseReader reader = MultiAdResponseReader.read(networkResponse);
+        final JSONObject jsonObject = new JSONObject(new String(networkResponse.data, "ISO-8859-1"));
+        final JSONArray items = jsonObject.getJSONArray(ResponseHeader.AD_RESPONSES.getKey());
+        final List<MultiAdResponseReader.Item> streamedItems = reader.getItems();
+        assertThat(streamedItems).hasSize(items.length());
+        for (int i = 0; i < items.length(); i++) {
+            assertThat(streamedItems.get(i).mContent)
+                    .isEqualTo(items.getJSONObject(i).getString(ResponseHeader.CONTENT.getKey()));
+        }
+
+        Benchmark.run("JSONObject + toString per item",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() throws Exception {
+                        decodeWithJsonObject(networkResponse);
+                    }
+                });
+        Benchmark.run("MultiAdResponseReader",
+                WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public void run() throws Exception {
+                        decodeWithReader(networkResponse);
+                    }
+                });
+    }
+
+    /**
+     * The decoding work MultiAdResponse used to do: a String for the whole body, a json tree for
+     * it, and a json string for each item to log it.
+     */
+    private static int decodeWithJsonObject(final NetworkResponse response) throws Exception {
+        final String responseBody = new String(response.data, "ISO-8859-1");
+        final JSONObject jsonObject = new JSONObject(responseBody);
+        final JSONArray adResponses = jsonObject.getJSONArray(ResponseHeader.AD_RESPONSES.getKey());
+        int length = 0;
+        for (int i = 0; i < adResponses.length(); i++) {
+            final JSONObject item = adResponses.getJSONObject(i);
+            length += item.toString().length();
+            length += item.optString(ResponseHeader.CONTENT.getKey()).length();
+            item.getJSONObject(ResponseHeader.METADATA.getKey());
+        }
+        return length;
+    }
+
+    private static int decodeWithReader(final NetworkResponse response) throws Exception {
+        int length = 0;
+        for (final MultiAdResponseReader.Item item : MultiAdResponseReader.read(response).getItems()) {
+            length += item.mContent.length();
+        }
+        return length;
+    }
+
+    private static JSONObject createItem(final String adType, final String fullAdType,
+            final String content) throws JSONException {
+        final JSONObject metadata = new JSONObject();
+        metadata.put(ResponseHeader.AD_TYPE.getKey(), adType);
+        metadata.put(ResponseHeader.FULL_AD_TYPE.getKey(), fullAdType);
+        metadata.put(ResponseHeader.CLICK_TRACKING_URL.getKey(), "https://ads.mopub.com/m/aclk?id=1");
+        metadata.put(ResponseHeader.IMPRESSION_URLS.getKey(),
+                new JSONArray().put("https://ads.mopub.com/m/imp?id=1").put("https://dsp.example.com/imp"));
+        metadata.put(ResponseHeader.REFRESH_TIME.getKey(), 30);
+        metadata.put(ResponseHeader.WIDTH.getKey(), 320);
+        metadata.put(ResponseHeader.HEIGHT.getKey(), 50);
+
+        final JSONObject item = new JSONObject();
+        item.put(ResponseHeader.CONTENT.getKey(), content);
+        item.put(ResponseHeader.METADATA.getKey(), metadata);
+        return item;
+    }
+
+    private static String createCreative(final String fragment, final int size) {
+        final StringBuilder builder = new StringBuilder(size + fragment.length());
+        while (builder.length() < size) {
+            builder.append(fragment).append('\n');
+        }
+        return builder.toString();
+    }
+}
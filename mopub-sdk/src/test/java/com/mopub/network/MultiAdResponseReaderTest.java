@@ -0,0 +1,95 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.ResponseHeader;
+import com.mopub.volley.NetworkResponse;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class MultiAdResponseReaderTest {
+
+    @Test
+    public void read_shouldSplitHeadersAndItems() throws Exception {
+        final JSONObject metadata = new JSONObject();
+        metadata.put(ResponseHeader.AD_TYPE.getKey(), "html");
+        metadata.put(ResponseHeader.REFRESH_TIME.getKey(), 15);
+        metadata.put(ResponseHeader.IMPRESSION_URLS.getKey(), new JSONArray().put("imp1").put("imp2"));
+        final JSONObject item = new JSONObject();
+        item.put(ResponseHeader.CONTENT.getKey(), "<html>\"quoted\" é</html>");
+        item.put(ResponseHeader.METADATA.getKey(), metadata);
+        final JSONObject body = new JSONObject();
+        body.put(ResponseHeader.AD_RESPONSES.getKey(), new JSONArray().put(item));
+        body.put(ResponseHeader.FAIL_URL.getKey(), "fail_url");
+        body.put(ResponseHeader.BACKOFF_MS.getKey(), 1.5);
+
+        final MultiAdResponseReader subject = MultiAdResponseReader.read(
+                new NetworkResponse(body.toString().getBytes("UTF-8"),
+                        Collections.singletonMap("Content-Type", "application/json; charset=UTF-8")));
+
+        final JSONObject headers = subject.getHeaders();
+        assertThat(headers.length()).isEqualTo(2);
+        assertThat(headers.getString(ResponseHeader.FAIL_URL.getKey())).isEqualTo("fail_url");
+        assertThat(headers.get(ResponseHeader.BACKOFF_MS.getKey())).isEqualTo(1.5);
+
+        final List<MultiAdResponseReader.Item> items = subject.getItems();
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).mContent).isEqualTo("<html>\"quoted\" é</html>");
+        final JSONObject readMetadata = (JSONObject) items.get(0).mMetadata;
+        assertThat(readMetadata.toString()).isEqualTo(metadata.toString());
+        assertThat(readMetadata.get(ResponseHeader.REFRESH_TIME.getKey())).isEqualTo(15);
+    }
+
+    @Test
+    public void read_withNonObjectItem_shouldAddNullItem() throws Exception {
+        final NetworkResponse response = new NetworkResponse(
+                "{\"ad-responses\":[\"abc\",{\"content\":\"x\"}]}".getBytes());
+
+        final List<MultiAdResponseReader.Item> items = MultiAdResponseReader.read(response).getItems();
+
+        assertThat(items).hasSize(2);
+        assertThat(items.get(0)).isNull();
+        assertThat(items.get(1).mContent).isEqualTo("x");
+        assertThat(items.get(1).mMetadata).isNull();
+    }
+
+    @Test(expected = JSONException.class)
+    public void read_withoutAdResponses_shouldThrowJSONException() throws Exception {
+        MultiAdResponseReader.read(new NetworkResponse("{\"x-next-url\":\"url\"}".getBytes()));
+    }
+
+    @Test(expected = JSONException.class)
+    public void read_withMalformedBody_shouldThrowJSONException() throws Exception {
+        MultiAdResponseReader.read(new NetworkResponse("{\"ad-responses\":[".getBytes()));
+    }
+
+    @Test(expected = JSONException.class)
+    public void read_withEmptyBody_shouldThrowJSONException() throws Exception {
+        MultiAdResponseReader.read(new NetworkResponse(new byte[0]));
+    }
+
+    @Test
+    public void itemToString_shouldProduceJson() throws Exception {
+        final JSONObject metadata = new JSONObject().put("x-adtype", "html");
+        final MultiAdResponseReader.Item item = new MultiAdResponseReader.Item("content", metadata);
+
+        final JSONObject json = new JSONObject(item.toString());
+
+        assertThat(json.getString(ResponseHeader.CONTENT.getKey())).isEqualTo("content");
+        assertThat(json.getJSONObject(ResponseHeader.METADATA.getKey()).getString("x-adtype"))
+                .isEqualTo("html");
+    }
+}
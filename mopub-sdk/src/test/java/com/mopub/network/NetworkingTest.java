@@ -9,6 +9,7 @@ import android.app.Activity;
 import android.os.Build;
 
 import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.toolbox.BaseHttpStack;
 
 import org.junit.After;
 import org.junit.Before;
@@ -20,7 +21,14 @@ import org.robolectric.annotation.Config;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @RunWith(SdkTestRunner.class)
 public class NetworkingTest {
@@ -36,6 +44,50 @@ public class NetworkingTest {
         Networking.clearForTesting();
     }
 
+    @Test
+    public void getHttpStack_shouldReturnSharedRequestQueueHttpStack() {
+        final BaseHttpStack httpStack = Networking.getHttpStack(context);
+
+        assertThat(httpStack).isInstanceOf(RequestQueueHttpStack.class);
+        assertThat(Networking.getHttpStack(context)).isSameAs(httpStack);
+    }
+
+    @Test
+    public void getHttpStack_afterSetHttpStack_shouldReturnGivenStack() {
+        final BaseHttpStack httpStack = mock(BaseHttpStack.class);
+
+        Networking.setHttpStack(httpStack);
+
+        assertThat(Networking.getHttpStack(context)).isSameAs(httpStack);
+    }
+
+    @Test
+    public void getSslSocketFactory_shouldReturnSameFactory() {
+        final SSLSocketFactory socketFactory = Networking.getSslSocketFactory(context);
+
+        assertThat(socketFactory).isInstanceOf(CustomSSLSocketFactory.class);
+        assertThat(Networking.getSslSocketFactory(context)).isSameAs(socketFactory);
+    }
+
+    @Test
+    public void useSharedSslSocketFactory_withHttpsConnection_shouldSetSharedFactory() {
+        final SSLSocketFactory socketFactory = Networking.getSslSocketFactory(context);
+        final HttpsURLConnection connection = mock(HttpsURLConnection.class);
+
+        Networking.useSharedSslSocketFactory(connection);
+
+        verify(connection).setSSLSocketFactory(socketFactory);
+    }
+
+    @Test
+    public void useSharedSslSocketFactory_beforeFactoryIsCreated_shouldDoNothing() {
+        final HttpsURLConnection connection = mock(HttpsURLConnection.class);
+
+        Networking.useSharedSslSocketFactory(connection);
+
+        verify(connection, never()).setSSLSocketFactory(any(SSLSocketFactory.class));
+    }
+
     @Test
     public void getUserAgent_usesCachedUserAgent() {
         Networking.setUserAgentForTesting("some cached user agent");
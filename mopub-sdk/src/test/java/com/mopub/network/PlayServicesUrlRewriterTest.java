@@ -79,4 +79,23 @@ public class PlayServicesUrlRewriterTest {
     public void rewriteUrl_noTemplates_shouldReturnIdentical() throws Exception {
         assertThat(subject.rewriteUrl("https://ads.mopub.com/m/ad")).isEqualTo("https://ads.mopub.com/m/ad");
     }
+
+    @Test
+    public void rewriteValue_withTemplates_shouldUseUnencodedAdvertisingIdValues() {
+        when(mockPersonalInfoManager.canCollectPersonalInformation()).thenReturn(true);
+
+        AdvertisingId adId = ClientMetadata.getInstance().getMoPubIdentifier().getAdvertisingInfo();
+
+        assertThat(subject.rewriteValue(PlayServicesUrlRewriter.UDID_TEMPLATE))
+                .isEqualTo(adId.getIdWithPrefix(true));
+        assertThat(subject.rewriteValue(PlayServicesUrlRewriter.DO_NOT_TRACK_TEMPLATE))
+                .isEqualTo("0");
+        assertThat(subject.rewriteValue(PlayServicesUrlRewriter.MOPUB_ID_TEMPLATE))
+                .isEqualTo(adId.getIdentifier(false));
+    }
+
+    @Test
+    public void rewriteValue_noTemplate_shouldReturnIdentical() {
+        assertThat(subject.rewriteValue("value with spaces")).isEqualTo("value with spaces");
+    }
 }
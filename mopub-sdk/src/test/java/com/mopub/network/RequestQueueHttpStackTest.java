@@ -0,0 +1,225 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.Constants;
+import com.mopub.common.test.support.LocalHttpServer;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.Streams;
+import com.mopub.volley.AuthFailureError;
+import com.mopub.volley.Header;
+import com.mopub.volley.NetworkResponse;
+import com.mopub.volley.Request;
+import com.mopub.volley.Response;
+import com.mopub.volley.toolbox.HttpResponse;
+import com.mopub.volley.toolbox.HurlStack;
+import com.mopub.volley.toolbox.StringRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(SdkTestRunner.class)
+public class RequestQueueHttpStackTest {
+    private static final String USER_AGENT = "test-user-agent";
+    private static final String BODY = "{\"ad-responses\":[]}";
+
+    @Mock private Response.Listener<String> mockListener;
+    @Mock private Response.ErrorListener mockErrorListener;
+
+    private LocalHttpServer server;
+    private RequestQueueHttpStack subject;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new LocalHttpServer(BODY.getBytes("UTF-8"), 1);
+        subject = new RequestQueueHttpStack(USER_AGENT);
+    }
+
+    @After
+    public void tearDown() {
+        server.shutdown();
+    }
+
+    @Test
+    public void executeRequest_shouldSendUserAgent_shouldAcceptCompressedResponses() throws Exception {
+        final HttpResponse response = subject.executeRequest(
+                new StringRequest(Request.Method.GET, server.getUrl("/get"), mockListener,
+                        mockErrorListener), null);
+        readContent(response);
+
+        assertThat(server.getLastRequestMethod()).isEqualTo("GET");
+        assertThat(server.getLastRequestHeaders().getFirst("User-Agent")).isEqualTo(USER_AGENT);
+        assertThat(server.getLastRequestHeaders().getFirst("Accept-Encoding"))
+                .isEqualTo("gzip, deflate");
+    }
+
+    @Test
+    public void executeRequest_withGzippedResponse_shouldReturnDecompressedBody_shouldRemoveEncodingHeaders() throws Exception {
+        final HttpResponse response = subject.executeRequest(
+                new StringRequest(Request.Method.GET, server.getUrl("/get"), mockListener,
+                        mockErrorListener), null);
+
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getContentLength()).isEqualTo(-1);
+        assertThat(new String(readContent(response), "UTF-8")).isEqualTo(BODY);
+        for (final Header header : response.getHeaders()) {
+            assertThat(header.getName().equalsIgnoreCase("Content-Encoding")).isFalse();
+            assertThat(header.getName().equalsIgnoreCase("Content-Length")).isFalse();
+        }
+    }
+
+    @Test
+    public void executeRequest_withPost_shouldSendBody() throws Exception {
+        final HttpResponse response = subject.executeRequest(
+                new BodyRequest(server.getUrl("/post"), "body".getBytes("UTF-8")), null);
+        readContent(response);
+
+        assertThat(server.getLastRequestMethod()).isEqualTo("POST");
+        assertThat(server.getLastRequestBody()).isEqualTo("body".getBytes("UTF-8"));
+        assertThat(server.getLastRequestHeaders().getFirst("Content-Encoding")).isNull();
+    }
+
+    @Test
+    public void executeRequest_shouldAddAdditionalHeaders() throws Exception {
+        final Map<String, String> additionalHeaders = new HashMap<String, String>();
+        additionalHeaders.put("X-Test", "value");
+
+        final HttpResponse response = subject.executeRequest(
+                new StringRequest(Request.Method.GET, server.getUrl("/get"), mockListener,
+                        mockErrorListener), additionalHeaders);
+        readContent(response);
+
+        assertThat(server.getLastRequestHeaders().getFirst("X-Test")).isEqualTo("value");
+    }
+
+    @Test
+    public void executeRequest_whenUrlRewriterBlocksUrl_shouldThrowIOException() throws Exception {
+        subject = new RequestQueueHttpStack(USER_AGENT, new HurlStack.UrlRewriter() {
+            @Override
+            public String rewriteUrl(final String originalUrl) {
+                return null;
+            }
+        });
+
+        try {
+            subject.executeRequest(new StringRequest(Request.Method.GET, server.getUrl("/get"),
+                    mockListener, mockErrorListener), null);
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertThat(server.getLastRequestMethod()).isNull();
+        }
+    }
+
+    @Test
+    public void shouldCompressBody_withLargeAdServerBody_shouldOnlyBeTrueWhenEnabled() {
+        final String url = Constants.HTTPS + "://" + Constants.HOST + "/m/ad";
+        final byte[] body = new byte[RequestQueueHttpStack.MIN_COMPRESSED_BODY_BYTES];
+
+        assertThat(subject.shouldCompressBody(url, body)).isFalse();
+
+        subject.setCompressRequestBodies(true);
+
+        assertThat(subject.shouldCompressBody(url, body)).isTrue();
+    }
+
+    @Test
+    public void shouldCompressBody_withSmallBody_shouldReturnFalse() {
+        subject.setCompressRequestBodies(true);
+        final String url = Constants.HTTPS + "://" + Constants.HOST + "/m/ad";
+
+        assertThat(subject.shouldCompressBody(url,
+                new byte[RequestQueueHttpStack.MIN_COMPRESSED_BODY_BYTES - 1])).isFalse();
+    }
+
+    @Test
+    public void shouldCompressBody_withOtherHost_shouldReturnFalse() {
+        subject.setCompressRequestBodies(true);
+
+        assertThat(subject.shouldCompressBody("https://www.example.com/post",
+                new byte[RequestQueueHttpStack.MIN_COMPRESSED_BODY_BYTES])).isFalse();
+    }
+
+    @Test
+    public void gzip_thenDecode_shouldReturnOriginalBytes() throws Exception {
+        final byte[] body = BODY.getBytes("UTF-8");
+
+        final byte[] decoded = readFully(new ByteArrayInputStream(
+                RequestQueueHttpStack.gzip(body)), "gzip");
+
+        assertThat(decoded).isEqualTo(body);
+    }
+
+    @Test
+    public void removeEncodingHeaders_shouldOnlyRemoveContentEncodingAndLength() {
+        final List<Header> headers = Arrays.asList(
+                new Header("Set-Cookie", "a=1"),
+                new Header("Set-Cookie", "b=2"),
+                new Header("content-encoding", "gzip"),
+                new Header("Content-Length", "10"));
+
+        final List<Header> result = RequestQueueHttpStack.removeEncodingHeaders(headers);
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getValue()).isEqualTo("a=1");
+        assertThat(result.get(1).getValue()).isEqualTo("b=2");
+    }
+
+    private static byte[] readContent(final HttpResponse response) throws IOException {
+        try {
+            return readFully(response.getContent(), null);
+        } finally {
+            Streams.closeStream(response.getContent());
+        }
+    }
+
+    private static byte[] readFully(final InputStream inputStream,
+            final String contentEncoding) throws IOException {
+        final InputStream decoded = contentEncoding == null
+                ? inputStream
+                : RequestQueueHttpStack.decode(inputStream, contentEncoding);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Streams.copyContent(decoded, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static class BodyRequest extends Request<String> {
+        private final byte[] mBody;
+
+        BodyRequest(final String url, final byte[] body) {
+            super(Method.POST, url, null);
+            mBody = body;
+        }
+
+        @Override
+        public byte[] getBody() throws AuthFailureError {
+            return mBody;
+        }
+
+        @Override
+        protected Response<String> parseNetworkResponse(
+                final NetworkResponse response) {
+            return null;
+        }
+
+        @Override
+        protected void deliverResponse(final String response) {
+        }
+    }
+}
@@ -0,0 +1,174 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.Request;
+import com.mopub.volley.RequestQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class RequestSchedulerTest {
+
+    private RequestScheduler subject;
+
+    @Before
+    public void setUp() {
+        subject = new RequestScheduler();
+    }
+
+    @Test
+    public void onAdded_withNoCaps_shouldAdmitEveryRequest() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(subject.onAdded(createRequest(Request.Priority.LOW))).isTrue();
+        }
+
+        assertThat(subject.getMetrics(Request.Priority.LOW).getInFlightCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void onAdded_withPriorityAtCap_shouldHoldRequest() {
+        subject.setMaxInFlight(Request.Priority.HIGH, 2);
+
+        assertThat(subject.onAdded(createRequest(Request.Priority.HIGH))).isTrue();
+        assertThat(subject.onAdded(createRequest(Request.Priority.HIGH))).isTrue();
+        assertThat(subject.onAdded(createRequest(Request.Priority.HIGH))).isFalse();
+        assertThat(subject.onAdded(createRequest(Request.Priority.NORMAL))).isTrue();
+
+        final RequestQueueMetrics metrics = subject.getMetrics(Request.Priority.HIGH);
+        assertThat(metrics.getInFlightCount()).isEqualTo(2);
+        assertThat(metrics.getWaitingCount()).isEqualTo(1);
+        assertThat(metrics.getQueueDepth()).isEqualTo(3);
+    }
+
+    @Test
+    public void onFinished_shouldReleaseWaitingRequestsInOrder() {
+        subject.setMaxInFlight(Request.Priority.HIGH, 1);
+        final Request<?> first = createRequest(Request.Priority.HIGH);
+        final Request<?> second = createRequest(Request.Priority.HIGH);
+        final Request<?> third = createRequest(Request.Priority.HIGH);
+        subject.onAdded(first);
+        subject.onAdded(second);
+        subject.onAdded(third);
+
+        final List<Request<?>> released = subject.onFinished(first);
+
+        assertThat(released).hasSize(1);
+        assertThat(released.get(0)).isSameAs(second);
+        assertThat(subject.onFinished(second).get(0)).isSameAs(third);
+        assertThat(subject.onFinished(third)).isEmpty();
+        assertThat(subject.getMetrics(Request.Priority.HIGH).getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void onFinished_withUnknownRequest_shouldReleaseNothing() {
+        subject.setMaxInFlight(Request.Priority.HIGH, 1);
+        subject.onAdded(createRequest(Request.Priority.HIGH));
+        subject.onAdded(createRequest(Request.Priority.HIGH));
+
+        assertThat(subject.onFinished(createRequest(Request.Priority.HIGH))).isEmpty();
+    }
+
+    @Test
+    public void onAdded_withBackgroundCap_shouldStillAdmitImmediateRequests() {
+        subject.setMaxBackgroundInFlight(3);
+        for (int i = 0; i < 30; i++) {
+            subject.onAdded(createRequest(Request.Priority.HIGH));
+        }
+
+        assertThat(subject.onAdded(createRequest(Request.Priority.IMMEDIATE))).isTrue();
+        assertThat(subject.getMetrics(Request.Priority.HIGH).getInFlightCount()).isEqualTo(3);
+        assertThat(subject.getMetrics(Request.Priority.HIGH).getWaitingCount()).isEqualTo(27);
+    }
+
+    @Test
+    public void onFinished_withBackgroundCap_shouldReleaseHigherPriorityFirst() {
+        subject.setMaxBackgroundInFlight(1);
+        final Request<?> inFlight = createRequest(Request.Priority.NORMAL);
+        final Request<?> low = createRequest(Request.Priority.LOW);
+        final Request<?> high = createRequest(Request.Priority.HIGH);
+        subject.onAdded(inFlight);
+        subject.onAdded(low);
+        subject.onAdded(high);
+
+        final List<Request<?>> released = subject.onFinished(inFlight);
+
+        assertThat(released).hasSize(1);
+        assertThat(released.get(0)).isSameAs(high);
+    }
+
+    @Test
+    public void onFinished_shouldSkipCanceledWaitingRequests() {
+        subject.setMaxInFlight(Request.Priority.NORMAL, 1);
+        final Request<?> inFlight = createRequest(Request.Priority.NORMAL);
+        final Request<?> canceled = createRequest(Request.Priority.NORMAL);
+        final Request<?> waiting = createRequest(Request.Priority.NORMAL);
+        when(canceled.isCanceled()).thenReturn(true);
+        subject.onAdded(inFlight);
+        subject.onAdded(canceled);
+        subject.onAdded(waiting);
+
+        final List<Request<?>> released = subject.onFinished(inFlight);
+
+        assertThat(released).hasSize(1);
+        assertThat(released.get(0)).isSameAs(waiting);
+    }
+
+    @Test
+    public void cancelWaiting_shouldCancelAndRemoveMatchingRequests() {
+        subject.setMaxInFlight(Request.Priority.LOW, 1);
+        final Request<?> inFlight = createRequest(Request.Priority.LOW);
+        final Request<?> waiting = createRequest(Request.Priority.LOW);
+        subject.onAdded(inFlight);
+        subject.onAdded(waiting);
+
+        subject.cancelWaiting(new RequestQueue.RequestFilter() {
+            @Override
+            public boolean apply(final Request<?> request) {
+                return true;
+            }
+        });
+
+        verify(waiting).cancel();
+        verify(inFlight, never()).cancel();
+        assertThat(subject.getMetrics(Request.Priority.LOW).getWaitingCount()).isEqualTo(0);
+        assertThat(subject.onFinished(inFlight)).isEmpty();
+    }
+
+    @Test
+    public void getMetrics_shouldTrackWaitTime() {
+        subject.setMaxInFlight(Request.Priority.HIGH, 1);
+        final Request<?> first = createRequest(Request.Priority.HIGH);
+        subject.onAdded(first);
+        subject.onAdded(createRequest(Request.Priority.HIGH));
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(500, TimeUnit.MILLISECONDS);
+        subject.onFinished(first);
+
+        final RequestQueueMetrics metrics = subject.getMetrics(Request.Priority.HIGH);
+        assertThat(metrics.getAdmittedCount()).isEqualTo(2);
+        assertThat(metrics.getMaxWaitMs()).isEqualTo(500);
+        assertThat(metrics.getAverageWaitMs()).isEqualTo(250);
+    }
+
+    private static Request<?> createRequest(final Request.Priority priority) {
+        final Request<?> request = mock(Request.class);
+        when(request.getPriority()).thenReturn(priority);
+        return request;
+    }
+}
@@ -0,0 +1,215 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.support.annotation.NonNull;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.Request;
+import com.mopub.volley.RequestQueue;
+import com.mopub.volley.Response;
+import com.mopub.volley.VolleyError;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SdkTestRunner.class)
+public class SingleFlightTest {
+    private static final String KEY = "https://ads.mopub.com/m/pos?id=adunit";
+
+    @Mock private RequestQueue mockRequestQueue;
+    @Mock private SingleFlight.Listener<String> mockListener1;
+    @Mock private SingleFlight.Listener<String> mockListener2;
+
+    private SingleFlight<String> subject;
+    private RecordingFactory factory;
+
+    @Before
+    public void setUp() {
+        subject = new SingleFlight<>();
+        factory = new RecordingFactory();
+    }
+
+    @Test
+    public void join_withIdenticalKeys_shouldAddOneRequest_shouldDeliverResponseToAll() {
+        subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        subject.join(mockRequestQueue, KEY, factory, mockListener2);
+
+        assertThat(factory.mCreatedCount).isEqualTo(1);
+        verify(mockRequestQueue).add(factory.mRequest);
+        assertThat(subject.getCallCount(KEY)).isEqualTo(2);
+
+        factory.mListener.onResponse("response");
+
+        verify(mockListener1).onResponse("response");
+        verify(mockListener2).onResponse("response");
+        assertThat(subject.getCallCount(KEY)).isEqualTo(0);
+    }
+
+    @Test
+    public void join_withIdenticalKeys_shouldDeliverErrorToAll() {
+        subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        subject.join(mockRequestQueue, KEY, factory, mockListener2);
+
+        final VolleyError error = new VolleyError("error");
+        factory.mErrorListener.onErrorResponse(error);
+
+        verify(mockListener1).onErrorResponse(error);
+        verify(mockListener2).onErrorResponse(error);
+    }
+
+    @Test
+    public void join_withDifferentKeys_shouldAddTwoRequests() {
+        subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        subject.join(mockRequestQueue, KEY + "&other", factory, mockListener2);
+
+        assertThat(factory.mCreatedCount).isEqualTo(2);
+        verify(mockRequestQueue, times(2)).add(any(Request.class));
+    }
+
+    @Test
+    public void join_withDifferentRequestQueues_shouldAddToEachQueue() {
+        final RequestQueue otherRequestQueue = mock(RequestQueue.class);
+
+        subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        subject.join(otherRequestQueue, KEY, factory, mockListener2);
+
+        verify(mockRequestQueue).add(any(Request.class));
+        verify(otherRequestQueue).add(any(Request.class));
+    }
+
+    @Test
+    public void join_afterFlightFinished_shouldAddNewRequest() {
+        subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        factory.mListener.onResponse("response");
+
+        subject.join(mockRequestQueue, KEY, factory, mockListener2);
+
+        assertThat(factory.mCreatedCount).isEqualTo(2);
+        verify(mockListener2, never()).onResponse(any(String.class));
+    }
+
+    @Test
+    public void cancel_withOtherCallWaiting_shouldNotCancelRequest_shouldOnlyDeliverToOther() {
+        final SingleFlight<String>.Call call1 =
+                subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        subject.join(mockRequestQueue, KEY, factory, mockListener2);
+
+        call1.cancel();
+        factory.mListener.onResponse("response");
+
+        assertThat(call1.isCanceled()).isTrue();
+        verify(factory.mRequest, never()).cancel();
+        verify(mockListener1, never()).onResponse(any(String.class));
+        verify(mockListener2).onResponse("response");
+    }
+
+    @Test
+    public void cancel_withAllCalls_shouldCancelRequest_shouldStartNewFlightOnNextJoin() {
+        final SingleFlight<String>.Call call1 =
+                subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        final SingleFlight<String>.Call call2 =
+                subject.join(mockRequestQueue, KEY, factory, mockListener2);
+        final Request<?> firstRequest = factory.mRequest;
+
+        call1.cancel();
+        call2.cancel();
+        call2.cancel();
+
+        verify(firstRequest).cancel();
+        assertThat(subject.getCallCount(KEY)).isEqualTo(0);
+
+        subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        assertThat(factory.mCreatedCount).isEqualTo(2);
+    }
+
+    @Test
+    public void cancel_afterResponse_shouldNotCancelRequest() {
+        final SingleFlight<String>.Call call =
+                subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        factory.mListener.onResponse("response");
+
+        call.cancel();
+
+        verify(factory.mRequest, never()).cancel();
+    }
+
+    @Test
+    public void getRequest_shouldReturnSharedRequest() {
+        final SingleFlight<String>.Call call1 =
+                subject.join(mockRequestQueue, KEY, factory, mockListener1);
+        final SingleFlight<String>.Call call2 =
+                subject.join(mockRequestQueue, KEY, factory, mockListener2);
+
+        assertThat(call1.getRequest()).isSameAs(factory.mRequest);
+        assertThat(call2.getRequest()).isSameAs(factory.mRequest);
+    }
+
+    @Test
+    public void join_fromOtherThreadWhileRequestIsCreated_shouldGetCreatedRequest() throws Exception {
+        final AtomicReference<SingleFlight<String>.Call> joinedCall =
+                new AtomicReference<SingleFlight<String>.Call>();
+        final Thread joiningThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                joinedCall.set(subject.join(mockRequestQueue, KEY, factory, mockListener2));
+            }
+        });
+        final SingleFlight.RequestFactory<String> slowFactory =
+                new SingleFlight.RequestFactory<String>() {
+                    @NonNull
+                    @Override
+                    public Request<?> createRequest(
+                            @NonNull final Response.Listener<String> listener,
+                            @NonNull final Response.ErrorListener errorListener) {
+                        // The other thread tries to join while the request is being created
+                        joiningThread.start();
+                        try {
+                            joiningThread.join(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return factory.createRequest(listener, errorListener);
+                    }
+                };
+
+        subject.join(mockRequestQueue, KEY, slowFactory, mockListener1);
+        joiningThread.join();
+
+        assertThat(factory.mCreatedCount).isEqualTo(1);
+        assertThat(joinedCall.get().getRequest()).isSameAs(factory.mRequest);
+        joinedCall.get().cancel();
+        verify(factory.mRequest, never()).cancel();
+    }
+
+    private static class RecordingFactory implements SingleFlight.RequestFactory<String> {
+        int mCreatedCount;
+        Request<?> mRequest;
+        Response.Listener<String> mListener;
+        Response.ErrorListener mErrorListener;
+
+        @NonNull
+        @Override
+        public Request<?> createRequest(@NonNull final Response.Listener<String> listener,
+                @NonNull final Response.ErrorListener errorListener) {
+            mCreatedCount++;
+            mRequest = mock(Request.class);
+            mListener = listener;
+            mErrorListener = errorListener;
+            return mRequest;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.app.Activity;
+import android.content.Context;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.NetworkResponse;
+import com.mopub.volley.NoConnectionError;
+import com.mopub.volley.Request;
+import com.mopub.volley.VolleyError;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.robolectric.Robolectric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class TrackingDispatcherTest {
+    private static final String URL = "https://ads.mopub.com/m/imp?id=1";
+
+    @Mock private MoPubRequestQueue mockRequestQueue;
+    @Mock private TrackingJournal mockJournal;
+    @Mock private TrackingRequest.Listener mockListener;
+    @Mock private TrackingRequest.Listener mockListener2;
+    private Context context;
+    private TrackingDispatcher subject;
+
+    @Before
+    public void setUp() {
+        context = Robolectric.buildActivity(Activity.class).create().get();
+        when(mockJournal.open(anyLong()))
+                .thenReturn(Collections.<TrackingJournal.Entry>emptyList());
+        subject = new TrackingDispatcher(context, mockRequestQueue, mockJournal,
+                new Executor() {
+                    @Override
+                    public void execute(final Runnable runnable) {
+                        runnable.run();
+                    }
+                });
+    }
+
+    @Test
+    public void dispatch_shouldAddRequestWithPriorityAndRecordIt() {
+        subject.dispatch(context, URL, Request.Priority.HIGH, mockListener);
+
+        final TrackingRequest request = captureAddedRequest();
+        assertThat(request.getUrl()).isEqualTo(URL);
+        assertThat(request.getPriority()).isEqualTo(Request.Priority.HIGH);
+        verify(mockJournal).add(any(TrackingJournal.Entry.class));
+    }
+
+    @Test
+    public void dispatch_withSameUrlPending_shouldSendOnceAndNotifyBothListeners() {
+        subject.dispatch(context, URL, Request.Priority.HIGH, mockListener);
+        subject.dispatch(context, URL, Request.Priority.HIGH, mockListener2);
+
+        final TrackingRequest request = captureAddedRequest();
+        request.deliverResponse(null);
+
+        verify(mockListener).onResponse(URL);
+        verify(mockListener2).onResponse(URL);
+        verify(mockJournal).remove(URL);
+    }
+
+    @Test
+    public void dispatch_withSameUrlAfterSuccess_shouldSendAgain() {
+        subject.dispatch(context, URL, Request.Priority.NORMAL, null);
+        captureAddedRequest().deliverResponse(null);
+
+        subject.dispatch(context, URL, Request.Priority.NORMAL, null);
+
+        final ArgumentCaptor<TrackingRequest> captor =
+                ArgumentCaptor.forClass(TrackingRequest.class);
+        verify(mockRequestQueue, times(2)).add(captor.capture());
+    }
+
+    @Test
+    public void dispatch_withoutDeduplicate_withSameUrlPending_shouldSendAgain() {
+        subject.dispatch(context, URL, Request.Priority.LOW, mockListener, false);
+        subject.dispatch(context, URL, Request.Priority.LOW, mockListener2, false);
+
+        final ArgumentCaptor<TrackingRequest> captor =
+                ArgumentCaptor.forClass(TrackingRequest.class);
+        verify(mockRequestQueue, times(2)).add(captor.capture());
+
+        captor.getAllValues().get(0).deliverResponse(null);
+        verify(mockListener).onResponse(URL);
+        verify(mockListener2, never()).onResponse(URL);
+
+        captor.getAllValues().get(1).deliverResponse(null);
+        verify(mockListener2).onResponse(URL);
+    }
+
+    @Test
+    public void onErrorResponse_withNoConnection_shouldRetryWithBackoffAndNotNotify() {
+        subject.dispatch(context, URL, Request.Priority.NORMAL, mockListener);
+
+        captureAddedRequest().deliverError(new NoConnectionError());
+
+        verify(mockRequestQueue).addDelayedRequest(any(TrackingRequest.class), eq(10 * 1000));
+        verify(mockListener, never()).onErrorResponse(any(VolleyError.class));
+        verify(mockJournal, never()).remove(URL);
+    }
+
+    @Test
+    public void onErrorResponse_withServerResponse_shouldNotRetryAndShouldNotify() {
+        subject.dispatch(context, URL, Request.Priority.NORMAL, mockListener);
+        final VolleyError error = new VolleyError(new NetworkResponse(new byte[0]));
+
+        captureAddedRequest().deliverError(error);
+
+        verify(mockRequestQueue, never()).addDelayedRequest(any(Request.class), anyInt());
+        verify(mockListener).onErrorResponse(error);
+        verify(mockJournal).remove(URL);
+    }
+
+    @Test
+    public void constructor_shouldReplayJournalEntries() {
+        final MoPubRequestQueue requestQueue = mock(MoPubRequestQueue.class);
+        final TrackingJournal journal = mock(TrackingJournal.class);
+        when(journal.open(anyLong())).thenReturn(Arrays.asList(
+                new TrackingJournal.Entry("https://first", Request.Priority.HIGH, 0),
+                new TrackingJournal.Entry("https://second", Request.Priority.LOW, 0)));
+
+        new TrackingDispatcher(context, requestQueue, journal, new Executor() {
+            @Override
+            public void execute(final Runnable runnable) {
+                runnable.run();
+            }
+        });
+
+        final ArgumentCaptor<TrackingRequest> captor =
+                ArgumentCaptor.forClass(TrackingRequest.class);
+        verify(requestQueue, times(2)).add(captor.capture());
+        assertThat(captor.getAllValues().get(0).getUrl()).isEqualTo("https://first");
+        assertThat(captor.getAllValues().get(0).getPriority()).isEqualTo(Request.Priority.HIGH);
+        assertThat(captor.getAllValues().get(1).getUrl()).isEqualTo("https://second");
+        assertThat(captor.getAllValues().get(1).getPriority()).isEqualTo(Request.Priority.LOW);
+    }
+
+    private TrackingRequest captureAddedRequest() {
+        final ArgumentCaptor<TrackingRequest> captor =
+                ArgumentCaptor.forClass(TrackingRequest.class);
+        verify(mockRequestQueue).add(captor.capture());
+        return captor.getValue();
+    }
+}
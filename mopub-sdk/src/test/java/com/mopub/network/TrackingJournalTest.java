@@ -0,0 +1,163 @@
+// Copyright 2018-2019 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// http://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.app.Activity;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.Request;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class TrackingJournalTest {
+    private static final long NOW_MS = 1546300800000L;
+
+    private File directory;
+    private TrackingJournal subject;
+
+    @Before
+    public void setUp() {
+        directory = Robolectric.buildActivity(Activity.class).create().get().getCacheDir();
+        subject = new TrackingJournal(directory);
+    }
+
+    @After
+    public void tearDown() {
+        subject.close();
+        new File(directory, TrackingJournal.JOURNAL_FILE_NAME).delete();
+    }
+
+    @Test
+    public void open_withNoJournal_shouldReturnNoEntries() {
+        assertThat(subject.open(NOW_MS)).isEmpty();
+        assertThat(new File(directory, TrackingJournal.JOURNAL_FILE_NAME).exists()).isTrue();
+    }
+
+    @Test
+    public void add_thenReopen_shouldReturnEntriesInOrder() {
+        subject.open(NOW_MS);
+        subject.add(new TrackingJournal.Entry("https://impression", Request.Priority.HIGH, NOW_MS));
+        subject.add(new TrackingJournal.Entry("https://progress?a=b c", Request.Priority.LOW,
+                NOW_MS + 1));
+        subject.close();
+
+        final List<TrackingJournal.Entry> entries =
+                new TrackingJournal(directory).open(NOW_MS + 2);
+
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).mUrl).isEqualTo("https://impression");
+        assertThat(entries.get(0).mPriority).isEqualTo(Request.Priority.HIGH);
+        assertThat(entries.get(0).mCreatedMs).isEqualTo(NOW_MS);
+        assertThat(entries.get(1).mUrl).isEqualTo("https://progress?a=b c");
+        assertThat(entries.get(1).mPriority).isEqualTo(Request.Priority.LOW);
+    }
+
+    @Test
+    public void remove_thenReopen_shouldNotReturnRemovedEntry() {
+        subject.open(NOW_MS);
+        subject.add(new TrackingJournal.Entry("https://first", Request.Priority.NORMAL, NOW_MS));
+        subject.add(new TrackingJournal.Entry("https://second", Request.Priority.NORMAL, NOW_MS));
+        subject.remove("https://first");
+        subject.close();
+
+        final List<TrackingJournal.Entry> entries = new TrackingJournal(directory).open(NOW_MS);
+
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).mUrl).isEqualTo("https://second");
+    }
+
+    @Test
+    public void open_shouldDropExpiredEntries() {
+        subject.open(NOW_MS);
+        subject.add(new TrackingJournal.Entry("https://old", Request.Priority.NORMAL, NOW_MS));
+        subject.close();
+
+        final List<TrackingJournal.Entry> entries = new TrackingJournal(directory)
+                .open(NOW_MS + TrackingJournal.MAX_AGE_MS + 1);
+
+        assertThat(entries).isEmpty();
+    }
+
+    @Test
+    public void open_withUnterminatedLastLine_shouldIgnoreIt() throws Exception {
+        writeJournal(TrackingJournal.MAGIC + "\n" + TrackingJournal.VERSION + "\n\n"
+                + "ADD HIGH " + NOW_MS + " https://complete\n"
+                + "ADD HIGH " + NOW_MS + " https://trunc");
+
+        final List<TrackingJournal.Entry> entries = subject.open(NOW_MS);
+
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).mUrl).isEqualTo("https://complete");
+    }
+
+    @Test
+    public void open_withMalformedLines_shouldSkipThem() throws Exception {
+        writeJournal(TrackingJournal.MAGIC + "\n" + TrackingJournal.VERSION + "\n\n"
+                + "ADD URGENT " + NOW_MS + " https://badPriority\n"
+                + "ADD HIGH notANumber https://badTime\n"
+                + "GARBAGE\n"
+                + "ADD LOW " + NOW_MS + " https://good\n");
+
+        final List<TrackingJournal.Entry> entries = subject.open(NOW_MS);
+
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).mUrl).isEqualTo("https://good");
+    }
+
+    @Test
+    public void open_withBadHeader_shouldDiscardJournal() throws Exception {
+        writeJournal("someOtherFormat\n1\n\nADD HIGH " + NOW_MS + " https://url\n");
+
+        assertThat(subject.open(NOW_MS)).isEmpty();
+    }
+
+    @Test
+    public void add_whenFull_shouldNotRecordEntry() {
+        subject.open(NOW_MS);
+        for (int i = 0; i < TrackingJournal.MAX_ENTRIES + 1; i++) {
+            subject.add(new TrackingJournal.Entry("https://url" + i, Request.Priority.NORMAL,
+                    NOW_MS));
+        }
+        subject.close();
+
+        assertThat(new TrackingJournal(directory).open(NOW_MS))
+                .hasSize(TrackingJournal.MAX_ENTRIES);
+    }
+
+    @Test
+    public void add_withLineBreakInUrl_shouldNotRecordEntry() {
+        subject.open(NOW_MS);
+        subject.add(new TrackingJournal.Entry("https://url\nADD HIGH 0 https://injected",
+                Request.Priority.NORMAL, NOW_MS));
+        subject.close();
+
+        assertThat(new TrackingJournal(directory).open(NOW_MS)).isEmpty();
+    }
+
+    @Test
+    public void add_beforeOpen_shouldDoNothing() {
+        subject.add(new TrackingJournal.Entry("https://url", Request.Priority.NORMAL, NOW_MS));
+
+        assertThat(new File(directory, TrackingJournal.JOURNAL_FILE_NAME).exists()).isFalse();
+    }
+
+    private void writeJournal(final String contents) throws Exception {
+        final FileOutputStream outputStream =
+                new FileOutputStream(new File(directory, TrackingJournal.JOURNAL_FILE_NAME));
+        outputStream.write(contents.getBytes("UTF-8"));
+        outputStream.close();
+    }
+}
@@ -10,19 +10,23 @@ import android.content.Context;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.mobileads.VastErrorCode;
 import com.mopub.mobileads.VastTracker;
+import com.mopub.volley.Request;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.robolectric.Robolectric;
 
 import java.util.Arrays;
 
 import static com.mopub.common.VolleyRequestMatcher.isUrl;
+import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -49,6 +53,25 @@ public class TrackingRequestTest {
         verify(mockRequestQueue).add(any(TrackingRequest.class));
     }
 
+    @Test
+    public void makeTrackingHttpRequestWithPriority_shouldSetRequestPriority() throws Exception {
+        TrackingRequest.makeTrackingHttpRequestWithPriority(Arrays.asList(url), context,
+                Request.Priority.HIGH);
+
+        final ArgumentCaptor<TrackingRequest> captor =
+                ArgumentCaptor.forClass(TrackingRequest.class);
+        verify(mockRequestQueue).add(captor.capture());
+        assertThat(captor.getValue().getPriority()).isEqualTo(Request.Priority.HIGH);
+    }
+
+    @Test
+    public void makeTrackingHttpRequest_withSameUrlPending_shouldMakeSingleTrackingHttpRequest() throws Exception {
+        TrackingRequest.makeTrackingHttpRequest(url, context);
+        TrackingRequest.makeTrackingHttpRequest(url, context);
+
+        verify(mockRequestQueue).add(any(TrackingRequest.class));
+    }
+
     @Test
     public void makeTrackingHttpRequest_withNullUrl_shouldNotMakeTrackingHttpRequest() throws Exception {
         TrackingRequest.makeTrackingHttpRequest((String) null, context);
@@ -88,6 +111,19 @@ public class TrackingRequestTest {
         verifyNoMoreInteractions(mockRequestQueue);
     }
 
+    @Test
+    public void makeVastTrackingHttpRequest_withRepeatableTracker_withEarlierFiringPending_shouldMakeTwoRequests() throws Exception {
+        VastTracker vastTracker = new VastTracker("uri?contentplayhead=[CONTENTPLAYHEAD]", true);
+
+        TrackingRequest.makeVastTrackingHttpRequest(Arrays.asList(vastTracker), null, 123,
+                null, context);
+        TrackingRequest.makeVastTrackingHttpRequest(Arrays.asList(vastTracker), null, 123,
+                null, context);
+
+        verify(mockRequestQueue, times(2)).add(argThat(isUrl(
+                "uri?contentplayhead=00:00:00.123")));
+    }
+
     @Test
     public void makeVastTrackingHttpRequest_withRepeatableRequest_shouldMakeMultipleTrackingRequests() throws Exception {
         VastTracker vastTracker = new VastTracker("uri?errorcode=[ERRORCODE]&contentplayhead=[CONTENTPLAYHEAD]&asseturi=[ASSETURI]");